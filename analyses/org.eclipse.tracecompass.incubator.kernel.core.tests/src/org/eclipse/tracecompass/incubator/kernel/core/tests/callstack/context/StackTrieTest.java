@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.callstack.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.ICallStackSymbol;
+import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackGroupDescriptor;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.callstack.context.ContextCallStackAnalysis;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.callstack.context.StackTrie;
+import org.junit.Test;
+
+/**
+ * Test the {@link StackTrie} class
+ *
+ * @author agent
+ */
+public class StackTrieTest {
+
+    /**
+     * Test that the common prefixes of the stacks are interned once
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testIntern() throws IOException {
+        StackTrie trie = new StackTrie();
+        assertEquals(StackTrie.ROOT, trie.intern(new long[0]));
+
+        // The top of the stack is at position 0
+        int node = trie.intern(new long[] { 3, 2, 1 });
+        assertEquals(4, trie.size());
+        assertEquals(3, trie.getSymbol(node));
+        int parent = trie.getParent(node);
+        assertEquals(2, trie.getSymbol(parent));
+        assertEquals(StackTrie.ROOT, trie.getParent(trie.getParent(parent)));
+
+        // A stack sharing its bottom adds only its top
+        int other = trie.intern(new long[] { 4, 2, 1 });
+        assertEquals(5, trie.size());
+        assertEquals(parent, trie.getParent(other));
+        assertEquals(node, trie.intern(new long[] { 3, 2, 1 }));
+        assertEquals(parent, trie.intern(new long[] { 2, 1 }));
+
+        // Write and read back the trie
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            trie.write(out);
+        }
+        StackTrie read = StackTrie.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(trie.size(), read.size());
+        assertEquals(node, read.intern(new long[] { 3, 2, 1 }));
+        assertEquals(other, read.intern(new long[] { 4, 2, 1 }));
+    }
+
+    /**
+     * Test that the call graph read from the trie has the same callsites and
+     * weights as the call graph aggregating each sampled stack
+     */
+    @Test
+    public void testCallGraph() {
+        ContextCallStackAnalysis analysis = new ContextCallStackAnalysis();
+        try {
+            CallStackGroupDescriptor threadDescriptor = new CallStackGroupDescriptor("Thread", null, false);
+            CallStackGroupDescriptor processDescriptor = new CallStackGroupDescriptor("Process", threadDescriptor, false);
+            ICallStackElement process = new CallStackElement("1", processDescriptor, threadDescriptor, null);
+            ICallStackElement[] threads = { new CallStackElement("2", threadDescriptor, null, process), new CallStackElement("3", threadDescriptor, null, process) };
+
+            StackTrie trie = new StackTrie();
+            Map<ICallStackElement, int[]> counts = new HashMap<>();
+            Map<ICallStackElement, long[]> firstTimes = new HashMap<>();
+            CallGraph expected = new CallGraph();
+            Random random = new Random(42);
+            for (int ts = 0; ts < 5000; ts++) {
+                ICallStackElement thread = threads[random.nextInt(threads.length)];
+                // Deep stacks over few symbols, so they share their prefixes
+                long[] stack = new long[1 + random.nextInt(8)];
+                for (int i = 0; i < stack.length; i++) {
+                    stack[i] = random.nextInt(4);
+                }
+                expected.addAggregatedCallSite(thread, analysis.getCallSite(thread, stack, ts));
+
+                int node = trie.intern(stack);
+                int[] threadCounts = counts.computeIfAbsent(thread, t -> new int[16]);
+                long[] threadTimes = firstTimes.computeIfAbsent(thread, t -> new long[16]);
+                if (node >= threadCounts.length) {
+                    threadCounts = Arrays.copyOf(threadCounts, node * 2);
+                    threadTimes = Arrays.copyOf(threadTimes, node * 2);
+                    counts.put(thread, threadCounts);
+                    firstTimes.put(thread, threadTimes);
+                }
+                if (threadCounts[node]++ == 0) {
+                    threadTimes[node] = ts;
+                }
+            }
+
+            CallGraph callGraph = new CallGraph();
+            for (ICallStackElement thread : threads) {
+                trie.addToCallGraph(callGraph, analysis, thread, counts.get(thread), firstTimes.get(thread));
+            }
+            long total = 0;
+            for (ICallStackElement thread : threads) {
+                Collection<AggregatedCallSite> callsites = callGraph.getCallingContextTree(thread);
+                assertCallSitesEqual(expected.getCallingContextTree(thread), callsites);
+                for (AggregatedCallSite callsite : callsites) {
+                    total += callsite.getWeight();
+                }
+            }
+            // Each sample is counted once at the bottom of its stack
+            assertEquals(5000, total);
+        } finally {
+            analysis.dispose();
+        }
+    }
+
+    private static void assertCallSitesEqual(Collection<AggregatedCallSite> expected, Collection<AggregatedCallSite> actual) {
+        assertEquals(expected.size(), actual.size());
+        Map<ICallStackSymbol, AggregatedCallSite> actualSites = new HashMap<>();
+        for (AggregatedCallSite callsite : actual) {
+            actualSites.put(callsite.getObject(), callsite);
+        }
+        for (AggregatedCallSite callsite : expected) {
+            AggregatedCallSite actualSite = actualSites.get(callsite.getObject());
+            assertNotNull(actualSite);
+            assertEquals(callsite.getWeight(), actualSite.getWeight());
+            assertCallSitesEqual(callsite.getCallees(), actualSite.getCallees());
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.criticalpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.tracecompass.analysis.os.linux.core.tests.stubs.trace.TmfXmlKernelTraceStub;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeSet;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.criticalpath.CriticalPathAggregatedModule;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.criticalpath.CriticalPathBatchWeighted;
+import org.eclipse.tracecompass.incubator.kernel.core.tests.ActivatorTest;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the batch computation of the {@link CriticalPathAggregatedModule}
+ *
+ * @author agent
+ */
+public class CriticalPathAggregatedModuleTest {
+
+    private static final String TRACE_FILE = "testfiles/traces/criticalPath.xml";
+
+    private TmfXmlKernelTraceStub fTrace;
+    private CriticalPathAggregatedModule fModule;
+
+    /**
+     * Open the trace and create the analysis
+     *
+     * @throws TmfTraceException
+     *             Exception thrown by the trace
+     */
+    @Before
+    public void setUp() throws TmfTraceException {
+        TmfXmlKernelTraceStub trace = new TmfXmlKernelTraceStub();
+        IPath filePath = ActivatorTest.getAbsoluteFilePath(TRACE_FILE);
+        IStatus status = trace.validate(null, filePath.toOSString());
+        if (!status.isOK()) {
+            fail(status.getException().getMessage());
+        }
+        trace.initTrace(null, filePath.toOSString(), TmfEvent.class);
+        trace.traceOpened(new TmfTraceOpenedSignal(this, trace, null));
+        fTrace = trace;
+
+        CriticalPathAggregatedModule module = new CriticalPathAggregatedModule();
+        assertTrue(module.setTrace(trace));
+        fModule = module;
+    }
+
+    /**
+     * Dispose the analysis, the trace and the saved batches
+     */
+    @After
+    public void tearDown() {
+        CriticalPathAggregatedModule module = fModule;
+        if (module != null) {
+            module.dispose();
+        }
+        TmfXmlKernelTraceStub trace = fTrace;
+        if (trace != null) {
+            TmfTraceManager.deleteSupplementaryFiles(trace);
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test that the critical paths computed in a batch are the same as the
+     * critical paths computed for each thread
+     */
+    @Test
+    public void testBatch() {
+        List<Integer> tids = Arrays.asList(1, 2, 3);
+        Map<String, List<WeightedTree<Object>>> batch = computeBatch(tids);
+        assertEquals(2, batch.size());
+        for (List<WeightedTree<Object>> trees : batch.values()) {
+            assertEquals(tids.size(), trees.size());
+        }
+
+        for (int i = 0; i < tids.size(); i++) {
+            Map<String, List<WeightedTree<Object>>> single = computeBatch(Collections.singletonList(tids.get(i)));
+            assertEquals(batch.keySet(), single.keySet());
+            for (Map.Entry<String, List<WeightedTree<Object>>> entry : single.entrySet()) {
+                assertEquals(1, entry.getValue().size());
+                assertTreeEquals(entry.getValue().get(0), batch.get(entry.getKey()).get(i));
+            }
+        }
+
+        // The batch saved in the supplementary files is read back the same
+        Map<String, List<WeightedTree<Object>>> saved = computeBatch(tids);
+        for (Map.Entry<String, List<WeightedTree<Object>>> entry : saved.entrySet()) {
+            List<WeightedTree<Object>> trees = batch.get(entry.getKey());
+            assertNotNull(trees);
+            for (int i = 0; i < trees.size(); i++) {
+                assertTreeEquals(trees.get(i), entry.getValue().get(i));
+            }
+        }
+    }
+
+    private Map<String, List<WeightedTree<Object>>> computeBatch(List<Integer> tids) {
+        CriticalPathAggregatedModule module = fModule;
+        module.setParameter(CriticalPathAggregatedModule.PARAM_TIDS, tids);
+        assertTrue(module.waitForCompletion());
+        IWeightedTreeSet<Object, String, WeightedTree<Object>> treeSet = module.getTreeSet();
+        assertTrue(treeSet instanceof CriticalPathBatchWeighted);
+        Map<String, List<WeightedTree<Object>>> trees = new HashMap<>();
+        for (String element : treeSet.getElements()) {
+            trees.put(element, new ArrayList<>(treeSet.getTreesFor(element)));
+        }
+        return trees;
+    }
+
+    private static void assertTreeEquals(WeightedTree<Object> expected, WeightedTree<Object> actual) {
+        assertEquals(expected.getObject(), actual.getObject());
+        assertEquals(expected.getWeight(), actual.getWeight());
+        Collection<WeightedTree<Object>> expectedChildren = expected.getChildren();
+        Collection<WeightedTree<Object>> actualChildren = actual.getChildren();
+        assertEquals(expectedChildren.size(), actualChildren.size());
+        Map<Object, WeightedTree<Object>> actualByObject = new HashMap<>();
+        for (WeightedTree<Object> child : actualChildren) {
+            actualByObject.put(child.getObject(), child);
+        }
+        for (WeightedTree<Object> child : expectedChildren) {
+            WeightedTree<Object> actualChild = actualByObject.get(child.getObject());
+            assertNotNull(actualChild);
+            assertTreeEquals(child, actualChild);
+        }
+    }
+
+}
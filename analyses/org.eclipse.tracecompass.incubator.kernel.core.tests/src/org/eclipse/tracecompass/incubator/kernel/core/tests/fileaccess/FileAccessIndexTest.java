@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.fileaccess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessIndex;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessIndex.FileNode;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessIndex.Node;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.FileDescriptorStateProvider;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.junit.Test;
+
+/**
+ * Test the {@link FileAccessIndex} class
+ *
+ * @author agent
+ */
+public class FileAccessIndexTest {
+
+    private static final String FILE_A = "/tmp/a";
+    private static final String FILE_B = "/tmp/b";
+
+    /**
+     * Test the files accessed in time ranges, and that updating the index
+     * again does not add nodes
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testGetFiles() throws StateSystemDisposedException {
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("Test", 0L);
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        int resourcesQuark = ssb.getQuarkAbsoluteAndAdd(FileDescriptorStateProvider.RESOURCES);
+
+        // File a is opened by thread 10 between 10 and 40
+        int fileA = ssb.getQuarkRelativeAndAdd(resourcesQuark, FILE_A);
+        int threadA = ssb.getQuarkRelativeAndAdd(fileA, "10");
+        ssb.modifyAttribute(10L, 1, fileA);
+        ssb.modifyAttribute(10L, 3L, threadA);
+        ssb.modifyAttribute(40L, (Object) null, fileA);
+        ssb.modifyAttribute(40L, (Object) null, threadA);
+
+        // File b is opened by thread 11 between 60 and 80, it has an attribute that is not a thread
+        int fileB = ssb.getQuarkRelativeAndAdd(resourcesQuark, FILE_B);
+        int threadB = ssb.getQuarkRelativeAndAdd(fileB, "11");
+        int notThread = ssb.getQuarkRelativeAndAdd(fileB, "other");
+        ssb.modifyAttribute(60L, 4L, threadB);
+        ssb.modifyAttribute(60L, 1, notThread);
+        ssb.modifyAttribute(80L, (Object) null, threadB);
+        ssb.closeHistory(100L);
+
+        FileAccessIndex index = new FileAccessIndex();
+        index.update(ssb, resourcesQuark);
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(0, 100)));
+        assertEquals(Arrays.asList(FILE_A), names(index.getFiles(20, 30)));
+        assertEquals(Arrays.asList(FILE_B), names(index.getFiles(70, 90)));
+        assertTrue(index.getFiles(45, 55).isEmpty());
+        assertTrue(index.getFiles(85, 100).isEmpty());
+
+        // Only the attributes with integer names are threads
+        FileNode file = index.getFiles(70, 90).get(0);
+        assertEquals(2, file.getNbChildren());
+        List<Node> threads = file.getThreads();
+        assertEquals(1, threads.size());
+        assertEquals("11", threads.get(0).getName());
+        assertEquals(threadB, threads.get(0).getQuark());
+
+        // Updating again does not duplicate the nodes
+        index.update(ssb, resourcesQuark);
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(1, index.getFiles(70, 90).get(0).getThreads().size());
+        ssb.dispose();
+    }
+
+    /**
+     * Test updating the index while the state system is built, with files
+     * first accessed in a different order than they were created and threads
+     * added to files that were already indexed
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testIncrementalUpdate() throws StateSystemDisposedException {
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("Test", 0L);
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        int resourcesQuark = ssb.getQuarkAbsoluteAndAdd(FileDescriptorStateProvider.RESOURCES);
+
+        // File a is created first, but only accessed after file b
+        int fileA = ssb.getQuarkRelativeAndAdd(resourcesQuark, FILE_A);
+        int fileB = ssb.getQuarkRelativeAndAdd(resourcesQuark, FILE_B);
+        int threadB = ssb.getQuarkRelativeAndAdd(fileB, "11");
+        ssb.modifyAttribute(10L, 4L, threadB);
+        ssb.modifyAttribute(20L, (Object) null, threadB);
+
+        FileAccessIndex index = new FileAccessIndex();
+        index.update(ssb, resourcesQuark);
+        // File a was not accessed yet, it is always returned
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(0, 100)));
+        assertEquals(Arrays.asList(FILE_A), names(index.getFiles(25, 30)));
+
+        int threadA = ssb.getQuarkRelativeAndAdd(fileA, "10");
+        ssb.modifyAttribute(30L, 3L, threadA);
+        ssb.modifyAttribute(40L, (Object) null, threadA);
+        // A second thread accesses file b after the first update
+        int threadB2 = ssb.getQuarkRelativeAndAdd(fileB, "12");
+        ssb.modifyAttribute(50L, 5L, threadB2);
+        ssb.modifyAttribute(60L, (Object) null, threadB2);
+        ssb.closeHistory(100L);
+
+        index.update(ssb, resourcesQuark);
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(0, 100)));
+        assertEquals(Arrays.asList(FILE_B), names(index.getFiles(5, 15)));
+        // The access of file b spans the accesses of both its threads
+        assertEquals(Arrays.asList(FILE_A, FILE_B), names(index.getFiles(25, 35)));
+        assertEquals(Arrays.asList(FILE_B), names(index.getFiles(45, 55)));
+        assertTrue(index.getFiles(65, 100).isEmpty());
+
+        FileNode file = index.getFiles(45, 55).get(0);
+        assertEquals(2, file.getNbChildren());
+        List<Node> threads = file.getThreads();
+        assertEquals(2, threads.size());
+        assertTrue(threads.get(0).isAccessed(5, 15));
+        assertFalse(threads.get(0).isAccessed(45, 55));
+        assertTrue(threads.get(1).isAccessed(45, 55));
+        ssb.dispose();
+    }
+
+    private static List<String> names(List<FileNode> files) {
+        List<String> names = new ArrayList<>();
+        for (FileNode file : files) {
+            names.add(file.getName());
+        }
+        return names;
+    }
+
+}
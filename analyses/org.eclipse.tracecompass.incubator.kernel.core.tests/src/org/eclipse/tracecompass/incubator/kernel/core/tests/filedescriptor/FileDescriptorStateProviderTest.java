@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.filedescriptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.os.linux.core.tests.stubs.trace.TmfXmlKernelTraceStub;
+import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelTrace;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessAnalysis;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessStateProvider;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.FileDescriptorStateProvider;
+import org.eclipse.tracecompass.incubator.kernel.core.tests.ActivatorTest;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
+import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link FileDescriptorStateProvider} class, through the file access
+ * analysis
+ *
+ * @author agent
+ */
+public class FileDescriptorStateProviderTest {
+
+    private static final String TRACE_FILE = "testfiles/traces/fileDescriptors.xml";
+
+    private TmfXmlKernelTraceStub fTrace;
+    private TestFileAccessAnalysis fModule;
+
+    /**
+     * File access analysis keeping its state provider, to look at its cache
+     */
+    private static class TestFileAccessAnalysis extends FileAccessAnalysis {
+        private @Nullable FileDescriptorStateProvider fProvider = null;
+
+        @Override
+        protected @NonNull ITmfStateProvider createStateProvider() {
+            FileDescriptorStateProvider provider = new FileAccessStateProvider((IKernelTrace) getTrace());
+            fProvider = provider;
+            return provider;
+        }
+    }
+
+    /**
+     * Open the trace and run the analysis
+     *
+     * @throws TmfTraceException
+     *             Exception thrown by the trace
+     * @throws TmfAnalysisException
+     *             Exception thrown by the analysis
+     */
+    @Before
+    public void setUp() throws TmfTraceException, TmfAnalysisException {
+        TmfXmlKernelTraceStub trace = new TmfXmlKernelTraceStub();
+        IPath filePath = ActivatorTest.getAbsoluteFilePath(TRACE_FILE);
+        IStatus status = trace.validate(null, filePath.toOSString());
+        if (!status.isOK()) {
+            fail(status.getException().getMessage());
+        }
+        trace.initTrace(null, filePath.toOSString(), TmfEvent.class);
+        trace.traceOpened(new TmfTraceOpenedSignal(this, trace, null));
+        fTrace = trace;
+
+        TestFileAccessAnalysis module = new TestFileAccessAnalysis();
+        assertTrue(module.setTrace(trace));
+        module.schedule();
+        assertTrue(module.waitForCompletion());
+        fModule = module;
+    }
+
+    /**
+     * Dispose the analysis and the trace
+     */
+    @After
+    public void tearDown() {
+        TestFileAccessAnalysis module = fModule;
+        if (module != null) {
+            module.dispose();
+        }
+        TmfXmlKernelTraceStub trace = fTrace;
+        if (trace != null) {
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test the reads and writes of file descriptors, when a file descriptor is
+     * closed and reopened on another file, and when the thread is freed
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testFileDescriptors() throws StateSystemDisposedException {
+        ITmfStateSystem ss = fModule.getStateSystem();
+        assertNotNull(ss);
+        long end = ss.getCurrentEndTime();
+
+        // The reads and writes of the first file
+        assertEquals(100L, query(ss, end, FileDescriptorStateProvider.RESOURCES, "/tmp/a", "10", FileDescriptorStateProvider.READ));
+        assertEquals(50L, query(ss, end, FileDescriptorStateProvider.RESOURCES, "/tmp/a", "10", FileDescriptorStateProvider.WRITE));
+
+        // The file descriptor was closed, then reopened on another file
+        assertNull(query(ss, 45, FileDescriptorStateProvider.TID, "10", "3"));
+        assertEquals("/tmp/b", query(ss, end, FileDescriptorStateProvider.TID, "10", "3"));
+        assertEquals(10L, query(ss, end, FileDescriptorStateProvider.RESOURCES, "/tmp/b", "10", FileDescriptorStateProvider.READ));
+        // The file descriptor counts all its reads
+        assertEquals(110L, query(ss, end, FileDescriptorStateProvider.TID, "10", "3", FileDescriptorStateProvider.READ));
+
+        // The thread was freed with a pending read, the thread with a new file
+        assertEquals(20L, query(ss, end, FileDescriptorStateProvider.TID, "11", "4", FileDescriptorStateProvider.READ));
+
+        // Only the thread that was not freed is still cached
+        FileDescriptorStateProvider provider = fModule.fProvider;
+        assertNotNull(provider);
+        assertEquals(1, provider.getCachedThreadCount());
+    }
+
+    private static @Nullable Object query(ITmfStateSystem ss, long time, String... path) throws StateSystemDisposedException {
+        int quark = ss.optQuarkAbsolute(path);
+        assertTrue(quark != ITmfStateSystem.INVALID_ATTRIBUTE);
+        return ss.querySingleState(time, quark).getValue();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.filedescriptor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.TidLongMap;
+import org.junit.Test;
+
+/**
+ * Test the {@link TidLongMap} class
+ *
+ * @author agent
+ */
+public class TidLongMapTest {
+
+    /**
+     * Test putting, getting and removing values
+     */
+    @Test
+    public void testPutRemove() {
+        TidLongMap map = new TidLongMap();
+        assertEquals(TidLongMap.NO_VALUE, map.get(1));
+        assertEquals(TidLongMap.NO_VALUE, map.remove(1));
+
+        map.put(1, 3L);
+        map.put(0, 4L);
+        map.put(-1, 5L);
+        assertEquals(3, map.size());
+        assertEquals(3L, map.get(1));
+        assertEquals(4L, map.get(0));
+        assertEquals(5L, map.get(-1));
+
+        // Replace a value
+        map.put(1, 6L);
+        assertEquals(3, map.size());
+        assertEquals(6L, map.remove(1));
+        assertEquals(TidLongMap.NO_VALUE, map.get(1));
+        assertEquals(2, map.size());
+    }
+
+    /**
+     * Compare the map with a {@link HashMap} over many random operations, so
+     * the map is rehashed and entries are removed from the middle of clusters
+     */
+    @Test
+    public void testRandomOperations() {
+        TidLongMap map = new TidLongMap();
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(12345);
+        for (int i = 0; i < 100000; i++) {
+            // Thread IDs are clustered, with a few large ones
+            int tid = random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(2000);
+            if (random.nextBoolean()) {
+                long value = random.nextLong();
+                map.put(tid, value);
+                expected.put(tid, value);
+            } else {
+                Long value = expected.remove(tid);
+                assertEquals(value == null ? TidLongMap.NO_VALUE : value, map.remove(tid));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+            assertEquals((long) entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+}
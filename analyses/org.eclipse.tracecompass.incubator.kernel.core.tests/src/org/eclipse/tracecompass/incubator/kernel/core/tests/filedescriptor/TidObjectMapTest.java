@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.kernel.core.tests.filedescriptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.TidObjectMap;
+import org.junit.Test;
+
+/**
+ * Test the {@link TidObjectMap} class
+ *
+ * @author agent
+ */
+public class TidObjectMapTest {
+
+    /**
+     * Test putting, getting and removing values
+     */
+    @Test
+    public void testPutRemove() {
+        TidObjectMap<String> map = new TidObjectMap<>();
+        assertNull(map.get(1));
+        assertNull(map.remove(1));
+
+        map.put(1, "a");
+        map.put(0, "b");
+        assertEquals(2, map.size());
+        assertEquals("a", map.get(1));
+        assertEquals("b", map.get(0));
+
+        // Replace a value
+        map.put(1, "c");
+        assertEquals(2, map.size());
+        assertEquals("c", map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Compare the map with a {@link HashMap} over many random operations, so
+     * the map is rehashed and entries are removed from the middle of clusters
+     */
+    @Test
+    public void testRandomOperations() {
+        TidObjectMap<Integer> map = new TidObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(12345);
+        for (int i = 0; i < 100000; i++) {
+            int tid = random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Integer value = random.nextInt();
+                map.put(tid, value);
+                expected.put(tid, value);
+            } else {
+                assertEquals(expected.remove(tid), map.remove(tid));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+}
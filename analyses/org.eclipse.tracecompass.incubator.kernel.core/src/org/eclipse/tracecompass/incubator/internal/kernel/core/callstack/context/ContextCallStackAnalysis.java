@@ -11,15 +11,26 @@
 
 package org.eclipse.tracecompass.incubator.internal.kernel.core.callstack.context;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.event.aspect.LinuxPidAspect;
@@ -29,10 +40,18 @@ import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedT
 import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackElement;
 import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackGroupDescriptor;
 import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
 import org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph.ProfilingCallGraphAnalysisModule;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.Activator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import org.eclipse.tracecompass.tmf.core.util.Pair;
 
@@ -51,17 +70,84 @@ public class ContextCallStackAnalysis extends ProfilingCallGraphAnalysisModule {
      */
     public static final String ID = "org.eclipse.tracecompass.incubator.kernel.core.callstack.core.context"; //$NON-NLS-1$
 
-    private static final long UNDEFINED_SYMBOL = -1L;
-
     private static final String KERNEL_CALLSTACK_FIELD = "context._callstack_kernel"; //$NON-NLS-1$
     private static final String USER_CALLSTACK_FIELD = "context._callstack_user"; //$NON-NLS-1$
     private static final String KERNEL_STACK_NAME = "kernel"; //$NON-NLS-1$
     private static final String USER_STACK_NAME = "user"; //$NON-NLS-1$
 
+    private static final String TRIE_FILE_SUFFIX = ".trie"; //$NON-NLS-1$
+    private static final int TRIE_FILE_VERSION = 2;
+    private static final int INITIAL_NODE_COUNT = 64;
+
     private final CallStackGroupDescriptor fEventDescriptor;
     private final CallStackGroupDescriptor fProcessDescriptor;
     private final CallStackGroupDescriptor fThreadDescriptor;
 
+    private @Nullable ITmfEventRequest fTrieRequest = null;
+    /* The call graph of the full analysis, read from the stack trie */
+    private volatile @Nullable CallGraph fTrieCallGraph = null;
+
+    /**
+     * The samples of an element, counted on the nodes of the stack trie
+     */
+    private static final class ElementSamples {
+        private final ICallStackElement fElement;
+        private int[] fCounts;
+        private long[] fFirstTimes;
+
+        public ElementSamples(ICallStackElement element, int[] counts, long[] firstTimes) {
+            fElement = element;
+            fCounts = counts;
+            fFirstTimes = firstTimes;
+        }
+
+        public void add(int node, long ts) {
+            if (node >= fCounts.length) {
+                int length = Math.max(fCounts.length, INITIAL_NODE_COUNT);
+                while (length <= node) {
+                    length *= 2;
+                }
+                fCounts = Arrays.copyOf(fCounts, length);
+                fFirstTimes = Arrays.copyOf(fFirstTimes, length);
+            }
+            if (fCounts[node]++ == 0) {
+                fFirstTimes[node] = ts;
+            }
+        }
+    }
+
+    /**
+     * Request interning the sampled stacks of the trace in a trie. The trie
+     * and the samples are only accessed by the request thread until the
+     * request is completed.
+     */
+    private class StackTrieRequest extends TmfEventRequest {
+        private final ITmfTrace fTrace;
+        private final Collection<ITmfTrace> fTraces;
+        private final StackTrie fTrie = new StackTrie();
+        private final Map<ICallStackElement, ElementSamples> fSamples = new LinkedHashMap<>();
+
+        public StackTrieRequest(ITmfTrace trace) {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ITmfEventRequest.ExecutionType.BACKGROUND);
+            fTrace = trace;
+            fTraces = TmfTraceManager.getTraceSet(trace);
+        }
+
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            if (event.getTrace() != fTrace && !fTraces.contains(event.getTrace())) {
+                return;
+            }
+            Pair<ICallStackElement, long[]> sample = getSampledStack(event);
+            if (sample == null) {
+                return;
+            }
+            ElementSamples samples = fSamples.computeIfAbsent(sample.getFirst(), element -> new ElementSamples(element, new int[INITIAL_NODE_COUNT], new long[INITIAL_NODE_COUNT]));
+            samples.add(fTrie.intern(sample.getSecond()), event.getTimestamp().getValue());
+        }
+    }
+
     /**
      * Constructor
      */
@@ -74,50 +160,194 @@ public class ContextCallStackAnalysis extends ProfilingCallGraphAnalysisModule {
 
     @Override
     protected @Nullable Pair<ICallStackElement, AggregatedCallSite> getProfiledStackTrace(@NonNull ITmfEvent event) {
-        Map<String, Collection<Object>> callStack = getCallStack(event);
-        if (callStack.isEmpty()) {
+        Pair<ICallStackElement, long[]> sample = getSampledStack(event);
+        if (sample == null) {
+            return null;
+        }
+        return new Pair<>(sample.getFirst(), getCallSite(sample.getFirst(), sample.getSecond(), event.getTimestamp().getValue()));
+    }
+
+    @Override
+    protected @Nullable Pair<ICallStackElement, long[]> getSampledStack(ITmfEvent event) {
+        ITmfEventField content = event.getContent();
+        ITmfEventField kernelField = content.getField(KERNEL_CALLSTACK_FIELD);
+        ITmfEventField userField = content.getField(USER_CALLSTACK_FIELD);
+        if (kernelField == null && userField == null) {
             return null;
         }
         ICallStackElement element = getElement(event);
 
-        Collection<Object> kernelCs = callStack.get(KERNEL_STACK_NAME);
-        if (kernelCs == null) {
-            kernelCs = Collections.emptyList();
+        long[] kernelCs = getAddresses(kernelField);
+        long[] userCs = getAddresses(userField);
+        long[] stack;
+        if (kernelCs.length + userCs.length == 0) {
+            stack = new long[1];
+            stack[0] = 0;
+        } else {
+            // The stacks in the fields are in reverse order
+            stack = new long[userCs.length + kernelCs.length];
+            int i = 0;
+            for (int j = userCs.length - 1; j >= 0; j--) {
+                stack[i++] = userCs[j];
+            }
+            for (int j = kernelCs.length - 1; j >= 0; j--) {
+                stack[i++] = kernelCs[j];
+            }
+        }
+        return new Pair<>(element, stack);
+    }
+
+    private static long[] getAddresses(@Nullable ITmfEventField field) {
+        if (field == null) {
+            return new long[0];
         }
-        Collection<Object> userCs = callStack.get(USER_STACK_NAME);
-        if (userCs == null) {
-            userCs = Collections.emptyList();
+        Object value = field.getValue();
+        if (!(value instanceof long[])) {
+            return new long[0];
         }
-        if (kernelCs.size() + userCs.size() == 0) {
-            long[] stack = new long[1];
-            stack[0] = 0;
-            return new Pair<>(element, getCallSite(element, stack, event.getTimestamp().getValue()));
+        return (long[]) value;
+    }
+
+    /**
+     * The call graph of the full analysis is read from the stack trie, saved in
+     * the supplementary files of the trace, so the trace is read only once.
+     */
+    @Override
+    protected boolean executeAnalysis(@NonNull IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            throw new NullPointerException("Trace has not been set, yet the analysis is being run!"); //$NON-NLS-1$
+        }
+        fTrieCallGraph = null;
+        CallGraph callGraph = readTrie();
+        if (callGraph != null) {
+            fTrieCallGraph = callGraph;
+            return true;
+        }
+
+        StackTrieRequest request = new StackTrieRequest(trace);
+        fTrieRequest = request;
+        trace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            Activator.getInstance().logError("Request interrupted", e); //$NON-NLS-1$
+            return false;
+        }
+        if (!request.isCompleted() || request.isCancelled()) {
+            return false;
+        }
+        callGraph = new CallGraph();
+        for (ElementSamples samples : request.fSamples.values()) {
+            request.fTrie.addToCallGraph(callGraph, this, samples.fElement, samples.fCounts, samples.fFirstTimes);
+        }
+        writeTrie(request.fTrie, request.fSamples.values());
+        fTrieCallGraph = callGraph;
+        return true;
+    }
+
+    @Override
+    protected void canceling() {
+        ITmfEventRequest request = fTrieRequest;
+        if (request != null && !request.isCompleted()) {
+            request.cancel();
+        }
+        super.canceling();
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        CallGraph callGraph = fTrieCallGraph;
+        if (callGraph == null) {
+            return CallGraph.EMPTY_GRAPH;
+        }
+        return callGraph;
+    }
+
+    private @Nullable File getTrieFile() {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return null;
         }
-        long[] stack = new long[userCs.size() + kernelCs.size()];
-        int i = 0;
-        for (Object call : userCs) {
-            stack[i] = (call instanceof Long) ? (long) call : UNDEFINED_SYMBOL;
-            i++;
+        return new File(TmfTraceManager.getSupplementaryFileDir(trace), getId() + TRIE_FILE_SUFFIX);
+    }
+
+    private void writeTrie(StackTrie trie, Collection<ElementSamples> elementSamples) {
+        File file = getTrieFile();
+        if (file == null) {
+            return;
         }
-        for (Object call : kernelCs) {
-            stack[i] = (call instanceof Long) ? (long) call : UNDEFINED_SYMBOL;
-            i++;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(TRIE_FILE_VERSION);
+            trie.write(out);
+            out.writeInt(elementSamples.size());
+            for (ElementSamples samples : elementSamples) {
+                // The elements are the threads, under their process and event
+                ICallStackElement thread = samples.fElement;
+                ICallStackElement process = Objects.requireNonNull(thread.getParentElement());
+                ICallStackElement eventEl = Objects.requireNonNull(process.getParentElement());
+                out.writeUTF(eventEl.getName());
+                out.writeInt(Integer.parseInt(process.getName()));
+                out.writeInt(Integer.parseInt(thread.getName()));
+                int length = Math.min(samples.fCounts.length, trie.size());
+                out.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    out.writeInt(samples.fCounts[i]);
+                    out.writeLong(samples.fFirstTimes[i]);
+                }
+            }
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Could not save the stack trie to " + file, e); //$NON-NLS-1$
         }
-        return new Pair<>(element, getCallSite(element, stack, event.getTimestamp().getValue()));
+    }
 
+    private @Nullable CallGraph readTrie() {
+        File file = getTrieFile();
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != TRIE_FILE_VERSION) {
+                return null;
+            }
+            StackTrie trie = StackTrie.read(in);
+            int nbElements = in.readInt();
+            CallGraph callGraph = new CallGraph();
+            for (int i = 0; i < nbElements; i++) {
+                ICallStackElement element = getElement(in.readUTF(), in.readInt(), in.readInt());
+                int length = in.readInt();
+                if (length < 0 || length > trie.size()) {
+                    throw new IOException("Invalid number of stack trie nodes: " + length); //$NON-NLS-1$
+                }
+                int[] counts = new int[length];
+                long[] firstTimes = new long[length];
+                for (int j = 0; j < length; j++) {
+                    counts[j] = in.readInt();
+                    firstTimes[j] = in.readLong();
+                }
+                trie.addToCallGraph(callGraph, this, element, counts, firstTimes);
+            }
+            return callGraph;
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Could not read the stack trie from " + file, e); //$NON-NLS-1$
+            return null;
+        }
     }
 
     private ICallStackElement getElement(ITmfEvent event) {
+        Integer threadId = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), LinuxTidAspect.class, event);
+        int tid = (threadId == null) ? -1 : threadId;
+        Integer pId = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), LinuxPidAspect.class, event);
+        int pid = (pId == null) ? -1 : pId.intValue();
+        return getElement(event.getName(), pid, tid);
+    }
+
+    private ICallStackElement getElement(String name, int pid, int tid) {
         // Find a root elements with the same PID
         Collection<ICallStackElement> rootElements = getRootElements();
-        String name = event.getName();
         Optional<ICallStackElement> events = rootElements.stream()
                 .filter(e -> e.getName().equals(String.valueOf(name)))
                 .findFirst();
-        Integer threadId = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), LinuxTidAspect.class, event);
-        int tid = (threadId == null) ? -1 : threadId;
-        Integer pId = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), LinuxPidAspect.class, event);
-        int pid = (pId == null) ? -1 : pId.intValue();
         if (events.isPresent()) {
             ICallStackElement eventEl = events.get();
 
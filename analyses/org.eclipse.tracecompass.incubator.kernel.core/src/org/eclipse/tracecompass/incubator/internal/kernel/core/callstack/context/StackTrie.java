@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.kernel.core.callstack.context;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.ICallGraphProvider;
+import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
+
+/**
+ * An append-only trie of stack traces. Each distinct (parent, symbol) pair is
+ * interned once as a node, so a stack trace is fully identified by the ID of
+ * its top node and common prefixes are shared by all the stacks.
+ *
+ * Nodes are always added after their parent, so a node's ID is always greater
+ * than the ID of its parent. The root of the trie is the node {@link #ROOT}.
+ *
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public class StackTrie {
+
+    /** ID of the root node, the parent of the bottom of all stacks */
+    public static final int ROOT = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int FREE = -1;
+
+    private int[] fParents = new int[INITIAL_CAPACITY];
+    private long[] fSymbols = new long[INITIAL_CAPACITY];
+    private int fSize = 1;
+
+    /* Open addressing index of (parent, symbol) to node ID */
+    private int[] fIndex = newIndex(INITIAL_CAPACITY * 2);
+
+    private static int[] newIndex(int capacity) {
+        int[] index = new int[capacity];
+        Arrays.fill(index, FREE);
+        return index;
+    }
+
+    /**
+     * Get the number of nodes in this trie, including the root
+     *
+     * @return The number of nodes
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Get the parent of a node
+     *
+     * @param node
+     *            The node ID
+     * @return The ID of the parent node
+     */
+    public int getParent(int node) {
+        return fParents[node];
+    }
+
+    /**
+     * Get the symbol of a node
+     *
+     * @param node
+     *            The node ID
+     * @return The symbol
+     */
+    public long getSymbol(int node) {
+        return fSymbols[node];
+    }
+
+    /**
+     * Intern a stack trace. The symbol at position 0 is the top of the stack,
+     * ie the last symbol called.
+     *
+     * @param stack
+     *            The stack trace
+     * @return The ID of the node of the top of the stack, or {@link #ROOT} if
+     *         the stack is empty
+     */
+    public int intern(long[] stack) {
+        int node = ROOT;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            node = intern(node, stack[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Intern a (parent, symbol) pair
+     *
+     * @param parent
+     *            The ID of the parent node
+     * @param symbol
+     *            The symbol
+     * @return The ID of the node for this pair
+     */
+    public int intern(int parent, long symbol) {
+        int[] index = fIndex;
+        int mask = index.length - 1;
+        int slot = hash(parent, symbol) & mask;
+        while (index[slot] != FREE) {
+            int node = index[slot];
+            if (fParents[node] == parent && fSymbols[node] == symbol) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int node = append(parent, symbol);
+        index[slot] = node;
+        if (fSize * 2 > index.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    private int append(int parent, long symbol) {
+        if (fSize == fParents.length) {
+            fParents = Arrays.copyOf(fParents, fSize * 2);
+            fSymbols = Arrays.copyOf(fSymbols, fSize * 2);
+        }
+        int node = fSize++;
+        fParents[node] = parent;
+        fSymbols[node] = symbol;
+        return node;
+    }
+
+    private static int hash(int parent, long symbol) {
+        long h = (symbol ^ (symbol >>> 32)) * 0x9E3779B97F4A7C15L + parent;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    private void rehash() {
+        int[] index = newIndex(fIndex.length * 2);
+        int mask = index.length - 1;
+        for (int node = 1; node < fSize; node++) {
+            int slot = hash(fParents[node], fSymbols[node]) & mask;
+            while (index[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = node;
+        }
+        fIndex = index;
+    }
+
+    /**
+     * Add the samples counted on the nodes of this trie to a call graph. Each
+     * node with samples, or with descendants with samples, is added once as a
+     * callsite whose weight is the number of samples of its node and of all
+     * its descendants, which is what aggregating each sampled stack in the
+     * call graph would give.
+     *
+     * @param callGraph
+     *            The call graph to add the samples to
+     * @param provider
+     *            The call graph provider, to create the callsites
+     * @param element
+     *            The element the samples belong to
+     * @param counts
+     *            The number of samples whose top of stack is each node,
+     *            indexed by node ID. It may be shorter than the trie.
+     * @param firstTimes
+     *            The time of the first sample of each node, indexed by node
+     *            ID, used to resolve the symbols. It has the length of the
+     *            counts.
+     */
+    public void addToCallGraph(CallGraph callGraph, ICallGraphProvider provider, ICallStackElement element, int[] counts, long[] firstTimes) {
+        /* Children have greater IDs than their parent, a single backward pass accumulates the weights */
+        long[] weights = new long[fSize];
+        long[] times = new long[fSize];
+        Arrays.fill(times, Long.MAX_VALUE);
+        for (int node = Math.min(counts.length, fSize) - 1; node > ROOT; node--) {
+            if (counts[node] > 0) {
+                weights[node] += counts[node];
+                times[node] = Math.min(times[node], firstTimes[node]);
+            }
+        }
+        for (int node = fSize - 1; node > ROOT; node--) {
+            int parent = fParents[node];
+            weights[parent] += weights[node];
+            times[parent] = Math.min(times[parent], times[node]);
+        }
+        List<AggregatedCallSite> roots = new ArrayList<>();
+        AggregatedCallSite[] callsites = new AggregatedCallSite[fSize];
+        for (int node = 1; node < fSize; node++) {
+            if (weights[node] == 0) {
+                continue;
+            }
+            AggregatedCallSite callsite = provider.createCallSite(CallStackSymbolFactory.createSymbol(fSymbols[node], element, times[node]));
+            callsite.addToWeight(weights[node] - callsite.getWeight());
+            callsites[node] = callsite;
+            int parent = fParents[node];
+            if (parent == ROOT) {
+                roots.add(callsite);
+            } else {
+                callsites[parent].addChild(callsite);
+            }
+        }
+        for (AggregatedCallSite root : roots) {
+            callGraph.addAggregatedCallSite(element, root);
+        }
+    }
+
+    /**
+     * Write this trie to an output
+     *
+     * @param out
+     *            The output to write to
+     * @throws IOException
+     *             Exceptions writing to the output
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(fSize);
+        for (int node = 1; node < fSize; node++) {
+            out.writeInt(fParents[node]);
+            out.writeLong(fSymbols[node]);
+        }
+    }
+
+    /**
+     * Read a trie previously written with {@link #write(DataOutput)}
+     *
+     * @param in
+     *            The input to read from
+     * @return The trie
+     * @throws IOException
+     *             Exceptions reading the input, or if the content is not a
+     *             valid trie
+     */
+    public static StackTrie read(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 1) {
+            throw new IOException("Invalid stack trie size: " + size); //$NON-NLS-1$
+        }
+        StackTrie trie = new StackTrie();
+        for (int node = 1; node < size; node++) {
+            int parent = in.readInt();
+            long symbol = in.readLong();
+            if (parent < 0 || parent >= node || trie.intern(parent, symbol) != node) {
+                throw new IOException("Invalid stack trie node: " + node); //$NON-NLS-1$
+            }
+        }
+        return trie;
+    }
+}
@@ -11,16 +11,45 @@
 
 package org.eclipse.tracecompass.incubator.internal.kernel.core.criticalpath;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.graph.core.base.IGraphWorker;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfGraph;
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfVertex;
+import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathAlgorithmException;
 import org.eclipse.tracecompass.analysis.graph.core.criticalpath.CriticalPathModule;
+import org.eclipse.tracecompass.analysis.os.linux.core.execution.graph.OsExecutionGraph;
+import org.eclipse.tracecompass.analysis.os.linux.core.execution.graph.OsWorker;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IDataPalette;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeProvider;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeSet;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.Activator;
+import org.eclipse.tracecompass.internal.analysis.graph.core.criticalpath.CriticalPathAlgorithmBounded;
 import org.eclipse.tracecompass.tmf.core.TmfStrings;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
@@ -29,6 +58,7 @@ import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
 import org.eclipse.tracecompass.tmf.core.signal.TmfStartAnalysisSignal;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
 /**
  * Analysis modules that aggregates the states of the critical path into a
@@ -37,15 +67,50 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
  *
  * @author Geneviève Bastien
  */
+@SuppressWarnings("restriction")
 public class CriticalPathAggregatedModule extends TmfAbstractAnalysisModule implements IWeightedTreeProvider<Object, String, WeightedTree<Object>> {
 
     private static final MetricType DURATION_METRIC = new MetricType(Objects.requireNonNull(TmfStrings.duration()), DataType.NANOSECONDS, null);
 
+    /** The ID of this analysis module */
+    public static final String ID = "org.eclipse.tracecompass.incubator.kernel.core.criticalpath.aggregated"; //$NON-NLS-1$
+
+    /**
+     * Parameter to compute the critical paths of many threads at once. Its
+     * value is a collection of thread IDs. Setting it re-runs the analysis,
+     * that computes the aggregated critical paths of all those threads
+     * instead of the critical path currently shown.
+     */
+    public static final String PARAM_TIDS = "tids"; //$NON-NLS-1$
+
+    private static final String BATCH_FILE_PREFIX = ".batch."; //$NON-NLS-1$
+    private static final int BATCH_FILE_VERSION = 1;
+
     private @Nullable CriticalPathModule fModule = null;
     private @Nullable CriticalPathWeighted fCritPathCg = null;
+    private @Nullable CriticalPathBatchWeighted fBatchCg = null;
+
+    /**
+     * Constructor
+     */
+    public CriticalPathAggregatedModule() {
+        super();
+        setId(ID);
+        addParameter(PARAM_TIDS);
+    }
 
     @Override
     protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+        Object tids = getParameter(PARAM_TIDS);
+        if (tids instanceof Collection) {
+            List<Integer> batchTids = new ArrayList<>();
+            for (Object tid : (Collection<?>) tids) {
+                if (tid instanceof Integer) {
+                    batchTids.add((Integer) tid);
+                }
+            }
+            return computeBatch(batchTids, Objects.requireNonNull(monitor)) != null;
+        }
         CriticalPathModule module = fModule;
         if (module == null) {
             return false;
@@ -75,12 +140,26 @@ public class CriticalPathAggregatedModule extends TmfAbstractAnalysisModule impl
                 cancel();
                 fModule = criticalPath;
                 fCritPathCg = null;
+                fBatchCg = null;
+                // The critical path shown replaces the batch of threads
+                setParameter(PARAM_TIDS, null);
                 resetAnalysis();
                 schedule();
             }
         }
     }
 
+    @Override
+    protected void parameterChanged(@NonNull String name) {
+        if (name.equals(PARAM_TIDS)) {
+            // Re-run analysis
+            cancel();
+            fBatchCg = null;
+            resetAnalysis();
+            schedule();
+        }
+    }
+
     @Override
     protected void canceling() {
         // Nothing to do
@@ -96,8 +175,161 @@ public class CriticalPathAggregatedModule extends TmfAbstractAnalysisModule impl
         return "What the process is waiting for"; //$NON-NLS-1$
     }
 
+    /**
+     * Compute the critical paths of many workers at once and aggregate them
+     * in a single tree set, where the first level is the worker. The critical
+     * paths of the workers are computed in parallel on the execution graph of
+     * the trace, by at most as many threads as there are processors, and the
+     * result is saved in the supplementary files, so subsequent calls with the
+     * same threads return immediately. Once computed, this tree set is
+     * returned by {@link #getTreeSet()} until a new critical path is started.
+     *
+     * @param tids
+     *            The IDs of the threads for which to compute the critical
+     *            path, for example all the threads of a process
+     * @param monitor
+     *            The progress monitor, to cancel the computation
+     * @return The aggregated critical paths, or <code>null</code> if the
+     *         execution graph is not available or the computation was
+     *         cancelled
+     */
+    private @Nullable CriticalPathBatchWeighted computeBatch(Collection<Integer> tids, IProgressMonitor monitor) {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return null;
+        }
+        SortedSet<Integer> sortedTids = new TreeSet<>(tids);
+        File cacheFile = new File(TmfTraceManager.getSupplementaryFileDir(trace), getId() + BATCH_FILE_PREFIX + sortedTids.hashCode());
+        CriticalPathBatchWeighted batch = readBatch(cacheFile, sortedTids);
+        if (batch != null) {
+            fBatchCg = batch;
+            return batch;
+        }
+
+        OsExecutionGraph graphModule = TmfTraceUtils.getAnalysisModuleOfClass(trace, OsExecutionGraph.class, OsExecutionGraph.ANALYSIS_ID);
+        if (graphModule == null) {
+            return null;
+        }
+        graphModule.schedule();
+        if (!graphModule.waitForCompletion(monitor)) {
+            return null;
+        }
+        TmfGraph graph = graphModule.getGraph();
+        if (graph == null) {
+            return null;
+        }
+        List<OsWorker> workers = new ArrayList<>();
+        for (IGraphWorker worker : graph.getWorkers()) {
+            if (worker instanceof OsWorker && sortedTids.contains(((OsWorker) worker).getHostThread().getTid())) {
+                workers.add((OsWorker) worker);
+            }
+        }
+        workers.sort(Comparator.comparing((OsWorker worker) -> worker.getHostThread().getTid()));
+
+        List<CriticalPathWeighted> paths = computeCriticalPaths(graph, workers, monitor);
+        if (paths == null) {
+            return null;
+        }
+        batch = CriticalPathBatchWeighted.create(workers.stream().map(String::valueOf).collect(Collectors.toList()), paths);
+        writeBatch(cacheFile, sortedTids, batch);
+        fBatchCg = batch;
+        return batch;
+    }
+
+    private static @Nullable List<CriticalPathWeighted> computeCriticalPaths(TmfGraph graph, List<OsWorker> workers, IProgressMonitor monitor) {
+        // The graph is only read by the algorithm, each worker's path can be computed concurrently
+        int nbThreads = Math.max(1, Math.min(workers.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<CriticalPathWeighted>> futures = new ArrayList<>();
+            for (OsWorker worker : workers) {
+                futures.add(executor.submit(() -> monitor.isCanceled() ? CriticalPathWeighted.create(null) : computeCriticalPath(graph, worker)));
+            }
+            List<CriticalPathWeighted> paths = new ArrayList<>();
+            for (Future<CriticalPathWeighted> future : futures) {
+                CriticalPathWeighted path = null;
+                while (path == null) {
+                    if (monitor.isCanceled()) {
+                        return null;
+                    }
+                    try {
+                        path = future.get(100, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Check for cancellation again
+                    }
+                }
+                paths.add(path);
+            }
+            return paths;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Activator.getInstance().logError("Error computing the critical paths", e); //$NON-NLS-1$
+            return null;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CriticalPathWeighted computeCriticalPath(TmfGraph graph, IGraphWorker worker) {
+        TmfVertex head = graph.getHead(worker);
+        TmfVertex tail = graph.getTail(worker);
+        if (head == null || tail == null) {
+            return CriticalPathWeighted.create(null);
+        }
+        try {
+            return CriticalPathWeighted.create(new CriticalPathAlgorithmBounded(graph).compute(head, tail));
+        } catch (CriticalPathAlgorithmException e) {
+            Activator.getInstance().logWarning("Error computing the critical path of " + worker, e); //$NON-NLS-1$
+            return CriticalPathWeighted.create(null);
+        }
+    }
+
+    private static @Nullable CriticalPathBatchWeighted readBatch(File file, SortedSet<Integer> tids) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != BATCH_FILE_VERSION) {
+                return null;
+            }
+            // Make sure the file is for the same threads, the file name is only a hash
+            int nbTids = in.readInt();
+            if (nbTids != tids.size()) {
+                return null;
+            }
+            for (Integer tid : tids) {
+                if (in.readInt() != tid) {
+                    return null;
+                }
+            }
+            return CriticalPathBatchWeighted.read(in);
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Could not read the critical path batch file " + file, e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private static void writeBatch(File file, SortedSet<Integer> tids, CriticalPathBatchWeighted batch) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(BATCH_FILE_VERSION);
+            out.writeInt(tids.size());
+            for (Integer tid : tids) {
+                out.writeInt(tid);
+            }
+            batch.write(out);
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Could not save the critical path batch file " + file, e); //$NON-NLS-1$
+        }
+    }
+
     @Override
     public IWeightedTreeSet<Object, String, WeightedTree<Object>> getTreeSet() {
+        CriticalPathBatchWeighted batchCg = fBatchCg;
+        if (batchCg != null) {
+            return batchCg;
+        }
         CriticalPathWeighted critPathCg = fCritPathCg;
         if (critPathCg != null) {
             return critPathCg;
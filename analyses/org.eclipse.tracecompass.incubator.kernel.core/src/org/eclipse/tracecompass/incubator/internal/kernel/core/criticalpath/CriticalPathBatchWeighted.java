@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.kernel.core.criticalpath;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.tracecompass.analysis.graph.core.base.TmfEdge.EdgeType;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeSet;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A weighted tree set that contains the aggregated critical paths of many
+ * workers. The first level of the trees is the worker whose critical path was
+ * computed, the levels below are the same as in the
+ * {@link CriticalPathWeighted} of that worker.
+ *
+ * The tree set has 2 elements:
+ * <ul>
+ * <li>1- the critical paths of the workers by thread</li>
+ * <li>2- the critical paths of the workers by status</li>
+ * </ul>
+ *
+ * @author agent
+ */
+public class CriticalPathBatchWeighted implements IWeightedTreeSet<Object, String, WeightedTree<Object>> {
+
+    private static final String BY_THREAD = String.valueOf(Messages.CriticalPathBatchWeighted_AllWorkersByThread);
+    private static final String BY_STATUS = String.valueOf(Messages.CriticalPathBatchWeighted_AllWorkersByStatus);
+
+    /* Object types in the serialized trees */
+    private static final byte STRING_OBJECT = 0;
+    private static final byte EDGE_TYPE_OBJECT = 1;
+
+    private final List<WeightedTree<Object>> fByThread;
+    private final List<WeightedTree<Object>> fByStatus;
+
+    private CriticalPathBatchWeighted(List<WeightedTree<Object>> byThread, List<WeightedTree<Object>> byStatus) {
+        fByThread = byThread;
+        fByStatus = byStatus;
+    }
+
+    /**
+     * Create the batch tree set from the critical paths of each worker
+     *
+     * @param workers
+     *            The names of the workers
+     * @param criticalPaths
+     *            The weighted critical paths, in the same order as the
+     *            workers
+     * @return The batch tree set
+     */
+    public static CriticalPathBatchWeighted create(List<String> workers, List<CriticalPathWeighted> criticalPaths) {
+        List<WeightedTree<Object>> byThread = new ArrayList<>();
+        List<WeightedTree<Object>> byStatus = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            String worker = workers.get(i);
+            CriticalPathWeighted criticalPath = criticalPaths.get(i);
+            byThread.add(groupUnder(worker, criticalPath.getThreadTree().getChildren()));
+            byStatus.add(groupUnder(worker, criticalPath.getStatusTree().getChildren()));
+        }
+        return new CriticalPathBatchWeighted(byThread, byStatus);
+    }
+
+    private static WeightedTree<Object> groupUnder(String worker, Collection<WeightedTree<Object>> children) {
+        WeightedTree<Object> workerTree = new WeightedTree<>(worker);
+        for (WeightedTree<Object> child : children) {
+            workerTree.addToWeight(child.getWeight());
+            workerTree.addChild(child.copyOf());
+        }
+        return workerTree;
+    }
+
+    @Override
+    public Collection<String> getElements() {
+        return ImmutableList.of(BY_THREAD, BY_STATUS);
+    }
+
+    @Override
+    public Collection<WeightedTree<Object>> getTreesFor(Object element) {
+        if (BY_THREAD.equals(element)) {
+            return Collections.unmodifiableList(fByThread);
+        }
+        if (BY_STATUS.equals(element)) {
+            return Collections.unmodifiableList(fByStatus);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Write this tree set to an output
+     *
+     * @param out
+     *            The output to write to
+     * @throws IOException
+     *             Exceptions writing to the output
+     */
+    public void write(DataOutput out) throws IOException {
+        writeTrees(out, fByThread);
+        writeTrees(out, fByStatus);
+    }
+
+    /**
+     * Read a tree set previously written with {@link #write(DataOutput)}
+     *
+     * @param in
+     *            The input to read from
+     * @return The tree set
+     * @throws IOException
+     *             Exceptions reading the input, or invalid content
+     */
+    public static CriticalPathBatchWeighted read(DataInput in) throws IOException {
+        List<WeightedTree<Object>> byThread = readTrees(in);
+        List<WeightedTree<Object>> byStatus = readTrees(in);
+        return new CriticalPathBatchWeighted(byThread, byStatus);
+    }
+
+    private static void writeTrees(DataOutput out, Collection<WeightedTree<Object>> trees) throws IOException {
+        out.writeInt(trees.size());
+        for (WeightedTree<Object> tree : trees) {
+            Object object = tree.getObject();
+            if (object instanceof EdgeType) {
+                out.writeByte(EDGE_TYPE_OBJECT);
+                out.writeUTF(((EdgeType) object).name());
+            } else {
+                out.writeByte(STRING_OBJECT);
+                out.writeUTF(String.valueOf(object));
+            }
+            out.writeLong(tree.getWeight());
+            writeTrees(out, tree.getChildren());
+        }
+    }
+
+    private static List<WeightedTree<Object>> readTrees(DataInput in) throws IOException {
+        int nbTrees = in.readInt();
+        List<WeightedTree<Object>> trees = new ArrayList<>(nbTrees);
+        for (int i = 0; i < nbTrees; i++) {
+            byte type = in.readByte();
+            String name = in.readUTF();
+            Object object;
+            if (type == EDGE_TYPE_OBJECT) {
+                try {
+                    object = EdgeType.valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown edge type " + name, e); //$NON-NLS-1$
+                }
+            } else {
+                object = name;
+            }
+            WeightedTree<Object> tree = new WeightedTree<>(object, in.readLong());
+            for (WeightedTree<Object> child : readTrees(in)) {
+                tree.addChild(child);
+            }
+            trees.add(tree);
+        }
+        return trees;
+    }
+}
@@ -229,6 +229,26 @@ public class CriticalPathWeighted implements IWeightedTreeSet<Object, String, We
         graph.scanLineTraverse(worker, converter);
     }
 
+    /**
+     * Get the tree of the critical path by thread, whose root is the main
+     * worker
+     *
+     * @return The tree by thread
+     */
+    WeightedTree<Object> getThreadTree() {
+        return fTree;
+    }
+
+    /**
+     * Get the tree of the critical path by status, whose root is the main
+     * worker
+     *
+     * @return The tree by status
+     */
+    WeightedTree<Object> getStatusTree() {
+        return fAggregatedTree;
+    }
+
     @Override
     public Collection<WeightedTree<Object>> getTreesFor(Object element) {
         if (!(element instanceof String)) {
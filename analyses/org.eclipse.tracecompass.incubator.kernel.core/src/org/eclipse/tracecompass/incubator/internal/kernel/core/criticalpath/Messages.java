@@ -21,6 +21,10 @@ import org.eclipse.osgi.util.NLS;
  */
 public class Messages extends NLS {
     private static final String BUNDLE_NAME = "org.eclipse.tracecompass.incubator.internal.kernel.core.criticalpath.messages"; //$NON-NLS-1$
+    /** Element name for the batch aggregation of all workers by status */
+    public static @Nullable String CriticalPathBatchWeighted_AllWorkersByStatus;
+    /** Element name for the batch aggregation of all workers by thread */
+    public static @Nullable String CriticalPathBatchWeighted_AllWorkersByThread;
     /** String for the aggregation by process name */
     public static @Nullable String CriticalPathWeighted_ByProcessName;
     /** String for the aggregation by status */
@@ -23,17 +23,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.analysis.core.model.ModelManager;
 import org.eclipse.tracecompass.incubator.internal.kernel.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessIndex.FileNode;
+import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileAccessIndex.Node;
 import org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess.FileEntryModel.Type;
 import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.FileDescriptorStateProvider;
 import org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor.ThreadEntryModel;
@@ -121,6 +121,7 @@ public class FileAccessDataProvider extends AbstractTimeGraphDataProvider<@NonNu
     private static final int OFFSET = 100000;
     private static final AtomicInteger STRING_VALUE = new AtomicInteger(OFFSET);
     private Map<String, Integer> fileIds = new HashMap<>();
+    private final FileAccessIndex fIndex = new FileAccessIndex();
 
     /**
      * Constructor
@@ -299,8 +300,16 @@ public class FileAccessDataProvider extends AbstractTimeGraphDataProvider<@NonNu
         long rootId = getId(ITmfStateSystem.ROOT_ATTRIBUTE);
         ITmfTrace trace = getTrace();
         builder.add(new TimeGraphEntryModel(rootId, -1, String.valueOf(trace.getName()), ss.getStartTime(), ss.getCurrentEndTime()));
+        long start = Long.MIN_VALUE;
+        long end = Long.MAX_VALUE;
+        List<Long> times = DataProviderParameterUtils.extractTimeRequested(parameters);
+        if (times != null && !times.isEmpty()) {
+            start = Collections.min(times);
+            end = Collections.max(times);
+        }
         try {
-            addResources(ss, builder, ss.getQuarkAbsolute(FileDescriptorStateProvider.RESOURCES), rootId, selectedTids);
+            fIndex.update(ss, ss.getQuarkAbsolute(FileDescriptorStateProvider.RESOURCES));
+            addResources(ss, builder, rootId, selectedTids, start, end);
         } catch (AttributeNotFoundException e) {
             Activator.getInstance().logError(e.getMessage(), e);
         }
@@ -308,8 +317,7 @@ public class FileAccessDataProvider extends AbstractTimeGraphDataProvider<@NonNu
         return new TmfTreeModel<>(Collections.emptyList(), builder.build());
     }
 
-    private void addResources(ITmfStateSystem ss, Builder<@NonNull TimeGraphEntryModel> builder, int quark, long parentId, Integer filter) {
-        List<@NonNull Integer> fileQuarks = ss.getSubAttributes(quark, false);
+    private void addResources(ITmfStateSystem ss, Builder<@NonNull TimeGraphEntryModel> builder, long parentId, Integer filter, long start, long end) {
 
         String ramFiles = "in memory"; //$NON-NLS-1$
         boolean hasMemfile = false;
@@ -317,16 +325,12 @@ public class FileAccessDataProvider extends AbstractTimeGraphDataProvider<@NonNu
         long ramId = getId(ramHash);
         TimeGraphEntryModel ramElement = new TimeGraphEntryModel(ramId, parentId, ramFiles, ss.getStartTime(), ss.getCurrentEndTime());
 
-        for (Integer fileQuark : fileQuarks) {
-            String name = ss.getAttributeName(fileQuark);
-            long id = getId(fileQuark);
-            List<Integer> sub = ss.getSubAttributes(fileQuark, false);
-            Set<Integer> contributingTids = sub.stream()
-                    .map(ss::getAttributeName)
-                    .filter(FileAccessDataProvider::isInteger)
-                    .map(Integer::parseInt)
-                    .collect(Collectors.toSet());
-            if (filter == -1 || contributingTids.contains(filter)) {
+        String filterName = String.valueOf(filter);
+        for (FileNode file : fIndex.getFiles(start, end)) {
+            String name = file.getName();
+            long id = getId(file.getQuark());
+            List<Node> threads = file.getThreads();
+            if (filter == -1 || threads.stream().anyMatch(thread -> thread.getName().equals(filterName))) {
                 if (name.startsWith(File.separator)) {
                     String[] segments = name.split(File.separator);
                     StringBuilder sb = new StringBuilder();
@@ -348,18 +352,17 @@ public class FileAccessDataProvider extends AbstractTimeGraphDataProvider<@NonNu
                     }
                     builder.add(new FileEntryModel(id, ramId, name, ss.getStartTime(), ss.getCurrentEndTime(), true, FileEntryModel.Type.InRam));
                 }
-                List<@NonNull Integer> threadQuarks = ss.getSubAttributes(fileQuark, false);
-                if (threadQuarks.size() == 1) {
+                if (file.getNbChildren() == 1) {
                     continue;
                 }
-                for (Integer threadQuark : threadQuarks) {
-                    ITmfTrace trace = getTrace();
-                    // Broken
-                    int tid = getTid(ss, threadQuark);
-                    if (tid != -1) {
-                        String threadName = getThreadName(tid, ss.getStartTime(), trace);
-                        builder.add(new ThreadEntryModel(getId(threadQuark), id, String.valueOf(threadName), ss.getStartTime(), ss.getCurrentEndTime(), true, tid));
+                ITmfTrace trace = getTrace();
+                for (Node thread : threads) {
+                    if (!thread.isAccessed(start, end)) {
+                        continue;
                     }
+                    int tid = Integer.parseInt(thread.getName());
+                    String threadName = getThreadName(tid, ss.getStartTime(), trace);
+                    builder.add(new ThreadEntryModel(getId(thread.getQuark()), id, String.valueOf(threadName), ss.getStartTime(), ss.getCurrentEndTime(), true, tid));
                 }
             }
         }
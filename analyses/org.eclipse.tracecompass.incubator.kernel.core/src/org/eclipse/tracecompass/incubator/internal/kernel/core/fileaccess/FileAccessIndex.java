@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.kernel.core.fileaccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Index of the files of a file access state system. It is updated
+ * incrementally as the state system grows: only the attributes created and the
+ * time range ended since the previous update are read. Each file and thread
+ * keeps the time of its first and last access, so a tree restricted to a time
+ * range does not need to query the state system. The files are sorted by first
+ * access, so the files accessed in a range are found without looking at the
+ * files first accessed after it.
+ *
+ * @author agent
+ */
+public class FileAccessIndex {
+
+    private static final Pattern IS_INTEGER = Pattern.compile("\\d+"); //$NON-NLS-1$
+
+    /**
+     * A node of the index, either a file or a thread accessing a file
+     */
+    public static class Node {
+        private final int fQuark;
+        private final String fName;
+        private final @Nullable Node fParent;
+        private volatile long fFirstAccess = Long.MAX_VALUE;
+        private volatile long fLastAccess = Long.MIN_VALUE;
+
+        private Node(int quark, String name, @Nullable Node parent) {
+            fQuark = quark;
+            fName = name;
+            fParent = parent;
+        }
+
+        /**
+         * Get the quark of this node
+         *
+         * @return the quark
+         */
+        public int getQuark() {
+            return fQuark;
+        }
+
+        /**
+         * Get the attribute name of this node
+         *
+         * @return the name
+         */
+        public String getName() {
+            return fName;
+        }
+
+        /**
+         * Get the time of the first access to this node
+         *
+         * @return the time, or {@link Long#MAX_VALUE} if it was not accessed
+         */
+        public long getFirstAccess() {
+            return fFirstAccess;
+        }
+
+        /**
+         * Get the time of the last access to this node
+         *
+         * @return the time, or {@link Long#MIN_VALUE} if it was not accessed
+         */
+        public long getLastAccess() {
+            return fLastAccess;
+        }
+
+        /**
+         * Whether this node was accessed in a time range. Nodes that were not
+         * indexed yet are considered accessed.
+         *
+         * @param start
+         *            the start of the range
+         * @param end
+         *            the end of the range
+         * @return true if the node was accessed in the range
+         */
+        public boolean isAccessed(long start, long end) {
+            /* The last access is read first, it is set after the first access */
+            long lastAccess = fLastAccess;
+            long firstAccess = fFirstAccess;
+            if (firstAccess > lastAccess) {
+                return true;
+            }
+            return firstAccess <= end && lastAccess >= start;
+        }
+
+        private void access(long start, long end) {
+            fFirstAccess = Math.min(fFirstAccess, start);
+            fLastAccess = Math.max(fLastAccess, end);
+            /* A thread access is also an access to its file */
+            Node parent = fParent;
+            if (parent != null) {
+                parent.access(start, end);
+            }
+        }
+    }
+
+    /**
+     * A file of the index, with the threads that accessed it
+     */
+    public static class FileNode extends Node {
+        private final List<Node> fThreads = new CopyOnWriteArrayList<>();
+        private volatile int fNbChildren = 0;
+
+        private FileNode(int quark, String name) {
+            super(quark, name, null);
+        }
+
+        /**
+         * Get the threads that accessed this file
+         *
+         * @return the thread nodes
+         */
+        public List<Node> getThreads() {
+            return Collections.unmodifiableList(fThreads);
+        }
+
+        /**
+         * Get the number of attributes under this file, threads or not
+         *
+         * @return the number of sub-attributes
+         */
+        public int getNbChildren() {
+            return fNbChildren;
+        }
+    }
+
+    private static final Comparator<FileNode> BY_QUARK = Comparator.comparingInt(FileNode::getQuark);
+
+    /* Files that were accessed, sorted by first access */
+    private final List<FileNode> fFiles = new ArrayList<>();
+    /* Files that were not accessed yet, or are not sorted yet */
+    private final Set<FileNode> fNotAccessed = new LinkedHashSet<>();
+    private final Map<Integer, Node> fNodes = new HashMap<>();
+    /* Quarks of the nodes whose history was read up to the indexed end */
+    private final List<Integer> fIndexedQuarks = new ArrayList<>();
+    /* Quarks of the nodes whose history was not read yet */
+    private final List<Integer> fNewQuarks = new ArrayList<>();
+    private int fNbAttributes = 0;
+    private long fIndexedEnd = Long.MIN_VALUE;
+
+    /**
+     * Update the index with the state system's new attributes and intervals
+     *
+     * @param ss
+     *            the state system
+     * @param resourcesQuark
+     *            the quark containing the files
+     * @throws StateSystemDisposedException
+     *             if the state system was disposed
+     */
+    public synchronized void update(ITmfStateSystem ss, int resourcesQuark) throws StateSystemDisposedException {
+        /*
+         * Quarks are created in increasing order and after their parent, so
+         * only the quarks created since the previous update are new nodes
+         */
+        int nbAttributes = ss.getNbAttributes();
+        for (int quark = fNbAttributes; quark < nbAttributes; quark++) {
+            int parentQuark = ss.getParentAttributeQuark(quark);
+            if (parentQuark == resourcesQuark) {
+                FileNode file = new FileNode(quark, ss.getAttributeName(quark));
+                fNotAccessed.add(file);
+                fNodes.put(quark, file);
+                fNewQuarks.add(quark);
+                continue;
+            }
+            Node parent = fNodes.get(parentQuark);
+            if (!(parent instanceof FileNode)) {
+                continue;
+            }
+            FileNode file = (FileNode) parent;
+            String name = ss.getAttributeName(quark);
+            if (IS_INTEGER.matcher(name).matches()) {
+                Node thread = new Node(quark, name, file);
+                file.fThreads.add(thread);
+                fNodes.put(quark, thread);
+                fNewQuarks.add(quark);
+                /* The history of the thread may move the file's first access */
+                if (fNotAccessed.add(file)) {
+                    fFiles.remove(file);
+                }
+            }
+            file.fNbChildren++;
+        }
+        fNbAttributes = nbAttributes;
+
+        long ssStart = ss.getStartTime();
+        long end = ss.getCurrentEndTime();
+        long start = Math.max(ssStart, fIndexedEnd);
+        if (end < start) {
+            return;
+        }
+        /*
+         * New nodes may have intervals from before the previous update, their
+         * whole history is read. Intervals of the other nodes overlapping the
+         * previous end are returned again, extending the nodes' access times
+         * is idempotent so they are simply merged.
+         */
+        if (!fIndexedQuarks.isEmpty()) {
+            access(ss.query2D(fIndexedQuarks, start, end));
+        }
+        if (!fNewQuarks.isEmpty()) {
+            access(ss.query2D(fNewQuarks, ssStart, end));
+        }
+        fIndexedQuarks.addAll(fNewQuarks);
+        fNewQuarks.clear();
+        fIndexedEnd = end;
+
+        /*
+         * The first access of a file is final once set, as the history before
+         * it was read, unless a thread is added to it later
+         */
+        Iterator<FileNode> iterator = fNotAccessed.iterator();
+        while (iterator.hasNext()) {
+            FileNode file = iterator.next();
+            if (file.getFirstAccess() <= file.getLastAccess()) {
+                iterator.remove();
+                fFiles.add(upperBound(file.getFirstAccess()), file);
+            }
+        }
+    }
+
+    private void access(Iterable<ITmfStateInterval> intervals) {
+        for (ITmfStateInterval interval : intervals) {
+            if (interval.getValue() == null) {
+                continue;
+            }
+            Node node = fNodes.get(interval.getAttribute());
+            if (node != null) {
+                node.access(interval.getStartTime(), interval.getEndTime());
+            }
+        }
+    }
+
+    /* Index of the first file accessed for the first time after a time */
+    private int upperBound(long time) {
+        int low = 0;
+        int high = fFiles.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fFiles.get(mid).getFirstAccess() <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the files accessed in a time range, in creation order. The files
+     * that were not accessed yet are always returned.
+     *
+     * @param start
+     *            the start of the range, or {@link Long#MIN_VALUE} for all
+     * @param end
+     *            the end of the range, or {@link Long#MAX_VALUE} for all
+     * @return the files
+     */
+    public synchronized List<FileNode> getFiles(long start, long end) {
+        List<FileNode> files = new ArrayList<>(fNotAccessed);
+        /* The files first accessed after the range are not candidates */
+        int last = upperBound(end);
+        for (int i = 0; i < last; i++) {
+            FileNode file = fFiles.get(i);
+            if (file.getLastAccess() >= start) {
+                files.add(file);
+            }
+        }
+        files.sort(BY_QUARK);
+        return files;
+    }
+}
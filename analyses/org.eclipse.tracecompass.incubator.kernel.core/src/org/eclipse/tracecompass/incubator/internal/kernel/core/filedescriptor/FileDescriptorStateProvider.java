@@ -11,6 +11,7 @@
 
 package org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -81,17 +82,44 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
     private static final String WRITE64 = "write64"; //$NON-NLS-1$
     private static final String PWRITE64 = "pwrite64"; //$NON-NLS-1$
     private static final String CLOSE = "close"; //$NON-NLS-1$
+    /* File descriptors above this one are not cached */
+    private static final int MAX_CACHED_FD = 1 << 16;
+    private static final int INITIAL_FD_COUNT = 16;
 
     private final Map<String, Consumer<HandlerParameter>> fHandlers = new HashMap<>();
     private final IKernelAnalysisEventLayout fLayout;
 
     /*
-     * Nullable to make the jdt be quiet
+     * Pending operations, thread ID to file descriptor
      */
-    private final Map<Integer, @Nullable Long> fToRead = new HashMap<>();
-    private final Map<Integer, @Nullable Long> fToWrite = new HashMap<>();
+    private final TidLongMap fToRead = new TidLongMap();
+    private final TidLongMap fToWrite = new TidLongMap();
+    private final TidLongMap fToClose = new TidLongMap();
 
-    private final Map<Integer, Long> fToClose = new HashMap<>();
+    /*
+     * Quarks of the file descriptors of each thread, indexed by file
+     * descriptor. File descriptors are allocated from the lowest available, so
+     * the arrays stay small. The entries are dropped when the file descriptor
+     * is closed or the thread is freed.
+     */
+    private final TidObjectMap<@Nullable FdQuarks[]> fFdQuarks = new TidObjectMap<>();
+
+    /**
+     * The quarks used when updating a thread's file descriptor
+     */
+    private static final class FdQuarks {
+        private final int fFdQuark;
+        private int fReadQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+        private int fWriteQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+        /* Resource quarks, only valid for fFileName */
+        private @Nullable String fFileName = null;
+        private int fFileReadQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+        private int fFileWriteQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+
+        public FdQuarks(int fdQuark) {
+            fFdQuark = fdQuark;
+        }
+    }
 
     /**
      * Constructor
@@ -123,6 +151,7 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
         addEventHandler(getLayout().eventSyscallExitPrefix() + PWRITE, this::writeEnd);
         addEventHandler(getLayout().eventSyscallExitPrefix() + WRITE64, this::writeEnd);
         addEventHandler(getLayout().eventSyscallExitPrefix() + PWRITE64, this::writeEnd);
+        addEventHandler(getLayout().eventSchedProcessFree(), this::threadFree);
     }
 
     /**
@@ -187,93 +216,166 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
         return ssb.queryOngoing(tidFileQuark) != null ? fd : null;
     }
 
+    /**
+     * Get the cached quarks of a thread's file descriptor, resolving them the
+     * first time the file descriptor is seen
+     *
+     * @return the quarks, or null if the file descriptor was never opened
+     */
+    private @Nullable FdQuarks getFdQuarks(ITmfStateSystem ssb, int tid, long fd) {
+        boolean cached = fd >= 0 && fd < MAX_CACHED_FD;
+        @Nullable FdQuarks[] threadQuarks = cached ? fFdQuarks.get(tid) : null;
+        if (threadQuarks != null && fd < threadQuarks.length) {
+            FdQuarks quarks = threadQuarks[(int) fd];
+            if (quarks != null) {
+                return quarks;
+            }
+        }
+        int fdQuark = ssb.optQuarkAbsolute(TID, String.valueOf(tid), String.valueOf(fd));
+        if (fdQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+            return null;
+        }
+        FdQuarks quarks = new FdQuarks(fdQuark);
+        if (cached) {
+            if (threadQuarks == null || fd >= threadQuarks.length) {
+                int length = threadQuarks == null ? INITIAL_FD_COUNT : threadQuarks.length;
+                while (length <= fd) {
+                    length *= 2;
+                }
+                threadQuarks = threadQuarks == null ? new FdQuarks[length] : Arrays.copyOf(threadQuarks, length);
+                fFdQuarks.put(tid, threadQuarks);
+            }
+            threadQuarks[(int) fd] = quarks;
+        }
+        return quarks;
+    }
+
+    /**
+     * Drop the cached quarks of a file descriptor once it is closed, it may be
+     * reopened on another file
+     */
+    private void dropFdQuarks(int tid, long fd) {
+        @Nullable FdQuarks[] threadQuarks = fFdQuarks.get(tid);
+        if (threadQuarks != null && fd >= 0 && fd < threadQuarks.length) {
+            threadQuarks[(int) fd] = null;
+        }
+    }
+
+    /**
+     * Get the number of threads for which file descriptor quarks are cached.
+     * Used by tests.
+     *
+     * @return The number of threads in the cache
+     */
+    public int getCachedThreadCount() {
+        return fFdQuarks.size();
+    }
+
+    /**
+     * Same as {@link #isValidFileDescriptor(ITmfStateSystem, Integer, Long)},
+     * but uses the quark cache
+     *
+     * @return the quarks of the file descriptor or null if invalid
+     */
+    private @Nullable FdQuarks getValidFdQuarks(ITmfStateSystem ssb, int tid, long fd) {
+        FdQuarks quarks = getFdQuarks(ssb, tid, fd);
+        if (quarks == null || ssb.queryOngoing(quarks.fFdQuark) == null) {
+            return null;
+        }
+        return quarks;
+    }
+
     private void readBegin(HandlerParameter params) {
         ITmfEvent event = params.getEvent();
-        Integer tid = params.getTid();
+        int tid = params.getTid();
         ITmfStateSystemBuilder ssb = params.getSsb();
         Long fd = (event.getContent().getFieldValue(Long.class, DESCRIPTOR));
-        fd = isValidFileDescriptor(ssb, tid, fd);
-        if (fd == null) {
+        if (fd == null || getValidFdQuarks(ssb, tid, fd) == null) {
             return;
         }
         Long read = event.getContent().getFieldValue(Long.class, COUNT);
         if (read == null) {
             return;
         }
-        int tidQuark = ssb.optQuarkAbsolute(TID, String.valueOf(tid));
-        if (tidQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
-            return;
-        }
         fToRead.put(tid, fd);
     }
 
     private void readEnd(HandlerParameter params) {
-        ITmfEvent event = params.getEvent();
-        Integer tid = params.getTid();
-        ITmfStateSystemBuilder ssb = params.getSsb();
-        long time = params.getTime();
-        Long count = (event.getContent().getFieldValue(Long.class, getLayout().fieldSyscallRet()));
-        Long fd = fToRead.remove(tid);
-        fd = isValidFileDescriptor(ssb, tid, fd);
-        if (fd != null && count != null) {
-            try {
-                int fileNameQuark = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd));
-                int readTid = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd), READ);
-                StateSystemBuilderUtils.incrementAttributeLong(ssb, time, readTid, count);
-                Object fileNameObj = ssb.queryOngoing(fileNameQuark);
-                if (fileNameObj instanceof String) {
-                    int readFile = ssb.getQuarkAbsoluteAndAdd(RESOURCES, String.valueOf(fileNameObj), String.valueOf(tid), READ);
-                    StateSystemBuilderUtils.incrementAttributeLong(ssb, time, readFile, count);
-                }
-            } catch (StateValueTypeException | AttributeNotFoundException e) {
-                Activator.getInstance().logError(e.getMessage(), e);
-            }
-        }
+        ioEnd(params, fToRead.remove(params.getTid()), true);
     }
 
     private void writeBegin(HandlerParameter params) {
         ITmfEvent event = params.getEvent();
-        Integer tid = params.getTid();
+        int tid = params.getTid();
         ITmfStateSystemBuilder ssb = params.getSsb();
         Long fd = (event.getContent().getFieldValue(Long.class, DESCRIPTOR));
-        fd = isValidFileDescriptor(ssb, tid, fd);
-        if (fd == null) {
+        if (fd == null || getValidFdQuarks(ssb, tid, fd) == null) {
             return;
         }
         fToWrite.put(tid, fd);
     }
 
     private void writeEnd(HandlerParameter params) {
+        ioEnd(params, fToWrite.remove(params.getTid()), false);
+    }
+
+    private void ioEnd(HandlerParameter params, long fd, boolean isRead) {
+        if (fd == TidLongMap.NO_VALUE) {
+            return;
+        }
         ITmfEvent event = params.getEvent();
-        Integer tid = params.getTid();
+        int tid = params.getTid();
         ITmfStateSystemBuilder ssb = params.getSsb();
         long time = params.getTime();
         Long count = (event.getContent().getFieldValue(Long.class, getLayout().fieldSyscallRet()));
-        Long fd = fToWrite.remove(tid);
-        fd = isValidFileDescriptor(ssb, tid, fd);
-        if (fd != null && count != null) {
-            try {
-                int fileNameQuark = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd));
-                int writeTid = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd), WRITE);
-                StateSystemBuilderUtils.incrementAttributeLong(ssb, time, writeTid, count);
-                Object fileNameObj = ssb.queryOngoing(fileNameQuark);
-                if (fileNameObj instanceof String) {
-                    int writeFile = ssb.getQuarkAbsoluteAndAdd(RESOURCES, String.valueOf(fileNameObj), String.valueOf(tid), WRITE);
-                    StateSystemBuilderUtils.incrementAttributeLong(ssb, time, writeFile, count);
+        if (count == null) {
+            return;
+        }
+        FdQuarks quarks = getValidFdQuarks(ssb, tid, fd);
+        if (quarks == null) {
+            return;
+        }
+        try {
+            int tidQuark = isRead ? quarks.fReadQuark : quarks.fWriteQuark;
+            if (tidQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+                tidQuark = ssb.getQuarkRelativeAndAdd(quarks.fFdQuark, isRead ? READ : WRITE);
+                if (isRead) {
+                    quarks.fReadQuark = tidQuark;
+                } else {
+                    quarks.fWriteQuark = tidQuark;
+                }
+            }
+            StateSystemBuilderUtils.incrementAttributeLong(ssb, time, tidQuark, count);
+            Object fileNameObj = ssb.queryOngoing(quarks.fFdQuark);
+            if (fileNameObj instanceof String) {
+                if (!fileNameObj.equals(quarks.fFileName)) {
+                    /* The file descriptor was reopened on another file */
+                    quarks.fFileName = (String) fileNameObj;
+                    quarks.fFileReadQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+                    quarks.fFileWriteQuark = ITmfStateSystem.INVALID_ATTRIBUTE;
+                }
+                int fileQuark = isRead ? quarks.fFileReadQuark : quarks.fFileWriteQuark;
+                if (fileQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+                    fileQuark = ssb.getQuarkAbsoluteAndAdd(RESOURCES, (String) fileNameObj, String.valueOf(tid), isRead ? READ : WRITE);
+                    if (isRead) {
+                        quarks.fFileReadQuark = fileQuark;
+                    } else {
+                        quarks.fFileWriteQuark = fileQuark;
+                    }
                 }
-            } catch (StateValueTypeException | AttributeNotFoundException e) {
-                Activator.getInstance().logError(e.getMessage(), e);
+                StateSystemBuilderUtils.incrementAttributeLong(ssb, time, fileQuark, count);
             }
+        } catch (StateValueTypeException | AttributeNotFoundException e) {
+            Activator.getInstance().logError(e.getMessage(), e);
         }
     }
 
     private void closeBegin(HandlerParameter params) {
         ITmfEvent event = params.getEvent();
         ITmfStateSystemBuilder ssb = params.getSsb();
-        Integer tid = params.getTid();
+        int tid = params.getTid();
         Long fd = (event.getContent().getFieldValue(Long.class, DESCRIPTOR));
-        fd = isValidFileDescriptor(ssb, tid, fd);
-        if (fd == null) {
+        if (fd == null || getValidFdQuarks(ssb, tid, fd) == null) {
             return;
         }
         fToClose.put(tid, fd);
@@ -281,16 +383,17 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
 
     private void closeEnd(HandlerParameter params) {
         ITmfEvent event = params.getEvent();
-        Integer tid = params.getTid();
+        int tid = params.getTid();
         ITmfStateSystemBuilder ssb = params.getSsb();
         long time = params.getTime();
         try {
             Long ret = (event.getContent().getFieldValue(Long.class, getLayout().fieldSyscallRet()));
-            Long fd = fToClose.remove(tid);
-            if (ret == null || fd == null || ret < 0) {
+            long fd = fToClose.remove(tid);
+            if (ret == null || fd == TidLongMap.NO_VALUE || ret < 0) {
                 return;
             }
-            int tidQuark = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid));
+            FdQuarks quarks = getFdQuarks(ssb, tid, fd);
+            int tidQuark = quarks != null ? ssb.getParentAttributeQuark(quarks.fFdQuark) : ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid));
             Object current = ssb.queryOngoing(tidQuark);
             if (!(current instanceof Integer)) {
                 return;
@@ -300,9 +403,10 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
             } else {
                 StateSystemBuilderUtils.incrementAttributeInt(ssb, time, tidQuark, -1);
             }
-            int tidFileQuark = ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd));
+            int tidFileQuark = quarks != null ? quarks.fFdQuark : ssb.getQuarkAbsoluteAndAdd(TID, String.valueOf(tid), String.valueOf(fd));
             Object fileName = ssb.queryOngoing(tidFileQuark);
             ssb.modifyAttribute(time, (Object) null, tidFileQuark);
+            dropFdQuarks(tid, fd);
             if (ssb.optQuarkAbsolute(RESOURCES) != ITmfStateSystem.INVALID_ATTRIBUTE && (fileName instanceof String)) {
                 int fileQuark = ssb.getQuarkAbsoluteAndAdd(RESOURCES, String.valueOf(fileName));
                 int fileTidQuark = ssb.getQuarkRelativeAndAdd(fileQuark, String.valueOf(tid));
@@ -320,4 +424,17 @@ public abstract class FileDescriptorStateProvider extends AbstractTmfStateProvid
             Activator.getInstance().logError(e.getMessage(), e);
         }
     }
+
+    private void threadFree(HandlerParameter params) {
+        Long tid = params.getEvent().getContent().getFieldValue(Long.class, getLayout().fieldTid());
+        if (tid == null) {
+            return;
+        }
+        /* The thread ID may be reused by another thread */
+        int freed = tid.intValue();
+        fFdQuarks.remove(freed);
+        fToRead.remove(freed);
+        fToWrite.remove(freed);
+        fToClose.remove(freed);
+    }
 }
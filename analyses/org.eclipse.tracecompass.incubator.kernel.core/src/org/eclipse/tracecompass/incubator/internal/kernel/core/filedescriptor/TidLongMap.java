@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor;
+
+import java.util.Arrays;
+
+/**
+ * Small open addressing map of thread IDs to long values, used to track the
+ * pending operations of a thread without boxing the keys and values on every
+ * system call.
+ *
+ * @author agent
+ */
+public class TidLongMap {
+
+    /**
+     * Value returned when a key is not in the map
+     */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] fKeys;
+    private long[] fValues;
+    private int fSize = 0;
+
+    /**
+     * Constructor
+     */
+    public TidLongMap() {
+        fKeys = new int[INITIAL_CAPACITY];
+        fValues = new long[INITIAL_CAPACITY];
+        Arrays.fill(fKeys, FREE);
+    }
+
+    /**
+     * Put a value for a thread, replacing the previous one
+     *
+     * @param tid
+     *            the thread ID
+     * @param value
+     *            the value, must not be {@link #NO_VALUE}
+     */
+    public void put(int tid, long value) {
+        if ((fSize + 1) * 2 > fKeys.length) {
+            rehash(fKeys.length * 2);
+        }
+        int slot = slot(tid, fKeys);
+        if (fKeys[slot] == FREE) {
+            fKeys[slot] = tid;
+            fSize++;
+        }
+        fValues[slot] = value;
+    }
+
+    /**
+     * Get the value of a thread
+     *
+     * @param tid
+     *            the thread ID
+     * @return the value, or {@link #NO_VALUE} if there is none
+     */
+    public long get(int tid) {
+        int slot = slot(tid, fKeys);
+        return fKeys[slot] == FREE ? NO_VALUE : fValues[slot];
+    }
+
+    /**
+     * Get the number of threads in the map
+     *
+     * @return the number of threads
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Remove the value of a thread
+     *
+     * @param tid
+     *            the thread ID
+     * @return the removed value, or {@link #NO_VALUE} if there was none
+     */
+    public long remove(int tid) {
+        int[] keys = fKeys;
+        int slot = slot(tid, keys);
+        if (keys[slot] == FREE) {
+            return NO_VALUE;
+        }
+        long value = fValues[slot];
+        keys[slot] = FREE;
+        fSize--;
+        /* Re-insert the following entries of the cluster (backward shift) */
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            int key = keys[next];
+            long nextValue = fValues[next];
+            keys[next] = FREE;
+            int target = slot(key, keys);
+            keys[target] = key;
+            fValues[target] = nextValue;
+            next = (next + 1) & mask;
+        }
+        return value;
+    }
+
+    private static int slot(int tid, int[] keys) {
+        int mask = keys.length - 1;
+        int hash = tid * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != FREE && keys[slot] != tid) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = fKeys;
+        long[] oldValues = fValues;
+        int[] keys = new int[capacity];
+        long[] values = new long[capacity];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+        fKeys = keys;
+        fValues = values;
+    }
+}
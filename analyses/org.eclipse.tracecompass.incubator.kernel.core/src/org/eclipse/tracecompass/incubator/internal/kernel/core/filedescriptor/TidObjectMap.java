@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.kernel.core.filedescriptor;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Small open addressing map of thread IDs to objects, the counterpart of
+ * {@link TidLongMap} for values that are not numbers, so the thread IDs are
+ * not boxed on every system call.
+ *
+ * @author agent
+ * @param <V>
+ *            The type of values
+ */
+public class TidObjectMap<V> {
+
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] fKeys;
+    private @Nullable Object[] fValues;
+    private int fSize = 0;
+
+    /**
+     * Constructor
+     */
+    public TidObjectMap() {
+        fKeys = new int[INITIAL_CAPACITY];
+        fValues = new Object[INITIAL_CAPACITY];
+        Arrays.fill(fKeys, FREE);
+    }
+
+    /**
+     * Put a value for a thread, replacing the previous one
+     *
+     * @param tid
+     *            the thread ID
+     * @param value
+     *            the value
+     */
+    public void put(int tid, V value) {
+        if ((fSize + 1) * 2 > fKeys.length) {
+            rehash(fKeys.length * 2);
+        }
+        int slot = slot(tid, fKeys);
+        if (fKeys[slot] == FREE) {
+            fKeys[slot] = tid;
+            fSize++;
+        }
+        fValues[slot] = value;
+    }
+
+    /**
+     * Get the value of a thread
+     *
+     * @param tid
+     *            the thread ID
+     * @return the value, or <code>null</code> if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(int tid) {
+        int slot = slot(tid, fKeys);
+        return fKeys[slot] == FREE ? null : (V) fValues[slot];
+    }
+
+    /**
+     * Remove the value of a thread
+     *
+     * @param tid
+     *            the thread ID
+     * @return the removed value, or <code>null</code> if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(int tid) {
+        int[] keys = fKeys;
+        @Nullable Object[] values = fValues;
+        int slot = slot(tid, keys);
+        if (keys[slot] == FREE) {
+            return null;
+        }
+        V value = (V) values[slot];
+        keys[slot] = FREE;
+        values[slot] = null;
+        fSize--;
+        /* Re-insert the following entries of the cluster (backward shift) */
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            int key = keys[next];
+            Object nextValue = values[next];
+            keys[next] = FREE;
+            values[next] = null;
+            int target = slot(key, keys);
+            keys[target] = key;
+            values[target] = nextValue;
+            next = (next + 1) & mask;
+        }
+        return value;
+    }
+
+    /**
+     * Get the number of threads in the map
+     *
+     * @return the number of threads
+     */
+    public int size() {
+        return fSize;
+    }
+
+    private static int slot(int tid, int[] keys) {
+        int mask = keys.length - 1;
+        int hash = tid * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != FREE && keys[slot] != tid) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = fKeys;
+        @Nullable Object[] oldValues = fValues;
+        int[] keys = new int[capacity];
+        @Nullable Object[] values = new Object[capacity];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+        fKeys = keys;
+        fValues = values;
+    }
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.tests.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.tracecompass.incubator.analysis.core.export.ColumnarFileWriter;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Test the {@link ColumnarFileWriter} class
+ *
+ * @author agent
+ */
+public class ColumnarFileWriterTest {
+
+    /** Folder for the files written by the tests */
+    @Rule
+    public TemporaryFolder fFolder = new TemporaryFolder();
+
+    /**
+     * Test writing columns of each type and reading them back
+     *
+     * @throws IOException
+     *             Exception thrown by the writer
+     */
+    @Test
+    public void testColumns() throws IOException {
+        Path file = fFolder.getRoot().toPath().resolve("events.cols");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, Arrays.asList("ts", "name", "value", "ratio", "empty"))) {
+            writer.addRow(new Object[] { TmfTimestamp.fromNanos(10), "sched_switch", null, 0.5, null });
+            writer.addRow(new Object[] { 20L, "sched_wakeup", 3, "not a number", null });
+            writer.addRow(new Object[] { 30, "sched_switch", 4L, 1.5f, null });
+            assertEquals(3, writer.getRowCount());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[8];
+        buffer.get(magic);
+        assertEquals(ColumnarFileWriter.MAGIC, new String(magic, StandardCharsets.US_ASCII));
+        int schemaLength = (int) buffer.getLong();
+        assertEquals(0, schemaLength % 8);
+        byte[] schemaBytes = new byte[schemaLength];
+        buffer.get(schemaBytes);
+        JsonObject schema = new JsonParser().parse(new String(schemaBytes, StandardCharsets.UTF_8).trim()).getAsJsonObject();
+        int dataStart = 16 + schemaLength;
+
+        assertEquals(3, schema.get("rows").getAsLong());
+        JsonArray columns = schema.get("columns").getAsJsonArray();
+        assertEquals(5, columns.size());
+
+        JsonObject column = columns.get(0).getAsJsonObject();
+        assertEquals("ts", column.get("name").getAsString());
+        assertEquals("int64", column.get("type").getAsString());
+        assertEquals(24, column.get("length").getAsLong());
+        int offset = dataStart + column.get("offset").getAsInt();
+        assertEquals(10L, buffer.getLong(offset));
+        assertEquals(20L, buffer.getLong(offset + 8));
+        assertEquals(30L, buffer.getLong(offset + 16));
+
+        column = columns.get(1).getAsJsonObject();
+        assertEquals("dictionary", column.get("type").getAsString());
+        assertEquals(12, column.get("length").getAsLong());
+        JsonArray dictionary = column.get("dictionary").getAsJsonArray();
+        assertEquals(2, dictionary.size());
+        assertEquals("sched_switch", dictionary.get(0).getAsString());
+        assertEquals("sched_wakeup", dictionary.get(1).getAsString());
+        offset = dataStart + column.get("offset").getAsInt();
+        assertEquals(0, offset % 8);
+        assertEquals(0, buffer.getInt(offset));
+        assertEquals(1, buffer.getInt(offset + 4));
+        assertEquals(0, buffer.getInt(offset + 8));
+
+        // The leading missing value is kept once the type is known
+        column = columns.get(2).getAsJsonObject();
+        assertEquals("int64", column.get("type").getAsString());
+        offset = dataStart + column.get("offset").getAsInt();
+        assertEquals(0, offset % 8);
+        assertEquals(Long.MIN_VALUE, buffer.getLong(offset));
+        assertEquals(3L, buffer.getLong(offset + 8));
+        assertEquals(4L, buffer.getLong(offset + 16));
+
+        // A value that is not a number is missing
+        column = columns.get(3).getAsJsonObject();
+        assertEquals("float64", column.get("type").getAsString());
+        offset = dataStart + column.get("offset").getAsInt();
+        assertEquals(0.5, buffer.getDouble(offset), 0.0);
+        assertTrue(Double.isNaN(buffer.getDouble(offset + 8)));
+        assertEquals(1.5, buffer.getDouble(offset + 16), 0.0);
+
+        column = columns.get(4).getAsJsonObject();
+        assertEquals("null", column.get("type").getAsString());
+        assertEquals(0, column.get("length").getAsLong());
+
+        // The temporary files were deleted
+        File[] files = fFolder.getRoot().listFiles();
+        assertEquals(1, files.length);
+    }
+
+    /**
+     * Test that a dictionary column with too many distinct strings becomes a
+     * column of plain strings
+     *
+     * @throws IOException
+     *             Exception thrown by the writer
+     */
+    @Test
+    public void testDictionaryLimit() throws IOException {
+        Path file = fFolder.getRoot().toPath().resolve("events.cols");
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, Arrays.asList("name", "cpu"), 2)) {
+            writer.addRow(new Object[] { null, "0" });
+            writer.addRow(new Object[] { "a", "1" });
+            writer.addRow(new Object[] { "\u00e9t\u00e9", "0" });
+            writer.addRow(new Object[] { "a", "1" });
+            writer.addRow(new Object[] { "c", "0" });
+            writer.addRow(new Object[] { null, "1" });
+            writer.addRow(new Object[] { "d", "0" });
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        int schemaLength = (int) buffer.getLong(8);
+        byte[] schemaBytes = new byte[schemaLength];
+        buffer.position(16);
+        buffer.get(schemaBytes);
+        JsonObject schema = new JsonParser().parse(new String(schemaBytes, StandardCharsets.UTF_8).trim()).getAsJsonObject();
+        int dataStart = 16 + schemaLength;
+        JsonArray columns = schema.get("columns").getAsJsonArray();
+
+        JsonObject column = columns.get(0).getAsJsonObject();
+        assertEquals("string", column.get("type").getAsString());
+        assertFalse(column.has("dictionary"));
+        String[] expected = { "", "a", "\u00e9t\u00e9", "a", "c", "", "d" };
+        int offset = dataStart + column.get("offset").getAsInt();
+        int bytesStart = offset + (expected.length + 1) * 8;
+        assertEquals(0, buffer.getLong(offset));
+        for (int i = 0; i < expected.length; i++) {
+            int start = (int) buffer.getLong(offset + i * 8);
+            int end = (int) buffer.getLong(offset + (i + 1) * 8);
+            assertEquals(expected[i], new String(Arrays.copyOfRange(buffer.array(), bytesStart + start, bytesStart + end), StandardCharsets.UTF_8));
+        }
+        int nbBytes = (int) buffer.getLong(offset + expected.length * 8);
+        assertEquals((expected.length + 1) * 8 + nbBytes, column.get("length").getAsLong());
+
+        // The column under the limit keeps its dictionary
+        column = columns.get(1).getAsJsonObject();
+        assertEquals("dictionary", column.get("type").getAsString());
+        assertEquals(0, (dataStart + column.get("offset").getAsInt()) % 8);
+        assertEquals(2, column.get("dictionary").getAsJsonArray().size());
+
+        // The temporary files were deleted
+        assertEquals(1, fFolder.getRoot().listFiles().length);
+    }
+
+    /**
+     * Test that aborting the writer does not write the file
+     *
+     * @throws IOException
+     *             Exception thrown by the writer
+     */
+    @Test
+    public void testAbort() throws IOException {
+        Path file = fFolder.getRoot().toPath().resolve("events.cols");
+        ColumnarFileWriter writer = new ColumnarFileWriter(file, Arrays.asList("ts"));
+        writer.addRow(new Object[] { 1L });
+        writer.abort();
+        writer.close();
+        assertEquals(0, fFolder.getRoot().listFiles().length);
+    }
+
+}
@@ -15,6 +15,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.eclipse.tracecompass.incubator.analysis.core.model.IHostModel;
 import org.eclipse.tracecompass.incubator.analysis.core.model.ModelManager;
 import org.junit.Test;
@@ -42,4 +49,31 @@ public class ModelManagerTest {
         assertTrue(model1 == model2);
         assertNotEquals(model1, model3);
     }
+
+    /**
+     * Test that concurrent requests for the model of a host all get the same
+     * model
+     *
+     * @throws ExecutionException
+     *             Exceptions thrown by the threads
+     * @throws InterruptedException
+     *             Exceptions thrown by the threads
+     */
+    @Test
+    public void testGetModelForConcurrent() throws InterruptedException, ExecutionException {
+        String host = "concurrentHost";
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IHostModel>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> ModelManager.getModelFor(host)));
+            }
+            IHostModel model = ModelManager.getModelFor(host);
+            for (Future<IHostModel> future : futures) {
+                assertTrue(model == future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -25,6 +25,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.tracecompass.incubator.analysis.core.tests.stubs.weighted.SimpleTree;
 import org.eclipse.tracecompass.incubator.analysis.core.tests.stubs.weighted.SimpleWeightedTreeProvider;
+import org.eclipse.tracecompass.incubator.analysis.core.tests.stubs.weighted.WeightedTreeProviderStub;
 import org.eclipse.tracecompass.incubator.analysis.core.tests.stubs.weighted.WeightedTreeTestData;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.AllGroupDescriptor;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.DepthGroupDescriptor;
@@ -205,6 +206,38 @@ public class WeightedTreeGroupByTest {
 
     }
 
+    /**
+     * Test the group by all level with enough trees for the merge to be split
+     * in many parallel tasks, and make sure the original trees are not
+     * modified
+     */
+    @Test
+    public void testGroupByAllManyElements() {
+        int nbElements = 1000;
+        WeightedTreeSet<String, String> treeSet = new WeightedTreeSet<>();
+        for (int i = 0; i < nbElements; i++) {
+            WeightedTree<String> tree = new WeightedTree<>("op1", 10);
+            tree.addChild(new WeightedTree<>("op2", i % 5));
+            treeSet.addWeightedTree("element" + i, tree);
+        }
+
+        WeightedTreeSet<String, Object> wts = WeightedTreeGroupBy.groupWeightedTreeBy(AllGroupDescriptor.getInstance(), treeSet, new WeightedTreeProviderStub<>());
+        Collection<?> elements = wts.getElements();
+        assertEquals(1, elements.size());
+        Collection<WeightedTree<String>> trees = wts.getTreesFor(elements.iterator().next());
+        compareCcts("Many elements", ImmutableMap.of(
+                "op1", new WeightedTreeExpected(10 * nbElements, ImmutableMap.of(
+                        "op2", new WeightedTreeExpected(2 * nbElements, Collections.emptyMap())))),
+                trees);
+
+        // The original trees should not have been modified by the merge
+        for (String element : treeSet.getElements()) {
+            for (WeightedTree<String> tree : treeSet.getTreesFor(element)) {
+                assertEquals(10, tree.getWeight());
+            }
+        }
+    }
+
     /**
      * Test the group by all level for a weighted tree, with a tree that does
      * not provide groups
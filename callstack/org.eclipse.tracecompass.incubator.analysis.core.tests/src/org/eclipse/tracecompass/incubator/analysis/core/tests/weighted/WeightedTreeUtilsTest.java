@@ -135,6 +135,33 @@ public class WeightedTreeUtilsTest {
 
     }
 
+    /**
+     * Test the absolute difference and significance values of the
+     * differential trees, and their metrics in the differential provider
+     */
+    @Test
+    public void testDiffTreeAbsoluteDifference() {
+        List<WeightedTree<Integer>> tree1 = Objects.requireNonNull(fTree1);
+        List<WeightedTree<Integer>> tree2 = Objects.requireNonNull(fTree2);
+
+        Collection<DifferentialWeightedTree<Integer>> diffTrees = WeightedTreeUtils.diffTrees(tree1, tree2);
+        WeightedTreeProviderStub<Integer, String> provider = new WeightedTreeProviderStub<>();
+        DifferentialWeightedTreeProvider<Integer> diffProvider = new DifferentialWeightedTreeProvider<>(provider, diffTrees);
+        for (DifferentialWeightedTree<Integer> tree : diffTrees) {
+            long expected = VALUE2.equals(tree.getObject()) ? 10 : 0;
+            assertEquals("Absolute difference of " + tree.getObject(), expected, tree.getAbsoluteDifference());
+            assertEquals("Absolute difference metric of " + tree.getObject(), expected, diffProvider.getAdditionalMetric(tree, 1));
+            // Simple weighted trees have no statistics
+            assertTrue(Double.isNaN(tree.getSignificance()));
+        }
+
+        // A tree that is not in the first tree has its weight as difference
+        Collection<DifferentialWeightedTree<Integer>> children = getAndVerifyTree(diffTrees, VALUE2, 20, 1.0);
+        children = getAndVerifyTree(children, VALUE5, 10, 1.0);
+        DifferentialWeightedTree<Integer> newTree = children.iterator().next();
+        assertEquals(5, newTree.getAbsoluteDifference());
+    }
+
     /**
      * Test the
      * {@link WeightedTreeUtils#diffTreeSets(IWeightedTreeProvider, IWeightedTreeSet, IWeightedTreeSet)}
@@ -0,0 +1,532 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Writes rows of values to a typed columnar file. The values of each column
+ * are stored contiguously, so a column can be mapped directly into an array,
+ * for example with <code>numpy.fromfile</code>, without parsing each row.
+ *
+ * The file is laid out as follows, all numbers being little endian:
+ * <ul>
+ * <li>the 8 bytes magic {@link #MAGIC}</li>
+ * <li>the length of the schema, as a 64-bit integer</li>
+ * <li>the schema, a UTF-8 JSON object padded with spaces to a multiple of 8
+ * bytes</li>
+ * <li>the data of each column, aligned on 8 bytes</li>
+ * </ul>
+ *
+ * The schema has the number of <code>rows</code> and the list of
+ * <code>columns</code>. Each column has a <code>name</code>, a
+ * <code>type</code>, the <code>offset</code> of its data from the end of the
+ * schema and its <code>length</code> in bytes. The types are:
+ * <ul>
+ * <li><code>int64</code>: 64-bit integers, a missing value is
+ * {@link Long#MIN_VALUE}</li>
+ * <li><code>float64</code>: 64-bit floating point numbers, a missing value is
+ * NaN</li>
+ * <li><code>dictionary</code>: 32-bit indexes in the <code>dictionary</code>
+ * array of strings of the column, a missing value is -1</li>
+ * <li><code>string</code>: <code>rows + 1</code> 64-bit offsets, followed by
+ * the UTF-8 bytes of the strings. The bytes of a row are between its offset
+ * and the next one, relative to the end of the offsets. A missing value is an
+ * empty string.</li>
+ * <li><code>null</code>: the column has no value, it has no data</li>
+ * </ul>
+ *
+ * The type of a column is the type of its first value: integers and
+ * timestamps, in nanoseconds, are <code>int64</code>, other numbers are
+ * <code>float64</code> and any other value is converted to a string. Later
+ * values are converted to the type of the column, and are missing if they
+ * cannot be. A <code>dictionary</code> column whose number of distinct
+ * strings exceeds a maximum becomes a <code>string</code> column, so columns
+ * of unique strings do not fill the memory and the schema.
+ *
+ * The column data is spilled to temporary files next to the output file while
+ * rows are added, so the memory used does not depend on the number of rows.
+ *
+ * @author agent
+ */
+public class ColumnarFileWriter implements AutoCloseable {
+
+    /** Magic bytes at the start of the file */
+    public static final String MAGIC = "TCCOLS01"; //$NON-NLS-1$
+
+    /** Default maximum number of distinct strings of a dictionary column */
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 65536;
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final int ALIGNMENT = 8;
+
+    private enum ColumnType {
+        NULL("null"), //$NON-NLS-1$
+        INT64("int64"), //$NON-NLS-1$
+        FLOAT64("float64"), //$NON-NLS-1$
+        DICTIONARY("dictionary"), //$NON-NLS-1$
+        STRING("string"); //$NON-NLS-1$
+
+        private final String fName;
+
+        ColumnType(String name) {
+            fName = name;
+        }
+    }
+
+    private static class Column {
+        private final String fName;
+        private final @Nullable Path fDirectory;
+        private final int fMaxDictionarySize;
+        private Path fFile;
+        private FileChannel fChannel;
+        private final ByteBuffer fBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final Map<String, Integer> fDictionary = new HashMap<>();
+        private final List<String> fValues = new ArrayList<>();
+        private ColumnType fType = ColumnType.NULL;
+        /* Missing values before the type of the column was known */
+        private long fLeadingNulls = 0;
+        private long fLength = 0;
+        /* The bytes of a string column, after its offsets */
+        private @Nullable Path fBytesFile = null;
+        private @Nullable FileChannel fBytesChannel = null;
+        private @Nullable ByteBuffer fBytesBuffer = null;
+        private long fBytesLength = 0;
+
+        public Column(String name, @Nullable Path directory, int maxDictionarySize) throws IOException {
+            fName = name;
+            fDirectory = directory;
+            fMaxDictionarySize = maxDictionarySize;
+            fFile = createTempFile(directory);
+            fChannel = open(fFile);
+        }
+
+        public void add(@Nullable Object value) throws IOException {
+            if (fType == ColumnType.NULL) {
+                if (value == null) {
+                    fLeadingNulls++;
+                    return;
+                }
+                fType = typeOf(value);
+                for (long i = 0; i < fLeadingNulls; i++) {
+                    addValue(null);
+                }
+            }
+            addValue(value);
+        }
+
+        private void addValue(@Nullable Object value) throws IOException {
+            if (fBuffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            switch (fType) {
+            case INT64:
+                fBuffer.putLong(toLong(value));
+                break;
+            case FLOAT64:
+                fBuffer.putDouble((value instanceof Number) ? ((Number) value).doubleValue() : Double.NaN);
+                break;
+            case DICTIONARY:
+                if (value == null) {
+                    fBuffer.putInt(-1);
+                    break;
+                }
+                String text = toText(value);
+                Integer index = fDictionary.get(text);
+                if (index == null) {
+                    if (fValues.size() >= fMaxDictionarySize) {
+                        toStrings();
+                        addString(text);
+                        break;
+                    }
+                    index = fValues.size();
+                    fDictionary.put(text, index);
+                    fValues.add(text);
+                }
+                fBuffer.putInt(index);
+                break;
+            case STRING:
+                addString(value == null ? "" : toText(value)); //$NON-NLS-1$
+                break;
+            case NULL:
+            default:
+                break;
+            }
+        }
+
+        /**
+         * Convert the dictionary codes written so far to the offsets and bytes
+         * of their strings, and drop the dictionary
+         */
+        private void toStrings() throws IOException {
+            flush();
+            Path codesFile = fFile;
+            FileChannel codes = fChannel;
+            long nbCodes = fLength / Integer.BYTES;
+            fFile = createTempFile(fDirectory);
+            fChannel = open(fFile);
+            fLength = 0;
+            Path bytesFile = createTempFile(fDirectory);
+            fBytesFile = bytesFile;
+            fBytesChannel = open(bytesFile);
+            fBytesBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            fType = ColumnType.STRING;
+
+            ByteBuffer codesBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long position = 0;
+            long read = 0;
+            while (read < nbCodes) {
+                codesBuffer.clear();
+                int nbBytes = codes.read(codesBuffer, position);
+                if (nbBytes < 0) {
+                    break;
+                }
+                position += nbBytes;
+                codesBuffer.flip();
+                while (codesBuffer.remaining() >= Integer.BYTES && read < nbCodes) {
+                    int code = codesBuffer.getInt();
+                    addString(code < 0 ? "" : fValues.get(code)); //$NON-NLS-1$
+                    read++;
+                }
+                // Keep a partial code for the next read
+                position -= codesBuffer.remaining();
+            }
+            codes.close();
+            Files.deleteIfExists(codesFile);
+            fDictionary.clear();
+            fValues.clear();
+        }
+
+        private void addString(String text) throws IOException {
+            ByteBuffer bytesBuffer = Objects.requireNonNull(fBytesBuffer);
+            FileChannel bytesChannel = Objects.requireNonNull(fBytesChannel);
+            if (fBuffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            fBuffer.putLong(fBytesLength);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (bytesBuffer.remaining() < bytes.length) {
+                flushBytes(bytesBuffer, bytesChannel);
+            }
+            if (bytes.length > bytesBuffer.capacity()) {
+                writeFully(bytesChannel, ByteBuffer.wrap(bytes));
+            } else {
+                bytesBuffer.put(bytes);
+            }
+            fBytesLength += bytes.length;
+        }
+
+        private static void flushBytes(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+
+        public void flush() throws IOException {
+            fBuffer.flip();
+            while (fBuffer.hasRemaining()) {
+                fLength += fChannel.write(fBuffer);
+            }
+            fBuffer.clear();
+        }
+
+        /**
+         * Flush the data before writing the file. The last offset of a string
+         * column is written, it ends the bytes of the last row.
+         */
+        public void complete() throws IOException {
+            ByteBuffer bytesBuffer = fBytesBuffer;
+            FileChannel bytesChannel = fBytesChannel;
+            if (fType == ColumnType.STRING && bytesBuffer != null && bytesChannel != null) {
+                if (fBuffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                fBuffer.putLong(fBytesLength);
+                flushBytes(bytesBuffer, bytesChannel);
+            }
+            flush();
+        }
+
+        /**
+         * Get the length of the data of the column
+         */
+        public long getDataLength() {
+            return fLength + ((fType == ColumnType.STRING) ? fBytesLength : 0);
+        }
+
+        /**
+         * Copy the data of the column to the file
+         */
+        public void transferTo(FileChannel out) throws IOException {
+            transfer(fChannel, fLength, out);
+            FileChannel bytesChannel = fBytesChannel;
+            if (fType == ColumnType.STRING && bytesChannel != null) {
+                transfer(bytesChannel, fBytesLength, out);
+            }
+        }
+
+        private static void transfer(FileChannel channel, long length, FileChannel out) throws IOException {
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+
+        public void dispose() throws IOException {
+            fChannel.close();
+            Files.deleteIfExists(fFile);
+            FileChannel bytesChannel = fBytesChannel;
+            if (bytesChannel != null) {
+                bytesChannel.close();
+            }
+            Path bytesFile = fBytesFile;
+            if (bytesFile != null) {
+                Files.deleteIfExists(bytesFile);
+            }
+        }
+
+        private static Path createTempFile(@Nullable Path directory) throws IOException {
+            return (directory == null) ? Files.createTempFile("column", ".tmp") : Files.createTempFile(directory, "column", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        private static FileChannel open(Path file) throws IOException {
+            return FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    private final Path fFile;
+    private final List<Column> fColumns = new ArrayList<>();
+    private long fRows = 0;
+    private boolean fClosed = false;
+
+    /**
+     * Constructor
+     *
+     * @param file
+     *            The file to write, it will be overwritten if it exists
+     * @param columnNames
+     *            The names of the columns
+     * @throws IOException
+     *             If the temporary files for the columns cannot be created
+     */
+    public ColumnarFileWriter(Path file, List<String> columnNames) throws IOException {
+        this(file, columnNames, DEFAULT_MAX_DICTIONARY_SIZE);
+    }
+
+    /**
+     * Constructor with the maximum size of the dictionaries
+     *
+     * @param file
+     *            The file to write, it will be overwritten if it exists
+     * @param columnNames
+     *            The names of the columns
+     * @param maxDictionarySize
+     *            The maximum number of distinct strings of a
+     *            <code>dictionary</code> column. Beyond it, the column becomes
+     *            a <code>string</code> column.
+     * @throws IOException
+     *             If the temporary files for the columns cannot be created
+     */
+    public ColumnarFileWriter(Path file, List<String> columnNames, int maxDictionarySize) throws IOException {
+        fFile = file;
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            for (String name : columnNames) {
+                fColumns.add(new Column(name, directory, maxDictionarySize));
+            }
+        } catch (IOException e) {
+            disposeColumns();
+            throw e;
+        }
+    }
+
+    /**
+     * Add a row of values
+     *
+     * @param values
+     *            The value of each column, in the order of the column names. A
+     *            <code>null</code> value is a missing value.
+     * @throws IOException
+     *             If the values cannot be written
+     */
+    public void addRow(@Nullable Object[] values) throws IOException {
+        if (values.length != fColumns.size()) {
+            throw new IllegalArgumentException("Expected " + fColumns.size() + " values, got " + values.length); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        for (int i = 0; i < values.length; i++) {
+            fColumns.get(i).add(values[i]);
+        }
+        fRows++;
+    }
+
+    /**
+     * Get the number of rows added so far
+     *
+     * @return The number of rows
+     */
+    public long getRowCount() {
+        return fRows;
+    }
+
+    /**
+     * Write the file with the rows added, then delete the temporary files.
+     *
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (fClosed) {
+            return;
+        }
+        fClosed = true;
+        try {
+            writeFile();
+        } finally {
+            disposeColumns();
+        }
+    }
+
+    /**
+     * Delete the temporary files without writing the file, for example when
+     * the export is cancelled.
+     *
+     * @throws IOException
+     *             If a temporary file cannot be deleted
+     */
+    public void abort() throws IOException {
+        fClosed = true;
+        disposeColumns();
+    }
+
+    private void writeFile() throws IOException {
+        JsonArray columns = new JsonArray();
+        long offset = 0;
+        for (Column column : fColumns) {
+            column.complete();
+            long length = column.getDataLength();
+            JsonObject schema = new JsonObject();
+            schema.addProperty("name", column.fName); //$NON-NLS-1$
+            schema.addProperty("type", column.fType.fName); //$NON-NLS-1$
+            schema.addProperty("offset", offset); //$NON-NLS-1$
+            schema.addProperty("length", length); //$NON-NLS-1$
+            if (column.fType == ColumnType.DICTIONARY) {
+                JsonArray dictionary = new JsonArray();
+                column.fValues.forEach(dictionary::add);
+                schema.add("dictionary", dictionary); //$NON-NLS-1$
+            }
+            columns.add(schema);
+            offset += align(length);
+        }
+        JsonObject schema = new JsonObject();
+        schema.addProperty("rows", fRows); //$NON-NLS-1$
+        schema.add("columns", columns); //$NON-NLS-1$
+        byte[] schemaBytes = schema.toString().getBytes(StandardCharsets.UTF_8);
+        int schemaLength = (int) align(schemaBytes.length);
+
+        try (FileChannel out = FileChannel.open(fFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(2 * Long.BYTES + schemaLength).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC.getBytes(StandardCharsets.US_ASCII));
+            header.putLong(schemaLength);
+            header.put(schemaBytes);
+            while (header.hasRemaining()) {
+                header.put((byte) ' ');
+            }
+            header.flip();
+            writeFully(out, header);
+
+            ByteBuffer padding = ByteBuffer.allocate(ALIGNMENT);
+            for (Column column : fColumns) {
+                column.transferTo(out);
+                long length = column.getDataLength();
+                int padLength = (int) (align(length) - length);
+                if (padLength > 0) {
+                    padding.clear().limit(padLength);
+                    writeFully(out, padding);
+                }
+            }
+        }
+    }
+
+    private void disposeColumns() throws IOException {
+        IOException exception = null;
+        for (Column column : fColumns) {
+            try {
+                column.dispose();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long align(long length) {
+        return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static ColumnType typeOf(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof ITmfTimestamp) {
+            return ColumnType.INT64;
+        }
+        if (value instanceof Number) {
+            return ColumnType.FLOAT64;
+        }
+        return ColumnType.DICTIONARY;
+    }
+
+    private static long toLong(@Nullable Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof ITmfTimestamp) {
+            return ((ITmfTimestamp) value).toNanos();
+        }
+        return Long.MIN_VALUE;
+    }
+
+    private static String toText(Object value) {
+        if (value.getClass().isArray()) {
+            // Arrays of primitives, like the values of array fields
+            String text = Arrays.deepToString(new Object[] { value });
+            return text.substring(1, text.length() - 1);
+        }
+        return String.valueOf(value);
+    }
+
+}
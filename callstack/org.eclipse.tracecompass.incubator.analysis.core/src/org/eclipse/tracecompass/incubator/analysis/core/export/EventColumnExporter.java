@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+
+/**
+ * Export a projection of the events of a trace to a columnar file, written by
+ * a {@link ColumnarFileWriter}. The trace is read once and each event is one
+ * row, with one column per requested field.
+ *
+ * A column can be:
+ * <ul>
+ * <li>{@link #TIMESTAMP}: the timestamp of the event, in nanoseconds</li>
+ * <li>{@link #NAME}: the name of the event</li>
+ * <li>{@link #CPU}: the CPU of the event, as resolved by the trace's CPU
+ * aspect</li>
+ * <li>the path of a field of the event, the names of the sub-fields being
+ * separated by <code>/</code>, for example <code>prev_tid</code> or
+ * <code>context/_vtid</code></li>
+ * <li>the name of an aspect of the trace, if the event has no such field</li>
+ * </ul>
+ *
+ * The file can then be read in python, for example:
+ *
+ * <pre>
+ * import json, numpy
+ * with open(path, 'rb') as f:
+ *     f.read(8)
+ *     length = int.from_bytes(f.read(8), 'little')
+ *     schema = json.loads(f.read(length))
+ * column = schema['columns'][0]
+ * values = numpy.fromfile(path, dtype='&lt;i8', count=schema['rows'], offset=16 + length + column['offset'])
+ * </pre>
+ *
+ * @author agent
+ */
+public final class EventColumnExporter {
+
+    /** Column of the event timestamps */
+    public static final String TIMESTAMP = "timestamp"; //$NON-NLS-1$
+    /** Column of the event names */
+    public static final String NAME = "name"; //$NON-NLS-1$
+    /** Column of the event CPUs */
+    public static final String CPU = "cpu"; //$NON-NLS-1$
+
+    private static final String FIELD_SEPARATOR = "/"; //$NON-NLS-1$
+
+    private EventColumnExporter() {
+        // Nothing to do
+    }
+
+    /**
+     * Export the columns of all the events of a trace to a file
+     *
+     * @param trace
+     *            The trace to export
+     * @param columns
+     *            The columns to export
+     * @param file
+     *            The file to write
+     * @param monitor
+     *            The progress monitor, to cancel the export
+     * @return The number of events exported
+     * @throws IOException
+     *             If the file cannot be written or the export was cancelled
+     */
+    public static long export(ITmfTrace trace, List<String> columns, Path file, @Nullable IProgressMonitor monitor) throws IOException {
+        return export(trace, columns, file, TmfTimeRange.ETERNITY, monitor);
+    }
+
+    /**
+     * Export the columns of the events of a trace in a time range to a file
+     *
+     * @param trace
+     *            The trace to export
+     * @param columns
+     *            The columns to export
+     * @param file
+     *            The file to write
+     * @param range
+     *            The time range of the events to export
+     * @param monitor
+     *            The progress monitor, to cancel the export
+     * @return The number of events exported
+     * @throws IOException
+     *             If the file cannot be written or the export was cancelled
+     */
+    public static long export(ITmfTrace trace, List<String> columns, Path file, TmfTimeRange range, @Nullable IProgressMonitor monitor) throws IOException {
+        List<Function<ITmfEvent, @Nullable Object>> resolvers = new ArrayList<>();
+        for (String column : columns) {
+            resolvers.add(getResolver(trace, column));
+        }
+
+        ColumnarFileWriter writer = new ColumnarFileWriter(file, columns);
+        IOException[] failure = new IOException[1];
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, range, 0, ITmfEventRequest.ALL_DATA, ITmfEventRequest.ExecutionType.FOREGROUND) {
+            private final @Nullable Object[] fRow = new @Nullable Object[resolvers.size()];
+
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                if (monitor != null && monitor.isCanceled()) {
+                    cancel();
+                    return;
+                }
+                for (int i = 0; i < fRow.length; i++) {
+                    fRow[i] = resolvers.get(i).apply(event);
+                }
+                synchronized (writer) {
+                    // The file may have been aborted after a cancel
+                    if (isCancelled()) {
+                        return;
+                    }
+                    try {
+                        writer.addRow(fRow);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                        cancel();
+                    }
+                }
+            }
+        };
+        trace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            request.cancel();
+            // Let the request stop writing before aborting the file
+            awaitCompletion(request);
+            Thread.currentThread().interrupt();
+        }
+
+        IOException exception = failure[0];
+        if (exception == null && request.isCancelled()) {
+            exception = new IOException("The export of " + trace.getName() + " was cancelled"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (exception != null) {
+            // A cancelled request may be completed while still handling an event
+            synchronized (writer) {
+                writer.abort();
+            }
+            throw exception;
+        }
+        writer.close();
+        return writer.getRowCount();
+    }
+
+    private static void awaitCompletion(ITmfEventRequest request) {
+        while (true) {
+            try {
+                request.waitForCompletion();
+                return;
+            } catch (InterruptedException e) {
+                // Keep waiting, the caller restores the interrupt
+            }
+        }
+    }
+
+    private static Function<ITmfEvent, @Nullable Object> getResolver(ITmfTrace trace, String column) {
+        switch (column) {
+        case TIMESTAMP:
+            return event -> event.getTimestamp().toNanos();
+        case NAME:
+            return ITmfEvent::getName;
+        case CPU:
+            return event -> TmfTraceUtils.resolveEventAspectOfClassForEvent(trace, TmfCpuAspect.class, event);
+        default:
+            String[] path = column.split(FIELD_SEPARATOR);
+            return event -> {
+                ITmfEventField field = event.getContent().getField(path);
+                if (field != null) {
+                    return field.getValue();
+                }
+                return TmfTraceUtils.resolveAspectOfNameForEvent(trace, column, event);
+            };
+        }
+    }
+
+}
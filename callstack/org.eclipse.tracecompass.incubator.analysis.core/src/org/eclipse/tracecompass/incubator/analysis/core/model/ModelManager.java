@@ -11,8 +11,9 @@
 
 package org.eclipse.tracecompass.incubator.analysis.core.model;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.tracecompass.incubator.internal.analysis.core.model.CompositeHostModel;
 
@@ -23,7 +24,7 @@ import org.eclipse.tracecompass.incubator.internal.analysis.core.model.Composite
  */
 public final class ModelManager {
 
-    private static final Map<String, IHostModel> MODELS_FOR_HOST = new HashMap<>();
+    private static final Map<String, IHostModel> MODELS_FOR_HOST = new ConcurrentHashMap<>();
 
     private ModelManager() {
 
@@ -36,21 +37,25 @@ public final class ModelManager {
      *            The ID of the host for which to retrieve the model
      * @return The model for the host
      */
-    public static synchronized IHostModel getModelFor(String hostId) {
+    public static IHostModel getModelFor(String hostId) {
+        // Fast path without locking when the model already exists
         IHostModel model = MODELS_FOR_HOST.get(hostId);
-        if (model == null) {
-            model = new CompositeHostModel(hostId);
-            MODELS_FOR_HOST.put(hostId, model);
+        if (model != null) {
+            return model;
         }
-        return model;
+        return MODELS_FOR_HOST.computeIfAbsent(hostId, CompositeHostModel::new);
     }
 
     /**
      * Dispose all the models
      */
-    public static synchronized void disposeModels() {
-        MODELS_FOR_HOST.values().forEach(IHostModel::dispose);
-        MODELS_FOR_HOST.clear();
+    public static void disposeModels() {
+        Iterator<IHostModel> models = MODELS_FOR_HOST.values().iterator();
+        while (models.hasNext()) {
+            IHostModel model = models.next();
+            models.remove();
+            model.dispose();
+        }
     }
 
 }
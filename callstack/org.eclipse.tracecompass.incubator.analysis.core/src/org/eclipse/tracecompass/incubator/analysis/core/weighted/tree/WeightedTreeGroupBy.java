@@ -11,19 +11,36 @@
 
 package org.eclipse.tracecompass.incubator.analysis.core.weighted.tree;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.jdt.annotation.NonNull;
 
 /**
  * A class containing helper methods to group aggregated callgraph data by the
- * different available groups
+ * different available groups.
+ *
+ * The trees to aggregate in each group are first collected, then merged as a
+ * parallel reduction on the common fork-join pool. Subsets of trees are always
+ * combined from left to right, so the result does not depend on the number of
+ * threads used.
  *
  * @author Geneviève Bastien
  */
 public final class WeightedTreeGroupBy {
 
+    /**
+     * Number of trees under which a subset is merged directly instead of being
+     * split further
+     */
+    private static final int MERGE_THRESHOLD = 32;
+
     private WeightedTreeGroupBy() {
         // Nothing to do
     }
@@ -67,14 +84,13 @@ public final class WeightedTreeGroupBy {
             level++;
         }
 
-        WeightedTreeSet<N, Object> newCg = new WeightedTreeSet<>();
-
+        Map<Object, List<T>> groupedTrees = new LinkedHashMap<>();
         Collection<E> elements = callGraph.getElements();
         for (E element : elements) {
             Object groupElement = (element instanceof ITree) ? ((ITree) element).copyElement() : Objects.requireNonNull(element);
-            recurseAddElementData(element, groupElement, callGraph, newCg, 0, level);
+            recurseAddElementData(element, groupElement, callGraph, groupedTrees, 0, level);
         }
-        return newCg;
+        return mergeGroups(groupedTrees);
     }
 
     /*
@@ -84,8 +100,8 @@ public final class WeightedTreeGroupBy {
      *            The last group element
      * @param treeSet
      *            The original weighted tree set
-     * @param newTreeSet
-     *            The new weighted tree set to fill
+     * @param groupedTrees
+     *            The trees to merge for each group element
      * @param elDepth
      *            The current element depth
      * @param groupDepth
@@ -94,11 +110,12 @@ public final class WeightedTreeGroupBy {
      *            treeset, otherwise, they are merged with the trees for the
      *            element at the group depth
      */
-    private static <@NonNull N, E, T extends WeightedTree<N>> void recurseAddElementData(E originalElement, Object groupElement, IWeightedTreeSet<@NonNull N, E, T> treeSet, WeightedTreeSet<@NonNull N, Object> newTreeSet, int elDepth, int groupDepth) {
+    private static <@NonNull N, E, T extends WeightedTree<N>> void recurseAddElementData(E originalElement, Object groupElement, IWeightedTreeSet<@NonNull N, E, T> treeSet, Map<Object, List<T>> groupedTrees, int elDepth, int groupDepth) {
 
-        // Add the current level of trees to the new tree set
-        for (T tree : treeSet.getTreesFor(originalElement)) {
-            newTreeSet.addWeightedTree(groupElement, tree.copyOf());
+        // Add the current level of trees to the trees to merge for this group
+        Collection<T> trees = treeSet.getTreesFor(originalElement);
+        if (!trees.isEmpty()) {
+            groupedTrees.computeIfAbsent(groupElement, g -> new ArrayList<>()).addAll(trees);
         }
 
         // Recursively add the next level of elements
@@ -111,46 +128,121 @@ public final class WeightedTreeGroupBy {
                     nextGroupEl = child.copyElement();
                     ((ITree) groupElement).addChild(nextGroupEl);
                 }
-                recurseAddElementData((E) child, nextGroupEl, treeSet, newTreeSet, elDepth + 1, groupDepth);
+                recurseAddElementData((E) child, nextGroupEl, treeSet, groupedTrees, elDepth + 1, groupDepth);
             }
         }
 
     }
 
     private static <@NonNull N, E, T extends WeightedTree<N>> WeightedTreeSet<N, Object> groupWeightedTreeByAll(IWeightedTreeSet<N, E, T> weightedTree) {
-        WeightedTreeSet<N, Object> newTreeSet = new WeightedTreeSet<>();
+        List<T> allTrees = new ArrayList<>();
         Collection<E> elements = weightedTree.getElements();
-        String mainGroup = "All"; //$NON-NLS-1$
         for (E element : elements) {
-            recurseAddElementData(element, mainGroup, weightedTree, newTreeSet);
+            recurseAddElementData(element, weightedTree, allTrees);
         }
-        return newTreeSet;
+        Map<Object, List<T>> groupedTrees = new LinkedHashMap<>();
+        if (!allTrees.isEmpty()) {
+            groupedTrees.put("All", allTrees); //$NON-NLS-1$
+        }
+        return mergeGroups(groupedTrees);
     }
 
     /*
      * @param element
      *            The element to get the trees for
-     * @param groupElement
-     *            The last group element
      * @param treeSet
      *            The original weighted tree set
-     * @param newTreeSet
-     *            The new weighted tree set to fill
+     * @param allTrees
+     *            The list of trees to fill
      */
-    private static <@NonNull N, E, T extends WeightedTree<N>> void recurseAddElementData(E element, String group, IWeightedTreeSet<@NonNull N, E, T> treeSet, WeightedTreeSet<@NonNull N, Object> newTreeSet) {
+    private static <@NonNull N, E, T extends WeightedTree<N>> void recurseAddElementData(E element, IWeightedTreeSet<@NonNull N, E, T> treeSet, List<T> allTrees) {
 
-        // Add the current level of trees to the new tree set
-        for (T tree : treeSet.getTreesFor(element)) {
-            newTreeSet.addWeightedTree(group, tree.copyOf());
-        }
+        // Add the current level of trees to the list
+        allTrees.addAll(treeSet.getTreesFor(element));
 
         // Recursively add the next level of elements
         if (element instanceof ITree) {
             ITree treeEl = (ITree) element;
             Collection<?> children = treeEl.getChildren();
             for (Object child : children) {
-                recurseAddElementData((E) child, group, treeSet, newTreeSet);
+                recurseAddElementData((E) child, treeSet, allTrees);
+            }
+        }
+    }
+
+    /**
+     * Merge the trees of each group in parallel and add the results to a new
+     * weighted tree set. Groups are added to the tree set in the iteration
+     * order of the map.
+     */
+    private static <@NonNull N, T extends WeightedTree<N>> WeightedTreeSet<N, Object> mergeGroups(Map<Object, List<T>> groupedTrees) {
+        List<MergeTask<N, T>> tasks = new ArrayList<>(groupedTrees.size());
+        for (List<T> trees : groupedTrees.values()) {
+            tasks.add(new MergeTask<>(trees, 0, trees.size()));
+        }
+        // Tasks forked from outside a fork-join pool run in the common pool
+        ForkJoinTask.invokeAll(tasks);
+
+        WeightedTreeSet<N, Object> newTreeSet = new WeightedTreeSet<>();
+        int i = 0;
+        for (Object group : groupedTrees.keySet()) {
+            for (WeightedTree<N> tree : tasks.get(i).join().values()) {
+                newTreeSet.addWeightedTree(group, tree);
+            }
+            i++;
+        }
+        return newTreeSet;
+    }
+
+    /**
+     * Divide and conquer task that merges a range of trees together, by tree
+     * object. The trees of the original list are not modified, the leaf tasks
+     * merge into copies of the trees.
+     */
+    private static class MergeTask<@NonNull N, T extends WeightedTree<N>> extends RecursiveTask<Map<N, WeightedTree<N>>> {
+
+        private static final long serialVersionUID = -3413384787632066125L;
+
+        private final transient List<T> fTrees;
+        private final int fStart;
+        private final int fEnd;
+
+        public MergeTask(List<T> trees, int start, int end) {
+            fTrees = trees;
+            fStart = start;
+            fEnd = end;
+        }
+
+        @Override
+        protected Map<N, WeightedTree<N>> compute() {
+            if (fEnd - fStart <= MERGE_THRESHOLD) {
+                Map<N, WeightedTree<N>> merged = new LinkedHashMap<>();
+                for (int i = fStart; i < fEnd; i++) {
+                    T tree = fTrees.get(i);
+                    WeightedTree<N> current = merged.get(tree.getObject());
+                    if (current == null) {
+                        merged.put(tree.getObject(), tree.copyOf());
+                    } else {
+                        current.merge(tree);
+                    }
+                }
+                return merged;
+            }
+            int middle = (fStart + fEnd) >>> 1;
+            MergeTask<N, T> left = new MergeTask<>(fTrees, fStart, middle);
+            MergeTask<N, T> right = new MergeTask<>(fTrees, middle, fEnd);
+            right.fork();
+            Map<N, WeightedTree<N>> merged = left.compute();
+            // Always merge the right subset into the left one, for determinism
+            for (WeightedTree<N> tree : right.join().values()) {
+                WeightedTree<N> current = merged.get(tree.getObject());
+                if (current == null) {
+                    merged.put(tree.getObject(), tree);
+                } else {
+                    current.merge(tree);
+                }
             }
+            return merged;
         }
     }
 
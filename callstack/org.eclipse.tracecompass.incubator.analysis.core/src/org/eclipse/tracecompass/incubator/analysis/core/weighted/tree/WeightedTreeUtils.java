@@ -11,16 +11,21 @@
 
 package org.eclipse.tracecompass.incubator.analysis.core.weighted.tree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.diff.DifferentialWeightedTree;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.diff.DifferentialWeightedTreeProvider;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.diff.DifferentialWeightedTreeSet;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.weighted.tree.DifferentialStatistics;
 import org.eclipse.tracecompass.tmf.core.util.Pair;
 
 import com.google.common.collect.ImmutableList;
@@ -41,6 +46,11 @@ public final class WeightedTreeUtils {
      * differently than in tree1. The base weight come from the second tree and
      * the differential value will show the difference with the first tree.
      *
+     * The trees are aligned by path of objects in a single pass, each level of
+     * the first tree being indexed by object, so the cost is linear in the
+     * number of nodes of the second tree. The recursion is done with an
+     * explicit stack so that very deep trees can be compared.
+     *
      * @param <T>
      *            The type of element in the tree
      * @param first
@@ -51,22 +61,62 @@ public final class WeightedTreeUtils {
      */
     public static <@NonNull T> Collection<DifferentialWeightedTree<T>> diffTrees(Collection<WeightedTree<T>> first, Collection<WeightedTree<T>> second) {
         List<DifferentialWeightedTree<T>> diffTrees = new ArrayList<>();
-        for (WeightedTree<T> base : second) {
-            T object = base.getObject();
-            // Find the equivalent tree in the first collection
-            WeightedTree<T> other = findObject(first, object);
-            double diffWeight = other == null ? Double.NaN : (double) (base.getWeight() - other.getWeight()) / other.getWeight();
-            DifferentialWeightedTree<@NonNull T> diffTree = new DifferentialWeightedTree<>(base, object, base.getWeight(), diffWeight);
-            diffTrees.add(diffTree);
-
-            // Make the differential of the children
-            for (DifferentialWeightedTree<T> childTree : diffTrees(other == null ? Collections.emptyList() : other.getChildren(), base.getChildren())) {
-                diffTree.addChild(childTree);
+        Deque<DiffLevel<T>> toDiff = new ArrayDeque<>();
+        toDiff.push(new DiffLevel<>(null, first, second));
+        while (!toDiff.isEmpty()) {
+            DiffLevel<T> level = toDiff.pop();
+            Map<T, WeightedTree<T>> firstByObject = new HashMap<>();
+            for (WeightedTree<T> other : level.fFirst) {
+                firstByObject.putIfAbsent(other.getObject(), other);
+            }
+            for (WeightedTree<T> base : level.fSecond) {
+                // Find the equivalent tree in the first collection
+                WeightedTree<T> other = firstByObject.get(base.getObject());
+                DifferentialWeightedTree<T> diffTree = createDiffTree(base, other);
+                DifferentialWeightedTree<T> parent = level.fParent;
+                if (parent == null) {
+                    diffTrees.add(diffTree);
+                } else {
+                    parent.addChild(diffTree);
+                }
+
+                // Make the differential of the children
+                Collection<WeightedTree<T>> children = base.getChildren();
+                if (!children.isEmpty()) {
+                    toDiff.push(new DiffLevel<>(diffTree, other == null ? Collections.emptyList() : other.getChildren(), children));
+                }
             }
         }
         return diffTrees;
     }
 
+    private static <@NonNull T> DifferentialWeightedTree<T> createDiffTree(WeightedTree<T> base, @Nullable WeightedTree<T> other) {
+        long weight = base.getWeight();
+        if (other == null) {
+            return new DifferentialWeightedTree<>(base, base.getObject(), weight, Double.NaN, weight, Double.NaN);
+        }
+        long otherWeight = other.getWeight();
+        double diffWeight = (double) (weight - otherWeight) / otherWeight;
+        double significance = DifferentialStatistics.getPValue(other.getStatistics(-1), base.getStatistics(-1));
+        return new DifferentialWeightedTree<>(base, base.getObject(), weight, diffWeight, weight - otherWeight, significance);
+    }
+
+    /**
+     * A level of the trees to differentiate: the trees to compare and the
+     * differential tree to which to add the results
+     */
+    private static class DiffLevel<@NonNull T> {
+        private final @Nullable DifferentialWeightedTree<T> fParent;
+        private final Collection<WeightedTree<T>> fFirst;
+        private final Collection<WeightedTree<T>> fSecond;
+
+        public DiffLevel(@Nullable DifferentialWeightedTree<T> parent, Collection<WeightedTree<T>> first, Collection<WeightedTree<T>> second) {
+            fParent = parent;
+            fFirst = first;
+            fSecond = second;
+        }
+    }
+
     /**
      * Does the differential between 2 weighted tree sets, ie for each
      * comparable elements, what happened in tree set 2 differently than in tree
@@ -191,13 +241,4 @@ public final class WeightedTreeUtils {
         return pairedElements;
     }
 
-    private static @Nullable <@NonNull T> WeightedTree<T> findObject(Collection<WeightedTree<T>> tree, @NonNull T object) {
-        for (WeightedTree<T> other : tree) {
-            if (other.getObject().equals(object)) {
-                return other;
-            }
-        }
-        return null;
-    }
-
 }
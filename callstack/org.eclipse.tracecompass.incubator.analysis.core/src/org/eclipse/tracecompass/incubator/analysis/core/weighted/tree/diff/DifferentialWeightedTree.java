@@ -27,6 +27,8 @@ import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTr
 public class DifferentialWeightedTree<@NonNull T> extends WeightedTree<@NonNull T> {
 
     private final double fDifference;
+    private final long fAbsoluteDifference;
+    private final double fSignificance;
     private final WeightedTree<@NonNull T> fOriginalTree;
 
     /**
@@ -43,8 +45,32 @@ public class DifferentialWeightedTree<@NonNull T> extends WeightedTree<@NonNull
      *            The differential weight with the base
      */
     public DifferentialWeightedTree(WeightedTree<T> originalTree, T object, long initialWeight, double diffWeight) {
+        this(originalTree, object, initialWeight, diffWeight, initialWeight, Double.NaN);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param originalTree
+     *            The base tree from which this differential tree was computed.
+     *            Used for additional metrics and texts.
+     * @param object
+     *            The object this tree is linked to
+     * @param initialWeight
+     *            The initial weight of this tree
+     * @param diffWeight
+     *            The differential weight with the base
+     * @param absoluteDiff
+     *            The absolute difference of weight with the base
+     * @param significance
+     *            The p-value of the difference, or {@link Double#NaN} if it
+     *            could not be computed
+     */
+    public DifferentialWeightedTree(WeightedTree<T> originalTree, T object, long initialWeight, double diffWeight, long absoluteDiff, double significance) {
         super(object, initialWeight);
         fDifference = diffWeight;
+        fAbsoluteDifference = absoluteDiff;
+        fSignificance = significance;
         fOriginalTree = originalTree;
     }
 
@@ -63,6 +89,30 @@ public class DifferentialWeightedTree<@NonNull T> extends WeightedTree<@NonNull
         return fDifference;
     }
 
+    /**
+     * Get the absolute difference between the weight of this tree and the
+     * weight of the tree it was compared to. If the object was not present in
+     * the other tree, this is the weight of this tree.
+     *
+     * @return The absolute difference of weight
+     */
+    public long getAbsoluteDifference() {
+        return fAbsoluteDifference;
+    }
+
+    /**
+     * Get the statistical significance of the difference, as the p-value of a
+     * test that the weights of the instances of this object come from the same
+     * distribution in both trees. A small value means the difference is
+     * significant.
+     *
+     * @return The p-value of the difference, or {@link Double#NaN} if the
+     *         trees do not have statistics to compute it
+     */
+    public double getSignificance() {
+        return fSignificance;
+    }
+
     /**
      * Get the base tree from which this differential weighted tree was computed
      *
@@ -72,7 +72,38 @@ public class DifferentialWeightedTreeProvider<@NonNull N> implements IWeightedTr
 
     };
 
+    private static final Format SIGNIFICANCE_FORMAT = new Format() {
+
+        /**
+         * UUID for this format
+         */
+        private static final long serialVersionUID = -2427094437290349372L;
+
+        private final Format fPValueFormat = new DecimalFormat("0.####"); //$NON-NLS-1$
+
+        @Override
+        public @Nullable StringBuffer format(@Nullable Object obj, @Nullable StringBuffer toAppendTo, @Nullable FieldPosition pos) {
+            StringBuffer buf = toAppendTo;
+            if (buf == null) {
+                buf = new StringBuffer();
+            }
+            if (obj instanceof Number && Double.isNaN(((Number) obj).doubleValue())) {
+                return buf.append("N/A"); //$NON-NLS-1$
+            }
+            return fPValueFormat.format(obj, buf, pos);
+        }
+
+        @Override
+        public @Nullable Object parseObject(@Nullable String source, @Nullable ParsePosition pos) {
+            return null;
+        }
+
+    };
+
     private static final List<MetricType> WEIGHT_TYPES = Collections.singletonList(new MetricType("Differential", DataType.OTHER, DIFFERENTIAL_FORMAT)); //$NON-NLS-1$
+    private static final MetricType SIGNIFICANCE_TYPE = new MetricType("Significance (p-value)", DataType.OTHER, SIGNIFICANCE_FORMAT); //$NON-NLS-1$
+    /* Number of metrics added by this provider before the original ones */
+    private static final int NB_DIFF_METRICS = 3;
 
     private final IWeightedTreeSet<N, Object, DifferentialWeightedTree<N>> fTreeSet;
 
@@ -103,6 +134,8 @@ public class DifferentialWeightedTreeProvider<@NonNull N> implements IWeightedTr
     public DifferentialWeightedTreeProvider(IWeightedTreeProvider<N, ?, WeightedTree<N>> originalTree, DifferentialWeightedTreeSet<N> treeSet) {
         fOriginalTree = originalTree;
         fTreeSet = treeSet;
+        fAdditionalMetrics.add(new MetricType("Absolute Difference", fOriginalTree.getWeightType().getDataType(), null)); //$NON-NLS-1$
+        fAdditionalMetrics.add(SIGNIFICANCE_TYPE);
         fAdditionalMetrics.addAll(fOriginalTree.getAdditionalMetrics());
     }
 
@@ -153,10 +186,16 @@ public class DifferentialWeightedTreeProvider<@NonNull N> implements IWeightedTr
 
     @Override
     public Object getAdditionalMetric(DifferentialWeightedTree<N> object, int metricIndex) {
-        if (metricIndex == 0) {
+        switch (metricIndex) {
+        case 0:
             return object.getDifference();
+        case 1:
+            return object.getAbsoluteDifference();
+        case 2:
+            return object.getSignificance();
+        default:
+            return fOriginalTree.getAdditionalMetric(object.getOriginalTree(), metricIndex - NB_DIFF_METRICS);
         }
-        return fOriginalTree.getAdditionalMetric(object.getOriginalTree(), metricIndex - 1);
     }
 
     @Override
@@ -17,11 +17,13 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelAnalysisModule;
@@ -62,7 +64,7 @@ public class CompositeHostModel implements IHostModel {
     private final Set<ICpuTimeProvider> fCpuTimeProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<ICpuTimeProvider, Boolean>()));
     private final Set<IThreadOnCpuProvider> fThreadOnCpuProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<IThreadOnCpuProvider, Boolean>()));
     private final Set<ISamplingDataProvider> fSamplingDataProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<ISamplingDataProvider, Boolean>()));
-    private final Set<KernelAnalysisModule> fKernelModules = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<KernelAnalysisModule, Boolean>()));
+    private final Map<KernelAnalysisModule, KernelThreadInfoCache> fKernelModules = new ConcurrentHashMap<>();
     private final String fHostId;
 
     /**
@@ -111,19 +113,24 @@ public class CompositeHostModel implements IHostModel {
 
     @Override
     public int getProcessId(int tid, long t) {
-        Integer pid = fKernelModules.stream()
-                .map(module -> KernelThreadInformationProvider.getProcessId(module, tid, t))
-                .filter(Objects::nonNull)
-                .findFirst().orElse(null);
-        return pid == null ? IHostModel.UNKNOWN_TID : (int) pid;
+        for (KernelThreadInfoCache cache : fKernelModules.values()) {
+            Integer pid = cache.getProcessId(tid, t);
+            if (pid != null) {
+                return pid;
+            }
+        }
+        return IHostModel.UNKNOWN_TID;
     }
 
     @Override
     public @Nullable String getExecName(int tid, long t) {
-        return fKernelModules.stream()
-                .map(module -> KernelThreadInformationProvider.getExecutableName(module, tid))
-                .filter(Objects::nonNull)
-                .findFirst().orElse(null);
+        for (KernelThreadInfoCache cache : fKernelModules.values()) {
+            String execName = cache.getExecName(tid);
+            if (execName != null) {
+                return execName;
+            }
+        }
+        return null;
     }
 
     /**
@@ -204,7 +211,7 @@ public class CompositeHostModel implements IHostModel {
      *            The kernel analysis module
      */
     public void setKernelModule(ITmfTrace trace, KernelAnalysisModule module) {
-        fKernelModules.add(module);
+        fKernelModules.computeIfAbsent(module, KernelThreadInfoCache::new);
         fTraceObjectMap.put(trace, module);
     }
 
@@ -337,7 +344,7 @@ public class CompositeHostModel implements IHostModel {
         if (requiredData.contains(ModelDataType.PID) || requiredData.contains(ModelDataType.EXEC_NAME) ||
                 requiredData.contains(ModelDataType.KERNEL_STATES)) {
             // Add the kernel modules
-            list.addAll(fKernelModules);
+            list.addAll(fKernelModules.keySet());
         }
         if (requiredData.contains(ModelDataType.TID)) {
             list.addAll(getModulesFrom(fThreadOnCpuProviders));
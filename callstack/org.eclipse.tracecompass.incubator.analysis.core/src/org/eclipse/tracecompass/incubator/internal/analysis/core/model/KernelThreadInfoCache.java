@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.analysis.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelAnalysisModule;
+import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelThreadInformationProvider;
+import org.eclipse.tracecompass.internal.analysis.os.linux.core.kernel.Attributes;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Time-indexed cache of the thread attributes of a kernel analysis. The
+ * attributes of a thread are read in a single query of the state system the
+ * first time they are requested, once the kernel state system is completely
+ * built, and then kept in primitive arrays. Reads do not take any lock.
+ *
+ * Until the state system is built, the queries are forwarded to the
+ * {@link KernelThreadInformationProvider}.
+ *
+ * @author agent
+ */
+@SuppressWarnings("restriction")
+class KernelThreadInfoCache {
+
+    private static final ThreadInfo UNKNOWN_THREAD = new ThreadInfo(new long[0], new long[0], new int[0], null);
+
+    private final KernelAnalysisModule fModule;
+    private final Map<Integer, ThreadInfo> fThreads = new ConcurrentHashMap<>();
+
+    /**
+     * The process IDs of a thread, sorted by time, and its executable name
+     */
+    private static class ThreadInfo {
+        private final long[] fStarts;
+        private final long[] fEnds;
+        private final int[] fPids;
+        private final @Nullable String fExecName;
+
+        public ThreadInfo(long[] starts, long[] ends, int[] pids, @Nullable String execName) {
+            fStarts = starts;
+            fEnds = ends;
+            fPids = pids;
+            fExecName = execName;
+        }
+
+        public @Nullable Integer getProcessId(long t) {
+            if (fPids.length == 0) {
+                return null;
+            }
+            if (t < 0) {
+                return fPids[0];
+            }
+            int index = Arrays.binarySearch(fStarts, t);
+            index = (index >= 0) ? index : -index - 2;
+            if (index < 0 || t > fEnds[index]) {
+                return null;
+            }
+            return fPids[index];
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param module
+     *            The kernel analysis module to cache data from
+     */
+    public KernelThreadInfoCache(KernelAnalysisModule module) {
+        fModule = module;
+    }
+
+    /**
+     * Get the process ID of a thread at a given time
+     *
+     * @param tid
+     *            The ID of the thread
+     * @param t
+     *            The time of the query. A negative value returns the first
+     *            process ID of this thread.
+     * @return The process ID, or <code>null</code> if not available
+     */
+    public @Nullable Integer getProcessId(int tid, long t) {
+        ThreadInfo info = getThreadInfo(tid);
+        if (info == null) {
+            return KernelThreadInformationProvider.getProcessId(fModule, tid, t);
+        }
+        return info.getProcessId(t);
+    }
+
+    /**
+     * Get the last known executable name of a thread
+     *
+     * @param tid
+     *            The ID of the thread
+     * @return The executable name, or <code>null</code> if not available
+     */
+    public @Nullable String getExecName(int tid) {
+        ThreadInfo info = getThreadInfo(tid);
+        if (info == null) {
+            return KernelThreadInformationProvider.getExecutableName(fModule, tid);
+        }
+        return info.fExecName;
+    }
+
+    private @Nullable ThreadInfo getThreadInfo(int tid) {
+        ThreadInfo info = fThreads.get(tid);
+        if (info != null) {
+            return info;
+        }
+        ITmfStateSystem ss = fModule.getStateSystem();
+        if (ss == null || !ss.waitUntilBuilt(0)) {
+            // The data may still change, do not cache it
+            return null;
+        }
+        try {
+            info = readThreadInfo(ss, tid);
+        } catch (TimeRangeException | IndexOutOfBoundsException | StateSystemDisposedException e) {
+            return null;
+        }
+        // Concurrent readers may have read the same data, keep the first one
+        ThreadInfo previous = fThreads.putIfAbsent(tid, info);
+        return previous == null ? info : previous;
+    }
+
+    private static ThreadInfo readThreadInfo(ITmfStateSystem ss, int tid) throws StateSystemDisposedException {
+        int threadQuark = ss.optQuarkAbsolute(Attributes.THREADS, String.valueOf(tid));
+        if (threadQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+            return UNKNOWN_THREAD;
+        }
+        int pidQuark = ss.optQuarkRelative(threadQuark, Attributes.PID);
+        int execQuark = ss.optQuarkRelative(threadQuark, Attributes.EXEC_NAME);
+        List<Integer> quarks = new ArrayList<>();
+        if (pidQuark != ITmfStateSystem.INVALID_ATTRIBUTE) {
+            quarks.add(pidQuark);
+        }
+        if (execQuark != ITmfStateSystem.INVALID_ATTRIBUTE) {
+            quarks.add(execQuark);
+        }
+        if (quarks.isEmpty()) {
+            return UNKNOWN_THREAD;
+        }
+
+        // Read all the intervals of the thread's attributes in one sweep
+        List<ITmfStateInterval> pidIntervals = new ArrayList<>();
+        String execName = null;
+        long execNameStart = Long.MIN_VALUE;
+        for (ITmfStateInterval interval : ss.query2D(quarks, ss.getStartTime(), ss.getCurrentEndTime())) {
+            Object value = interval.getValue();
+            if (interval.getAttribute() == pidQuark) {
+                if (value instanceof Integer) {
+                    pidIntervals.add(interval);
+                }
+            } else if (value instanceof String && interval.getStartTime() >= execNameStart) {
+                execName = (String) value;
+                execNameStart = interval.getStartTime();
+            }
+        }
+
+        pidIntervals.sort(Comparator.comparingLong(ITmfStateInterval::getStartTime));
+        int size = pidIntervals.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        int[] pids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ITmfStateInterval interval = pidIntervals.get(i);
+            starts[i] = interval.getStartTime();
+            ends[i] = interval.getEndTime();
+            pids[i] = (Integer) interval.getValue();
+        }
+        return new ThreadInfo(starts, ends, pids, execName);
+    }
+
+}
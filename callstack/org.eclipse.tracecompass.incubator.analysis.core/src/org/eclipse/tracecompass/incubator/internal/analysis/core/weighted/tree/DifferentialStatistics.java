@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.analysis.core.weighted.tree;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+
+/**
+ * Statistical tests to assess the significance of the difference between 2
+ * differentiated trees.
+ *
+ * The weighted trees only keep summary statistics of their instances (count,
+ * mean and standard deviation), so the test used is Welch's unequal variances
+ * t-test. The p-value is approximated with the normal distribution, which is
+ * accurate when there are a few dozen instances on each side.
+ *
+ * @author agent
+ */
+public final class DifferentialStatistics {
+
+    private DifferentialStatistics() {
+        // Nothing to do
+    }
+
+    /**
+     * Get the two-sided p-value of the difference between the means of 2
+     * statistics
+     *
+     * @param first
+     *            The statistics of the first tree
+     * @param second
+     *            The statistics of the second tree
+     * @return The p-value, between 0 and 1, or {@link Double#NaN} if any of the
+     *         statistics is not available or does not have enough elements
+     */
+    public static double getPValue(@Nullable IStatistics<?> first, @Nullable IStatistics<?> second) {
+        if (first == null || second == null) {
+            return Double.NaN;
+        }
+        long n1 = first.getNbElements();
+        long n2 = second.getNbElements();
+        if (n1 < 2 || n2 < 2) {
+            return Double.NaN;
+        }
+        double stdErr = Math.sqrt(variance(first) / n1 + variance(second) / n2);
+        double meanDiff = second.getMean() - first.getMean();
+        if (stdErr == 0.0) {
+            // No variance at all, the difference is certain if there is one
+            return meanDiff == 0.0 ? 1.0 : 0.0;
+        }
+        double t = Math.abs(meanDiff) / stdErr;
+        return erfc(t / Math.sqrt(2.0));
+    }
+
+    private static double variance(IStatistics<?> statistics) {
+        double stdDev = statistics.getStdDev();
+        return Double.isNaN(stdDev) ? 0.0 : stdDev * stdDev;
+    }
+
+    /**
+     * Complementary error function, with a fractional error smaller than 1.2e-7
+     * (Numerical Recipes, Chebyshev approximation)
+     */
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * z);
+        double ans = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+                t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+                        t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? ans : 2.0 - ans;
+    }
+
+}
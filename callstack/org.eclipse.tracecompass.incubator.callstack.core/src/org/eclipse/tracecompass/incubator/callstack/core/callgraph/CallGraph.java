@@ -14,6 +14,7 @@ package org.eclipse.tracecompass.incubator.callstack.core.callgraph;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -90,6 +91,20 @@ public class CallGraph implements IWeightedTreeSet<@NonNull ICallStackSymbol, IC
         fCcts.put(dstGroup, callsite);
     }
 
+    /**
+     * Merge the callsites of another call graph in this one. The callsites of
+     * the other call graph may be modified by subsequent additions to this
+     * graph, so the other graph should not be used anymore after this call.
+     *
+     * @param other
+     *            The call graph to merge in this one
+     */
+    public void merge(CallGraph other) {
+        for (Map.Entry<ICallStackElement, AggregatedCallSite> entry : other.fCcts.entries()) {
+            addAggregatedCallSite(entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * Get the root elements containing the call graph data.
      *
@@ -11,16 +11,31 @@
 
 package org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
 import org.eclipse.tracecompass.incubator.analysis.core.concepts.ICallStackSymbol;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
 import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
 import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
 import org.eclipse.tracecompass.incubator.callstack.core.callgraph.ICallGraphProvider;
@@ -50,6 +65,8 @@ import org.eclipse.tracecompass.tmf.core.util.Pair;
 public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalysisModule implements ICallGraphProvider, IEventCallStackProvider {
 
     private static final MetricType WEIGHT_METRIC = new MetricType(Objects.requireNonNull(Messages.CallGraphStats_NbCalls), DataType.NUMBER, null);
+    /** Number of samples handed to a worker thread at once */
+    private static final int SAMPLE_BATCH_SIZE = 4096;
 
     private @Nullable ITmfEventRequest fRequest;
     private final Set<ICallStackElement> fRootElements = new HashSet<>();
@@ -151,6 +168,28 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
         return prevCallsite;
     }
 
+    /**
+     * Get the sampled stack trace of an event, as an array of addresses, in the
+     * same order as for {@link #getCallSite(ICallStackElement, long[], long)}.
+     * Analyses that can provide their samples this way should override this
+     * method: the samples are then aggregated in batches by worker threads
+     * instead of on the event request thread, and identical stacks of a batch
+     * are aggregated only once.
+     *
+     * This method is called on the event request thread, so it can safely
+     * create and add elements. The returned array should not be modified
+     * afterwards.
+     *
+     * @param event
+     *            The trace event to process
+     * @return A pair of callstack element and stack trace for this event, or
+     *         <code>null</code> if this event is not a sample or if this
+     *         analysis does not provide samples as addresses
+     */
+    protected @Nullable Pair<ICallStackElement, long[]> getSampledStack(ITmfEvent event) {
+        return null;
+    }
+
     /**
      * Method to implement to get the call stack from an event. It returns a
      * stack trace in the form or a Pair of {@link ICallStackElement} and
@@ -184,19 +223,25 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
             request.cancel();
         }
 
+        CallGraph callGraph = new CallGraph();
+        SampleAggregator aggregator = new SampleAggregator();
         try {
-            CallGraph callGraph = new CallGraph();
-            request = new ProfilingEventRequest(trace, callGraph, range);
+            request = new ProfilingEventRequest(trace, callGraph, aggregator, range);
             fRequest = request;
             trace.sendRequest(request);
 
             request.waitForCompletion();
-            if (!request.isCompleted()) {
+            if (!request.isCompleted() || request.isCancelled()) {
                 return null;
             }
+            aggregator.finish(callGraph);
             return callGraph;
         } catch (InterruptedException e) {
             Activator.getInstance().logError("Request interrupted", e); //$NON-NLS-1$
+        } catch (ExecutionException e) {
+            Activator.getInstance().logError("Error aggregating the samples", e.getCause()); //$NON-NLS-1$
+        } finally {
+            aggregator.dispose();
         }
         return null;
     }
@@ -213,6 +258,7 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
 
         private final ITmfTrace fTrace;
         private final CallGraph fCallGraph;
+        private final SampleAggregator fAggregator;
 
         /**
          * Constructor
@@ -221,10 +267,12 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
          *            The trace
          * @param callgraph
          *            The callgraph to fill
+         * @param aggregator
+         *            The aggregator of the sampled stacks
          * @param range
          *            The time range of this request
          */
-        public ProfilingEventRequest(ITmfTrace trace, CallGraph callgraph, TmfTimeRange range) {
+        public ProfilingEventRequest(ITmfTrace trace, CallGraph callgraph, SampleAggregator aggregator, TmfTimeRange range) {
             super(TmfEvent.class,
                     range,
                     0,
@@ -232,6 +280,7 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
                     ITmfEventRequest.ExecutionType.BACKGROUND);
             fTrace = trace;
             fCallGraph = callgraph;
+            fAggregator = aggregator;
         }
 
         @Override
@@ -253,6 +302,11 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
         }
 
         private void processEvent(ITmfEvent event) {
+            Pair<ICallStackElement, long[]> sample = getSampledStack(event);
+            if (sample != null) {
+                fAggregator.addSample(sample.getFirst(), sample.getSecond(), event.getTimestamp().getValue());
+                return;
+            }
             Pair<ICallStackElement, AggregatedCallSite> perfCallSite = getProfiledStackTrace(event);
             if (perfCallSite == null) {
                 return;
@@ -261,4 +315,193 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
         }
     }
 
+    /**
+     * Aggregates the sampled stacks in batches on worker threads. Each batch
+     * is aggregated in a partial call graph taken from a pool, so no locking
+     * is required during the aggregation, and the partial call graphs are
+     * merged when the request is done. When all workers are busy, the batches
+     * are aggregated by the event request thread itself, so the number of
+     * pending samples is bounded.
+     */
+    private class SampleAggregator {
+
+        private final ThreadPoolExecutor fExecutor;
+        /* The partial graphs not currently used by a batch */
+        private final BlockingQueue<CallGraph> fAvailableGraphs = new LinkedBlockingQueue<>();
+        private final List<CallGraph> fPartialGraphs = new ArrayList<>();
+        /* The batches submitted, only used by the event request thread */
+        private final List<Future<?>> fPending = new ArrayList<>();
+        private ICallStackElement[] fElements = new ICallStackElement[SAMPLE_BATCH_SIZE];
+        private long[][] fStacks = new long[SAMPLE_BATCH_SIZE][];
+        private long[] fTimestamps = new long[SAMPLE_BATCH_SIZE];
+        private int fSize = 0;
+
+        public SampleAggregator() {
+            int nbThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            fExecutor = new ThreadPoolExecutor(nbThreads, nbThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(nbThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        /**
+         * Add a sample to the current batch. To be called from the event
+         * request thread only.
+         */
+        public void addSample(ICallStackElement element, long[] stack, long ts) {
+            if (stack.length == 0) {
+                return;
+            }
+            fElements[fSize] = element;
+            fStacks[fSize] = stack;
+            fTimestamps[fSize] = ts;
+            fSize++;
+            if (fSize == SAMPLE_BATCH_SIZE) {
+                submitBatch();
+            }
+        }
+
+        private void submitBatch() {
+            ICallStackElement[] elements = fElements;
+            long[][] stacks = fStacks;
+            long[] timestamps = fTimestamps;
+            int size = fSize;
+            fElements = new ICallStackElement[SAMPLE_BATCH_SIZE];
+            fStacks = new long[SAMPLE_BATCH_SIZE][];
+            fTimestamps = new long[SAMPLE_BATCH_SIZE];
+            fSize = 0;
+            // Forget the batches that completed, their failures are checked in finish()
+            fPending.removeIf(future -> future.isDone() && !hasFailed(future));
+            fPending.add(fExecutor.submit(() -> aggregateBatch(elements, stacks, timestamps, size)));
+        }
+
+        private void aggregateBatch(ICallStackElement[] elements, long[][] stacks, long[] timestamps, int size) {
+            // Count the identical stacks of this batch
+            Map<SampleKey, int[]> counts = new HashMap<>();
+            Map<SampleKey, Long> firstTimes = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                SampleKey key = new SampleKey(elements[i], stacks[i]);
+                int[] count = counts.get(key);
+                if (count == null) {
+                    counts.put(key, new int[] { 1 });
+                    firstTimes.put(key, timestamps[i]);
+                } else {
+                    count[0]++;
+                }
+            }
+
+            // Aggregate each distinct stack once, with the weight of all its samples
+            CallGraph graph = takeGraph();
+            try {
+                for (Map.Entry<SampleKey, int[]> entry : counts.entrySet()) {
+                    SampleKey key = entry.getKey();
+                    AggregatedCallSite callsite = getCallSite(key.fElement, key.fStack, Objects.requireNonNull(firstTimes.get(key)));
+                    int extraWeight = entry.getValue()[0] - 1;
+                    if (extraWeight > 0) {
+                        addToChainWeight(callsite, extraWeight);
+                    }
+                    graph.addAggregatedCallSite(key.fElement, callsite);
+                }
+            } finally {
+                fAvailableGraphs.add(graph);
+            }
+        }
+
+        /**
+         * Get a partial graph no other batch is using, there are at most as
+         * many partial graphs as batches aggregated at the same time
+         */
+        private CallGraph takeGraph() {
+            CallGraph graph = fAvailableGraphs.poll();
+            if (graph != null) {
+                return graph;
+            }
+            graph = new CallGraph();
+            synchronized (fPartialGraphs) {
+                fPartialGraphs.add(graph);
+            }
+            return graph;
+        }
+
+        /**
+         * Wait for all batches to be aggregated and merge the partial call
+         * graphs in the call graph
+         *
+         * @throws ExecutionException
+         *             If the aggregation of a batch failed
+         */
+        public void finish(CallGraph callGraph) throws InterruptedException, ExecutionException {
+            if (fSize > 0) {
+                submitBatch();
+            }
+            for (Future<?> future : fPending) {
+                future.get();
+            }
+            fPending.clear();
+            synchronized (fPartialGraphs) {
+                for (CallGraph partial : fPartialGraphs) {
+                    callGraph.merge(partial);
+                }
+                fPartialGraphs.clear();
+            }
+        }
+
+        /**
+         * Stop the worker threads. Pending batches are dropped if the
+         * aggregation was not finished.
+         */
+        public void dispose() {
+            fExecutor.shutdownNow();
+        }
+    }
+
+    private static boolean hasFailed(Future<?> future) {
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException | CancellationException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    private static void addToChainWeight(AggregatedCallSite callsite, long weight) {
+        // The callsites created from a single stack trace form a chain
+        Collection<WeightedTree<ICallStackSymbol>> children = Collections.singleton(callsite);
+        while (!children.isEmpty()) {
+            WeightedTree<ICallStackSymbol> site = children.iterator().next();
+            site.addToWeight(weight);
+            children = site.getChildren();
+        }
+    }
+
+    /**
+     * Key of a sampled stack, to find identical stacks of the same element
+     */
+    private static class SampleKey {
+        private final ICallStackElement fElement;
+        private final long[] fStack;
+        private final int fHashCode;
+
+        public SampleKey(ICallStackElement element, long[] stack) {
+            fElement = element;
+            fStack = stack;
+            fHashCode = 31 * System.identityHashCode(element) + Arrays.hashCode(stack);
+        }
+
+        @Override
+        public int hashCode() {
+            return fHashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof SampleKey)) {
+                return false;
+            }
+            SampleKey other = (SampleKey) obj;
+            return fElement == other.fElement && Arrays.equals(fStack, other.fStack);
+        }
+    }
+
 }
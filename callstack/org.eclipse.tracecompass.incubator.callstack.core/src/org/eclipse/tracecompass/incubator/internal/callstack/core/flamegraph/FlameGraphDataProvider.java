@@ -149,6 +149,9 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
     private final Map<Long, FlameChartEntryModel> fEntries = new HashMap<>();
     private final Map<Long, WeightedTreeEntry> fCgEntries = new HashMap<>();
     private final Map<Long, Long> fEndTimes = new HashMap<>();
+    /* Grouped tree sets, memoized for the last callgraph that was grouped */
+    private @Nullable IWeightedTreeSet<N, E, T> fGroupedSource;
+    private final Map<IWeightedTreeGroupDescriptor, IWeightedTreeSet<N, Object, WeightedTree<N>>> fGroupedTreeSets = new HashMap<>();
 
     private class CacheKey {
         private final Map<String, Object> fParameters;
@@ -332,7 +335,14 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
         // Look if we need to group the callgraph
         IWeightedTreeGroupDescriptor groupDescriptor = extractGroupDescriptor(fetchParameters, wtProvider);
         if (groupDescriptor != null) {
-            return WeightedTreeGroupBy.groupWeightedTreeBy(groupDescriptor, callGraph, wtProvider);
+            // Switching between group levels of the same callgraph should not
+            // merge all the trees again
+            if (callGraph != fGroupedSource) {
+                fGroupedTreeSets.clear();
+                fGroupedSource = callGraph;
+            }
+            IWeightedTreeSet<@NonNull N, E, @NonNull T> toGroup = callGraph;
+            return fGroupedTreeSets.computeIfAbsent(groupDescriptor, group -> WeightedTreeGroupBy.groupWeightedTreeBy(group, toGroup, wtProvider));
         }
 
         return (IWeightedTreeSet<@NonNull N, Object, WeightedTree<@NonNull N>>) callGraph;
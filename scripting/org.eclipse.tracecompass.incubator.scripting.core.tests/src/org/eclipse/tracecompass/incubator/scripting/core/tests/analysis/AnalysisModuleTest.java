@@ -15,6 +15,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -107,6 +109,42 @@ public class AnalysisModuleTest {
         }
     }
 
+    /**
+     * Test the event iterator with event names and a time range
+     */
+    @Test
+    public void testEventIteratorWithNamesAndRange() {
+        AnalysisScriptingModule scriptModule = new AnalysisScriptingModule();
+
+        ITmfTrace trace = ScriptingTestUtils.getTrace();
+        try {
+            ScriptedAnalysis analysis = scriptModule.createScriptedAnalysis(trace, ANALYSIS_NAME);
+            assertNotNull(analysis);
+
+            // The events are filtered before reaching the iterator
+            assertEquals(18, countEvents(analysis.getEventIterator(Collections.singleton("entry"))));
+            assertEquals(36, countEvents(analysis.getEventIterator(Arrays.asList("entry", "exit"))));
+            assertEquals(0, countEvents(analysis.getEventIterator(Collections.singleton("unknown"))));
+
+            // Only the events in the time range are read
+            assertEquals(14, countEvents(analysis.getEventIterator(null, 5, 10)));
+            assertEquals(6, countEvents(analysis.getEventIterator(Collections.singleton("entry"), 5, 10)));
+            assertEquals(0, countEvents(analysis.getEventIterator(null, 100, 200)));
+
+        } finally {
+            trace.dispose();
+        }
+    }
+
+    private static int countEvents(Iterator<ITmfEvent> eventIterator) {
+        int count = 0;
+        while (eventIterator.hasNext()) {
+            eventIterator.next();
+            count++;
+        }
+        return count;
+    }
+
 
     /**
      * Test the
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.scripting.core.tests.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.ScriptReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.Status;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.TraceReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.ScriptBatchRunner;
+import org.eclipse.tracecompass.incubator.scripting.core.tests.ActivatorTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test the {@link ScriptBatchRunner} class
+ *
+ * @author agent
+ */
+public class ScriptBatchRunnerTest {
+
+    private static final String CALLSTACK_FILE = "testfiles/traces/callstack.xml";
+    private static final String ANALYSIS_SCRIPT = "testfiles/scripts/batchAnalysis.js";
+    private static final String COUNT_SCRIPT = "testfiles/scripts/batchCount.js";
+    private static final String ENTRIES_SCRIPT = "testfiles/scripts/batchEntries.js";
+    private static final String FAILURE_SCRIPT = "testfiles/scripts/batchFailure.js";
+    private static final String SSID = "batch.js";
+    private static final String ENTRIES_SSID = "batchEntries.js";
+
+    /** Folder for the traces and outputs of the tests */
+    @Rule
+    public TemporaryFolder fFolder = new TemporaryFolder();
+
+    private Path copyTraces(String... names) throws IOException {
+        Path traces = fFolder.newFolder("traces").toPath();
+        Path source = ActivatorTest.getAbsoluteFilePath(CALLSTACK_FILE).toFile().toPath();
+        for (String name : names) {
+            Path file = traces.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.copy(source, file);
+        }
+        return traces;
+    }
+
+    private static String getScript(String relativePath) {
+        return String.valueOf(ActivatorTest.getAbsoluteFilePath(relativePath).toOSString());
+    }
+
+    /**
+     * Test finding the traces in a directory or with a glob pattern
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testFindTraces() throws IOException {
+        Path traces = copyTraces("b.xml", "a.xml", "run1/kernel.xml", "run2/kernel.xml", "run2/other.txt");
+
+        // A directory: each entry is a trace
+        List<Path> found = ScriptBatchRunner.findTraces(traces.toString());
+        assertEquals(Arrays.asList(traces.resolve("a.xml"), traces.resolve("b.xml"), traces.resolve("run1"), traces.resolve("run2")), found);
+
+        // A glob pattern
+        found = ScriptBatchRunner.findTraces(traces + "/*/*.xml");
+        assertEquals(Arrays.asList(traces.resolve("run1/kernel.xml"), traces.resolve("run2/kernel.xml")), found);
+
+        // A glob pattern matching directories, their content is not matched
+        found = ScriptBatchRunner.findTraces(traces + "/run*");
+        assertEquals(Arrays.asList(traces.resolve("run1"), traces.resolve("run2")), found);
+
+        // A single file
+        found = ScriptBatchRunner.findTraces(traces.resolve("a.xml").toString());
+        assertEquals(Collections.singletonList(traces.resolve("a.xml")), found);
+
+        // Nothing
+        assertTrue(ScriptBatchRunner.findTraces(traces.resolve("noFile").toString()).isEmpty());
+        assertTrue(ScriptBatchRunner.findTraces(traces + "/*.ctf").isEmpty());
+    }
+
+    /**
+     * Test running a script on many traces, with the state systems and report
+     * saved in the output folder
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testRun() throws IOException {
+        Path traces = copyTraces("run1/callstack.xml", "run2/callstack.xml", "run3/callstack.xml");
+        Path output = fFolder.getRoot().toPath().resolve("output");
+        List<Path> found = ScriptBatchRunner.findTraces(traces + "/*/callstack.xml");
+        assertEquals(3, found.size());
+
+        ScriptBatchRunner runner = new ScriptBatchRunner(Collections.singletonList(getScript(ANALYSIS_SCRIPT)), output, 2);
+        BatchReport report = runner.run(found, new NullProgressMonitor());
+        assertEquals(3, report.getSucceeded());
+        assertEquals(0, report.getFailed());
+        assertEquals(2, report.getWorkers());
+        assertFalse(report.isSharedEvents());
+
+        // The traces have the same name, they get distinct IDs
+        List<TraceReport> traceReports = report.getTraces();
+        assertEquals(3, traceReports.size());
+        String[] expectedIds = { "callstack.xml", "callstack.xml_2", "callstack.xml_3" };
+        for (int i = 0; i < expectedIds.length; i++) {
+            TraceReport traceReport = traceReports.get(i);
+            assertEquals(found.get(i).toString(), traceReport.getTrace());
+            assertEquals(expectedIds[i], traceReport.getId());
+            assertEquals(Status.SUCCESS, traceReport.getStatus());
+            ScriptReport scriptReport = traceReport.getScripts().get(0);
+            assertEquals(Status.SUCCESS, scriptReport.getStatus());
+            assertEquals(36, scriptReport.getResult());
+            assertEquals(Collections.singletonList(SSID), traceReport.getStateSystems());
+
+            File[] stateSystems = output.resolve(expectedIds[i]).resolve(ScriptBatchRunner.STATE_SYSTEM_FOLDER).toFile().listFiles();
+            assertNotNull(stateSystems);
+            assertEquals(1, stateSystems.length);
+        }
+        assertTrue(Files.exists(output.resolve(ScriptBatchRunner.REPORT_FILE)));
+    }
+
+    /**
+     * Test running many scripts in parallel on each trace, sharing a single
+     * read of the trace
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testSharedEvents() throws IOException {
+        Path traces = copyTraces("a.xml", "b.xml");
+        Path output = fFolder.getRoot().toPath().resolve("output");
+        List<Path> found = ScriptBatchRunner.findTraces(traces.toString());
+
+        ScriptBatchRunner runner = new ScriptBatchRunner(Arrays.asList(getScript(ANALYSIS_SCRIPT), getScript(COUNT_SCRIPT)), output, 2, true);
+        BatchReport report = runner.run(found, new NullProgressMonitor());
+        assertTrue(report.isSharedEvents());
+        assertEquals(2, report.getSucceeded());
+
+        // The results are in the order of the scripts
+        for (TraceReport traceReport : report.getTraces()) {
+            List<ScriptReport> scripts = traceReport.getScripts();
+            assertEquals(2, scripts.size());
+            assertEquals(36, scripts.get(0).getResult());
+            assertEquals(18, scripts.get(1).getResult());
+            assertEquals(Collections.singletonList(SSID), traceReport.getStateSystems());
+        }
+    }
+
+    /**
+     * Test running in parallel on each trace scripts that each build their own
+     * state system, sharing a single read of the trace. The state systems of
+     * all the scripts are saved.
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testSharedEventsStateSystems() throws IOException {
+        Path traces = copyTraces("a.xml", "b.xml");
+        Path output = fFolder.getRoot().toPath().resolve("output");
+        List<Path> found = ScriptBatchRunner.findTraces(traces.toString());
+
+        ScriptBatchRunner runner = new ScriptBatchRunner(Arrays.asList(getScript(ANALYSIS_SCRIPT), getScript(ENTRIES_SCRIPT)), output, 2, true);
+        BatchReport report = runner.run(found, new NullProgressMonitor());
+        assertTrue(report.isSharedEvents());
+        assertEquals(2, report.getSucceeded());
+
+        List<TraceReport> traceReports = report.getTraces();
+        assertEquals(2, traceReports.size());
+        for (int i = 0; i < traceReports.size(); i++) {
+            TraceReport traceReport = traceReports.get(i);
+            List<ScriptReport> scripts = traceReport.getScripts();
+            assertEquals(36, scripts.get(0).getResult());
+            assertEquals(18, scripts.get(1).getResult());
+            assertEquals(new HashSet<>(Arrays.asList(SSID, ENTRIES_SSID)), new HashSet<>(traceReport.getStateSystems()));
+
+            File[] stateSystems = output.resolve(traceReport.getId()).resolve(ScriptBatchRunner.STATE_SYSTEM_FOLDER).toFile().listFiles();
+            assertNotNull(stateSystems);
+            assertEquals(2, stateSystems.length);
+        }
+    }
+
+    /**
+     * Test that a failure on a trace is reported and does not prevent the
+     * other traces from being processed
+     *
+     * @throws IOException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testFailures() throws IOException {
+        Path traces = copyTraces("callstack.xml");
+        Path notATrace = traces.resolve("notATrace.bla");
+        Files.write(notATrace, new byte[0]);
+        Path output = fFolder.getRoot().toPath().resolve("output");
+        List<Path> found = ScriptBatchRunner.findTraces(traces.toString());
+        assertEquals(Arrays.asList(traces.resolve("callstack.xml"), notATrace), found);
+
+        ScriptBatchRunner runner = new ScriptBatchRunner(Arrays.asList(getScript(FAILURE_SCRIPT), getScript(ANALYSIS_SCRIPT)), output, 1);
+        BatchReport report = runner.run(found, new NullProgressMonitor());
+        assertEquals(0, report.getSucceeded());
+        assertEquals(2, report.getFailed());
+
+        // The failing script does not prevent the next one from running
+        TraceReport traceReport = report.getTraces().get(0);
+        assertEquals(Status.FAILED, traceReport.getStatus());
+        List<ScriptReport> scripts = traceReport.getScripts();
+        assertEquals(2, scripts.size());
+        assertEquals(Status.FAILED, scripts.get(0).getStatus());
+        assertEquals(Status.SUCCESS, scripts.get(1).getStatus());
+        assertEquals(36, scripts.get(1).getResult());
+
+        // The file that is not a trace fails before running the scripts
+        traceReport = report.getTraces().get(1);
+        assertEquals(Status.FAILED, traceReport.getStatus());
+        assertNotNull(traceReport.getError());
+        assertTrue(traceReport.getScripts().isEmpty());
+        assertTrue(Files.exists(output.resolve(ScriptBatchRunner.REPORT_FILE)));
+    }
+
+}
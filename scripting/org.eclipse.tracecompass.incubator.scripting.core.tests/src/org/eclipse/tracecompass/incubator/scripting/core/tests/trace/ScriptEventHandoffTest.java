@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.scripting.core.tests.trace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.tracecompass.common.core.collect.BufferedBlockingQueue;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.ScriptEventHandoff;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.ScriptEventRequest;
+import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.junit.Test;
+
+/**
+ * Test the {@link ScriptEventHandoff} between the request and the script
+ *
+ * @author agent
+ */
+public class ScriptEventHandoffTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static ITmfEvent[] chunk(int size) {
+        ITmfEvent[] chunk = new ITmfEvent[size];
+        for (int i = 0; i < size; i++) {
+            chunk[i] = new TmfEvent(null, i, null, null, null);
+        }
+        return chunk;
+    }
+
+    /**
+     * Test that the consumer takes the chunks in order, then no chunk once the
+     * producer is finished
+     */
+    @Test
+    public void testPutTake() {
+        ScriptEventHandoff handoff = new ScriptEventHandoff(2);
+        ITmfEvent[] first = chunk(3);
+        ITmfEvent[] second = chunk(1);
+        assertTrue(handoff.put(first));
+        assertTrue(handoff.put(second));
+        assertFalse(handoff.isFinished());
+        handoff.finish();
+        assertTrue(handoff.isFinished());
+
+        assertSame(first, handoff.take());
+        assertSame(second, handoff.take());
+        assertNull(handoff.take());
+        assertFalse(handoff.isClosed());
+    }
+
+    /**
+     * Test that an interrupted producer waiting for space closes the handoff
+     * instead of spinning
+     *
+     * @throws InterruptedException
+     *             Exception thrown by the test
+     * @throws ExecutionException
+     *             Exception thrown by the test
+     * @throws TimeoutException
+     *             The producer did not stop
+     */
+    @Test
+    public void testInterruptedProducer() throws InterruptedException, ExecutionException, TimeoutException {
+        ScriptEventHandoff handoff = new ScriptEventHandoff(1);
+        assertTrue(handoff.put(chunk(1)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> producer = executor.submit(() -> {
+                Thread.currentThread().interrupt();
+                return handoff.put(chunk(1));
+            });
+            assertFalse(producer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(handoff.isClosed());
+            assertNull(handoff.take());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that an interrupted consumer waiting for a chunk closes the handoff
+     * instead of spinning
+     *
+     * @throws InterruptedException
+     *             Exception thrown by the test
+     * @throws ExecutionException
+     *             Exception thrown by the test
+     * @throws TimeoutException
+     *             The consumer did not stop
+     */
+    @Test
+    public void testInterruptedConsumer() throws InterruptedException, ExecutionException, TimeoutException {
+        ScriptEventHandoff handoff = new ScriptEventHandoff(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ITmfEvent[]> consumer = executor.submit(() -> {
+                Thread.currentThread().interrupt();
+                return handoff.take();
+            });
+            assertNull(consumer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(handoff.isClosed());
+            assertFalse(handoff.put(chunk(1)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test the iterator of the deprecated constructor, which takes the events
+     * one at a time from a queue
+     */
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testQueueIterator() {
+        BufferedBlockingQueue<ITmfEvent> queue = new BufferedBlockingQueue<>(4, 4);
+        ITmfEvent[] events = chunk(5);
+        for (ITmfEvent event : events) {
+            queue.put(event);
+        }
+        queue.put(ScriptEventRequest.END_EVENT);
+        queue.flushInputBuffer();
+
+        // The events are taken one at a time, so each batch has one event
+        ScriptEventsIterator iterator = new ScriptEventsIterator(queue);
+        assertArrayEquals(new ITmfEvent[] { events[0] }, iterator.nextEvents(2));
+        assertArrayEquals(new ITmfEvent[] { events[1] }, iterator.nextEvents(2));
+        assertSame(events[2], iterator.next());
+        assertArrayEquals(new ITmfEvent[] { events[3] }, iterator.nextEvents(10));
+        assertTrue(iterator.hasNext());
+        assertSame(events[4], iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(0, iterator.nextEvents(10).length);
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.scripting.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest.Participant;
+import org.eclipse.tracecompass.incubator.scripting.core.tests.stubs.ScriptingTestUtils;
+import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.junit.Test;
+
+/**
+ * Test the {@link SharedScriptEventRequest} class
+ *
+ * @author agent
+ */
+public class SharedScriptEventRequestTest {
+
+    /**
+     * Test that many subscribers, each with their own filter, get their events
+     * from a single read of the trace
+     *
+     * @throws InterruptedException
+     *             Exception thrown by the test
+     * @throws ExecutionException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testSubscribers() throws InterruptedException, ExecutionException {
+        ITmfTrace trace = ScriptingTestUtils.getTrace();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            SharedScriptEventRequest request = new SharedScriptEventRequest(trace, 3);
+            List<Participant> participants = request.getParticipants();
+            assertEquals(3, participants.size());
+
+            ScriptEventsIterator all = participants.get(0).subscribe(trace, TmfTimeRange.ETERNITY, null);
+            assertNotNull(all);
+            // A participant subscribes only once
+            assertNull(participants.get(0).subscribe(trace, TmfTimeRange.ETERNITY, null));
+            TmfTimeRange range = new TmfTimeRange(TmfTimestamp.fromNanos(5), TmfTimestamp.fromNanos(10));
+            ScriptEventsIterator entries = participants.get(1).subscribe(trace, range, Collections.singleton("entry"));
+            assertNotNull(entries);
+            assertFalse(request.isRunning() || request.isCompleted());
+
+            // The last participant does not read events, the request starts
+            participants.get(2).release();
+            assertNull(participants.get(2).subscribe(trace, TmfTimeRange.ETERNITY, null));
+
+            // Each subscriber reads in its own thread
+            Future<Integer> allCount = executor.submit(() -> countEvents(all));
+            Future<Integer> entriesCount = executor.submit(() -> countEvents(entries));
+            assertEquals(36, (int) allCount.get());
+            assertEquals(6, (int) entriesCount.get());
+
+            // The trace was read once
+            request.waitForCompletion();
+            assertEquals(36, request.getNbRead());
+        } finally {
+            executor.shutdownNow();
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test that the request reads only the time range covered by its
+     * subscribers
+     *
+     * @throws InterruptedException
+     *             Exception thrown by the test
+     * @throws ExecutionException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testSubscriberRanges() throws InterruptedException, ExecutionException {
+        ITmfTrace trace = ScriptingTestUtils.getTrace();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            SharedScriptEventRequest request = new SharedScriptEventRequest(trace, 2);
+            List<Participant> participants = request.getParticipants();
+            assertEquals(TmfTimeRange.ETERNITY, request.getRange());
+
+            TmfTimeRange first = new TmfTimeRange(TmfTimestamp.fromNanos(5), TmfTimestamp.fromNanos(10));
+            TmfTimeRange second = new TmfTimeRange(TmfTimestamp.fromNanos(8), TmfTimestamp.fromNanos(12));
+            ScriptEventsIterator firstEvents = participants.get(0).subscribe(trace, first, null);
+            assertNotNull(firstEvents);
+            ScriptEventsIterator secondEvents = participants.get(1).subscribe(trace, second, null);
+            assertNotNull(secondEvents);
+
+            // The request covers both ranges
+            assertEquals(new TmfTimeRange(TmfTimestamp.fromNanos(5), TmfTimestamp.fromNanos(12)), request.getRange());
+
+            Future<Integer> firstCount = executor.submit(() -> countEvents(firstEvents));
+            Future<Integer> secondCount = executor.submit(() -> countEvents(secondEvents));
+            assertEquals(14, (int) firstCount.get());
+            assertEquals(10, (int) secondCount.get());
+
+            // Only the events between 5 and 12 were read
+            request.waitForCompletion();
+            assertEquals(18, request.getNbRead());
+        } finally {
+            executor.shutdownNow();
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test that releasing a participant does not block the others, and that
+     * the request is not sent if no one subscribed
+     *
+     * @throws InterruptedException
+     *             Exception thrown by the test
+     */
+    @Test
+    public void testRelease() throws InterruptedException {
+        ITmfTrace trace = ScriptingTestUtils.getTrace();
+        try {
+            SharedScriptEventRequest request = new SharedScriptEventRequest(trace, 2);
+            List<Participant> participants = request.getParticipants();
+            ScriptEventsIterator dropped = participants.get(0).subscribe(trace, TmfTimeRange.ETERNITY, null);
+            assertNotNull(dropped);
+            ScriptEventsIterator kept = participants.get(1).subscribe(trace, TmfTimeRange.ETERNITY, null);
+            assertNotNull(kept);
+
+            // The first script ends without reading its events
+            participants.get(0).release();
+            assertFalse(dropped.hasNext());
+            assertEquals(36, countEvents(kept));
+            request.waitForCompletion();
+
+            // No subscriber, nothing to read
+            request = new SharedScriptEventRequest(trace, 1);
+            request.getParticipants().get(0).release();
+            assertFalse(request.isRunning() || request.isCompleted());
+            // A participant cannot subscribe to another trace
+            request = new SharedScriptEventRequest(trace, 1);
+            ITmfTrace otherTrace = ScriptingTestUtils.getTrace();
+            try {
+                assertNull(request.getParticipants().get(0).subscribe(otherTrace, TmfTimeRange.ETERNITY, null));
+            } finally {
+                otherTrace.dispose();
+            }
+        } finally {
+            trace.dispose();
+        }
+    }
+
+    private static int countEvents(Iterator<ITmfEvent> eventIterator) {
+        int count = 0;
+        while (eventIterator.hasNext()) {
+            eventIterator.next();
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -12,12 +12,14 @@
 package org.eclipse.tracecompass.incubator.scripting.core.tests.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 
 import org.eclipse.core.resources.IFolder;
@@ -35,6 +37,7 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.Messages;
 import org.eclipse.tracecompass.incubator.scripting.core.tests.ActivatorTest;
 import org.eclipse.tracecompass.incubator.scripting.core.tests.stubs.ScriptingTestUtils;
+import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
 import org.eclipse.tracecompass.incubator.scripting.core.trace.TraceScriptingModule;
 import org.eclipse.tracecompass.tmf.core.TmfCommonConstants;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -286,4 +289,43 @@ public class TraceModuleTest {
         }
     }
 
+    /**
+     * Test the batch event iterator, with chunks smaller than the batches
+     * requested and a small queue
+     */
+    @Test
+    public void testBatchEventIterator() {
+        TraceScriptingModule traceScriptingModule = new TraceScriptingModule();
+
+        ITmfTrace trace = ScriptingTestUtils.getTrace();
+        try {
+            ScriptEventsIterator eventIterator = traceScriptingModule.getBatchEventIterator(trace, 2, 5);
+            int count = 0;
+            ITmfEvent[] events = eventIterator.nextEvents(4);
+            while (events.length > 0) {
+                assertTrue(events.length <= 4);
+                count += events.length;
+                events = eventIterator.nextEvents(4);
+            }
+            // Make sure it parsed the whole trace
+            assertEquals(36, count);
+            assertFalse(eventIterator.hasNext());
+
+            // Get the values of the entry events only
+            eventIterator = traceScriptingModule.getBatchEventIterator(trace, 2, 5);
+            eventIterator.addEvent("entry");
+            count = 0;
+            Object[][] values = eventIterator.nextFieldValues(10, Collections.singletonList("op"));
+            assertEquals("op1", values[0][0]);
+            while (values.length > 0) {
+                count += values.length;
+                values = eventIterator.nextFieldValues(10, Collections.singletonList("op"));
+            }
+            assertEquals(18, count);
+
+        } finally {
+            trace.dispose();
+        }
+    }
+
 }
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * @author agent
+ *******************************************************************************/
+
+// load Trace Compass modules
+loadModule('/TraceCompass/Analysis')
+
+// The batch runner sets the trace in the 'trace' variable
+var analysis = createScriptedAnalysis(trace, "batch.js")
+
+var ss = analysis.getStateSystem(false)
+var quark = ss.getQuarkAbsoluteAndAdd("events")
+
+var eventCount = 0
+
+// Get the event iterator for the trace
+var iter = analysis.getEventIterator();
+
+// Count the events in the state system
+while (iter.hasNext()) {
+
+	var event = iter.next()
+	eventCount++
+	ss.modifyAttribute(event.getTimestamp().toNanos(), eventCount, quark)
+}
+
+// Close the state system, so it is saved as complete
+analysis.complete()
+
+exit(eventCount)
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * @author agent
+ *******************************************************************************/
+
+// load Trace Compass modules
+loadModule('/TraceCompass/Analysis')
+
+// The batch runner sets the trace in the 'trace' variable
+var analysis = createScriptedAnalysis(trace, "batchCount.js")
+
+// Count the entry events only
+var iter = analysis.getEventIterator();
+iter.addEvent("entry")
+
+var eventCount = 0
+while (iter.hasNext()) {
+
+	iter.next()
+	eventCount++
+}
+
+exit(eventCount)
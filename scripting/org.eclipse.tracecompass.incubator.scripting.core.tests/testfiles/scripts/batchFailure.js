@@ -0,0 +1,14 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * @author agent
+ *******************************************************************************/
+
+// A script that always fails, the batch should go on with the other traces
+throw "Failure on trace " + argv[0]
@@ -14,7 +14,9 @@ package org.eclipse.tracecompass.incubator.internal.scripting.core;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.ease.IScriptEngine;
 import org.eclipse.ease.ScriptResult;
@@ -60,6 +62,28 @@ public class ScriptExecutionHelper {
      *         script did not execute properly
      */
     public static @Nullable Object executeScript(String filePath, @Nullable String engineID, @Nullable List<String> arguments) {
+        return executeScript(filePath, engineID, arguments, Collections.emptyMap());
+    }
+
+    /**
+     * Execute the script file pointed to by the path, with some variables
+     * already defined in the script engine
+     *
+     * @param filePath
+     *            The absolute path of the file containing the script to execute
+     * @param engineID
+     *            The ID of the engine to run this script with. If
+     *            <code>null</code>, the method will try to find the right
+     *            engine.
+     * @param arguments
+     *            The arguments to the script, or <code>null</code> if there are
+     *            no arguments
+     * @param variables
+     *            The variables to set in the script engine, by name
+     * @return The return value of the script, or <code>null</code> if the
+     *         script did not execute properly
+     */
+    public static @Nullable Object executeScript(String filePath, @Nullable String engineID, @Nullable List<String> arguments, Map<String, Object> variables) {
         // Does the file exists
         Path path = Paths.get(filePath);
         if (!Files.exists(path)) {
@@ -79,6 +103,9 @@ public class ScriptExecutionHelper {
         if (arguments != null) {
             engine.setVariable("argv", arguments.toArray(new String[arguments.size()])); //$NON-NLS-1$
         }
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+            engine.setVariable(variable.getKey(), variable.getValue());
+        }
 
         Object scriptObject = ResourceTools.resolve(filePath);
         if (scriptObject == null) {
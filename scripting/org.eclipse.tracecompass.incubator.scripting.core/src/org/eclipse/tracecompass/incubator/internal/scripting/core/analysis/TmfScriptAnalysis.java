@@ -18,9 +18,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
@@ -61,10 +61,16 @@ public class TmfScriptAnalysis extends TmfAbstractAnalysisModule implements ITmf
      */
     private final int QUEUE_SIZE = 10000;
 
-    // Save the state systems
-    private final Map<String, ITmfStateSystem> fStateSystems = new HashMap<>();
+    // Save the state systems, scripts sharing the events of a trace get them concurrently
+    private final Map<String, ITmfStateSystem> fStateSystems = new ConcurrentHashMap<>();
 
-    private Path getStateSystemFolder() {
+    /**
+     * Get the folder where the state systems of the scripts are saved, one
+     * file per state system, named by the ID of the state system
+     *
+     * @return The folder of the state systems
+     */
+    public Path getStateSystemFolder() {
         // Get the supplementary files associated with this analysis
         ITmfTrace trace = Objects.requireNonNull(getTrace());
 
@@ -135,10 +141,17 @@ public class TmfScriptAnalysis extends TmfAbstractAnalysisModule implements ITmf
      * @return A new state system
      */
     public @Nullable ITmfStateSystem getStateSystem(String id, boolean useExisting) {
-        ITmfStateSystem ss = fStateSystems.get(id);
-        if (ss != null && useExisting) {
-            return ss;
-        }
+        // The check and the creation are atomic, so a state system is created only once per ID
+        return fStateSystems.compute(id, (ssid, ss) -> {
+            if (ss != null && useExisting) {
+                return ss;
+            }
+            ITmfStateSystem stateSystem = createStateSystem(ssid);
+            return (stateSystem == null) ? ss : stateSystem;
+        });
+    }
+
+    private @Nullable ITmfStateSystem createStateSystem(String id) {
         // Create a state system with that ID
         try {
             ITmfTrace trace = Objects.requireNonNull(getTrace());
@@ -147,13 +160,11 @@ public class TmfScriptAnalysis extends TmfAbstractAnalysisModule implements ITmf
             Path ssFile = Paths.get(ssFolder.toString(), id);
             IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(
                     id, Objects.requireNonNull(ssFile.toFile()), 1, trace.getStartTime().toNanos(), QUEUE_SIZE);
-            ITmfStateSystemBuilder stateSystem = StateSystemFactory.newStateSystem(backend);
-            fStateSystems.put(id, stateSystem);
-            return stateSystem;
+            return StateSystemFactory.newStateSystem(backend);
         } catch (IOException e) {
             Activator.getInstance().logError("Error creating the state system", e); //$NON-NLS-1$
         }
-        return ss;
+        return null;
     }
 
     @Override
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.scripting.core.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Summary of a run of the {@link ScriptBatchRunner}, with the result of each
+ * script on each trace. It is saved as a JSON file, to be read by other tools.
+ *
+ * @author agent
+ */
+public class BatchReport {
+
+    /**
+     * Status of a script or trace
+     */
+    public enum Status {
+        /** All went well */
+        SUCCESS,
+        /** The script failed, or a script failed on the trace */
+        FAILED,
+        /** The run was cancelled before this was done */
+        CANCELLED
+    }
+
+    /**
+     * Result of a script on a trace
+     */
+    public static class ScriptReport {
+        @SerializedName("script")
+        private final String fScript;
+        @SerializedName("status")
+        private final Status fStatus;
+        @SerializedName("duration")
+        private final long fDuration;
+        @SerializedName("result")
+        private final @Nullable Object fResult;
+        @SerializedName("error")
+        private final @Nullable String fError;
+
+        /**
+         * Constructor
+         *
+         * @param script
+         *            The path of the script
+         * @param status
+         *            The status of the script
+         * @param duration
+         *            The duration of the script, in milliseconds
+         * @param result
+         *            The return value of the script
+         * @param error
+         *            The error message, if the script failed
+         */
+        public ScriptReport(String script, Status status, long duration, @Nullable Object result, @Nullable String error) {
+            fScript = script;
+            fStatus = status;
+            fDuration = duration;
+            fResult = result;
+            fError = error;
+        }
+
+        /**
+         * @return The path of the script
+         */
+        public String getScript() {
+            return fScript;
+        }
+
+        /**
+         * @return The status of the script
+         */
+        public Status getStatus() {
+            return fStatus;
+        }
+
+        /**
+         * @return The return value of the script
+         */
+        public @Nullable Object getResult() {
+            return fResult;
+        }
+
+        /**
+         * @return The error message, if the script failed
+         */
+        public @Nullable String getError() {
+            return fError;
+        }
+    }
+
+    /**
+     * Result of the scripts on a trace
+     */
+    public static class TraceReport {
+        @SerializedName("trace")
+        private final String fTrace;
+        @SerializedName("id")
+        private final String fId;
+        @SerializedName("status")
+        private Status fStatus = Status.SUCCESS;
+        @SerializedName("duration")
+        private long fDuration = 0;
+        @SerializedName("error")
+        private @Nullable String fError = null;
+        @SerializedName("scripts")
+        private final List<ScriptReport> fScripts = new ArrayList<>();
+        @SerializedName("stateSystems")
+        private final List<String> fStateSystems = new ArrayList<>();
+        @SerializedName("incompleteStateSystems")
+        private final List<String> fIncompleteStateSystems = new ArrayList<>();
+
+        /**
+         * Constructor
+         *
+         * @param trace
+         *            The path of the trace
+         * @param id
+         *            The ID of the trace in the batch, the name of its output
+         *            folder
+         */
+        public TraceReport(String trace, String id) {
+            fTrace = trace;
+            fId = id;
+        }
+
+        /**
+         * Add the result of a script, the trace fails if the script failed
+         *
+         * @param report
+         *            The result of the script
+         */
+        public void addScript(ScriptReport report) {
+            fScripts.add(report);
+            if (report.getStatus() != Status.SUCCESS && fStatus == Status.SUCCESS) {
+                fStatus = report.getStatus();
+            }
+        }
+
+        /**
+         * Mark the trace as failed, for a reason other than a script failure
+         *
+         * @param newStatus
+         *            The status of the trace
+         * @param message
+         *            The error message
+         */
+        public void setError(Status newStatus, @Nullable String message) {
+            fStatus = newStatus;
+            fError = message;
+        }
+
+        /**
+         * Add a state system saved in the output folder of the trace
+         *
+         * @param id
+         *            The ID of the state system
+         * @param complete
+         *            Whether the state system was completely built
+         */
+        public void addStateSystem(String id, boolean complete) {
+            (complete ? fStateSystems : fIncompleteStateSystems).add(id);
+        }
+
+        /**
+         * @param durationMs
+         *            The time to run the scripts on this trace
+         */
+        public void setDuration(long durationMs) {
+            fDuration = durationMs;
+        }
+
+        /**
+         * @return The path of the trace
+         */
+        public String getTrace() {
+            return fTrace;
+        }
+
+        /**
+         * @return The ID of the trace in the batch
+         */
+        public String getId() {
+            return fId;
+        }
+
+        /**
+         * @return The status of the trace
+         */
+        public Status getStatus() {
+            return fStatus;
+        }
+
+        /**
+         * @return The error message, if the trace failed for a reason other
+         *         than a script
+         */
+        public @Nullable String getError() {
+            return fError;
+        }
+
+        /**
+         * @return The results of the scripts
+         */
+        public List<ScriptReport> getScripts() {
+            return Collections.unmodifiableList(fScripts);
+        }
+
+        /**
+         * @return The IDs of the state systems saved for this trace
+         */
+        public List<String> getStateSystems() {
+            return Collections.unmodifiableList(fStateSystems);
+        }
+    }
+
+    @SerializedName("scripts")
+    private final List<String> fScripts;
+    @SerializedName("workers")
+    private final int fWorkers;
+    @SerializedName("sharedEvents")
+    private final boolean fSharedEvents;
+    @SerializedName("duration")
+    private long fDuration = 0;
+    @SerializedName("succeeded")
+    private int fSucceeded = 0;
+    @SerializedName("failed")
+    private int fFailed = 0;
+    @SerializedName("cancelled")
+    private int fCancelled = 0;
+    @SerializedName("traces")
+    private final List<TraceReport> fTraces = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param scripts
+     *            The scripts run on each trace
+     * @param workers
+     *            The number of traces processed in parallel
+     * @param sharedEvents
+     *            Whether the scripts of a trace shared a single read of the
+     *            trace
+     */
+    public BatchReport(List<String> scripts, int workers, boolean sharedEvents) {
+        fScripts = new ArrayList<>(scripts);
+        fWorkers = workers;
+        fSharedEvents = sharedEvents;
+    }
+
+    /**
+     * Add the report of a trace
+     *
+     * @param report
+     *            The report of the trace
+     */
+    public void addTrace(TraceReport report) {
+        fTraces.add(report);
+        switch (report.getStatus()) {
+        case SUCCESS:
+            fSucceeded++;
+            break;
+        case FAILED:
+            fFailed++;
+            break;
+        case CANCELLED:
+        default:
+            fCancelled++;
+            break;
+        }
+    }
+
+    /**
+     * @param durationMs
+     *            The total time of the run
+     */
+    public void setDuration(long durationMs) {
+        fDuration = durationMs;
+    }
+
+    /**
+     * @return The reports of each trace, in the order the traces were given
+     */
+    public List<TraceReport> getTraces() {
+        return Collections.unmodifiableList(fTraces);
+    }
+
+    /**
+     * @return The number of traces on which all scripts succeeded
+     */
+    public int getSucceeded() {
+        return fSucceeded;
+    }
+
+    /**
+     * @return The number of traces on which a script failed
+     */
+    public int getFailed() {
+        return fFailed;
+    }
+
+    /**
+     * @return The number of traces that were not processed because the run
+     *         was cancelled
+     */
+    public int getCancelled() {
+        return fCancelled;
+    }
+
+    /**
+     * @return The number of scripts
+     */
+    public int getScriptCount() {
+        return fScripts.size();
+    }
+
+    /**
+     * @return The number of traces processed in parallel
+     */
+    public int getWorkers() {
+        return fWorkers;
+    }
+
+    /**
+     * @return Whether the scripts of a trace shared a single read of the trace
+     */
+    public boolean isSharedEvents() {
+        return fSharedEvents;
+    }
+
+    /**
+     * @return The total time of the run, in milliseconds
+     */
+    public long getDuration() {
+        return fDuration;
+    }
+
+    /**
+     * Save this report as a JSON file
+     *
+     * @param file
+     *            The file to write
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+    }
+
+}
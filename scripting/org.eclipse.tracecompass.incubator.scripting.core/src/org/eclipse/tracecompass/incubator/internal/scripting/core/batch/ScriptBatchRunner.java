@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.scripting.core.batch;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.ScriptExecutionHelper;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.analysis.TmfScriptAnalysis;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.ScriptReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.Status;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport.TraceReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest.Participant;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceImportException;
+import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceType;
+import org.eclipse.tracecompass.tmf.core.project.model.TraceTypeHelper;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Runs the same scripts on many traces, without the UI. The traces are
+ * processed in parallel by a fixed number of workers. Each trace is opened,
+ * the scripts are run on it one after the other, then the state systems they
+ * built are copied in an output folder for the trace and the trace is closed.
+ * A failure on one trace does not prevent the other traces from being
+ * processed, it is recorded in the {@link BatchReport} saved at the end.
+ *
+ * The trace is available to the scripts in the {@link #TRACE_VARIABLE}
+ * variable and its path is the first argument in <code>argv</code>, followed
+ * by its output folder. The scripts must not use the active trace, as many
+ * traces are opened at the same time. For example (javascript):
+ *
+ * <pre>
+ * loadModule('/TraceCompass/Analysis');
+ * var analysis = createScriptedAnalysis(trace, "myAnalysis");
+ * var ss = analysis.getStateSystem(false);
+ * </pre>
+ *
+ * When the events are shared, the scripts of a trace run in parallel instead
+ * of one after the other, and their scripted analyses read the events from a
+ * single {@link SharedScriptEventRequest}, so the trace is read once for all
+ * scripts.
+ *
+ * @author agent
+ */
+public class ScriptBatchRunner {
+
+    /** Name of the script variable containing the trace */
+    public static final String TRACE_VARIABLE = "trace"; //$NON-NLS-1$
+    /** Name of the report file, in the output folder */
+    public static final String REPORT_FILE = "summary.json"; //$NON-NLS-1$
+    /** Name of the folder of the state systems, in the folder of a trace */
+    public static final String STATE_SYSTEM_FOLDER = "stateSystem"; //$NON-NLS-1$
+
+    private static final String GLOB_CHARACTERS = "*?[{"; //$NON-NLS-1$
+    private static final String GLOB_PREFIX = "glob:"; //$NON-NLS-1$
+    private static final String SEPARATOR = "/"; //$NON-NLS-1$
+
+    private final List<String> fScripts;
+    private final Path fOutput;
+    private final int fWorkers;
+    private final boolean fShareEvents;
+
+    /**
+     * Constructor
+     *
+     * @param scripts
+     *            The paths of the scripts to run on each trace, in order
+     * @param output
+     *            The folder where to write the results
+     * @param workers
+     *            The number of traces to process in parallel
+     */
+    public ScriptBatchRunner(List<String> scripts, Path output, int workers) {
+        this(scripts, output, workers, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param scripts
+     *            The paths of the scripts to run on each trace
+     * @param output
+     *            The folder where to write the results
+     * @param workers
+     *            The number of traces to process in parallel
+     * @param shareEvents
+     *            If <code>true</code>, the scripts of a trace run in parallel
+     *            and share a single read of the trace, otherwise they run in
+     *            order and each reads the trace
+     */
+    public ScriptBatchRunner(List<String> scripts, Path output, int workers, boolean shareEvents) {
+        fScripts = new ArrayList<>(scripts);
+        fOutput = output;
+        fWorkers = Math.max(1, workers);
+        fShareEvents = shareEvents;
+    }
+
+    /**
+     * Find the traces at a location. If the location is a glob pattern, like
+     * <code>/nightly/*&#47;kernel</code>, each file or directory matching the
+     * pattern is a trace. Otherwise, if the location is a directory, each of
+     * its entries is a trace, and if it is a file, it is the only trace.
+     *
+     * @param location
+     *            The glob pattern, directory or file
+     * @return The paths of the traces, sorted
+     * @throws IOException
+     *             If the directories cannot be read
+     */
+    public static List<Path> findTraces(String location) throws IOException {
+        if (location.chars().noneMatch(ScriptBatchRunner::isGlobCharacter)) {
+            Path path = Paths.get(location);
+            if (!Files.isDirectory(path)) {
+                return Files.exists(path) ? Collections.singletonList(path) : Collections.emptyList();
+            }
+            try (Stream<Path> entries = Files.list(path)) {
+                return entries.sorted().collect(Collectors.toList());
+            }
+        }
+
+        // Walk from the deepest directory without glob characters
+        String[] segments = location.split(SEPARATOR);
+        int baseLength = 0;
+        while (baseLength < segments.length && segments[baseLength].chars().noneMatch(ScriptBatchRunner::isGlobCharacter)) {
+            baseLength++;
+        }
+        String base = String.join(SEPARATOR, Arrays.copyOf(segments, baseLength));
+        Path baseDirectory = Paths.get((base.isEmpty() && location.startsWith(SEPARATOR)) ? SEPARATOR : base).toAbsolutePath();
+        if (!Files.isDirectory(baseDirectory)) {
+            return Collections.emptyList();
+        }
+        String pattern = baseDirectory + SEPARATOR + String.join(SEPARATOR, Arrays.copyOfRange(segments, baseLength, segments.length));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher(GLOB_PREFIX + pattern);
+        List<Path> traces = new ArrayList<>();
+        Files.walkFileTree(baseDirectory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(@Nullable Path dir, @Nullable BasicFileAttributes attrs) {
+                if (dir != null && !dir.equals(baseDirectory) && matcher.matches(dir)) {
+                    // A directory trace, do not look at its content
+                    traces.add(dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(@Nullable Path file, @Nullable BasicFileAttributes attrs) {
+                if (file != null && matcher.matches(file)) {
+                    traces.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(traces);
+        return traces;
+    }
+
+    private static boolean isGlobCharacter(int c) {
+        return GLOB_CHARACTERS.indexOf(c) >= 0;
+    }
+
+    /**
+     * Run the scripts on the traces and save the report in the output folder
+     *
+     * @param traces
+     *            The paths of the traces
+     * @param monitor
+     *            The progress monitor, to cancel the run. The traces not
+     *            started yet when cancelled are reported as cancelled.
+     * @return The report of the run
+     * @throws IOException
+     *             If the output folder or the report cannot be written
+     */
+    public BatchReport run(List<Path> traces, IProgressMonitor monitor) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(fOutput);
+        monitor.beginTask("Running scripts on traces", traces.size()); //$NON-NLS-1$
+
+        // Give each trace a unique ID, its output folder and supplementary folder name
+        List<String> ids = new ArrayList<>();
+        Set<String> usedIds = new HashSet<>();
+        for (Path trace : traces) {
+            String name = String.valueOf(trace.getFileName());
+            String id = name;
+            for (int i = 2; !usedIds.add(id); i++) {
+                id = name + '_' + i;
+            }
+            ids.add(id);
+        }
+
+        BatchReport report = new BatchReport(fScripts, fWorkers, fShareEvents);
+        ExecutorService executor = Executors.newFixedThreadPool(fWorkers);
+        try {
+            List<Future<TraceReport>> results = new ArrayList<>();
+            for (int i = 0; i < traces.size(); i++) {
+                Path trace = traces.get(i);
+                String id = ids.get(i);
+                results.add(executor.submit(() -> {
+                    if (monitor.isCanceled()) {
+                        TraceReport traceReport = new TraceReport(trace.toString(), id);
+                        traceReport.setError(Status.CANCELLED, null);
+                        return traceReport;
+                    }
+                    TraceReport traceReport = runTrace(trace, id);
+                    monitor.worked(1);
+                    return traceReport;
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                report.addTrace(getResult(results.get(i), traces.get(i), ids.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+            monitor.done();
+        }
+
+        report.setDuration(System.currentTimeMillis() - start);
+        report.save(fOutput.resolve(REPORT_FILE));
+        return report;
+    }
+
+    private static TraceReport getResult(Future<TraceReport> result, Path trace, String id) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            TraceReport traceReport = new TraceReport(trace.toString(), id);
+            traceReport.setError(Status.CANCELLED, e.getMessage());
+            return traceReport;
+        } catch (ExecutionException e) {
+            TraceReport traceReport = new TraceReport(trace.toString(), id);
+            traceReport.setError(Status.FAILED, String.valueOf(e.getCause()));
+            return traceReport;
+        }
+    }
+
+    private TraceReport runTrace(Path tracePath, String id) {
+        long start = System.currentTimeMillis();
+        TraceReport report = new TraceReport(tracePath.toString(), id);
+        Path traceOutput = fOutput.resolve(id);
+        ITmfTrace trace = null;
+        try {
+            trace = openTrace(tracePath, id);
+            if (trace == null) {
+                report.setError(Status.FAILED, "No trace type found"); //$NON-NLS-1$
+                return report;
+            }
+            Files.createDirectories(traceOutput);
+
+            List<String> arguments = Arrays.asList(tracePath.toString(), traceOutput.toString());
+            if (fShareEvents && fScripts.size() > 1) {
+                runSharedScripts(trace, arguments, report);
+            } else {
+                Map<String, Object> variables = ImmutableMap.of(TRACE_VARIABLE, trace);
+                for (String script : fScripts) {
+                    report.addScript(runScript(script, arguments, variables));
+                }
+            }
+            saveStateSystems(trace, traceOutput.resolve(STATE_SYSTEM_FOLDER), report);
+        } catch (Exception e) {
+            // Isolate the failure to this trace
+            Activator.getInstance().logWarning("Failed to run the scripts on trace " + tracePath, e); //$NON-NLS-1$
+            report.setError(Status.FAILED, String.valueOf(e));
+        } finally {
+            if (trace != null) {
+                trace.dispose();
+                TmfTraceManager.deleteSupplementaryFolder(trace);
+            }
+            report.setDuration(System.currentTimeMillis() - start);
+        }
+        return report;
+    }
+
+    private static @Nullable ITmfTrace openTrace(Path tracePath, String name) throws TmfTraceException, TmfTraceImportException, InstantiationException, IllegalAccessException {
+        String path = tracePath.toString();
+        List<TraceTypeHelper> traceTypes = TmfTraceType.selectTraceType(path, ""); //$NON-NLS-1$
+        if (traceTypes.isEmpty()) {
+            return null;
+        }
+        TraceTypeHelper helper = traceTypes.get(0);
+        ITmfTrace trace = helper.getTraceClass().newInstance();
+        try {
+            // The name is unique in the batch, so the traces' supplementary folders are distinct
+            trace.initTrace(null, path, ITmfEvent.class, name, helper.getTraceTypeId());
+            // Instantiate the analyses, without making the trace active
+            trace.traceOpened(new TmfTraceOpenedSignal(ScriptBatchRunner.class, trace, null));
+        } catch (TmfTraceException | RuntimeException e) {
+            trace.dispose();
+            throw e;
+        }
+        return trace;
+    }
+
+    private void runSharedScripts(ITmfTrace trace, List<String> arguments, TraceReport report) {
+        SharedScriptEventRequest request = new SharedScriptEventRequest(trace, fScripts.size());
+        List<Participant> participants = request.getParticipants();
+        // The scripts must run at the same time, they wait for each other's reading
+        ExecutorService executor = Executors.newFixedThreadPool(fScripts.size());
+        try {
+            List<Future<ScriptReport>> results = new ArrayList<>();
+            for (int i = 0; i < fScripts.size(); i++) {
+                String script = fScripts.get(i);
+                Participant participant = participants.get(i);
+                Map<String, Object> variables = ImmutableMap.of(TRACE_VARIABLE, trace, SharedScriptEventRequest.PARTICIPANT_VARIABLE, participant);
+                results.add(executor.submit(() -> {
+                    try {
+                        return runScript(script, arguments, variables);
+                    } finally {
+                        // Do not let the other scripts wait for this one
+                        participant.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                report.addScript(getScriptResult(results.get(i), fScripts.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+            for (Participant participant : participants) {
+                participant.release();
+            }
+            if (!request.isCompleted()) {
+                request.cancel();
+            }
+        }
+    }
+
+    private static ScriptReport getScriptResult(Future<ScriptReport> result, String script) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ScriptReport(script, Status.CANCELLED, 0, null, e.getMessage());
+        } catch (ExecutionException e) {
+            return new ScriptReport(script, Status.FAILED, 0, null, String.valueOf(e.getCause()));
+        }
+    }
+
+    private static ScriptReport runScript(String script, List<String> arguments, Map<String, Object> variables) {
+        long start = System.currentTimeMillis();
+        try {
+            Object result = ScriptExecutionHelper.executeScript(script, null, arguments, variables);
+            long duration = System.currentTimeMillis() - start;
+            if (result == null) {
+                return new ScriptReport(script, Status.FAILED, duration, null, "The script did not execute properly"); //$NON-NLS-1$
+            }
+            return new ScriptReport(script, Status.SUCCESS, duration, result, null);
+        } catch (RuntimeException e) {
+            return new ScriptReport(script, Status.FAILED, System.currentTimeMillis() - start, null, String.valueOf(e));
+        }
+    }
+
+    private static void saveStateSystems(ITmfTrace trace, Path output, TraceReport report) throws IOException {
+        TmfScriptAnalysis module = TmfTraceUtils.getAnalysisModuleOfClass(trace, TmfScriptAnalysis.class, TmfScriptAnalysis.ID);
+        if (module == null) {
+            return;
+        }
+        Path folder = module.getStateSystemFolder();
+        for (ITmfStateSystem stateSystem : module.getStateSystems()) {
+            Path file = folder.resolve(stateSystem.getSSID());
+            if (!Files.exists(file)) {
+                continue;
+            }
+            // A state system the script did not close is saved, but reported as incomplete
+            boolean complete = stateSystem.waitUntilBuilt(0);
+            Files.createDirectories(output);
+            Files.copy(file, output.resolve(Objects.requireNonNull(file.getFileName())), StandardCopyOption.REPLACE_EXISTING);
+            report.addStateSystem(stateSystem.getSSID(), complete);
+        }
+    }
+
+}
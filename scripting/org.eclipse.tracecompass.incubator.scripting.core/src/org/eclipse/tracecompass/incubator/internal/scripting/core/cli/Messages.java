@@ -26,6 +26,30 @@ public class Messages extends NLS {
     public static @Nullable String CliParser_RunScriptDescription;
     /** Message when script does not end properly */
     public static @Nullable String CliParser_ScriptExecutionError;
+    /** Export columns command description */
+    public static @Nullable String CliParser_ExportColumnsDescription;
+    /** Message when the export of the events of a trace fails */
+    public static @Nullable String CliParser_ExportColumnsError;
+    /** Message when the export columns option has a wrong number of arguments */
+    public static @Nullable String CliParser_ExportColumnsUsage;
+    /** Message when no trace type matches the trace to export */
+    public static @Nullable String CliParser_NoTraceType;
+    /** Batch command description */
+    public static @Nullable String CliParser_BatchDescription;
+    /** Workers command description */
+    public static @Nullable String CliParser_WorkersDescription;
+    /** Share events command description */
+    public static @Nullable String CliParser_ShareEventsDescription;
+    /** Message when the batch option is used without scripts */
+    public static @Nullable String CliParser_BatchNoScript;
+    /** Message when no trace is found for the batch */
+    public static @Nullable String CliParser_BatchNoTrace;
+    /** Message when the number of workers is not valid */
+    public static @Nullable String CliParser_InvalidWorkers;
+    /** Message when the scripts failed on some traces of the batch */
+    public static @Nullable String CliParser_BatchFailed;
+    /** Message when the batch could not run */
+    public static @Nullable String CliParser_BatchError;
 
     static {
         // initialize resource bundle
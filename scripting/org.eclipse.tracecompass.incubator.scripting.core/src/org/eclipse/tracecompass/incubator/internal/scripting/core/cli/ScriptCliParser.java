@@ -11,7 +11,11 @@
 
 package org.eclipse.tracecompass.incubator.internal.scripting.core.cli;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -19,14 +23,27 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.tracecompass.incubator.analysis.core.export.EventColumnExporter;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.Activator;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.ScriptExecutionHelper;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.BatchReport;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.batch.ScriptBatchRunner;
 import org.eclipse.tracecompass.internal.provisional.tmf.cli.core.parser.CliCommandLine;
 import org.eclipse.tracecompass.internal.provisional.tmf.cli.core.parser.CliOption;
 import org.eclipse.tracecompass.internal.provisional.tmf.cli.core.parser.ICliParser;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceImportException;
+import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceType;
+import org.eclipse.tracecompass.tmf.core.project.model.TraceTypeHelper;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
- * Command line parser for scripts
+ * Command line parser for scripts. It also exports columns of the events of
+ * traces, with the {@link EventColumnExporter}, for headless runs that only
+ * need the events in a file, and runs the scripts on many traces with the
+ * {@link ScriptBatchRunner}.
  *
  * @author Geneviève Bastien
  */
@@ -36,6 +53,23 @@ public class ScriptCliParser implements ICliParser {
     private static final String OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT = "s"; //$NON-NLS-1$
     private static final String OPTION_COMMAND_LINE_RUN_SCRIPT_LONG = "script"; //$NON-NLS-1$
     private static final String OPTION_COMMAND_LINE_RUN_SCRIPT_DESCRIPTION = Objects.requireNonNull(Messages.CliParser_RunScriptDescription);
+    private static final String OPTION_COMMAND_LINE_EXPORT_COLUMNS_SHORT = "x"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_EXPORT_COLUMNS_LONG = "export-columns"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_EXPORT_COLUMNS_DESCRIPTION = Objects.requireNonNull(Messages.CliParser_ExportColumnsDescription);
+    private static final String OPTION_COMMAND_LINE_BATCH_SHORT = "b"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_BATCH_LONG = "batch"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_BATCH_DESCRIPTION = Objects.requireNonNull(Messages.CliParser_BatchDescription);
+    private static final String OPTION_COMMAND_LINE_WORKERS_SHORT = "w"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_WORKERS_LONG = "workers"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_WORKERS_DESCRIPTION = Objects.requireNonNull(Messages.CliParser_WorkersDescription);
+    private static final String OPTION_COMMAND_LINE_SHARE_EVENTS_SHORT = "c"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_SHARE_EVENTS_LONG = "coalesce"; //$NON-NLS-1$
+    private static final String OPTION_COMMAND_LINE_SHARE_EVENTS_DESCRIPTION = Objects.requireNonNull(Messages.CliParser_ShareEventsDescription);
+    /* The traces and the output folder */
+    private static final int BATCH_ARGS = 2;
+    /* The trace, the file to write and the columns */
+    private static final int EXPORT_ARGS = 3;
+    private static final String COLUMN_SEPARATOR = ","; //$NON-NLS-1$
     private final ArrayList<CliOption> fOptions;
 
     /**
@@ -44,6 +78,10 @@ public class ScriptCliParser implements ICliParser {
     public ScriptCliParser() {
         fOptions = new ArrayList<>();
         fOptions.add(CliOption.createOptionWithArgs(OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT, OPTION_COMMAND_LINE_RUN_SCRIPT_LONG, OPTION_COMMAND_LINE_RUN_SCRIPT_DESCRIPTION, true, true, "script")); //$NON-NLS-1$
+        fOptions.add(CliOption.createOptionWithArgs(OPTION_COMMAND_LINE_EXPORT_COLUMNS_SHORT, OPTION_COMMAND_LINE_EXPORT_COLUMNS_LONG, OPTION_COMMAND_LINE_EXPORT_COLUMNS_DESCRIPTION, true, true, "trace file columns")); //$NON-NLS-1$
+        fOptions.add(CliOption.createOptionWithArgs(OPTION_COMMAND_LINE_BATCH_SHORT, OPTION_COMMAND_LINE_BATCH_LONG, OPTION_COMMAND_LINE_BATCH_DESCRIPTION, true, true, "traces output")); //$NON-NLS-1$
+        fOptions.add(CliOption.createOptionWithArgs(OPTION_COMMAND_LINE_WORKERS_SHORT, OPTION_COMMAND_LINE_WORKERS_LONG, OPTION_COMMAND_LINE_WORKERS_DESCRIPTION, true, false, "count")); //$NON-NLS-1$
+        fOptions.add(CliOption.createSimpleOption(OPTION_COMMAND_LINE_SHARE_EVENTS_SHORT, OPTION_COMMAND_LINE_SHARE_EVENTS_LONG, OPTION_COMMAND_LINE_SHARE_EVENTS_DESCRIPTION));
     }
 
     @Override
@@ -53,6 +91,23 @@ public class ScriptCliParser implements ICliParser {
 
     @Override
     public @NonNull IStatus workspaceLoading(@NonNull CliCommandLine commandLine, @NonNull IProgressMonitor monitor) {
+        if (commandLine.hasOption(OPTION_COMMAND_LINE_EXPORT_COLUMNS_SHORT)) {
+            // Export the events before running the scripts, they may use the files
+            String[] values = commandLine.getOptionValues(OPTION_COMMAND_LINE_EXPORT_COLUMNS_SHORT);
+            if (values.length == 0 || values.length % EXPORT_ARGS != 0) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_ExportColumnsUsage, String.join(" ", values))); //$NON-NLS-1$
+            }
+            for (int i = 0; i + EXPORT_ARGS <= values.length; i += EXPORT_ARGS) {
+                IStatus status = exportColumns(String.valueOf(values[i]), String.valueOf(values[i + 1]), String.valueOf(values[i + 2]), monitor);
+                if (!status.isOK()) {
+                    return status;
+                }
+            }
+        }
+        if (commandLine.hasOption(OPTION_COMMAND_LINE_BATCH_SHORT)) {
+            // Run the scripts on each trace instead of once
+            return runBatch(commandLine, monitor);
+        }
         if (commandLine.hasOption(OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT)) {
             // The script option should be handled once the workspace is ready
             String[] scripts = commandLine.getOptionValues(OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT);
@@ -67,4 +122,68 @@ public class ScriptCliParser implements ICliParser {
         return Status.OK_STATUS;
     }
 
+    private static IStatus runBatch(CliCommandLine commandLine, IProgressMonitor monitor) {
+        String[] values = commandLine.getOptionValues(OPTION_COMMAND_LINE_BATCH_SHORT);
+        if (values.length < BATCH_ARGS || !commandLine.hasOption(OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT)) {
+            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, Messages.CliParser_BatchNoScript);
+        }
+        String[] scripts = commandLine.getOptionValues(OPTION_COMMAND_LINE_RUN_SCRIPT_SHORT);
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (commandLine.hasOption(OPTION_COMMAND_LINE_WORKERS_SHORT)) {
+            String count = String.valueOf(commandLine.getOptionValues(OPTION_COMMAND_LINE_WORKERS_SHORT)[0]);
+            try {
+                workers = Integer.parseInt(count);
+            } catch (NumberFormatException e) {
+                workers = 0;
+            }
+            if (workers <= 0) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_InvalidWorkers, count));
+            }
+        }
+
+        String location = String.valueOf(values[0]);
+        Path output = Paths.get(String.valueOf(values[1]));
+        try {
+            List<Path> traces = ScriptBatchRunner.findTraces(location);
+            if (traces.isEmpty()) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_BatchNoTrace, location));
+            }
+            List<String> scriptList = new ArrayList<>();
+            for (String script : scripts) {
+                scriptList.add(String.valueOf(script));
+            }
+            boolean shareEvents = commandLine.hasOption(OPTION_COMMAND_LINE_SHARE_EVENTS_SHORT);
+            BatchReport report = new ScriptBatchRunner(scriptList, output, workers, shareEvents).run(traces, monitor);
+            int failed = report.getFailed() + report.getCancelled();
+            if (failed > 0) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_BatchFailed,
+                        new Object[] { failed, traces.size(), output.resolve(ScriptBatchRunner.REPORT_FILE) }));
+            }
+        } catch (IOException e) {
+            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_BatchError, location, e.getMessage()), e);
+        }
+        return Status.OK_STATUS;
+    }
+
+    private static IStatus exportColumns(String tracePath, String file, String columns, IProgressMonitor monitor) {
+        ITmfTrace trace = null;
+        try {
+            List<TraceTypeHelper> traceTypes = TmfTraceType.selectTraceType(tracePath, ""); //$NON-NLS-1$
+            if (traceTypes.isEmpty()) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_NoTraceType, tracePath));
+            }
+            TraceTypeHelper helper = traceTypes.get(0);
+            trace = helper.getTraceClass().newInstance();
+            trace.initTrace(null, tracePath, ITmfEvent.class, Paths.get(tracePath).getFileName().toString(), helper.getTraceTypeId());
+            EventColumnExporter.export(trace, Arrays.asList(columns.split(COLUMN_SEPARATOR)), Paths.get(file), monitor);
+        } catch (TmfTraceImportException | InstantiationException | IllegalAccessException | TmfTraceException | IOException e) {
+            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, NLS.bind(Messages.CliParser_ExportColumnsError, tracePath, e.getMessage()), e);
+        } finally {
+            if (trace != null) {
+                trace.dispose();
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
 }
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.scripting.core.trace;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+
+/**
+ * Event iterator taking the chunks of events from a
+ * {@link ScriptEventHandoff}, as the consumer of the handoff
+ *
+ * @author agent
+ */
+public class HandoffEventsIterator extends ScriptEventsIterator {
+
+    private final ScriptEventHandoff fHandoff;
+
+    /**
+     * Constructor
+     *
+     * @param handoff
+     *            The queue from which to get the events
+     */
+    public HandoffEventsIterator(ScriptEventHandoff handoff) {
+        fHandoff = handoff;
+    }
+
+    @Override
+    protected ITmfEvent @Nullable [] takeChunk() {
+        return fHandoff.take();
+    }
+
+}
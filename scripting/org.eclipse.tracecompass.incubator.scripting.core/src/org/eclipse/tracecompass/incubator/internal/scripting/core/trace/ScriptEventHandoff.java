@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.scripting.core.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+
+/**
+ * Bounded queue of event chunks between the thread reading the trace and the
+ * thread of the script. There is exactly one producer and one consumer, so the
+ * chunks are exchanged through a ring buffer without locks. A thread only
+ * parks when the ring is full, for the producer, or empty, for the consumer.
+ *
+ * @author agent
+ */
+public class ScriptEventHandoff {
+
+    private final AtomicReferenceArray<ITmfEvent @Nullable []> fSlots;
+    private final int fDepth;
+    /* Index of the next chunk to take, only written by the consumer */
+    private final AtomicLong fHead = new AtomicLong();
+    /* Index of the next chunk to put, only written by the producer */
+    private final AtomicLong fTail = new AtomicLong();
+    private volatile boolean fFinished = false;
+    private volatile boolean fClosed = false;
+    private volatile @Nullable Thread fParkedProducer = null;
+    private volatile @Nullable Thread fParkedConsumer = null;
+
+    /**
+     * Constructor
+     *
+     * @param depth
+     *            The maximum number of chunks waiting to be taken
+     */
+    public ScriptEventHandoff(int depth) {
+        fDepth = Math.max(1, depth);
+        fSlots = new AtomicReferenceArray<>(fDepth);
+    }
+
+    /**
+     * Put a chunk of events, waiting for space if the queue is full. To be
+     * called by the producer only.
+     *
+     * @param chunk
+     *            The chunk of events
+     * @return <code>false</code> if the queue was closed and the chunk was
+     *         dropped. The queue is closed if the producer is interrupted
+     *         while waiting.
+     */
+    public boolean put(ITmfEvent[] chunk) {
+        long tail = fTail.get();
+        while (tail - fHead.get() >= fDepth) {
+            if (fClosed) {
+                return false;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Parking would return immediately, give up on the consumer
+                close();
+                return false;
+            }
+            fParkedProducer = Thread.currentThread();
+            // Check again after announcing the park, the consumer may have taken a chunk in between
+            if (tail - fHead.get() >= fDepth && !fClosed) {
+                LockSupport.park(this);
+            }
+            fParkedProducer = null;
+        }
+        fSlots.set((int) (tail % fDepth), chunk);
+        fTail.set(tail + 1);
+        unpark(fParkedConsumer);
+        return !fClosed;
+    }
+
+    /**
+     * Note that the producer will not put any more chunk. The consumer will
+     * take the remaining chunks. To be called by the producer only.
+     */
+    public void finish() {
+        fFinished = true;
+        unpark(fParkedConsumer);
+    }
+
+    /**
+     * Get whether the producer is finished
+     *
+     * @return <code>true</code> if {@link #finish()} was called
+     */
+    public boolean isFinished() {
+        return fFinished;
+    }
+
+    /**
+     * Close the queue: the remaining chunks are dropped, the consumer will not
+     * get any more chunk and the producer does not wait anymore. This method
+     * can be called from any thread.
+     */
+    public void close() {
+        fClosed = true;
+        unpark(fParkedProducer);
+        unpark(fParkedConsumer);
+    }
+
+    /**
+     * Get whether the queue was closed
+     *
+     * @return <code>true</code> if {@link #close()} was called
+     */
+    public boolean isClosed() {
+        return fClosed;
+    }
+
+    /**
+     * Take the next chunk of events, waiting for one if the queue is empty. To
+     * be called by the consumer only.
+     *
+     * @return The chunk of events, or <code>null</code> if the producer is
+     *         finished and all the chunks were taken, or if the queue was
+     *         closed. The queue is closed if the consumer is interrupted while
+     *         waiting.
+     */
+    public ITmfEvent @Nullable [] take() {
+        long head = fHead.get();
+        while (head == fTail.get()) {
+            if (fClosed || fFinished) {
+                // The last chunk may have been put just before finishing
+                if (!fClosed && head != fTail.get()) {
+                    break;
+                }
+                return null;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                // Parking would return immediately, give up on the producer
+                close();
+                return null;
+            }
+            fParkedConsumer = Thread.currentThread();
+            if (head == fTail.get() && !fFinished && !fClosed) {
+                LockSupport.park(this);
+            }
+            fParkedConsumer = null;
+        }
+        if (fClosed) {
+            return null;
+        }
+        int slot = (int) (head % fDepth);
+        ITmfEvent @Nullable [] chunk = fSlots.get(slot);
+        fSlots.set(slot, null);
+        fHead.set(head + 1);
+        unpark(fParkedProducer);
+        return chunk;
+    }
+
+    private static void unpark(@Nullable Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+}
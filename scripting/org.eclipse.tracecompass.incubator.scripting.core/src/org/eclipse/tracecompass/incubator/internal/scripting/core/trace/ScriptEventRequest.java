@@ -11,8 +11,11 @@
 
 package org.eclipse.tracecompass.incubator.internal.scripting.core.trace;
 
+import java.util.Collection;
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNull;
-import org.eclipse.tracecompass.common.core.collect.BufferedBlockingQueue;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
@@ -22,26 +25,34 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * An event request for scripted analysis. This class has a {link
  * #getEventIterator()} method which returns the iterator to go through the
  * events. Callers need to explicitly send the request to a trace or experiment,
  * using {@link ITmfTrace#sendRequest(ITmfEventRequest)}.
  *
+ * The request can be bounded to a time range and to a set of event names. The
+ * events with other names are dropped in the request thread, so they never go
+ * through the queue to the script.
+ *
+ * The events are passed to the script in chunks, through a
+ * {@link ScriptEventHandoff} of a configurable depth, so the request thread
+ * and the script only synchronize once per chunk.
+ *
  * @author Geneviève Bastien
  */
 public class ScriptEventRequest extends TmfEventRequest {
 
     /**
-     * End event to note the last event of the request
+     * End event to note the last event of the queue of the deprecated
+     * {@link ScriptEventsIterator#ScriptEventsIterator(org.eclipse.tracecompass.common.core.collect.BufferedBlockingQueue)}
      */
-    public static final EndEvent END_EVENT = new EndEvent();
-
-    private static final int DEFAULT_EVENTS_QUEUE_SIZE = 127;
-    private static final int DEFAULT_EVENTS_CHUNK_SIZE = 127;
+    public static final ITmfEvent END_EVENT = new EndEvent();
 
     /**
-     * Fake event indicating the build is over, and the provider should close
+     * Fake event indicating the events are over
      */
     private static class EndEvent extends TmfEvent {
         public EndEvent() {
@@ -49,41 +60,128 @@ public class ScriptEventRequest extends TmfEventRequest {
         }
     }
 
-    private final BufferedBlockingQueue<ITmfEvent> fEventsQueue;
+    /**
+     * Default maximum number of chunks waiting for the script
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 127;
+
+    /**
+     * Default number of events per chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 127;
+
+    private final ScriptEventHandoff fHandoff;
     private final ScriptEventsIterator fEventIterator;
+    private final @Nullable Set<String> fEventNames;
+    private final int fChunkSize;
+    private ITmfEvent[] fChunk;
+    private int fChunkCount = 0;
 
     /**
-     * Constructor
+     * Constructor for a request of all the events of the trace
      */
     public ScriptEventRequest() {
-        super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 100);
-        fEventsQueue = new BufferedBlockingQueue<>(DEFAULT_EVENTS_QUEUE_SIZE, DEFAULT_EVENTS_CHUNK_SIZE);
-        fEventIterator = new ScriptEventsIterator(fEventsQueue);
+        this(TmfTimeRange.ETERNITY, null);
+    }
+
+    /**
+     * Constructor for a request of some events in a time range
+     *
+     * @param range
+     *            The time range of the events to read
+     * @param eventNames
+     *            The names of the events to read, or <code>null</code> or
+     *            empty to read all events
+     */
+    public ScriptEventRequest(TmfTimeRange range, @Nullable Collection<String> eventNames) {
+        this(range, eventNames, DEFAULT_QUEUE_DEPTH, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor for a request of some events in a time range, with the
+     * geometry of the queue to the script
+     *
+     * @param range
+     *            The time range of the events to read
+     * @param eventNames
+     *            The names of the events to read, or <code>null</code> or
+     *            empty to read all events
+     * @param queueDepth
+     *            The maximum number of chunks waiting for the script. When the
+     *            queue is full, the reading of the trace waits for the script.
+     * @param chunkSize
+     *            The number of events per chunk
+     */
+    public ScriptEventRequest(TmfTimeRange range, @Nullable Collection<String> eventNames, int queueDepth, int chunkSize) {
+        super(ITmfEvent.class, range, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 100);
+        fHandoff = new ScriptEventHandoff(queueDepth);
+        fEventIterator = new HandoffEventsIterator(fHandoff);
+        fEventNames = (eventNames == null || eventNames.isEmpty()) ? null : ImmutableSet.copyOf(eventNames);
+        fChunkSize = Math.max(1, chunkSize);
+        fChunk = new ITmfEvent[fChunkSize];
     }
 
     @Override
     public void handleData(@NonNull ITmfEvent event) {
         super.handleData(event);
-        fEventsQueue.put(event);
+        Set<String> eventNames = fEventNames;
+        if (eventNames != null && !eventNames.contains(event.getName())) {
+            return;
+        }
+        fChunk[fChunkCount++] = event;
+        if (fChunkCount == fChunkSize) {
+            fHandoff.put(fChunk);
+            fChunk = new ITmfEvent[fChunkSize];
+            fChunkCount = 0;
+        }
     }
 
     @Override
-    public synchronized void done() {
-        super.done();
+    public void done() {
+        /*
+         * The last chunk is handed off before the request is completed, so
+         * the script got all the events when waiting for completion returns.
+         * It is put without holding the lock of the request, as it may wait
+         * for the script. If the script ends meanwhile, closing the iterator
+         * releases it.
+         */
         if (!isCancelled()) {
-            fEventsQueue.put(END_EVENT);
-            fEventsQueue.flushInputBuffer();
+            if (fChunkCount > 0) {
+                ITmfEvent[] chunk = new ITmfEvent[fChunkCount];
+                System.arraycopy(fChunk, 0, chunk, 0, fChunkCount);
+                fHandoff.put(chunk);
+                fChunkCount = 0;
+            }
+            fHandoff.finish();
         }
+        super.done();
     }
 
     @Override
     public synchronized void cancel() {
         super.cancel();
-        while (!fEventsQueue.isEmpty()) {
-          fEventIterator.next();
+        fHandoff.close();
+    }
+
+    /**
+     * Close the event iterator, when the script reading it has ended. The
+     * request is cancelled if it is still reading the trace and the events not
+     * read yet are dropped.
+     */
+    public void closeIterator() {
+        if (!fHandoff.isFinished() && !isCompleted()) {
+            cancel();
         }
-        fEventsQueue.put(END_EVENT);
-        fEventsQueue.flushInputBuffer();
+        fHandoff.close();
+    }
+
+    /**
+     * Get the names of the events read by this request
+     *
+     * @return The event names, or <code>null</code> if all events are read
+     */
+    public @Nullable Set<String> getEventNames() {
+        return fEventNames;
     }
 
     /**
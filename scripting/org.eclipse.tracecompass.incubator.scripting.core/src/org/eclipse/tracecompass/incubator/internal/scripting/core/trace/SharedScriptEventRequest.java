@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.scripting.core.trace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * An event request shared by many scripts running in parallel on the same
+ * trace, so the trace is read only once. Each script is a {@link Participant}
+ * of the request and can subscribe to it once, with its own time range and
+ * event names. Each subscriber gets its events in its own thread, through its
+ * own {@link ScriptEventHandoff}.
+ *
+ * The queues are bounded: when the queue of a subscriber is full, the reading
+ * of the trace waits for it, so the slowest script sets the pace instead of
+ * the events accumulating in memory.
+ *
+ * The request is sent to the trace once every participant has either
+ * subscribed or been released. It reads the events from the earliest start to
+ * the latest end of the time ranges of the subscribers. A participant that
+ * subscribes again, or after the request is sent, gets <code>null</code> and
+ * should read the trace on its own. Releasing a participant closes its queue,
+ * so a script that ends without reading all its events does not block the
+ * others.
+ *
+ * @author agent
+ */
+public class SharedScriptEventRequest extends TmfEventRequest {
+
+    /**
+     * Name of the script variable containing the {@link Participant} of the
+     * script
+     */
+    public static final String PARTICIPANT_VARIABLE = "sharedEventRequest"; //$NON-NLS-1$
+
+    /**
+     * A script reading the events of this request
+     */
+    public final class Participant {
+
+        private boolean fSubscribed = false;
+        private boolean fReleased = false;
+        private @Nullable Subscriber fSubscriber = null;
+
+        private Participant() {
+            // Only created by the request
+        }
+
+        /**
+         * Subscribe to the events of the request
+         *
+         * @param trace
+         *            The trace to read, it needs to be the trace of the
+         *            request
+         * @param range
+         *            The time range of the events to read
+         * @param eventNames
+         *            The names of the events to read, or <code>null</code> or
+         *            empty to read all events
+         * @return The iterator of the events, or <code>null</code> if this
+         *         participant cannot subscribe to the request and should read
+         *         the trace with its own request
+         */
+        public @Nullable ScriptEventsIterator subscribe(ITmfTrace trace, TmfTimeRange range, @Nullable Collection<String> eventNames) {
+            Subscriber subscriber;
+            boolean send;
+            synchronized (fParticipants) {
+                if (fStarted || fSubscribed || fReleased || !trace.equals(fTrace)) {
+                    return null;
+                }
+                subscriber = new Subscriber(range, eventNames);
+                fSubscriber = subscriber;
+                fSubscribed = true;
+                fSubscribers.add(subscriber);
+                send = checkStart();
+            }
+            if (send) {
+                fTrace.sendRequest(SharedScriptEventRequest.this);
+            }
+            return subscriber.fIterator;
+        }
+
+        /**
+         * Release this participant, when its script has ended. If it
+         * subscribed, the remaining events of the script are dropped.
+         */
+        public void release() {
+            boolean send;
+            synchronized (fParticipants) {
+                if (fReleased) {
+                    return;
+                }
+                fReleased = true;
+                Subscriber subscriber = fSubscriber;
+                if (subscriber != null) {
+                    subscriber.fHandoff.close();
+                }
+                send = checkStart();
+            }
+            if (send) {
+                fTrace.sendRequest(SharedScriptEventRequest.this);
+            }
+        }
+    }
+
+    /**
+     * The events of one script, filtered and put in chunks in the request
+     * thread
+     */
+    private static final class Subscriber {
+        private final ScriptEventHandoff fHandoff;
+        private final ScriptEventsIterator fIterator;
+        private final TmfTimeRange fRange;
+        private final @Nullable Set<String> fEventNames;
+        private ITmfEvent[] fChunk = new ITmfEvent[ScriptEventRequest.DEFAULT_CHUNK_SIZE];
+        private int fChunkCount = 0;
+        private volatile boolean fDone = false;
+
+        public Subscriber(TmfTimeRange range, @Nullable Collection<String> eventNames) {
+            fHandoff = new ScriptEventHandoff(ScriptEventRequest.DEFAULT_QUEUE_DEPTH);
+            fIterator = new HandoffEventsIterator(fHandoff);
+            fRange = range;
+            fEventNames = (eventNames == null || eventNames.isEmpty()) ? null : ImmutableSet.copyOf(eventNames);
+        }
+
+        /**
+         * Add an event to the chunk, waiting for the script if its queue is
+         * full. Returns <code>false</code> if the subscriber does not want any
+         * more event.
+         */
+        public boolean offer(ITmfEvent event) {
+            ITmfTimestamp ts = event.getTimestamp();
+            if (ts.compareTo(fRange.getEndTime()) > 0) {
+                // The events are chronological, this subscriber has all its events
+                finish();
+                return false;
+            }
+            Set<String> eventNames = fEventNames;
+            if (ts.compareTo(fRange.getStartTime()) < 0 || (eventNames != null && !eventNames.contains(event.getName()))) {
+                return true;
+            }
+            fChunk[fChunkCount++] = event;
+            if (fChunkCount == fChunk.length) {
+                ITmfEvent[] chunk = fChunk;
+                fChunk = new ITmfEvent[chunk.length];
+                fChunkCount = 0;
+                if (!fHandoff.put(chunk)) {
+                    fDone = true;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public void finish() {
+            if (fChunkCount > 0) {
+                ITmfEvent[] chunk = new ITmfEvent[fChunkCount];
+                System.arraycopy(fChunk, 0, chunk, 0, fChunkCount);
+                fHandoff.put(chunk);
+                fChunkCount = 0;
+            }
+            fHandoff.finish();
+            fDone = true;
+        }
+    }
+
+    private final ITmfTrace fTrace;
+    private final List<Participant> fParticipants = new ArrayList<>();
+    private final List<Subscriber> fSubscribers = new ArrayList<>();
+    private boolean fStarted = false;
+    /* The time range read, set before the request is sent */
+    private volatile TmfTimeRange fReadRange = TmfTimeRange.ETERNITY;
+    /* The subscribers still reading, only used by the request thread once started */
+    private List<Subscriber> fActive = Collections.emptyList();
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            The trace to read
+     * @param participants
+     *            The number of scripts that will read this request
+     */
+    public SharedScriptEventRequest(ITmfTrace trace, int participants) {
+        super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND, 100);
+        fTrace = trace;
+        for (int i = 0; i < participants; i++) {
+            fParticipants.add(new Participant());
+        }
+    }
+
+    /**
+     * Get the participants of this request, one for each script
+     *
+     * @return The participants
+     */
+    public List<Participant> getParticipants() {
+        return Collections.unmodifiableList(fParticipants);
+    }
+
+    /**
+     * Check whether all the participants have subscribed or been released,
+     * and if so, mark the request as started. Must be called with the lock on
+     * the participants.
+     *
+     * @return Whether the request should be sent to the trace
+     */
+    private boolean checkStart() {
+        if (fStarted) {
+            return false;
+        }
+        for (Participant participant : fParticipants) {
+            if (!participant.fSubscribed && !participant.fReleased) {
+                return false;
+            }
+        }
+        fStarted = true;
+        List<Subscriber> active = new ArrayList<>();
+        ITmfTimestamp start = null;
+        ITmfTimestamp end = null;
+        for (Subscriber subscriber : fSubscribers) {
+            if (!subscriber.fHandoff.isClosed()) {
+                active.add(subscriber);
+                ITmfTimestamp subscriberStart = subscriber.fRange.getStartTime();
+                ITmfTimestamp subscriberEnd = subscriber.fRange.getEndTime();
+                start = (start == null || subscriberStart.compareTo(start) < 0) ? subscriberStart : start;
+                end = (end == null || subscriberEnd.compareTo(end) > 0) ? subscriberEnd : end;
+            }
+        }
+        fActive = active;
+        if (start != null && end != null) {
+            fReadRange = new TmfTimeRange(start, end);
+        }
+        // Nothing to read if no script is still waiting for events
+        return !active.isEmpty();
+    }
+
+    /**
+     * Get the time range read by this request. Until the request is started,
+     * it is the whole trace, then it covers the time ranges of the
+     * subscribers.
+     */
+    @Override
+    public TmfTimeRange getRange() {
+        return fReadRange;
+    }
+
+    @Override
+    public void handleData(@NonNull ITmfEvent event) {
+        super.handleData(event);
+        List<Subscriber> active = fActive;
+        for (int i = 0; i < active.size(); i++) {
+            Subscriber subscriber = active.get(i);
+            if (!subscriber.offer(event)) {
+                active.remove(i--);
+            }
+        }
+        if (active.isEmpty()) {
+            // No one is interested in the rest of the trace
+            cancel();
+        }
+    }
+
+    @Override
+    public void done() {
+        /*
+         * The last chunks are handed off before the request is completed, so
+         * the scripts got all their events when waiting for completion
+         * returns. They are put without holding the lock of the request, as
+         * they may wait for the scripts. Releasing a participant closes its
+         * queue, which releases a put waiting for a script that has ended.
+         */
+        if (!isCancelled()) {
+            for (Subscriber subscriber : fActive) {
+                subscriber.finish();
+            }
+        }
+        super.done();
+    }
+
+    @Override
+    public synchronized void cancel() {
+        super.cancel();
+        // The subscribers that got all their events keep them
+        synchronized (fParticipants) {
+            for (Subscriber subscriber : fSubscribers) {
+                if (!subscriber.fDone) {
+                    subscriber.fHandoff.close();
+                }
+            }
+        }
+    }
+
+}
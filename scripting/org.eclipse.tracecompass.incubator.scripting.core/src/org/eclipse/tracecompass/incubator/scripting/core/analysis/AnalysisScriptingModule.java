@@ -13,8 +13,12 @@ package org.eclipse.tracecompass.incubator.scripting.core.analysis;
 
 import java.util.Objects;
 
+import org.eclipse.ease.IScriptEngine;
+import org.eclipse.ease.modules.AbstractScriptModule;
 import org.eclipse.ease.modules.WrapToScript;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest.Participant;
 import org.eclipse.tracecompass.incubator.scripting.core.trace.TraceScriptingModule;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -43,10 +47,16 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
  * before</a>, building a state system and showing its data in a time graph, in
  * python</li>
  * </ul>
+ * <p>
+ * When the script is run with other scripts on the same trace, for example by
+ * the batch runner, the analyses it creates may share a single read of the
+ * trace with the analyses of the other scripts, see
+ * {@link SharedScriptEventRequest}.
+ * </p>
  *
  * @author Geneviève Bastien
  */
-public class AnalysisScriptingModule {
+public class AnalysisScriptingModule extends AbstractScriptModule {
 
     /**
      * Create an analysis with the given name. It will be associated with the
@@ -67,7 +77,7 @@ public class AnalysisScriptingModule {
         if (activeTrace == null) {
             return null;
         }
-        return new ScriptedAnalysis(activeTrace, name);
+        return new ScriptedAnalysis(activeTrace, name, getParticipant());
     }
 
     /**
@@ -141,7 +151,20 @@ public class AnalysisScriptingModule {
      */
     @WrapToScript
     public ScriptedAnalysis createScriptedAnalysis(@Nullable ITmfTrace trace, String analysisName) {
-        return new ScriptedAnalysis(Objects.requireNonNull(trace, "Trace should not be null"), analysisName); //$NON-NLS-1$
+        return new ScriptedAnalysis(Objects.requireNonNull(trace, "Trace should not be null"), analysisName, getParticipant()); //$NON-NLS-1$
+    }
+
+    /**
+     * Get the participant of this script to a shared event request, if the
+     * script was run with one
+     */
+    private @Nullable Participant getParticipant() {
+        IScriptEngine scriptEngine = getScriptEngine();
+        if (scriptEngine == null || !scriptEngine.hasVariable(SharedScriptEventRequest.PARTICIPANT_VARIABLE)) {
+            return null;
+        }
+        Object participant = scriptEngine.getVariable(SharedScriptEventRequest.PARTICIPANT_VARIABLE);
+        return (participant instanceof Participant) ? (Participant) participant : null;
     }
 
 }
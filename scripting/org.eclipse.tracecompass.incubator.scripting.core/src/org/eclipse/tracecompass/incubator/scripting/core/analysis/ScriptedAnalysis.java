@@ -11,14 +11,26 @@
 
 package org.eclipse.tracecompass.incubator.scripting.core.analysis;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.ease.modules.ScriptParameter;
 import org.eclipse.ease.modules.WrapToScript;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.analysis.TmfScriptAnalysis;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.ScriptEventRequest;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest;
+import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.SharedScriptEventRequest.Participant;
 import org.eclipse.tracecompass.incubator.scripting.core.trace.ScriptEventsIterator;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
 /**
@@ -26,12 +38,17 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
  * iterator, as well as backends to store data. Scripts can thus parse events
  * and fill the backend appropriately.
  *
+ * If the script runs with other scripts on the same trace and a
+ * {@link SharedScriptEventRequest}, the first event iterator of the analysis
+ * is fed by that shared request instead of reading the trace again.
+ *
  * @author Geneviève Bastien
  */
 public class ScriptedAnalysis {
 
     private final ITmfTrace fTrace;
     private final String fName;
+    private final @Nullable Participant fParticipant;
     private @Nullable ITmfStateSystemBuilder fStateSystem;
 
     /**
@@ -46,8 +63,29 @@ public class ScriptedAnalysis {
      *            The name of the analysis
      */
     ScriptedAnalysis(ITmfTrace activeTrace, String name) {
+        this(activeTrace, name, null);
+    }
+
+    /**
+     * Constructor for an analysis whose script shares the reading of the trace
+     * with other scripts
+     *
+     * package-private because it is only expected to be constructed by the
+     * module.
+     *
+     * @param activeTrace
+     *            The trace to associate with this analysis
+     * @param name
+     *            The name of the analysis
+     * @param participant
+     *            The participant of the script to the shared event request,
+     *            or <code>null</code> if the analysis reads the trace on its
+     *            own
+     */
+    ScriptedAnalysis(ITmfTrace activeTrace, String name, @Nullable Participant participant) {
         fTrace = activeTrace;
         fName = name;
+        fParticipant = participant;
     }
 
     /**
@@ -83,8 +121,8 @@ public class ScriptedAnalysis {
      * Get an iterator to iterate chronologically through the events of the
      * trace. To reduce overhead of passing all events to/from the script when
      * only a subset of events is requested, the
-     * {@link ScriptEventsIterator#addEvent(String)} method can be used to set
-     * the events to filter.
+     * {@link #getEventIterator(Collection, long, long)} method can be used
+     * instead to read only some events in a time range.
      *
      * Thus, to iterate through a trace in a scripted analysis, one can just do
      * the following snippet (javascript)
@@ -105,11 +143,114 @@ public class ScriptedAnalysis {
      */
     @WrapToScript
     public ScriptEventsIterator getEventIterator() {
+        ScriptEventsIterator sharedIterator = getSharedEventIterator(null, TmfTimeRange.ETERNITY);
+        if (sharedIterator != null) {
+            return sharedIterator;
+        }
         ScriptEventRequest scriptEventRequest = new ScriptEventRequest();
         fTrace.sendRequest(scriptEventRequest);
         return scriptEventRequest.getEventIterator();
     }
 
+    /**
+     * Get an iterator to iterate chronologically through the events of the
+     * trace with the given names. Unlike the
+     * {@link ScriptEventsIterator#addEvent(String)} method, the other events
+     * are dropped when they are read, before being passed to the script, and
+     * the traces of an experiment that do not have any of those events are
+     * not read at all.
+     *
+     * <pre>
+     * var iter = analysis.getEventIterator(["sched_switch", "sched_wakeup"]);
+     * </pre>
+     *
+     * @param eventNames
+     *            The names of the events to return, or <code>null</code> or
+     *            empty to return all events
+     * @return The event iterator, starting from the first event
+     */
+    public ScriptEventsIterator getEventIterator(@Nullable Collection<String> eventNames) {
+        return getEventIterator(eventNames, TmfTimeRange.ETERNITY);
+    }
+
+    /**
+     * Get an iterator to iterate chronologically through the events of the
+     * trace with the given names in a time range. Only the requested time
+     * range of the trace is read.
+     *
+     * <pre>
+     * var iter = analysis.getEventIterator(["sched_switch"], start, start + 1000000000);
+     * </pre>
+     *
+     * @param eventNames
+     *            The names of the events to return, or <code>null</code> or
+     *            empty to return all events
+     * @param start
+     *            The start time of the events to return, in nanoseconds
+     * @param end
+     *            The end time of the events to return, in nanoseconds
+     * @return The event iterator, starting from the first event at or after
+     *         the start time
+     */
+    public ScriptEventsIterator getEventIterator(@Nullable Collection<String> eventNames, long start, long end) {
+        return getEventIterator(eventNames, new TmfTimeRange(TmfTimestamp.fromNanos(start), TmfTimestamp.fromNanos(end)));
+    }
+
+    private ScriptEventsIterator getEventIterator(@Nullable Collection<String> eventNames, TmfTimeRange range) {
+        ScriptEventsIterator sharedIterator = getSharedEventIterator(eventNames, range);
+        if (sharedIterator != null) {
+            return sharedIterator;
+        }
+        ScriptEventRequest scriptEventRequest = new ScriptEventRequest(range, eventNames);
+        Set<String> names = scriptEventRequest.getEventNames();
+        List<ITmfTrace> traces = new ArrayList<>();
+        Collection<ITmfTrace> traceSet = TmfTraceManager.getTraceSet(fTrace);
+        for (ITmfTrace trace : traceSet) {
+            if (trace.getStartTime().compareTo(range.getEndTime()) <= 0 && (names == null || mayContain(trace, names))) {
+                traces.add(trace);
+            }
+        }
+        if (traces.isEmpty()) {
+            // Nothing to read, the iterator has no events
+            scriptEventRequest.done();
+        } else if (traces.size() == 1 && traceSet.size() > 1) {
+            // Only one trace of the experiment has events, read it alone
+            traces.get(0).sendRequest(scriptEventRequest);
+        } else {
+            fTrace.sendRequest(scriptEventRequest);
+        }
+        return scriptEventRequest.getEventIterator();
+    }
+
+    private @Nullable ScriptEventsIterator getSharedEventIterator(@Nullable Collection<String> eventNames, TmfTimeRange range) {
+        Participant participant = fParticipant;
+        if (participant == null) {
+            return null;
+        }
+        // Only one iterator per script is shared, others would block the reading while waiting to be read
+        return participant.subscribe(fTrace, range, eventNames);
+    }
+
+    /**
+     * Get whether a trace may contain events with one of the names. Traces
+     * that do not declare their event types may contain any event.
+     */
+    private static boolean mayContain(ITmfTrace trace, Set<String> eventNames) {
+        if (!(trace instanceof ITmfTraceWithPreDefinedEvents)) {
+            return true;
+        }
+        Set<? extends ITmfEventType> eventTypes = ((ITmfTraceWithPreDefinedEvents) trace).getContainedEventTypes();
+        if (eventTypes.isEmpty()) {
+            return true;
+        }
+        for (ITmfEventType eventType : eventTypes) {
+            if (eventNames.contains(eventType.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the trace, not to be used by scripts.
      *
@@ -11,15 +11,19 @@
 
 package org.eclipse.tracecompass.incubator.scripting.core.trace;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.collect.BufferedBlockingQueue;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.ScriptEventRequest;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
 /**
  * An event iterator class for scripting which allows to return to the script
@@ -27,43 +31,91 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
  * {@link #addEvent(String)} method. If no event is added, all events will be
  * returned.
  *
+ * The events added to the iterator are filtered as they are consumed. When the
+ * event names are known beforehand, it is more efficient to pass them to the
+ * request instead, see
+ * {@link org.eclipse.tracecompass.incubator.scripting.core.analysis.ScriptedAnalysis#getEventIterator(java.util.Collection, long, long)}.
+ *
+ * Each call from a script to a java object has a cost, so instead of getting
+ * the events one at a time with {@link #hasNext()} and {@link #next()}, scripts
+ * reading many events can get them in batches with {@link #nextEvents(int)},
+ * or directly the values of some of their fields with
+ * {@link #nextFieldValues(int, List)}.
+ *
+ * The iterator must be used by only one thread. The iterators are created by
+ * the event requests, they are not meant to be extended by clients.
+ *
  * @author Geneviève Bastien
  */
 public class ScriptEventsIterator implements Iterator<ITmfEvent> {
 
-    private final BufferedBlockingQueue<ITmfEvent> fEventsQueue;
+    private static final ITmfEvent[] NO_EVENTS = new ITmfEvent[0];
+
+    private final @Nullable BufferedBlockingQueue<ITmfEvent> fEventsQueue;
     private final Collection<String> fNames = new HashSet<>();
-    private @Nullable ITmfEvent fNext;
+    private ITmfEvent[] fChunk = NO_EVENTS;
+    private int fIndex = 0;
+    private boolean fEnded = false;
 
     /**
      * Constructor
      *
      * @param eventsQueue
-     *            The blocking queue from which to get the events
+     *            The blocking queue from which to get the events, ending with
+     *            {@link ScriptEventRequest#END_EVENT}
+     * @deprecated The events are taken one at a time from the queue. Get the
+     *             iterator from the event request instead, it hands the
+     *             events in chunks.
      */
+    @Deprecated
     public ScriptEventsIterator(BufferedBlockingQueue<ITmfEvent> eventsQueue) {
         fEventsQueue = eventsQueue;
     }
 
-    @Override
-    public synchronized boolean hasNext() {
-        ITmfEvent next = fNext;
-        if (next == null) {
-            next = findNextEvent();
-            fNext = next;
-        }
-        return next != ScriptEventRequest.END_EVENT;
+    /**
+     * Constructor for the iterators of the event requests, which override
+     * {@link #takeChunk()}
+     */
+    protected ScriptEventsIterator() {
+        fEventsQueue = null;
     }
 
-    private ITmfEvent findNextEvent() {
-        ITmfEvent event = fEventsQueue.take();
-        if (fNames.isEmpty()) {
-            return event;
+    /**
+     * Take the next chunk of events, waiting for one if none is available yet.
+     * This implementation takes the events one at a time from the queue of the
+     * deprecated constructor.
+     *
+     * @return The chunk of events, or <code>null</code> if there are no more
+     *         events
+     */
+    protected ITmfEvent @Nullable [] takeChunk() {
+        BufferedBlockingQueue<ITmfEvent> queue = fEventsQueue;
+        if (queue == null) {
+            return null;
         }
-        while (event != ScriptEventRequest.END_EVENT && !fNames.contains(event.getName())) {
-            event = fEventsQueue.take();
+        ITmfEvent event = queue.take();
+        return (event == ScriptEventRequest.END_EVENT) ? null : new ITmfEvent[] { event };
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!fEnded) {
+            while (fIndex < fChunk.length) {
+                if (fNames.isEmpty() || fNames.contains(fChunk[fIndex].getName())) {
+                    return true;
+                }
+                fIndex++;
+            }
+            ITmfEvent[] chunk = takeChunk();
+            if (chunk == null) {
+                fEnded = true;
+                fChunk = NO_EVENTS;
+            } else {
+                fChunk = chunk;
+            }
+            fIndex = 0;
         }
-        return event;
+        return false;
     }
 
     /**
@@ -81,15 +133,86 @@ public class ScriptEventsIterator implements Iterator<ITmfEvent> {
     }
 
     @Override
-    public synchronized ITmfEvent next() {
+    public ITmfEvent next() {
         if (hasNext()) {
-            ITmfEvent next = fNext;
-            fNext = null;
-            if (next != null) {
-                return next;
-            }
+            return fChunk[fIndex++];
         }
         throw new NoSuchElementException("No more elements in the queue"); //$NON-NLS-1$
     }
 
+    /**
+     * Get the next events, in a single call. It returns the events that are
+     * already available, so less events than requested may be returned even if
+     * there are more events to come.
+     *
+     * The following snippet (javascript) reads all the events
+     *
+     * <pre>
+     * var events = iter.nextEvents(1000);
+     * while (events.length &gt; 0) {
+     *     for (var i = 0; i &lt; events.length; i++) {
+     *         // Do something with events[i]
+     *     }
+     *     events = iter.nextEvents(1000);
+     * }
+     * </pre>
+     *
+     * @param maxEvents
+     *            The maximum number of events to return
+     * @return The next events, or an empty array if there are no more events
+     */
+    public ITmfEvent[] nextEvents(int maxEvents) {
+        if (maxEvents <= 0 || !hasNext()) {
+            return NO_EVENTS;
+        }
+        if (fNames.isEmpty()) {
+            int count = Math.min(maxEvents, fChunk.length - fIndex);
+            ITmfEvent[] events = Arrays.copyOfRange(fChunk, fIndex, fIndex + count);
+            fIndex += count;
+            return events;
+        }
+        ITmfEvent[] events = new ITmfEvent[Math.min(maxEvents, fChunk.length - fIndex)];
+        int count = 0;
+        while (count < events.length && fIndex < fChunk.length) {
+            ITmfEvent event = fChunk[fIndex++];
+            if (fNames.contains(event.getName())) {
+                events[count++] = event;
+            }
+        }
+        return (count == events.length) ? events : Arrays.copyOf(events, count);
+    }
+
+    /**
+     * Get the values of some fields of the next events, in a single call. The
+     * fields are resolved like with
+     * {@link TraceScriptingModule#getEventFieldValue(ITmfEvent, String)}: if
+     * the event has no field of this name, the aspect of this name of the
+     * trace is resolved. Like {@link #nextEvents(int)}, less events than
+     * requested may be returned.
+     *
+     * @param maxEvents
+     *            The maximum number of events to return
+     * @param fieldNames
+     *            The names of the fields to get
+     * @return An array with, for each event, the array of its field values in
+     *         the order of the field names, or an empty array if there are no
+     *         more events. The value of a field that is not found is
+     *         <code>null</code>.
+     */
+    public @Nullable Object[][] nextFieldValues(int maxEvents, List<String> fieldNames) {
+        ITmfEvent[] events = nextEvents(maxEvents);
+        @Nullable Object[][] values = new @Nullable Object[events.length][];
+        for (int i = 0; i < events.length; i++) {
+            ITmfEvent event = events[i];
+            @Nullable Object[] row = new @Nullable Object[fieldNames.size()];
+            for (int j = 0; j < row.length; j++) {
+                String fieldName = fieldNames.get(j);
+                ITmfEventField field = event.getContent().getField(fieldName);
+                row[j] = (field == null) ? TmfTraceUtils.resolveAspectOfNameForEvent(event.getTrace(), fieldName, event) : field.getValue();
+            }
+            values[i] = row;
+        }
+        return values;
+    }
+
 }
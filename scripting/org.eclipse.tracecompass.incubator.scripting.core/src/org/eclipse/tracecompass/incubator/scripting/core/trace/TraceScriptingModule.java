@@ -12,6 +12,8 @@
 package org.eclipse.tracecompass.incubator.scripting.core.trace;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
 
@@ -27,6 +29,7 @@ import org.eclipse.ease.modules.AbstractScriptModule;
 import org.eclipse.ease.modules.ScriptParameter;
 import org.eclipse.ease.modules.WrapToScript;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.export.EventColumnExporter;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.Messages;
 import org.eclipse.tracecompass.incubator.internal.scripting.core.trace.ScriptEventRequest;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -35,6 +38,7 @@ import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceImportException;
 import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceType;
 import org.eclipse.tracecompass.tmf.core.project.model.TraceTypeHelper;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
@@ -196,6 +200,83 @@ public class TraceScriptingModule extends AbstractScriptModule {
         return scriptEventRequest.getEventIterator();
     }
 
+    /**
+     * Get an iterator to go through the events of the trace in batches, with
+     * the {@link ScriptEventsIterator#nextEvents(int)} or
+     * {@link ScriptEventsIterator#nextFieldValues(int, List)} methods. The
+     * events are passed from the trace to the script in chunks, larger chunks
+     * mean less synchronization between the thread reading the trace and the
+     * script, but more memory.
+     *
+     * The following snippet (javascript) counts the events of a trace
+     *
+     * <pre>
+     * var iter = getBatchEventIterator(trace);
+     * var count = 0;
+     * var events = iter.nextEvents(1024);
+     * while (events.length &gt; 0) {
+     *     count += events.length;
+     *     events = iter.nextEvents(1024);
+     * }
+     * </pre>
+     *
+     * @param trace
+     *            The trace for which to get the event iterator
+     * @param queueDepth
+     *            The maximum number of chunks waiting for the script
+     * @param chunkSize
+     *            The number of events per chunk
+     * @return The event iterator, starting from the first event
+     */
+    @WrapToScript
+    public ScriptEventsIterator getBatchEventIterator(@Nullable ITmfTrace trace, @ScriptParameter(defaultValue = "16") int queueDepth, @ScriptParameter(defaultValue = "1024") int chunkSize) {
+        if (trace == null) {
+            throw new NullPointerException("Trace should not be null"); //$NON-NLS-1$
+        }
+
+        ScriptEventRequest scriptEventRequest = new ScriptEventRequest(TmfTimeRange.ETERNITY, null, queueDepth, chunkSize);
+        trace.sendRequest(scriptEventRequest);
+        setupEventIteratorExecutionListener(scriptEventRequest);
+
+        return scriptEventRequest.getEventIterator();
+    }
+
+    /**
+     * Export some columns of the events of a trace to a columnar file, in a
+     * single read of the trace. This is much faster than iterating on the
+     * events from the script to get their fields, and the file can be loaded
+     * directly in arrays, for example with numpy or pandas. See
+     * {@link EventColumnExporter} for the columns that can be exported and
+     * {@link org.eclipse.tracecompass.incubator.analysis.core.export.ColumnarFileWriter}
+     * for the format of the file.
+     *
+     * The following snippet (javascript) exports the switches of a trace
+     *
+     * <pre>
+     * exportEventColumns(trace, [ "timestamp", "name", "cpu", "prev_tid", "next_tid" ], "/tmp/switches.cols");
+     * </pre>
+     *
+     * @param trace
+     *            The trace to export
+     * @param columns
+     *            The columns to export: <code>timestamp</code>,
+     *            <code>name</code>, <code>cpu</code>, the path of a field, with
+     *            <code>/</code> separating the sub-fields, or the name of an
+     *            aspect of the trace
+     * @param file
+     *            The path of the file to write
+     * @return The number of events exported
+     * @throws IOException
+     *             If the file cannot be written or the export was cancelled
+     */
+    @WrapToScript
+    public long exportEventColumns(@Nullable ITmfTrace trace, List<String> columns, String file) throws IOException {
+        if (trace == null) {
+            throw new NullPointerException("Trace should not be null"); //$NON-NLS-1$
+        }
+        return EventColumnExporter.export(trace, columns, Paths.get(file), null);
+    }
+
     private void setupEventIteratorExecutionListener(ScriptEventRequest scriptEventRequest) {
         IScriptEngine scriptEngine = getScriptEngine();
         if (scriptEngine == null) {
@@ -205,8 +286,8 @@ public class TraceScriptingModule extends AbstractScriptModule {
         scriptEngine.addExecutionListener(new IExecutionListener() {
             @Override
             public void notify(@Nullable IScriptEngine engine, @Nullable Script script, int status) {
-                if (status == SCRIPT_END && !scriptEventRequest.isCompleted()) {
-                    scriptEventRequest.cancel();
+                if (status == SCRIPT_END) {
+                    scriptEventRequest.closeIterator();
                 }
             }
         });
@@ -98,6 +98,8 @@ public class ScriptingBenchmark {
 
     private static final int LOOP_COUNT = 25;
     private static final int LOOP_COUNT_SMALL = 5;
+    private static final int BATCH_QUEUE_DEPTH = 16;
+    private static final int BATCH_SIZE = 1024;
 
     private static final String DEFAULT_PROJECT = "Tracing";
 
@@ -130,6 +132,8 @@ public class ScriptingBenchmark {
                 { "Compute Values in Java", COMPUTE_EACH_VALUE, "computationEachValue", null, LOOP_COUNT_SMALL },
                 { "Read trace events for os-events", READ_LARGE_TRACE, "readTrace", ImmutableList.of(String.valueOf(LARGE_TRACE.getTracePath().getFileName())), LOOP_COUNT_SMALL },
                 { "Read trace events for small trace", READ_SMALL_TRACE, "readTrace", ImmutableList.of(String.valueOf(FileUtils.toFile(FileLocator.toFileURL(SMALL_TRACE.getTraceURL())).getName())), LOOP_COUNT },
+                { "Read trace events in batches for os-events", READ_LARGE_TRACE_BATCH, "readTraceBatch", ImmutableList.of(String.valueOf(LARGE_TRACE.getTracePath().getFileName())), LOOP_COUNT_SMALL },
+                { "Read trace events in batches for small trace", READ_SMALL_TRACE_BATCH, "readTraceBatch", ImmutableList.of(String.valueOf(FileUtils.toFile(FileLocator.toFileURL(SMALL_TRACE.getTraceURL())).getName())), LOOP_COUNT },
                 { "TID analysis for Os-events", TID_ANALYSIS_LARGE_TRACE, "tidAnalysis", ImmutableList.of(String.valueOf(LARGE_TRACE.getTracePath().getFileName())), LOOP_COUNT_SMALL },
                 { "TID analysis for small trace", TID_ANALYSIS_SMALL_TRACE, "tidAnalysis", ImmutableList.of(String.valueOf(FileUtils.toFile(FileLocator.toFileURL(SMALL_TRACE.getTraceURL())).getName())), LOOP_COUNT },
 
@@ -221,6 +225,41 @@ public class ScriptingBenchmark {
         }
     };
 
+    private static void readTraceBatch(String absolutePathToTrace) {
+        LttngKernelTrace trace = new LttngKernelTrace();
+        try {
+            trace.initTrace(null, absolutePathToTrace, CtfTmfEvent.class);
+            TraceScriptingModule module = new TraceScriptingModule();
+            ScriptEventsIterator eventIterator = module.getBatchEventIterator(trace, BATCH_QUEUE_DEPTH, BATCH_SIZE);
+            eventIterator.addEvent("sched_switch");
+            int schedSwitchCnt = 0;
+            long start = System.nanoTime();
+            ITmfEvent[] events = eventIterator.nextEvents(BATCH_SIZE);
+            while (events.length > 0) {
+                schedSwitchCnt += events.length;
+                events = eventIterator.nextEvents(BATCH_SIZE);
+            }
+            long duration = Math.max(1, System.nanoTime() - start);
+            System.out.println("Count sched switch: " + schedSwitchCnt + ", " + (schedSwitchCnt * 1000000000L / duration) + " events/s");
+        } catch (TmfTraceException e) {
+            fail(e.getMessage());
+        } finally {
+            trace.dispose();
+        }
+    }
+
+    private static final Runnable READ_LARGE_TRACE_BATCH = () -> {
+        readTraceBatch(LARGE_TRACE.getTracePath().toString());
+    };
+
+    private static final Runnable READ_SMALL_TRACE_BATCH = () -> {
+        try {
+            readTraceBatch(FileUtils.toFile(FileLocator.toFileURL(SMALL_TRACE.getTraceURL())).getAbsolutePath());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    };
+
     private static void deleteSupplementaryFiles(@NonNull ITmfTrace trace) {
         /*
          * Delete the supplementary files at the end of the benchmarks
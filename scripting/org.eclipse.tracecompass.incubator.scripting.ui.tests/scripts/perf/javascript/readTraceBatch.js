@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * @author agent
+ *******************************************************************************/
+
+
+loadModule("/TraceCompass/Trace")
+
+var trace = openMinimalTrace("Tracing", argv[0])
+
+eventIterator = getBatchEventIterator(trace, 16, 1024);
+eventIterator.addEvent("sched_switch")
+schedSwitchCnt = 0;
+events = eventIterator.nextEvents(1024);
+while (events.length > 0) {
+    schedSwitchCnt = schedSwitchCnt + events.length
+    events = eventIterator.nextEvents(1024);
+}
+print("Sched switch " + schedSwitchCnt)
+trace.dispose()
@@ -0,0 +1,30 @@
+################################################################################
+# Copyright (c) 2026 agent
+# All rights reserved. This program and the accompanying materials
+# are made available under the terms of the Eclipse Public License 2.0
+# which accompanies this distribution, and is available at
+# https://www.eclipse.org/legal/epl-2.0
+#
+# SPDX-License-Identifier: EPL-2.0
+#
+# @author agent
+################################################################################
+
+
+loadModule("/TraceCompass/Trace")
+
+from py4j.java_gateway import JavaClass
+
+trace = openMinimalTrace("Tracing", argv[0])
+
+eventIterator = getBatchEventIterator(trace, 16, 1024)
+eventIterator.addEvent("sched_switch")
+schedSwitchCnt = 0;
+events = eventIterator.nextEvents(1024)
+while len(events) > 0:
+    schedSwitchCnt = schedSwitchCnt + len(events)
+    gateway.detach(events)
+    events = eventIterator.nextEvents(1024)
+
+print(schedSwitchCnt)
+trace.dispose()
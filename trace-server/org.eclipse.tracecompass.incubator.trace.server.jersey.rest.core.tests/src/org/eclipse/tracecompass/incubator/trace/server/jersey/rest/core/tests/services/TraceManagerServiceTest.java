@@ -14,16 +14,26 @@ package org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.s
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.QueryParameters;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.TraceManagerService;
 import org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.stubs.TraceModelStub;
 import org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.utils.RestServerTest;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -69,4 +79,38 @@ public class TraceManagerServiceTest extends RestServerTest {
 
         assertEquals(ImmutableSet.of(CONTEXT_SWITCHES_KERNEL_STUB, CONTEXT_SWITCHES_UST_STUB), getTraces(traces));
     }
+
+    /**
+     * Test exporting the columns of the events of a trace
+     *
+     * @throws IOException
+     *             if the schema cannot be read
+     */
+    @Test
+    public void testExportColumns() throws IOException {
+        WebTarget traces = getApplicationEndpoint().path(TRACES);
+        assertPost(traces, CONTEXT_SWITCHES_KERNEL_STUB);
+        WebTarget columns = traces.path(CONTEXT_SWITCHES_KERNEL_UUID.toString()).path("columns");
+
+        Response response = columns.request().post(Entity.json(new QueryParameters(ImmutableMap.of("columns", Arrays.asList("timestamp", "name", "cpu")), Collections.emptyList())));
+        assertEquals(200, response.getStatus());
+        ByteBuffer buffer = ByteBuffer.wrap(response.readEntity(byte[].class)).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[8];
+        buffer.get(magic);
+        assertEquals("TCCOLS01", new String(magic, StandardCharsets.US_ASCII));
+        byte[] schemaBytes = new byte[(int) buffer.getLong()];
+        buffer.get(schemaBytes);
+        JsonNode schema = new ObjectMapper().readTree(schemaBytes);
+        long rows = schema.get("rows").asLong();
+        assertTrue(rows > 0);
+        JsonNode timestamps = schema.get("columns").get(0);
+        assertEquals("int64", timestamps.get("type").asText());
+        assertEquals(rows * Long.BYTES, timestamps.get("length").asLong());
+        assertEquals("dictionary", schema.get("columns").get(1).get("type").asText());
+        assertEquals(3, schema.get("columns").size());
+
+        // The columns are required
+        response = columns.request().post(Entity.json(new QueryParameters(Collections.emptyMap(), Collections.emptyList())));
+        assertEquals(400, response.getStatus());
+    }
 }
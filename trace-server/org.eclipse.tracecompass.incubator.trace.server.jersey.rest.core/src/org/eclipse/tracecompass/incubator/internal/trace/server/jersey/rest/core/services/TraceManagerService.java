@@ -12,10 +12,14 @@
 package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
@@ -28,6 +32,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -40,6 +45,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.export.EventColumnExporter;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.Activator;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.QueryParameters;
 import org.eclipse.tracecompass.tmf.core.TmfCommonConstants;
@@ -52,6 +58,8 @@ import org.eclipse.tracecompass.tmf.core.project.model.TraceTypeHelper;
 import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceClosedSignal;
 import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
@@ -70,6 +78,9 @@ import com.google.common.collect.Iterables;
 @Path("/traces")
 public class TraceManagerService {
 
+    /* Characters of a trace name not kept in the name of a downloaded file */
+    private static final Pattern UNSAFE_FILE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]"); //$NON-NLS-1$
+
     /**
      * Getter method to access the list of traces
      *
@@ -240,6 +251,76 @@ public class TraceManagerService {
         return Response.ok(trace).build();
     }
 
+    /**
+     * Export columns of the events of a trace to a columnar file, described
+     * in {@link org.eclipse.tracecompass.incubator.analysis.core.export.ColumnarFileWriter}.
+     * The trace is read once to write the file, which is then sent back.
+     *
+     * @param uuid
+     *            Unique trace ID
+     * @param queryParameters
+     *            Parameters with the list of <code>columns</code> to export, as
+     *            described in {@link EventColumnExporter}, and optionally the
+     *            <code>start</code> and <code>end</code> times of the events
+     * @return the columnar file, or an error response
+     */
+    @POST
+    @Path("/{uuid}/columns")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response exportColumns(@PathParam("uuid") @NotNull UUID uuid, QueryParameters queryParameters) {
+        ITmfTrace trace = getTraceByUUID(uuid);
+        if (trace == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        Map<String, Object> parameters = queryParameters.getParameters();
+        Object columnsObject = parameters.get("columns"); //$NON-NLS-1$
+        if (!(columnsObject instanceof List) || ((List<?>) columnsObject).isEmpty()) {
+            return Response.status(Status.BAD_REQUEST).entity("Missing the columns to export").build(); //$NON-NLS-1$
+        }
+        List<String> columns = new ArrayList<>();
+        for (Object column : (List<?>) columnsObject) {
+            columns.add(String.valueOf(column));
+        }
+        TmfTimeRange range = TmfTimeRange.ETERNITY;
+        Object start = parameters.get("start"); //$NON-NLS-1$
+        Object end = parameters.get("end"); //$NON-NLS-1$
+        if (start instanceof Number && end instanceof Number) {
+            range = new TmfTimeRange(TmfTimestamp.fromNanos(((Number) start).longValue()), TmfTimestamp.fromNanos(((Number) end).longValue()));
+        }
+
+        java.nio.file.Path file = null;
+        try {
+            file = Files.createTempFile("columns", ".cols"); //$NON-NLS-1$ //$NON-NLS-2$
+            EventColumnExporter.export(trace, columns, file, range, null);
+        } catch (IOException e) {
+            deleteFile(file);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+        }
+        java.nio.file.Path exported = file;
+        StreamingOutput output = stream -> {
+            try {
+                Files.copy(exported, stream);
+            } finally {
+                deleteFile(exported);
+            }
+        };
+        // The trace name is sanitized, so it cannot break out of the header value
+        String fileName = UNSAFE_FILE_NAME_CHARS.matcher(trace.getName()).replaceAll("_") + ".cols"; //$NON-NLS-1$ //$NON-NLS-2$
+        return Response.ok(output).header("Content-Disposition", "attachment; filename=\"" + fileName + '"').build(); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static void deleteFile(java.nio.file.@Nullable Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Activator.getInstance().logError("Failed to delete exported file " + file, e); //$NON-NLS-1$
+        }
+    }
+
     /**
      * Try and find a trace with the queried UUID in the {@link TmfTraceManager}.
      *
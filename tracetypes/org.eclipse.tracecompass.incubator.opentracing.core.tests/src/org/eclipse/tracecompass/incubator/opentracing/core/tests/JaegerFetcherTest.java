@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerFetcher;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerQuery;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerStandInServer;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerTraceInfo;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingSpanIndex;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test the {@link JaegerFetcher} against a {@link JaegerStandInServer} serving
+ * the test traces
+ *
+ * @author agent
+ */
+public class JaegerFetcherTest {
+
+    private static final String SIMPLE_TRACE_ID = "cf46871fbf4f262b";
+    private static final String MULTIPLE_SERVICES_TRACE_ID = "410a7dbc6d6cfeb6";
+    private static final long START = 1526674498000000L;
+    private static final long END = 1527684463000000L;
+
+    /** Directories of the served traces and of the fetched traces */
+    @Rule
+    public TemporaryFolder fFolder = new TemporaryFolder();
+
+    private JaegerStandInServer fServer;
+    private JaegerFetcher fFetcher;
+    private Path fDestination;
+
+    /**
+     * Serve the test traces
+     *
+     * @throws IOException
+     *             file or socket error
+     */
+    @Before
+    public void setUp() throws IOException {
+        Path served = fFolder.newFolder("served").toPath();
+        for (String trace : Arrays.asList("simple.json", "multiple_services.json")) {
+            Files.copy(Paths.get("traces", trace), served.resolve(trace));
+        }
+        fServer = JaegerStandInServer.start(served, 0);
+        fFetcher = new JaegerFetcher(fServer.getBaseUrl(), 2);
+        fDestination = fFolder.getRoot().toPath().resolve("fetched");
+    }
+
+    /**
+     * Stop the server
+     */
+    @After
+    public void tearDown() {
+        fServer.close();
+    }
+
+    /**
+     * Test the connection and the services
+     *
+     * @throws IOException
+     *             connection error
+     */
+    @Test
+    public void testServices() throws IOException {
+        assertEquals(2, fServer.getNbTraces());
+        assertTrue(fFetcher.checkConnection());
+        assertEquals(Arrays.asList("formatter", "hello-world", "publisher"), fFetcher.fetchServices());
+        assertFalse(new JaegerFetcher(fServer.getBaseUrl() + "/unknown", 1).checkConnection());
+    }
+
+    /**
+     * Test that a query with malformed escapes is a bad request
+     *
+     * @throws IOException
+     *             connection error
+     */
+    @Test
+    public void testMalformedQuery() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(fServer.getBaseUrl() + "/traces?service=%zz").openConnection();
+        try {
+            assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+        assertTrue(fFetcher.checkConnection());
+    }
+
+    /**
+     * Test fetching the traces of a service in many pages, each trace to its
+     * own file
+     *
+     * @throws IOException
+     *             connection or file error
+     * @throws TmfTraceException
+     *             error opening a fetched trace
+     */
+    @Test
+    public void testFetch() throws IOException, TmfTraceException {
+        List<JaegerTraceInfo> traces = fFetcher.fetch(new JaegerQuery("hello-world", START, END, 20), 4, fDestination, new NullProgressMonitor());
+        assertEquals(2, traces.size());
+        JaegerTraceInfo simple = traces.get(0);
+        assertEquals(SIMPLE_TRACE_ID, simple.getTraceId());
+        assertEquals("say-hello", simple.getFirstSpanName());
+        assertEquals(3, simple.getNbSpans());
+        assertEquals(Arrays.asList("hello-world"), simple.getServices());
+        JaegerTraceInfo multiple = traces.get(1);
+        assertEquals(MULTIPLE_SERVICES_TRACE_ID, multiple.getTraceId());
+        assertEquals(5, multiple.getNbSpans());
+        assertEquals(Arrays.asList("formatter", "hello-world", "publisher"), multiple.getServices());
+
+        // The pages were removed, only the traces are left and they can be opened
+        try (Stream<Path> files = Files.list(fDestination)) {
+            assertEquals(2, files.count());
+        }
+        OpenTracingTrace trace = new OpenTracingTrace();
+        try {
+            trace.initTrace(null, fDestination.resolve(MULTIPLE_SERVICES_TRACE_ID + ".json").toString(), ITmfEvent.class);
+            OpenTracingSpanIndex index = trace.waitForSpanIndex(new NullProgressMonitor());
+            assertNotNull(index);
+            assertEquals(5, index.size());
+        } finally {
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test that a trace overlapping many pages is only fetched once
+     *
+     * @throws IOException
+     *             connection or file error
+     */
+    @Test
+    public void testFetchOverlappingPages() throws IOException {
+        JaegerQuery query = new JaegerQuery("formatter", 1527684461600000L, 1527684462200000L, 20);
+        List<JaegerTraceInfo> traces = fFetcher.fetch(query, 3, fDestination, new NullProgressMonitor());
+        assertEquals(1, traces.size());
+        assertEquals(MULTIPLE_SERVICES_TRACE_ID, traces.get(0).getTraceId());
+    }
+
+    /**
+     * Test the duration and tags filters
+     *
+     * @throws IOException
+     *             connection or file error
+     */
+    @Test
+    public void testFilters() throws IOException {
+        JaegerQuery query = new JaegerQuery("hello-world", START, END, 20).setDurations("300ms", null);
+        List<JaegerTraceInfo> traces = fFetcher.fetch(query, 1, fDestination, new NullProgressMonitor());
+        assertEquals(1, traces.size());
+        assertEquals(MULTIPLE_SERVICES_TRACE_ID, traces.get(0).getTraceId());
+
+        query = new JaegerQuery("hello-world", START, END, 20).setTags("{\"span.kind\":\"server\"}");
+        traces = fFetcher.fetch(query, 1, fDestination, new NullProgressMonitor());
+        assertEquals(1, traces.size());
+
+        query = new JaegerQuery("hello-world", START, END, 20).setTags("{\"error\":\"true\"}");
+        assertTrue(fFetcher.fetch(query, 1, fDestination, new NullProgressMonitor()).isEmpty());
+    }
+}
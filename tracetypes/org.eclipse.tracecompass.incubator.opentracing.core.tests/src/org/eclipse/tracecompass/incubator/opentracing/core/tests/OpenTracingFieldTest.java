@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess.ProcessTable;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the streaming parser of the spans of {@link OpenTracingField}
+ *
+ * @author agent
+ */
+public class OpenTracingFieldTest {
+
+    private static final String TRACE_ID = "cf46871fbf4f262b";
+    private static final String SPAN_ID = "a1715eeaac52e91a";
+
+    private static ProcessTable sProcesses = new ProcessTable();
+
+    /**
+     * Read the processes referenced by the spans
+     *
+     * @throws IOException
+     *             JSON error
+     */
+    @BeforeClass
+    public static void readProcesses() throws IOException {
+        sProcesses = OpenTracingProcess.readProcesses(new StringReader(
+                "{\"data\":[{\"traceID\":\"" + TRACE_ID + "\",\"processes\":{\"p1\":{\"serviceName\":\"hello-world\",\"tags\":[{\"key\":\"hostname\",\"type\":\"string\",\"value\":\"host1\"}]}}}]}"));
+    }
+
+    /**
+     * Test a span with all its fields
+     */
+    @Test
+    public void testSpan() {
+        OpenTracingField field = OpenTracingField.parseJson("{\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"" + SPAN_ID + "\",\"flags\":1,\"operationName\":\"formatString\","
+                + "\"references\":[{\"refType\":\"CHILD_OF\",\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"cf46871fbf4f262b\"}],"
+                + "\"startTime\":1526674498424000,\"duration\":6000,"
+                + "\"tags\":[{\"key\":\"component\",\"type\":\"string\",\"value\":\"java\"},{\"key\":\"sampler.param\",\"type\":\"bool\",\"value\":true},{\"key\":\"http.status_code\",\"type\":\"int64\",\"value\":200}],"
+                + "\"logs\":[{\"timestamp\":1526674498425000,\"fields\":[{\"key\":\"event\",\"type\":\"string\",\"value\":\"string-format\"}]}],"
+                + "\"processID\":\"p1\",\"warnings\":null}", sProcesses);
+        assertNotNull(field);
+        assertEquals("formatString", field.getName());
+        assertEquals(TRACE_ID, field.getTraceId());
+        assertEquals(SPAN_ID, field.getSpanId());
+        assertEquals("cf46871fbf4f262b", field.getReference("CHILD_OF"));
+        assertNull(field.getReference("FOLLOWS_FROM"));
+        assertEquals(TmfTimestamp.fromMicros(1526674498424000L).toNanos(), (long) field.getStartTime());
+        assertEquals(TmfTimestamp.fromMicros(6000).toNanos(), (long) field.getDuration());
+
+        assertEquals("java", field.getTag("component"));
+        assertEquals("true", field.getTag("sampler.param"));
+        assertEquals("200", field.getTag("http.status_code"));
+        assertNull(field.getTag("error"));
+        Map<String, Object> tags = field.getTags();
+        assertNotNull(tags);
+        assertEquals(3, tags.size());
+
+        Map<Long, Map<String, String>> logs = field.getLogs();
+        assertNotNull(logs);
+        Map<String, String> log = logs.get(TmfTimestamp.fromMicros(1526674498425000L).toNanos());
+        assertNotNull(log);
+        assertEquals("string-format", log.get("event"));
+
+        assertEquals("hello-world", field.getProcessName());
+        Map<String, Object> processTags = field.getProcessTags();
+        assertNotNull(processTags);
+        assertEquals("host1", processTags.get("hostname"));
+
+        assertEquals("formatString", field.getContent().getFieldValue(String.class, "operationName"));
+        assertEquals("java", field.getContent().getFieldValue(String.class, "tags/component"));
+        assertEquals("host1", field.getContent().getFieldValue(String.class, "processTags/hostname"));
+    }
+
+    /**
+     * Test that the nested values of tags and log fields are kept as their
+     * JSON string, and that the nested values of unknown fields are skipped
+     */
+    @Test
+    public void testNestedValues() {
+        OpenTracingField field = OpenTracingField.parseJson(span(
+                "\"tags\":[{\"key\":\"object\",\"value\":{\"a\":[1,2],\"b\":{\"c\":\"d\"}}},{\"key\":\"array\",\"value\":[\"x\",{\"y\":null}]}],"
+                        + "\"logs\":[{\"timestamp\":10,\"fields\":[{\"key\":\"stack\",\"value\":[\"frame1\",\"frame2\"]}],\"extra\":{\"nested\":[[]]}}],"
+                        + "\"unknown\":{\"references\":[{\"refType\":\"CHILD_OF\",\"spanID\":\"0\"}],\"tags\":[1,2,3]},"),
+                sProcesses);
+        assertNotNull(field);
+        assertEquals("{\"a\":[1,2],\"b\":{\"c\":\"d\"}}", field.getTag("object"));
+        assertEquals("[\"x\",{\"y\":null}]", field.getTag("array"));
+        assertNull(field.getReference("CHILD_OF"));
+        Map<Long, Map<String, String>> logs = field.getLogs();
+        assertNotNull(logs);
+        Map<String, String> log = logs.get(TmfTimestamp.fromMicros(10).toNanos());
+        assertNotNull(log);
+        assertEquals("[\"frame1\",\"frame2\"]", log.get("stack"));
+    }
+
+    /**
+     * Test the escaped characters of strings
+     */
+    @Test
+    public void testEscapedStrings() {
+        OpenTracingField field = OpenTracingField.parseJson("{\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"" + SPAN_ID + "\",\"operationName\":\"say \\\"hello\\\"\\n\\u00e9\\\\\","
+                + "\"startTime\":1,\"duration\":2,\"tags\":[{\"key\":\"k\\\"ey\",\"value\":\"{\\\"not\\\":\\\"nested\\\"}\"}]}", sProcesses);
+        assertNotNull(field);
+        assertEquals("say \"hello\"\né\\", field.getName());
+        assertEquals("{\"not\":\"nested\"}", field.getTag("k\"ey"));
+    }
+
+    /**
+     * Test spans with missing, null and extra fields
+     */
+    @Test
+    public void testMissingAndExtraFields() {
+        // The operation name, trace ID and span ID are required
+        assertNull(OpenTracingField.parseJson("{\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"" + SPAN_ID + "\",\"startTime\":1,\"duration\":2}", sProcesses));
+        assertNull(OpenTracingField.parseJson("{\"operationName\":\"op\",\"spanID\":\"" + SPAN_ID + "\",\"startTime\":1,\"duration\":2}", sProcesses));
+        assertNull(OpenTracingField.parseJson("{\"operationName\":\"op\",\"traceID\":\"" + TRACE_ID + "\",\"spanID\":null}", sProcesses));
+
+        // The other fields are optional, null values are ignored
+        OpenTracingField field = OpenTracingField.parseJson(span("\"tags\":null,\"logs\":null,\"references\":null,\"processID\":null,"), sProcesses);
+        assertNotNull(field);
+        assertNull(field.getTags());
+        assertNull(field.getLogs());
+        assertNull(field.getProcessTags());
+        assertEquals("", field.getProcessName());
+        assertNull(field.getContent().getField("flags"));
+
+        // Unknown fields and unknown processes are ignored
+        field = OpenTracingField.parseJson(span("\"processID\":\"p2\",\"warnings\":[\"clock skew\"],\"extra\":12,"), sProcesses);
+        assertNotNull(field);
+        assertEquals("op", field.getName());
+        assertEquals("", field.getProcessName());
+    }
+
+    /**
+     * Test that malformed JSON and values of unexpected types are not spans
+     */
+    @Test
+    public void testMalformed() {
+        assertNull(OpenTracingField.parseJson("", sProcesses));
+        assertNull(OpenTracingField.parseJson("[]", sProcesses));
+        assertNull(OpenTracingField.parseJson("not json", sProcesses));
+        // Truncated span
+        String span = span("");
+        assertNull(OpenTracingField.parseJson(span.substring(0, span.length() - 1), sProcesses));
+        // A string where a number is expected
+        assertNull(OpenTracingField.parseJson(span("\"flags\":\"one\","), sProcesses));
+        // A tag without a value
+        assertNull(OpenTracingField.parseJson(span("\"tags\":[{\"key\":\"component\"}],"), sProcesses));
+        // A reference without a span ID
+        assertNull(OpenTracingField.parseJson(span("\"references\":[{\"refType\":\"CHILD_OF\"}],"), sProcesses));
+        // Tags that are not an array of objects
+        assertNull(OpenTracingField.parseJson(span("\"tags\":{\"key\":\"component\",\"value\":\"java\"},"), sProcesses));
+        assertNull(OpenTracingField.parseJson(span("\"tags\":[\"component\"],"), sProcesses));
+    }
+
+    /**
+     * A span with the required fields, with other fields before them
+     */
+    private static String span(String fields) {
+        return "{" + fields + "\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"" + SPAN_ID + "\",\"operationName\":\"op\",\"startTime\":1,\"duration\":2}";
+    }
+}
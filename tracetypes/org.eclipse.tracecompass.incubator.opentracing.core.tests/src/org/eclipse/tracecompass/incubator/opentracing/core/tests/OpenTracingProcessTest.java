@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess.ProcessTable;
+import org.junit.Test;
+
+/**
+ * Test the {@link ProcessTable} of the processes of a Jaeger export
+ *
+ * @author agent
+ */
+public class OpenTracingProcessTest {
+
+    private static final String TRACE_1 = "cf46871fbf4f262b";
+    private static final String TRACE_2 = "0123456789abcdef";
+
+    private static final String EXPORT = "{\"data\":["
+            + "{\"traceID\":\"" + TRACE_1 + "\",\"spans\":[{\"spanID\":\"s1\",\"processID\":\"p2\"}],"
+            + "\"processes\":{\"p1\":{\"serviceName\":\"frontend\",\"tags\":[{\"key\":\"hostname\",\"value\":\"host1\"}]},\"p2\":{\"serviceName\":\"backend\"}}},"
+            + "{\"traceID\":\"" + TRACE_2 + "\",\"processes\":{\"p1\":{\"serviceName\":\"backend\"}}},"
+            // A second export of the first trace does not replace its processes
+            + "{\"traceID\":\"" + TRACE_1 + "\",\"processes\":{\"p1\":{\"serviceName\":\"other\"}}}"
+            + "],\"total\":0,\"errors\":null}";
+
+    /**
+     * Test that the processes are resolved by trace ID and process ID
+     *
+     * @throws IOException
+     *             JSON error
+     */
+    @Test
+    public void testProcessesByTrace() throws IOException {
+        ProcessTable table = OpenTracingProcess.readProcesses(new StringReader(EXPORT));
+
+        OpenTracingProcess frontend = table.get(TRACE_1, "p1");
+        assertNotNull(frontend);
+        assertEquals("frontend", frontend.getServiceName());
+        Map<String, Object> tags = frontend.getTags();
+        assertNotNull(tags);
+        assertEquals("host1", tags.get("hostname"));
+
+        OpenTracingProcess backend = table.get(TRACE_1, "p2");
+        assertNotNull(backend);
+        assertEquals("backend", backend.getServiceName());
+        assertNull(backend.getTags());
+
+        OpenTracingProcess otherBackend = table.get(TRACE_2, "p1");
+        assertNotNull(otherBackend);
+        assertEquals("backend", otherBackend.getServiceName());
+        assertNull(table.get(TRACE_2, "p2"));
+
+        // Spans of unknown traces use the processes of the first trace
+        assertSame(frontend, table.get("fedcba9876543210", "p1"));
+        assertSame(frontend, table.get(null, "p1"));
+        assertNull(table.get(TRACE_1, "p3"));
+    }
+
+    /**
+     * Test that the spans of a process share the same process object
+     *
+     * @throws IOException
+     *             JSON error
+     */
+    @Test
+    public void testProcessSharedBySpans() throws IOException {
+        ProcessTable table = OpenTracingProcess.readProcesses(new StringReader(EXPORT));
+        OpenTracingField span1 = OpenTracingField.parseJson(span(TRACE_1, "a1715eeaac52e91a", "p1"), table);
+        OpenTracingField span2 = OpenTracingField.parseJson(span(TRACE_1, "fe500a6fe8f00515", "p1"), table);
+        OpenTracingField span3 = OpenTracingField.parseJson(span(TRACE_2, "a1715eeaac52e91a", "p1"), table);
+        assertNotNull(span1);
+        assertNotNull(span2);
+        assertNotNull(span3);
+
+        assertEquals("frontend", span1.getProcessName());
+        assertEquals("frontend", span2.getProcessName());
+        assertEquals("backend", span3.getProcessName());
+        assertSame(span1.getProcessTags(), span2.getProcessTags());
+        assertNotSame(table.get(TRACE_1, "p1"), table.get(TRACE_2, "p1"));
+    }
+
+    /**
+     * Test exports without processes
+     *
+     * @throws IOException
+     *             JSON error
+     */
+    @Test
+    public void testNoProcesses() throws IOException {
+        assertNull(OpenTracingProcess.readProcesses(new StringReader("[]")).get(TRACE_1, "p1"));
+        assertNull(OpenTracingProcess.readProcesses(new StringReader("{\"data\":null}")).get(TRACE_1, "p1"));
+        assertNull(OpenTracingProcess.readProcesses(new StringReader("{\"data\":[{\"traceID\":\"" + TRACE_1 + "\"}, 12]}")).get(TRACE_1, "p1"));
+    }
+
+    private static String span(String traceId, String spanId, String processId) {
+        return "{\"traceID\":\"" + traceId + "\",\"spanID\":\"" + spanId + "\",\"operationName\":\"op\",\"startTime\":1,\"duration\":2,\"processID\":\"" + processId + "\"}";
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess.ProcessTable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingSpanIndex;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingSpanIndex.Builder;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.junit.Test;
+
+/**
+ * Test the {@link OpenTracingSpanIndex} of a trace
+ *
+ * @author agent
+ */
+public class OpenTracingSpanIndexTest {
+
+    private static final String TRACE_ID = "cf46871fbf4f262b";
+
+    /**
+     * Test the span lookups of a simple trace
+     *
+     * @throws TmfTraceException
+     *             file error
+     */
+    @Test
+    public void testSimple() throws TmfTraceException {
+        OpenTracingTrace trace = new OpenTracingTrace();
+        try {
+            trace.initTrace(null, "traces/simple.json", ITmfEvent.class);
+            OpenTracingSpanIndex index = trace.waitForSpanIndex(new NullProgressMonitor());
+            assertNotNull(index);
+
+            assertEquals(3, index.size());
+            assertEquals(Collections.singletonList(TRACE_ID), index.getTraceIds());
+            assertEquals(0, index.getRank(TRACE_ID, "cf46871fbf4f262b"));
+            assertEquals(1, index.getRank(TRACE_ID, "a1715eeaac52e91a"));
+            assertEquals(2, index.getRank(TRACE_ID, "fe500a6fe8f00515"));
+            assertEquals(TmfTimestamp.fromMicros(1526674498424000L).toNanos(), index.getStartTime(TRACE_ID, "a1715eeaac52e91a"));
+            assertEquals(-1, index.getRank(TRACE_ID, "0123456789abcdef"));
+            assertEquals(-1, index.getRank("0123456789abcdef", "cf46871fbf4f262b"));
+            assertEquals(-1, index.getRank(TRACE_ID, "not a span"));
+
+            assertArrayEquals(new long[] { 0, 1, 2 }, index.getRanks(TRACE_ID));
+            assertArrayEquals(new long[] { TmfTimestamp.fromMicros(1526674498419000L).toNanos(), TmfTimestamp.fromMicros(1526674498436163L).toNanos() },
+                    index.getTimeRange(TRACE_ID));
+            assertNull(index.getTimeRange("0123456789abcdef"));
+
+            ITmfEvent event = trace.getSpanEvent(TRACE_ID, "fe500a6fe8f00515");
+            assertNotNull(event);
+            assertEquals("printHello", event.getName());
+        } finally {
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Test that the builder accepts spans out of order and only adds each rank
+     * once
+     */
+    @Test
+    public void testBuilderOutOfOrder() {
+        ProcessTable processes = new ProcessTable();
+        Builder builder = new Builder();
+        builder.add(2, OpenTracingField.parseJson(span("00000000000000c2", 3), processes));
+        assertEquals(0, builder.getNextRank());
+        builder.add(0, OpenTracingField.parseJson(span("00000000000000a0", 1), processes));
+        assertEquals(1, builder.getNextRank());
+        // Ranks that were already added are ignored
+        builder.add(2, OpenTracingField.parseJson(span("00000000000000d2", 4), processes));
+        builder.add(0, OpenTracingField.parseJson(span("00000000000000d0", 4), processes));
+        // An event that is not a span
+        builder.add(1, null);
+        assertEquals(3, builder.getNextRank());
+        builder.add(3, OpenTracingField.parseJson(span("00000000000000b3", 2), processes));
+        assertEquals(4, builder.getNextRank());
+
+        OpenTracingSpanIndex index = builder.build();
+        assertEquals(3, index.size());
+        assertEquals(0, index.getRank(TRACE_ID, "00000000000000a0"));
+        assertEquals(2, index.getRank(TRACE_ID, "00000000000000c2"));
+        assertEquals(3, index.getRank(TRACE_ID, "00000000000000b3"));
+        assertEquals(-1, index.getRank(TRACE_ID, "00000000000000d2"));
+        assertEquals(-1, index.getRank(TRACE_ID, "00000000000000d0"));
+        assertArrayEquals(new long[] { 0, 2, 3 }, index.getRanks(TRACE_ID));
+    }
+
+    private static String span(String spanId, long startTime) {
+        return "{\"traceID\":\"" + TRACE_ID + "\",\"spanID\":\"" + spanId + "\",\"operationName\":\"op\",\"startTime\":" + startTime + ",\"duration\":1}";
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics.LatencyHistogram;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics.ServiceMetrics;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics.ServiceMetrics.Summary;
+import org.junit.Test;
+
+/**
+ * Test the {@link ServiceMetrics} aggregation and the
+ * {@link LatencyHistogram} percentiles
+ *
+ * @author agent
+ */
+public class ServiceMetricsTest {
+
+    /**
+     * Test the percentiles of a histogram, exact for small values and within
+     * 1% for large ones
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+
+        LatencyHistogram large = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            large.record(i * 1000000L);
+        }
+        assertWithin(500000000L, large.getValueAtPercentile(50));
+        assertWithin(990000000L, large.getValueAtPercentile(99));
+        assertWithin(1000000000L, large.getValueAtPercentile(100));
+
+        // Merging gives the percentiles of all the values
+        histogram.add(large);
+        assertEquals(1100, histogram.getCount());
+        assertEquals(99, histogram.getValueAtPercentile(9));
+        assertWithin(1000000000L, histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * Test the rate, errors and latencies of the operations over time ranges
+     */
+    @Test
+    public void testSummary() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        for (int i = 0; i < 100; i++) {
+            // 10 spans per millisecond, every tenth has an error
+            metrics.addSpan("front", "req", 1000000L + i * 100000L, 1000 + i, i % 10 == 0);
+        }
+        metrics.addSpan("db", "query", 1500000L, 300, false);
+        metrics.addSpan("db", "insert", 2500000L, 700, true);
+
+        Map<String, List<String>> operations = metrics.getOperations();
+        assertEquals(Arrays.asList("db", "front"), Arrays.asList(operations.keySet().toArray()));
+        assertEquals(Arrays.asList("insert", "query"), operations.get("db"));
+        assertEquals(Arrays.asList("req"), operations.get("front"));
+        assertNull(metrics.getSummary("front", "unknown", 0, 1));
+
+        Summary summary = metrics.getSummary("front", "req", 1000000L, 11000000L);
+        assertNotNull(summary);
+        assertEquals(100, summary.getCount());
+        assertEquals(10, summary.getErrors());
+        assertEquals(0.1, summary.getErrorRatio(), 0.0001);
+        assertEquals(10000.0, summary.getRate(), 0.0001);
+        assertEquals(1049, summary.getLatencies().getValueAtPercentile(50), 10);
+        assertEquals(1098, summary.getLatencies().getValueAtPercentile(99), 10);
+
+        summary = metrics.getSummary("front", "req", 2000000L, 3000000L);
+        assertNotNull(summary);
+        assertEquals(10, summary.getCount());
+        assertEquals(1, summary.getErrors());
+
+        // Before the first span
+        summary = metrics.getSummary("db", "insert", 0, 1000000L);
+        assertNotNull(summary);
+        assertEquals(0, summary.getCount());
+        assertEquals(0.0, summary.getErrorRatio(), 0.0);
+    }
+
+    /**
+     * Test that the buckets are merged when the spans cover a long time range,
+     * and that spans before the first one are kept
+     */
+    @Test
+    public void testCoarsen() {
+        ServiceMetrics metrics = new ServiceMetrics();
+        long width = metrics.getBucketWidth();
+        metrics.addSpan("front", "req", 1000000000L, 10, false);
+        metrics.addSpan("front", "req", 1000000000L + ServiceMetrics.MAX_BUCKETS * width * 10, 20, true);
+        assertTrue(metrics.getBucketWidth() >= width * 10);
+        metrics.addSpan("front", "req", 500000000L, 30, false);
+
+        Summary all = metrics.getSummary("front", "req", 0, Long.MAX_VALUE / 2);
+        assertNotNull(all);
+        assertEquals(3, all.getCount());
+        assertEquals(1, all.getErrors());
+
+        Summary first = metrics.getSummary("front", "req", 500000000L, 500000001L);
+        assertNotNull(first);
+        assertEquals(1, first.getCount());
+        assertEquals(30, first.getLatencies().getValueAtPercentile(50));
+        assertEquals(first.getDuration(), metrics.getBucketWidth());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected / 100.0);
+    }
+
+}
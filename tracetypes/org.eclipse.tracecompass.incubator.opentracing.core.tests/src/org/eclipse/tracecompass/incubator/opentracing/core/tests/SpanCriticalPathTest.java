@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.criticalpath.SpanCriticalPath;
+import org.junit.Test;
+
+/**
+ * Test the {@link SpanCriticalPath} computation
+ *
+ * @author agent
+ */
+public class SpanCriticalPathTest {
+
+    /**
+     * Test the critical path of spans with concurrent children, a nested
+     * child and a span that follows from its parent and outlives it
+     */
+    @Test
+    public void testConcurrentChildren() {
+        SpanCriticalPath criticalPath = new SpanCriticalPath();
+        criticalPath.addSpan("a", null, 0, 100, "front", "req");
+        criticalPath.addSpan("b", "a", 10, 40, "db", "query");
+        criticalPath.addSpan("c", "a", 20, 90, "cache", "get");
+        criticalPath.addSpan("d", "a", 95, 150, "front", "async");
+        criticalPath.addSpan("e", "c", 30, 60, "db", "query");
+        // Finished before the other children, it is not on the path
+        criticalPath.addSpan("f", "a", 25, 35, "db", "ping");
+        criticalPath.compute();
+
+        List<WeightedTree<Object>> paths = criticalPath.getPaths();
+        assertEquals(1, paths.size());
+        WeightedTree<Object> root = paths.get(0);
+        assertEquals("front: req", root.getObject());
+        assertEquals(100, root.getWeight());
+        assertEquals(3, root.getChildren().size());
+        assertWeight(5, root.getChildren(), "front: async");
+        assertWeight(10, root.getChildren(), "db: query");
+        WeightedTree<Object> cache = assertWeight(70, root.getChildren(), "cache: get");
+        assertWeight(30, cache.getChildren(), "db: query");
+        assertNull(find(root.getChildren(), "db: ping"));
+
+        Collection<WeightedTree<Object>> services = criticalPath.getServices();
+        assertEquals(3, services.size());
+        WeightedTree<Object> front = assertWeight(20, services, "front");
+        assertWeight(15, front.getChildren(), "req");
+        assertWeight(5, front.getChildren(), "async");
+        WeightedTree<Object> db = assertWeight(40, services, "db");
+        assertEquals(1, db.getChildren().size());
+        assertWeight(40, db.getChildren(), "query");
+        assertWeight(40, services, "cache");
+    }
+
+    /**
+     * Test that spans whose parent is missing are the roots of their own path
+     */
+    @Test
+    public void testMissingParent() {
+        SpanCriticalPath criticalPath = new SpanCriticalPath();
+        criticalPath.addSpan("a", "unknown", 0, 10, "front", "req");
+        criticalPath.addSpan("b", "a", 2, 4, "db", "query");
+        criticalPath.addSpan("c", "other", 20, 25, "front", "req");
+        assertEquals(new HashSet<>(Arrays.asList("unknown", "other")), criticalPath.getMissingParents());
+        criticalPath.compute();
+
+        List<WeightedTree<Object>> paths = criticalPath.getPaths();
+        assertEquals(2, paths.size());
+        assertWeight(13, criticalPath.getServices(), "front");
+        assertWeight(2, criticalPath.getServices(), "db");
+    }
+
+    private static WeightedTree<Object> assertWeight(long expected, Collection<WeightedTree<Object>> trees, String object) {
+        WeightedTree<Object> tree = find(trees, object);
+        assertNotNull(object, tree);
+        assertEquals(object, expected, tree.getWeight());
+        return tree;
+    }
+
+    private static @Nullable WeightedTree<Object> find(Collection<WeightedTree<Object>> trees, String object) {
+        for (WeightedTree<Object> tree : trees) {
+            if (tree.getObject().equals(object)) {
+                return tree;
+            }
+        }
+        return null;
+    }
+}
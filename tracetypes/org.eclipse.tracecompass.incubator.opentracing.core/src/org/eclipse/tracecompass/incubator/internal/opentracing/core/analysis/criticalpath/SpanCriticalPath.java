@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.criticalpath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+
+/**
+ * The critical path of the spans of one Open Tracing trace. The spans form a
+ * tree through their <code>CHILD_OF</code> or <code>FOLLOWS_FROM</code>
+ * references. The critical path of a span is found by walking back from its
+ * end: the child that finished last is on the path, then the child that
+ * finished last before that one started, and so on. The time not covered by a
+ * child on the path is the span's own time. Concurrent children that
+ * finished earlier did not delay the parent, so they are not on the path.
+ *
+ * The path is bounded by the root span: the part of a child outside of its
+ * parent, like a <code>FOLLOWS_FROM</code> span that outlives its parent, is
+ * not counted.
+ *
+ * @author agent
+ */
+public class SpanCriticalPath {
+
+    private static final Comparator<Span> END_DESCENDING = Comparator.comparingLong((Span span) -> span.fEnd).reversed();
+
+    private final Map<String, Span> fSpans = new HashMap<>();
+    private final List<WeightedTree<Object>> fPaths = new ArrayList<>();
+    private final Map<String, WeightedTree<Object>> fServices = new HashMap<>();
+
+    private static class Span {
+        private final @Nullable String fParentId;
+        private final long fStart;
+        private final long fEnd;
+        private final String fService;
+        private final String fOperation;
+        private final List<Span> fChildren = new ArrayList<>();
+
+        public Span(@Nullable String parentId, long start, long end, String service, String operation) {
+            fParentId = parentId;
+            fStart = start;
+            fEnd = end;
+            fService = service;
+            fOperation = operation;
+        }
+    }
+
+    /**
+     * Add a span of the trace. If many spans have the same ID, only the first
+     * one is kept.
+     *
+     * @param spanId
+     *            the span ID
+     * @param parentId
+     *            the ID of the span this one is a child of or follows from,
+     *            or <code>null</code> if it is a root span
+     * @param start
+     *            the start time of the span, in nanoseconds
+     * @param end
+     *            the end time of the span, in nanoseconds
+     * @param service
+     *            the name of the service of the span
+     * @param operation
+     *            the operation name of the span
+     */
+    public void addSpan(String spanId, @Nullable String parentId, long start, long end, String service, String operation) {
+        fSpans.putIfAbsent(spanId, new Span(parentId, start, end, service, operation));
+    }
+
+    /**
+     * Get the IDs of the parents that are referenced by the spans, but were
+     * not added
+     *
+     * @return the IDs of the missing parents
+     */
+    public Set<String> getMissingParents() {
+        Set<String> missing = new HashSet<>();
+        for (Span span : fSpans.values()) {
+            String parentId = span.fParentId;
+            if (parentId != null && !fSpans.containsKey(parentId)) {
+                missing.add(parentId);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Compute the critical path of the spans added to this object. Spans
+     * whose parent is not in the trace are considered as roots.
+     */
+    public void compute() {
+        List<Span> roots = new ArrayList<>();
+        for (Span span : fSpans.values()) {
+            String parentId = span.fParentId;
+            Span parent = (parentId == null) ? null : fSpans.get(parentId);
+            if (parent == null || parent == span) {
+                roots.add(span);
+            } else {
+                parent.fChildren.add(span);
+            }
+        }
+        for (Span root : roots) {
+            WeightedTree<Object> path = walk(root, root.fStart, root.fEnd);
+            if (path != null) {
+                fPaths.add(path);
+            }
+        }
+    }
+
+    /**
+     * Get the critical paths of the root spans. The object of each node is
+     * the service and operation of a span, its weight is the time spent on
+     * the critical path within the span and its children are the spans on
+     * the path within it.
+     *
+     * @return the critical paths, one per root span
+     */
+    public List<WeightedTree<Object>> getPaths() {
+        return fPaths;
+    }
+
+    /**
+     * Get the time spent on the critical path by each service. The children
+     * of a service are its operations, the weights are the own time of the
+     * spans, without their children on the path.
+     *
+     * @return the service trees
+     */
+    public Collection<WeightedTree<Object>> getServices() {
+        return fServices.values();
+    }
+
+    private @Nullable WeightedTree<Object> walk(Span span, long lowerBound, long upperBound) {
+        long start = Math.max(span.fStart, lowerBound);
+        long end = Math.min(span.fEnd, upperBound);
+        if (end <= start) {
+            return null;
+        }
+        WeightedTree<Object> node = new WeightedTree<>(span.fService + ": " + span.fOperation, end - start); //$NON-NLS-1$
+        long ownTime = 0;
+        long cursor = end;
+        span.fChildren.sort(END_DESCENDING);
+        for (Span child : span.fChildren) {
+            if (cursor <= start || child.fEnd <= start) {
+                // No other child can be on the path
+                break;
+            }
+            if (child.fStart >= cursor) {
+                // This child ran concurrently with the one on the path
+                continue;
+            }
+            long childEnd = Math.min(child.fEnd, cursor);
+            WeightedTree<Object> childNode = walk(child, start, childEnd);
+            if (childNode == null) {
+                continue;
+            }
+            node.addChild(childNode);
+            ownTime += cursor - childEnd;
+            cursor = Math.max(child.fStart, start);
+        }
+        ownTime += cursor - start;
+
+        WeightedTree<Object> service = fServices.get(span.fService);
+        if (service == null) {
+            service = new WeightedTree<>(span.fService);
+            fServices.put(span.fService, service);
+        }
+        service.addToWeight(ownTime);
+        service.addChild(new WeightedTree<>(span.fOperation, ownTime));
+        return node;
+    }
+}
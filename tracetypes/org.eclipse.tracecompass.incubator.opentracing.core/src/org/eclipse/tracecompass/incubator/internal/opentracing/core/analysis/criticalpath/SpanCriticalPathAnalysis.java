@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.criticalpath;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeProvider;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeSet;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTreeSet;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingEvent;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingTrace;
+import org.eclipse.tracecompass.tmf.core.TmfStrings;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+/**
+ * Analysis that computes the critical path of each Open Tracing trace, ie the
+ * chain of spans that determined its end-to-end latency, and aggregates the
+ * time on the critical paths of all traces in weighted trees, to display in
+ * flame graphs.
+ *
+ * The tree set has two elements: the critical paths, where each level is a
+ * span on the path, and the services, where the time on the path is
+ * aggregated by service and operation.
+ *
+ * @author agent
+ */
+public class SpanCriticalPathAnalysis extends TmfAbstractAnalysisModule implements IWeightedTreeProvider<Object, String, WeightedTree<Object>> {
+
+    /**
+     * ID
+     */
+    public static final String ID = "org.eclipse.tracecompass.incubator.opentracing.analysis.criticalpath"; //$NON-NLS-1$
+
+    /**
+     * The element of the tree set for the critical paths
+     */
+    public static final String CRITICAL_PATH = "Critical Path"; //$NON-NLS-1$
+
+    /**
+     * The element of the tree set for the time per service
+     */
+    public static final String SERVICES = "Services"; //$NON-NLS-1$
+
+    private static final String CHILD_OF = "CHILD_OF"; //$NON-NLS-1$
+    private static final String FOLLOWS_FROM = "FOLLOWS_FROM"; //$NON-NLS-1$
+
+    private static final MetricType DURATION_METRIC = new MetricType(Objects.requireNonNull(TmfStrings.duration()), DataType.NANOSECONDS, null);
+
+    private @Nullable ITmfEventRequest fRequest = null;
+    private @Nullable WeightedTreeSet<Object, String> fTreeSet = null;
+
+    /**
+     * Constructor
+     */
+    public SpanCriticalPathAnalysis() {
+        setId(ID);
+    }
+
+    @Override
+    protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return false;
+        }
+
+        // The spans are grouped by trace ID, each trace has its own path
+        Map<String, SpanCriticalPath> paths = new HashMap<>();
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ITmfEventRequest.ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                if (monitor.isCanceled()) {
+                    cancel();
+                    return;
+                }
+                if (!(event instanceof OpenTracingEvent)) {
+                    return;
+                }
+                OpenTracingField field = ((OpenTracingEvent) event).getField();
+                SpanCriticalPath path = paths.get(field.getTraceId());
+                if (path == null) {
+                    path = new SpanCriticalPath();
+                    paths.put(field.getTraceId(), path);
+                }
+                addSpan(path, field);
+            }
+        };
+        fRequest = request;
+        trace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (request.isCancelled() || monitor.isCanceled()) {
+            return false;
+        }
+
+        if (trace instanceof OpenTracingTrace && !resolveMissingParents((OpenTracingTrace) trace, paths, monitor)) {
+            return false;
+        }
+
+        // The traces are independent, their paths can be computed concurrently
+        paths.values().parallelStream().forEach(SpanCriticalPath::compute);
+
+        WeightedTreeSet<Object, String> treeSet = new WeightedTreeSet<>();
+        for (SpanCriticalPath path : paths.values()) {
+            for (WeightedTree<Object> tree : path.getPaths()) {
+                treeSet.addWeightedTree(CRITICAL_PATH, tree);
+            }
+            for (WeightedTree<Object> tree : path.getServices()) {
+                treeSet.addWeightedTree(SERVICES, tree);
+            }
+        }
+        fTreeSet = treeSet;
+        return true;
+    }
+
+    private static void addSpan(SpanCriticalPath path, OpenTracingField field) {
+        String parentId = field.getReference(CHILD_OF);
+        if (parentId == null) {
+            parentId = field.getReference(FOLLOWS_FROM);
+        }
+        long start = field.getStartTime();
+        path.addSpan(field.getSpanId(), parentId, start, start + field.getDuration(), field.getProcessName(), field.getName());
+    }
+
+    /**
+     * Look up the parents that were referenced but not read in the span index
+     * of the trace, so the spans are not considered as roots when their parent
+     * is in the trace
+     *
+     * @return <code>false</code> if the analysis was canceled
+     */
+    private static boolean resolveMissingParents(OpenTracingTrace trace, Map<String, SpanCriticalPath> paths, IProgressMonitor monitor) {
+        for (Map.Entry<String, SpanCriticalPath> entry : paths.entrySet()) {
+            String traceId = entry.getKey();
+            SpanCriticalPath path = entry.getValue();
+            Set<String> missing = path.getMissingParents();
+            while (!missing.isEmpty()) {
+                if (trace.waitForSpanIndex(monitor) == null) {
+                    return !monitor.isCanceled();
+                }
+                boolean added = false;
+                for (String parentId : missing) {
+                    ITmfEvent parent = trace.getSpanEvent(traceId, parentId);
+                    if (parent instanceof OpenTracingEvent) {
+                        addSpan(path, ((OpenTracingEvent) parent).getField());
+                        added = true;
+                    }
+                }
+                if (!added) {
+                    break;
+                }
+                // The parents that were found may reference missing parents
+                Set<String> stillMissing = path.getMissingParents();
+                stillMissing.removeAll(missing);
+                missing = stillMissing;
+            }
+        }
+        return !monitor.isCanceled();
+    }
+
+    @Override
+    protected void canceling() {
+        ITmfEventRequest request = fRequest;
+        if (request != null && !request.isCompleted()) {
+            request.cancel();
+        }
+    }
+
+    @Override
+    public IWeightedTreeSet<Object, String, WeightedTree<Object>> getTreeSet() {
+        WeightedTreeSet<Object, String> treeSet = fTreeSet;
+        if (treeSet == null) {
+            return new WeightedTreeSet<>();
+        }
+        return treeSet;
+    }
+
+    @Override
+    public MetricType getWeightType() {
+        return DURATION_METRIC;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Time on the critical path of the spans"; //$NON-NLS-1$
+    }
+
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics;
+
+/**
+ * Histogram of latencies with log-linear bins, in the fashion of HDR
+ * histograms: values below 128 have their own bin, larger values share a bin
+ * with the values that have the same 7 most significant bits. The percentiles
+ * are thus within 1% of the exact values, and a histogram never has more than
+ * a few thousand bins whatever the number and range of the values.
+ *
+ * Only the bins between the lowest and highest recorded values are allocated.
+ *
+ * @author agent
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT >> 1;
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[] fCounts = EMPTY;
+    private int fOffset = 0;
+    private long fCount = 0;
+
+    /**
+     * Record a value
+     *
+     * @param value
+     *            the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        addToBin(getBin(Math.max(0, value)), 1);
+        fCount++;
+    }
+
+    /**
+     * Add all the values of another histogram to this one
+     *
+     * @param other
+     *            the other histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < other.fCounts.length; i++) {
+            if (other.fCounts[i] != 0) {
+                addToBin(other.fOffset + i, other.fCounts[i]);
+            }
+        }
+        fCount += other.fCount;
+    }
+
+    /**
+     * Get the number of recorded values
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return fCount;
+    }
+
+    /**
+     * Get the value at a percentile
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the value below which the requested percentage of the values
+     *         are, or 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (fCount == 0) {
+            return 0;
+        }
+        double ratio = Math.min(100.0, Math.max(0.0, percentile)) / 100.0;
+        long rank = Math.max(1, (long) Math.ceil(ratio * fCount));
+        long seen = 0;
+        for (int i = 0; i < fCounts.length; i++) {
+            seen += fCounts[i];
+            if (seen >= rank) {
+                return getMedianValue(fOffset + i);
+            }
+        }
+        return getMedianValue(fOffset + fCounts.length - 1);
+    }
+
+    private void addToBin(int bin, int count) {
+        if (fCounts.length == 0) {
+            fCounts = new int[1];
+            fOffset = bin;
+        } else if (bin < fOffset) {
+            int[] counts = new int[fCounts.length + fOffset - bin];
+            System.arraycopy(fCounts, 0, counts, fOffset - bin, fCounts.length);
+            fCounts = counts;
+            fOffset = bin;
+        } else if (bin >= fOffset + fCounts.length) {
+            int[] counts = new int[bin - fOffset + 1];
+            System.arraycopy(fCounts, 0, counts, 0, fCounts.length);
+            fCounts = counts;
+        }
+        fCounts[bin - fOffset] += count;
+    }
+
+    private static int getBin(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        // Keep the SUB_BITS most significant bits of the value
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        int mantissa = (int) (value >> shift);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + mantissa - HALF_COUNT;
+    }
+
+    private static long getMedianValue(int bin) {
+        if (bin < SUB_COUNT) {
+            return bin;
+        }
+        int shift = (bin - SUB_COUNT) / HALF_COUNT + 1;
+        long mantissa = (bin - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        long lowest = mantissa << shift;
+        return lowest + ((1L << shift) >> 1);
+    }
+
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Aggregated metrics of the spans of each operation of each service: the
+ * number of spans, the number of spans with errors and the histogram of their
+ * durations, in time buckets of the span start times.
+ *
+ * The buckets all have the same width. There are at most
+ * {@link #MAX_BUCKETS} buckets, when a span starts after the last one, the
+ * width is doubled and the buckets are merged in pairs, so the memory does not
+ * depend on the number of spans nor on the duration of the trace.
+ *
+ * @author agent
+ */
+public class ServiceMetrics {
+
+    /** Maximum number of time buckets */
+    public static final int MAX_BUCKETS = 1024;
+
+    private static final long INITIAL_BUCKET_WIDTH = 1000L;
+
+    private final Map<String, Map<String, OperationMetrics>> fServices = new TreeMap<>();
+    private long fOrigin = 0;
+    private long fBucketWidth = INITIAL_BUCKET_WIDTH;
+    private int fNbBuckets = 0;
+
+    /**
+     * Metrics of a time range, for one operation
+     */
+    public static class Summary {
+        private final long fDuration;
+        private final LatencyHistogram fLatencies = new LatencyHistogram();
+        private long fErrors = 0;
+
+        private Summary(long duration) {
+            fDuration = duration;
+        }
+
+        /**
+         * Get the number of spans that started in the time range
+         *
+         * @return the number of spans
+         */
+        public long getCount() {
+            return fLatencies.getCount();
+        }
+
+        /**
+         * Get the number of spans with an error
+         *
+         * @return the number of spans with an error
+         */
+        public long getErrors() {
+            return fErrors;
+        }
+
+        /**
+         * Get the duration of the buckets that were aggregated, it can be
+         * larger than the requested time range if the range does not match
+         * the bucket boundaries
+         *
+         * @return the duration, in nanoseconds
+         */
+        public long getDuration() {
+            return fDuration;
+        }
+
+        /**
+         * Get the number of spans per second
+         *
+         * @return the rate of spans
+         */
+        public double getRate() {
+            return getCount() * 1e9 / fDuration;
+        }
+
+        /**
+         * Get the ratio of spans with an error
+         *
+         * @return the error ratio, between 0 and 1, 0 if there are no spans
+         */
+        public double getErrorRatio() {
+            long count = getCount();
+            return count == 0 ? 0.0 : (double) fErrors / count;
+        }
+
+        /**
+         * Get the histogram of the span durations
+         *
+         * @return the histogram
+         */
+        public LatencyHistogram getLatencies() {
+            return fLatencies;
+        }
+    }
+
+    private static class Bucket {
+        private final LatencyHistogram fLatencies = new LatencyHistogram();
+        private long fErrors = 0;
+
+        private void add(Bucket other) {
+            fLatencies.add(other.fLatencies);
+            fErrors += other.fErrors;
+        }
+    }
+
+    private static class OperationMetrics {
+        private @Nullable Bucket[] fBuckets = new @Nullable Bucket[0];
+
+        private Bucket getBucket(int index) {
+            if (index >= fBuckets.length) {
+                fBuckets = Arrays.copyOf(fBuckets, Math.min(MAX_BUCKETS, Math.max(index + 1, fBuckets.length * 2)));
+            }
+            Bucket bucket = fBuckets[index];
+            if (bucket == null) {
+                bucket = new Bucket();
+                fBuckets[index] = bucket;
+            }
+            return bucket;
+        }
+
+        private void coarsen() {
+            @Nullable Bucket[] buckets = new @Nullable Bucket[(fBuckets.length + 1) / 2];
+            for (int i = 0; i < fBuckets.length; i++) {
+                Bucket bucket = fBuckets[i];
+                if (bucket == null) {
+                    continue;
+                }
+                Bucket merged = buckets[i / 2];
+                if (merged == null) {
+                    buckets[i / 2] = bucket;
+                } else {
+                    merged.add(bucket);
+                }
+            }
+            fBuckets = buckets;
+        }
+
+        private void shift(int nbBuckets) {
+            @Nullable Bucket[] buckets = new @Nullable Bucket[Math.min(MAX_BUCKETS, fBuckets.length + nbBuckets)];
+            System.arraycopy(fBuckets, 0, buckets, nbBuckets, Math.min(fBuckets.length, buckets.length - nbBuckets));
+            fBuckets = buckets;
+        }
+    }
+
+    /**
+     * Add a span
+     *
+     * @param service
+     *            the service name
+     * @param operation
+     *            the operation name
+     * @param start
+     *            the start time of the span
+     * @param duration
+     *            the duration of the span
+     * @param error
+     *            whether the span has an error
+     */
+    public void addSpan(String service, String operation, long start, long duration, boolean error) {
+        int index = getBucketIndex(start);
+        Map<String, OperationMetrics> operations = fServices.get(service);
+        if (operations == null) {
+            operations = new TreeMap<>();
+            fServices.put(service, operations);
+        }
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics == null) {
+            metrics = new OperationMetrics();
+            operations.put(operation, metrics);
+        }
+        Bucket bucket = metrics.getBucket(index);
+        bucket.fLatencies.record(duration);
+        if (error) {
+            bucket.fErrors++;
+        }
+    }
+
+    /**
+     * Get the operations of each service
+     *
+     * @return the operation names by service names, both in alphabetical
+     *         order
+     */
+    public Map<String, List<String>> getOperations() {
+        Map<String, List<String>> operations = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, OperationMetrics>> service : fServices.entrySet()) {
+            operations.put(service.getKey(), Collections.unmodifiableList(new ArrayList<>(service.getValue().keySet())));
+        }
+        return operations;
+    }
+
+    /**
+     * Get the width of the time buckets
+     *
+     * @return the width, in nanoseconds
+     */
+    public long getBucketWidth() {
+        return fBucketWidth;
+    }
+
+    /**
+     * Aggregate the metrics of an operation over a time range. All the buckets
+     * that overlap the range are aggregated, so at least one bucket is always
+     * aggregated.
+     *
+     * @param service
+     *            the service name
+     * @param operation
+     *            the operation name
+     * @param start
+     *            the start of the time range, inclusive
+     * @param end
+     *            the end of the time range, exclusive
+     * @return the metrics of the time range, or <code>null</code> if the
+     *         operation does not exist
+     */
+    public @Nullable Summary getSummary(String service, String operation, long start, long end) {
+        Map<String, OperationMetrics> operations = fServices.get(service);
+        OperationMetrics metrics = (operations == null) ? null : operations.get(operation);
+        if (metrics == null) {
+            return null;
+        }
+        long first = Math.floorDiv(start - fOrigin, fBucketWidth);
+        long last = Math.max(first, Math.floorDiv(end - 1 - fOrigin, fBucketWidth));
+        Summary summary = new Summary((last - first + 1) * fBucketWidth);
+        for (long i = Math.max(0, first); i <= Math.min(last, metrics.fBuckets.length - 1); i++) {
+            Bucket bucket = metrics.fBuckets[(int) i];
+            if (bucket != null) {
+                summary.fLatencies.add(bucket.fLatencies);
+                summary.fErrors += bucket.fErrors;
+            }
+        }
+        return summary;
+    }
+
+    private int getBucketIndex(long start) {
+        if (fNbBuckets == 0) {
+            fOrigin = start;
+        }
+        if (start < fOrigin) {
+            // Spans are usually in order, but make room before the first bucket if needed
+            long shift = ceilDiv(fOrigin - start, fBucketWidth);
+            while (fNbBuckets + shift > MAX_BUCKETS) {
+                coarsen();
+                shift = ceilDiv(fOrigin - start, fBucketWidth);
+            }
+            for (Map<String, OperationMetrics> operations : fServices.values()) {
+                for (OperationMetrics metrics : operations.values()) {
+                    metrics.shift((int) shift);
+                }
+            }
+            fOrigin -= shift * fBucketWidth;
+            fNbBuckets += shift;
+        }
+        long index = (start - fOrigin) / fBucketWidth;
+        while (index >= MAX_BUCKETS) {
+            coarsen();
+            index = (start - fOrigin) / fBucketWidth;
+        }
+        fNbBuckets = (int) Math.max(fNbBuckets, index + 1);
+        return (int) index;
+    }
+
+    private void coarsen() {
+        for (Map<String, OperationMetrics> operations : fServices.values()) {
+            for (OperationMetrics metrics : operations.values()) {
+                metrics.coarsen();
+            }
+        }
+        fBucketWidth *= 2;
+        fNbBuckets = (fNbBuckets + 1) / 2;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingEvent;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+/**
+ * Analysis that aggregates the spans of each operation of each service in
+ * time buckets, to compute the rate of spans, the error ratio and the latency
+ * percentiles over time. The spans are read once and only the aggregated
+ * {@link ServiceMetrics} are kept.
+ *
+ * @author agent
+ */
+public class ServiceMetricsAnalysis extends TmfAbstractAnalysisModule {
+
+    /**
+     * ID
+     */
+    public static final String ID = "org.eclipse.tracecompass.incubator.opentracing.analysis.servicemetrics"; //$NON-NLS-1$
+
+    private static final String ERROR_TAG = "error"; //$NON-NLS-1$
+
+    private @Nullable ITmfEventRequest fRequest = null;
+    private volatile @Nullable ServiceMetrics fMetrics = null;
+
+    /**
+     * Constructor
+     */
+    public ServiceMetricsAnalysis() {
+        setId(ID);
+    }
+
+    @Override
+    protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return false;
+        }
+
+        ServiceMetrics metrics = new ServiceMetrics();
+        TmfEventRequest request = new TmfEventRequest(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ITmfEventRequest.ExecutionType.BACKGROUND) {
+            @Override
+            public void handleData(ITmfEvent event) {
+                super.handleData(event);
+                if (monitor.isCanceled()) {
+                    cancel();
+                    return;
+                }
+                if (!(event instanceof OpenTracingEvent)) {
+                    return;
+                }
+                OpenTracingField field = ((OpenTracingEvent) event).getField();
+                metrics.addSpan(field.getProcessName(), field.getName(), field.getStartTime(), field.getDuration(), Boolean.parseBoolean(field.getTag(ERROR_TAG)));
+            }
+        };
+        fRequest = request;
+        trace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (request.isCancelled() || monitor.isCanceled()) {
+            return false;
+        }
+        fMetrics = metrics;
+        return true;
+    }
+
+    @Override
+    protected void canceling() {
+        ITmfEventRequest request = fRequest;
+        if (request != null && !request.isCompleted()) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Get the metrics of the services
+     *
+     * @return the metrics, or <code>null</code> if the analysis did not
+     *         complete
+     */
+    public @Nullable ServiceMetrics getMetrics() {
+        return fMetrics;
+    }
+
+}
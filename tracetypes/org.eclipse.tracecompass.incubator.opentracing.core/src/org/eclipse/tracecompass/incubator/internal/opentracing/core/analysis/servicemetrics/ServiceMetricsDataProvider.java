@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.servicemetrics.ServiceMetrics.Summary;
+import org.eclipse.tracecompass.internal.tmf.core.model.AbstractTmfTraceDataProvider;
+import org.eclipse.tracecompass.internal.tmf.core.model.TmfXyResponseFactory;
+import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
+import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
+import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
+import org.eclipse.tracecompass.tmf.core.model.YModel;
+import org.eclipse.tracecompass.tmf.core.model.filters.SelectionTimeQueryFilter;
+import org.eclipse.tracecompass.tmf.core.model.filters.TimeQueryFilter;
+import org.eclipse.tracecompass.tmf.core.model.tree.TmfTreeDataModel;
+import org.eclipse.tracecompass.tmf.core.model.tree.TmfTreeModel;
+import org.eclipse.tracecompass.tmf.core.model.xy.ITmfTreeXYDataProvider;
+import org.eclipse.tracecompass.tmf.core.model.xy.ITmfXyModel;
+import org.eclipse.tracecompass.tmf.core.model.xy.IYModel;
+import org.eclipse.tracecompass.tmf.core.response.ITmfResponse;
+import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * XY data provider of the {@link ServiceMetricsAnalysis}. The tree has an
+ * entry for each service, with its operations as children, and the metrics of
+ * each operation as leaves: the rate of spans, the error ratio and the median
+ * and 99th percentile latencies. Each selected metric is one series.
+ *
+ * @author agent
+ */
+@SuppressWarnings("restriction")
+public class ServiceMetricsDataProvider extends AbstractTmfTraceDataProvider implements ITmfTreeXYDataProvider<TmfTreeDataModel> {
+
+    /**
+     * Extension point ID.
+     */
+    public static final String ID = "org.eclipse.tracecompass.incubator.opentracing.analysis.servicemetrics.dataprovider"; //$NON-NLS-1$
+
+    private static final String TITLE = "Service Metrics"; //$NON-NLS-1$
+    private static final AtomicLong ENTRY_ID = new AtomicLong();
+
+    /**
+     * The metrics of each operation
+     */
+    private enum Metric {
+        RATE("Rate (spans/s)", Summary::getRate), //$NON-NLS-1$
+        ERRORS("Error Ratio", Summary::getErrorRatio), //$NON-NLS-1$
+        P50("Latency p50 (ns)", summary -> summary.getLatencies().getValueAtPercentile(50)), //$NON-NLS-1$
+        P99("Latency p99 (ns)", summary -> summary.getLatencies().getValueAtPercentile(99)); //$NON-NLS-1$
+
+        private final String fLabel;
+        private final ToDoubleFunction<Summary> fValue;
+
+        Metric(String label, ToDoubleFunction<Summary> value) {
+            fLabel = label;
+            fValue = value;
+        }
+    }
+
+    /** A leaf of the tree, the metric of an operation */
+    private static class MetricEntry {
+        private final String fService;
+        private final String fOperation;
+        private final Metric fMetric;
+
+        public MetricEntry(String service, String operation, Metric metric) {
+            fService = service;
+            fOperation = operation;
+            fMetric = metric;
+        }
+    }
+
+    private final ServiceMetricsAnalysis fModule;
+    private final long fTraceId = ENTRY_ID.getAndIncrement();
+    private final Map<Long, MetricEntry> fMetricEntries = new HashMap<>();
+    private @Nullable List<TmfTreeDataModel> fTree = null;
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            the trace this provider represents
+     * @param module
+     *            the analysis encapsulated by this provider
+     */
+    public ServiceMetricsDataProvider(ITmfTrace trace, ServiceMetricsAnalysis module) {
+        super(trace);
+        fModule = module;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public TmfModelResponse<TmfTreeModel<TmfTreeDataModel>> fetchTree(Map<String, Object> fetchParameters, @Nullable IProgressMonitor monitor) {
+        ServiceMetrics metrics = getMetrics(monitor);
+        if (metrics == null) {
+            return new TmfModelResponse<>(null, ITmfResponse.Status.FAILED, CommonStatusMessage.ANALYSIS_INITIALIZATION_FAILED);
+        }
+        return new TmfModelResponse<>(new TmfTreeModel<>(Collections.emptyList(), getTree(metrics)), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
+    }
+
+    @Override
+    public TmfModelResponse<ITmfXyModel> fetchXY(Map<String, Object> fetchParameters, @Nullable IProgressMonitor monitor) {
+        List<Long> times = DataProviderParameterUtils.extractTimeRequested(fetchParameters);
+        Collection<Long> selected = DataProviderParameterUtils.extractSelectedItems(fetchParameters);
+        if (times == null || times.isEmpty() || selected == null) {
+            return TmfXyResponseFactory.createFailedResponse(CommonStatusMessage.INCORRECT_QUERY_PARAMETERS);
+        }
+        ServiceMetrics metrics = getMetrics(monitor);
+        if (metrics == null) {
+            return TmfXyResponseFactory.createFailedResponse(CommonStatusMessage.ANALYSIS_INITIALIZATION_FAILED);
+        }
+        getTree(metrics);
+
+        long[] xValues = new long[times.size()];
+        for (int i = 0; i < xValues.length; i++) {
+            xValues[i] = times.get(i);
+        }
+        ImmutableList.Builder<IYModel> builder = ImmutableList.builder();
+        for (Long id : selected) {
+            MetricEntry entry;
+            synchronized (fMetricEntries) {
+                entry = fMetricEntries.get(id);
+            }
+            if (entry == null) {
+                continue;
+            }
+            if (monitor != null && monitor.isCanceled()) {
+                return TmfXyResponseFactory.createCancelledResponse(CommonStatusMessage.TASK_CANCELLED);
+            }
+            // Each x value is the start of a sample that lasts until the next one
+            double[] yValues = new double[xValues.length];
+            for (int i = 0; i < xValues.length; i++) {
+                long end = (i + 1 < xValues.length) ? xValues[i + 1] : xValues[i] + (i > 0 ? xValues[i] - xValues[i - 1] : 1);
+                Summary summary = metrics.getSummary(entry.fService, entry.fOperation, xValues[i], Math.max(xValues[i] + 1, end));
+                yValues[i] = (summary == null) ? 0.0 : entry.fMetric.fValue.applyAsDouble(summary);
+            }
+            builder.add(new YModel(id, entry.fService + ": " + entry.fOperation + ' ' + entry.fMetric.fLabel, yValues)); //$NON-NLS-1$
+        }
+        return TmfXyResponseFactory.create(TITLE, xValues, builder.build(), true);
+    }
+
+    private @Nullable ServiceMetrics getMetrics(@Nullable IProgressMonitor monitor) {
+        fModule.schedule();
+        if (monitor == null) {
+            fModule.waitForCompletion();
+        } else {
+            fModule.waitForCompletion(monitor);
+        }
+        return fModule.getMetrics();
+    }
+
+    private List<TmfTreeDataModel> getTree(ServiceMetrics metrics) {
+        synchronized (fMetricEntries) {
+            List<TmfTreeDataModel> tree = fTree;
+            if (tree != null) {
+                return tree;
+            }
+            tree = new ArrayList<>();
+            tree.add(new TmfTreeDataModel(fTraceId, -1, getTrace().getName()));
+            for (Map.Entry<String, List<String>> service : metrics.getOperations().entrySet()) {
+                long serviceId = ENTRY_ID.getAndIncrement();
+                tree.add(new TmfTreeDataModel(serviceId, fTraceId, service.getKey()));
+                for (String operation : service.getValue()) {
+                    long operationId = ENTRY_ID.getAndIncrement();
+                    tree.add(new TmfTreeDataModel(operationId, serviceId, operation));
+                    for (Metric metric : Metric.values()) {
+                        long metricId = ENTRY_ID.getAndIncrement();
+                        tree.add(new TmfTreeDataModel(metricId, operationId, metric.fLabel));
+                        fMetricEntries.put(metricId, new MetricEntry(service.getKey(), operation, metric));
+                    }
+                }
+            }
+            tree = Collections.unmodifiableList(tree);
+            fTree = tree;
+            return tree;
+        }
+    }
+
+    @Deprecated
+    @Override
+    public TmfModelResponse<List<TmfTreeDataModel>> fetchTree(TimeQueryFilter filter, @Nullable IProgressMonitor monitor) {
+        Map<String, Object> parameters = FetchParametersUtils.timeQueryToMap(filter);
+        TmfModelResponse<TmfTreeModel<TmfTreeDataModel>> response = fetchTree(parameters, monitor);
+        TmfTreeModel<TmfTreeDataModel> model = response.getModel();
+        List<TmfTreeDataModel> treeModel = null;
+        if (model != null) {
+            treeModel = model.getEntries();
+        }
+        return new TmfModelResponse<>(treeModel, response.getStatus(), response.getStatusMessage());
+    }
+
+    @Deprecated
+    @Override
+    public TmfModelResponse<ITmfXyModel> fetchXY(TimeQueryFilter filter, @Nullable IProgressMonitor monitor) {
+        Map<String, Object> parameters = (filter instanceof SelectionTimeQueryFilter) ?
+                FetchParametersUtils.selectionTimeQueryToMap((SelectionTimeQueryFilter) filter) :
+                FetchParametersUtils.timeQueryToMap(filter);
+        return fetchXY(parameters, monitor);
+    }
+
+}
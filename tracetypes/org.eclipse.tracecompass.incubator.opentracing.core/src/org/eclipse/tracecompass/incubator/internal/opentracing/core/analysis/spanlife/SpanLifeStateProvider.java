@@ -13,14 +13,22 @@ package org.eclipse.tracecompass.incubator.internal.opentracing.core.analysis.sp
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenTracingConstants;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingEvent;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingSpanIndex;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingTrace;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.statesystem.AbstractTmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -65,7 +73,7 @@ public class SpanLifeStateProvider extends AbstractTmfStateProvider {
 
     @Override
     public int getVersion() {
-        return 3;
+        return 4;
     }
 
     @Override
@@ -86,37 +94,48 @@ public class SpanLifeStateProvider extends AbstractTmfStateProvider {
     }
 
     private void handleSpan(ITmfEvent event, ITmfStateSystemBuilder ss) {
+        if (event instanceof OpenTracingEvent) {
+            // Read the span field directly, without creating the event content
+            OpenTracingField field = ((OpenTracingEvent) event).getField();
+            addSpan(event, ss, field.getDuration(), field.getTraceId(), field.getTag("error"), field.getProcessName(), //$NON-NLS-1$
+                    field.getSpanId(), field.getReference("CHILD_OF"), field.getLogs()); //$NON-NLS-1$
+            return;
+        }
+        ITmfEventField content = event.getContent();
+        addSpan(event, ss, content.getFieldValue(Long.class, IOpenTracingConstants.DURATION),
+                content.getFieldValue(String.class, IOpenTracingConstants.TRACE_ID),
+                content.getFieldValue(String.class, IOpenTracingConstants.TAGS + "/error"), //$NON-NLS-1$
+                content.getFieldValue(String.class, IOpenTracingConstants.PROCESS_NAME),
+                content.getFieldValue(String.class, IOpenTracingConstants.SPAN_ID),
+                content.getFieldValue(String.class, IOpenTracingConstants.REFERENCES + "/CHILD_OF"), //$NON-NLS-1$
+                content.getFieldValue(Map.class, IOpenTracingConstants.LOGS));
+    }
+
+    private void addSpan(ITmfEvent event, ITmfStateSystemBuilder ss, @Nullable Long duration, @Nullable String traceId, @Nullable String error,
+            @Nullable String processName, @Nullable String spanId, @Nullable String refId, @Nullable Map<Long, Map<String, String>> logs) {
         long timestamp = event.getTimestamp().toNanos();
-        Long duration = event.getContent().getFieldValue(Long.class, IOpenTracingConstants.DURATION);
         if (duration == null) {
             return;
         }
 
-        String traceId = event.getContent().getFieldValue(String.class, IOpenTracingConstants.TRACE_ID);
         int traceQuark = ss.getQuarkAbsoluteAndAdd(traceId);
 
         int openTracingSpansQuark = ss.getQuarkRelativeAndAdd(traceQuark, OPEN_TRACING_ATTRIBUTE);
 
-        Boolean errorTag = Boolean.parseBoolean(event.getContent().getFieldValue(String.class, IOpenTracingConstants.TAGS + "/error")); //$NON-NLS-1$
-        String processName = event.getContent().getFieldValue(String.class, IOpenTracingConstants.PROCESS_NAME);
-
         int spanQuark;
-        String name = String.valueOf(TmfTraceUtils.resolveAspectOfNameForEvent(event.getTrace(), "Name", event)); //$NON-NLS-1$
-        String spanId = event.getContent().getFieldValue(String.class, IOpenTracingConstants.SPAN_ID);
-        String refId = event.getContent().getFieldValue(String.class, IOpenTracingConstants.REFERENCES + "/CHILD_OF"); //$NON-NLS-1$
+        String name = getName(event);
         if (refId == null) {
-            spanQuark = ss.getQuarkRelativeAndAdd(openTracingSpansQuark, name + '/' + spanId + '/' + errorTag + '/' + processName);
+            spanQuark = ss.getQuarkRelativeAndAdd(openTracingSpansQuark, getSpanAttribute(name, spanId, error, processName));
         } else {
-            Integer parentQuark = fSpanMap.get(refId);
+            Integer parentQuark = getParentQuark(event, ss, openTracingSpansQuark, traceId, refId, new HashSet<>());
             if (parentQuark == null) {
                 return;
             }
-            spanQuark = ss.getQuarkRelativeAndAdd(parentQuark, name + '/' + spanId + '/' + errorTag + '/' + processName);
+            spanQuark = ss.getQuarkRelativeAndAdd(parentQuark, getSpanAttribute(name, spanId, error, processName));
         }
 
         ss.modifyAttribute(timestamp, name, spanQuark);
 
-        Map<Long, Map<String, String>> logs = event.getContent().getFieldValue(Map.class, IOpenTracingConstants.LOGS);
         if (logs != null) {
             // We put all the logs in the state system under the LOGS attribute
             Integer logsQuark = ss.getQuarkRelativeAndAdd(traceQuark, IOpenTracingConstants.LOGS);
@@ -141,6 +160,57 @@ public class SpanLifeStateProvider extends AbstractTmfStateProvider {
         }
     }
 
+    private static String getName(ITmfEvent event) {
+        return String.valueOf(TmfTraceUtils.resolveAspectOfNameForEvent(event.getTrace(), "Name", event)); //$NON-NLS-1$
+    }
+
+    private static String getSpanAttribute(String name, @Nullable String spanId, @Nullable String error, @Nullable String processName) {
+        Boolean errorTag = Boolean.parseBoolean(error);
+        return name + '/' + spanId + '/' + errorTag + '/' + processName;
+    }
+
+    /**
+     * Get the quark of the parent of a span. If the parent was not handled
+     * yet, it is looked up in the span index of the trace and its quark is
+     * added, so the span is shown under it. Spans whose parent is not in the
+     * trace are shown at the root. The index is not waited for, as this
+     * provider may run with the request that indexes the trace: without it,
+     * the spans whose parent was not handled yet are not shown.
+     *
+     * @return the quark of the parent, or <code>null</code> if it is not known
+     */
+    private @Nullable Integer getParentQuark(ITmfEvent event, ITmfStateSystemBuilder ss, int openTracingSpansQuark, @Nullable String traceId, String refId, Set<String> visited) {
+        Integer parentQuark = fSpanMap.get(refId);
+        if (parentQuark != null) {
+            return parentQuark;
+        }
+        ITmfTrace trace = event.getTrace();
+        if (!(trace instanceof OpenTracingTrace) || traceId == null) {
+            return null;
+        }
+        OpenTracingSpanIndex index = ((OpenTracingTrace) trace).getSpanIndex();
+        if (index == null) {
+            return null;
+        }
+        if (index.getRank(traceId, refId) < 0 || !visited.add(refId)) {
+            // The parent is not in the trace, or the references have a cycle
+            return openTracingSpansQuark;
+        }
+        ITmfEvent parent = ((OpenTracingTrace) trace).getSpanEvent(traceId, refId);
+        if (!(parent instanceof OpenTracingEvent)) {
+            return null;
+        }
+        OpenTracingField field = ((OpenTracingEvent) parent).getField();
+        String grandParentId = field.getReference("CHILD_OF"); //$NON-NLS-1$
+        Integer grandParentQuark = (grandParentId == null) ? Integer.valueOf(openTracingSpansQuark) : getParentQuark(parent, ss, openTracingSpansQuark, traceId, grandParentId, visited);
+        if (grandParentQuark == null) {
+            return null;
+        }
+        parentQuark = ss.getQuarkRelativeAndAdd(grandParentQuark, getSpanAttribute(getName(parent), field.getSpanId(), field.getTag("error"), field.getProcessName())); //$NON-NLS-1$
+        fSpanMap.put(refId, parentQuark);
+        return parentQuark;
+    }
+
     private void handleStart(ITmfEvent event, ITmfStateSystemBuilder ss) {
         String traceId = event.getContent().getFieldValue(String.class, "trace_id_low"); //$NON-NLS-1$
         traceId = Long.toHexString(Long.decode(traceId));
@@ -39,7 +39,8 @@ public class OpenTracingEvent extends TmfEvent {
      *            the event field, contains all the needed data
      */
     public OpenTracingEvent(ITmfTrace trace, long rank, OpenTracingField field) {
-        super(trace, rank, TmfTimestamp.fromNanos(field.getStartTime()), new TmfEventType("OpenTracingSpan", null), field.getContent()); //$NON-NLS-1$
+        // The content is only created if it is requested
+        super(trace, rank, TmfTimestamp.fromNanos(field.getStartTime()), new TmfEventType("OpenTracingSpan", null), null); //$NON-NLS-1$
         fField = field;
         fName = field.getName();
     }
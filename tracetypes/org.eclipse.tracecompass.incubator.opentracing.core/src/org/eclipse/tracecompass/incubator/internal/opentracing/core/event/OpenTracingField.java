@@ -11,238 +11,209 @@
 
 package org.eclipse.tracecompass.incubator.internal.opentracing.core.event;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess.ProcessTable;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Open Tracing fields. Used as a quick wrapper for Open Tracing log data.
  *
+ * The span is decoded in compact arrays, the tags, logs and event content are
+ * only materialized when they are requested.
+ *
  * @author Katherine Nadeau
  */
 public class OpenTracingField {
 
+    private static final String[] EMPTY = new String[0];
+
     private final String fOperationName;
-    private final ITmfEventField fContent;
+    private final String fTraceId;
     private final String fSpanId;
-    private final Long fStartTime;
-    private final Long fDuration;
-    private final @Nullable Map<String, Object> fTags;
-    private final @Nullable Map<String, Object> fProcessTags;
-    private String fProcessName;
-
-    private static final Gson G_SON = new Gson();
-
-    /**
-     * Get the process id
-     *
-     * @param eventString
-     *            the event string
-     * @return the process id
-     */
-    public static @Nullable String getProcess(String eventString) {
-        @Nullable
-        JsonObject root = G_SON.fromJson(eventString, JsonObject.class);
-        String process = optString(root, IOpenTracingConstants.PROCESS_ID);
-        return process == null ? "" : process; //$NON-NLS-1$
-    }
+    private final int fFlags;
+    private final long fStartTime;
+    private final long fDuration;
+    /* Reference types and span IDs, one after the other */
+    private final String[] fReferences;
+    /* Tag keys and values, one after the other */
+    private final String[] fTags;
+    private final long[] fLogTimestamps;
+    /* Log field keys and values, one after the other, for each log */
+    private final String[][] fLogFields;
+    private final @Nullable OpenTracingProcess fProcess;
+
+    private volatile @Nullable ITmfEventField fContent = null;
+    private volatile @Nullable Map<String, Object> fTagMap = null;
 
     /**
      * Parse a JSON string
      *
      * @param fieldsString
      *            the string
-     * @param processField
-     *            the process name and tags
+     * @param processes
+     *            the processes of the trace, to resolve the span's process
      * @return an event field
      */
-    public static @Nullable OpenTracingField parseJson(String fieldsString, @Nullable String processField) {
-        @Nullable
-        JsonObject root = G_SON.fromJson(fieldsString, JsonObject.class);
-
-        String name = String.valueOf(optString(root, IOpenTracingConstants.OPERATION_NAME));
-        if (name == "null") { //$NON-NLS-1$
-            return null;
-        }
-        String traceId = optString(root, IOpenTracingConstants.TRACE_ID);
-        String spanId = optString(root, IOpenTracingConstants.SPAN_ID);
-        Integer flags = optInt(root, IOpenTracingConstants.FLAGS);
-        Long startTime = optLong(root, IOpenTracingConstants.START_TIME);
-        if (Double.isFinite(startTime)) {
-            startTime = TmfTimestamp.fromMicros(startTime).toNanos();
-        }
-        Long duration = optLong(root, IOpenTracingConstants.DURATION);
-        if (Double.isFinite(duration)) {
-            duration = TmfTimestamp.fromMicros(duration).toNanos();
-        }
-
-        Map<@NonNull String, @NonNull Object> fieldsMap = new HashMap<>();
-
-        JsonArray refs = optJSONArray(root, IOpenTracingConstants.REFERENCES);
-        if (refs != null) {
-            for (int i = 0; i < refs.size(); i++) {
-                String key = Objects.requireNonNull(refs.get(i).getAsJsonObject().get(IOpenTracingConstants.REFERENCE_TYPE).getAsString());
-                JsonElement element = Objects.requireNonNull(refs.get(i).getAsJsonObject().get(IOpenTracingConstants.SPAN_ID));
-                String value = String.valueOf(element.isJsonPrimitive() ? element.getAsJsonPrimitive().getAsString() : element.toString());
-                fieldsMap.put(IOpenTracingConstants.REFERENCES + '/' + key, value);
-            }
-        }
-
-        JsonArray tags = optJSONArray(root, IOpenTracingConstants.TAGS);
-        if (tags != null) {
-            for (int i = 0; i < tags.size(); i++) {
-                String key = Objects.requireNonNull(tags.get(i).getAsJsonObject().get(IOpenTracingConstants.KEY).getAsString());
-                JsonElement element = Objects.requireNonNull(tags.get(i).getAsJsonObject().get(IOpenTracingConstants.VALUE));
-                String value = String.valueOf(element.isJsonPrimitive() ? element.getAsJsonPrimitive().getAsString() : element.toString());
-                fieldsMap.put(IOpenTracingConstants.TAGS + '/' + key, value);
-            }
-        }
-
-        JsonArray logs = optJSONArray(root, IOpenTracingConstants.LOGS);
-        if (logs != null) {
-            Map<Long, Map<String, String>> timestampList = new HashMap();
-            for (int i = 0; i < logs.size(); i++) {
-                Long timestamp = optLong(logs.get(i).getAsJsonObject(), IOpenTracingConstants.TIMESTAMP);
-                if (Double.isFinite(timestamp)) {
-                    timestamp = TmfTimestamp.fromMicros(timestamp).toNanos();
+    public static @Nullable OpenTracingField parseJson(String fieldsString, ProcessTable processes) {
+        String name = null;
+        String traceId = null;
+        String spanId = null;
+        String processId = null;
+        int flags = Integer.MIN_VALUE;
+        long startTime = Long.MIN_VALUE;
+        long duration = Long.MIN_VALUE;
+        List<String> references = Collections.emptyList();
+        List<String> tags = Collections.emptyList();
+        List<Long> logTimestamps = new ArrayList<>();
+        List<String[]> logFields = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(new StringReader(fieldsString))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                    continue;
                 }
-                JsonArray fields = Objects.requireNonNull(logs.get(i).getAsJsonObject().get(IOpenTracingConstants.FIELDS).getAsJsonArray());
-                Map<String, String> fieldsList = new HashMap();
-                for (int j = 0; j < fields.size(); j++) {
-                    String key = Objects.requireNonNull(fields.get(j).getAsJsonObject().get(IOpenTracingConstants.KEY).getAsString());
-                    JsonElement element = Objects.requireNonNull(fields.get(j).getAsJsonObject().get(IOpenTracingConstants.VALUE));
-                    String value = String.valueOf(element.isJsonPrimitive() ? element.getAsJsonPrimitive().getAsString() : element.toString());
-                    fieldsList.put(key, value);
+                switch (key) {
+                case IOpenTracingConstants.OPERATION_NAME:
+                    name = OpenTracingProcess.readValue(reader);
+                    break;
+                case IOpenTracingConstants.TRACE_ID:
+                    traceId = OpenTracingProcess.readValue(reader);
+                    break;
+                case IOpenTracingConstants.SPAN_ID:
+                    spanId = OpenTracingProcess.readValue(reader);
+                    break;
+                case IOpenTracingConstants.PROCESS_ID:
+                    processId = OpenTracingProcess.readValue(reader);
+                    break;
+                case IOpenTracingConstants.FLAGS:
+                    flags = reader.nextInt();
+                    break;
+                case IOpenTracingConstants.START_TIME:
+                    startTime = reader.nextLong();
+                    break;
+                case IOpenTracingConstants.DURATION:
+                    duration = reader.nextLong();
+                    break;
+                case IOpenTracingConstants.REFERENCES:
+                    references = readReferences(reader);
+                    break;
+                case IOpenTracingConstants.TAGS:
+                    tags = OpenTracingProcess.readKeyValues(reader);
+                    break;
+                case IOpenTracingConstants.LOGS:
+                    readLogs(reader, logTimestamps, logFields);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
                 }
-                timestampList.put(timestamp.longValue(), fieldsList);
             }
-            fieldsMap.put(IOpenTracingConstants.LOGS, timestampList);
+            reader.endObject();
+        } catch (IOException | RuntimeException e) {
+            /*
+             * Malformed JSON or a value of an unexpected type, like a string
+             * where a number is expected, this line is not a span
+             */
+            return null;
         }
 
-        if (traceId == null || spanId == null) {
+        if (name == null || traceId == null || spanId == null) {
             return null;
         }
+        startTime = TmfTimestamp.fromMicros(startTime).toNanos();
+        duration = TmfTimestamp.fromMicros(duration).toNanos();
+        OpenTracingProcess process = (processId == null) ? null : processes.get(traceId, processId);
 
-        fieldsMap.put(IOpenTracingConstants.OPERATION_NAME, name);
-        fieldsMap.put(IOpenTracingConstants.TRACE_ID, traceId);
-        fieldsMap.put(IOpenTracingConstants.SPAN_ID, spanId);
-        if (flags != Integer.MIN_VALUE) {
-            fieldsMap.put(IOpenTracingConstants.FLAGS, flags);
+        long[] timestamps = new long[logTimestamps.size()];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = logTimestamps.get(i);
         }
-        fieldsMap.put(IOpenTracingConstants.START_TIME, startTime);
-        fieldsMap.put(IOpenTracingConstants.DURATION, duration);
-
-        String processName = processField == null ? "" : parseProcess(processField, fieldsMap); //$NON-NLS-1$
-        fieldsMap.put(IOpenTracingConstants.PROCESS_NAME, processName);
-
-        return new OpenTracingField(name, fieldsMap, spanId, startTime, duration, processName);
+        return new OpenTracingField(name, traceId, spanId, flags, startTime, duration,
+                references.toArray(EMPTY), tags.toArray(EMPTY), timestamps, logFields.toArray(new String[logFields.size()][]), process);
     }
 
-    /**
-     * Parse a JSON string of the process and add it in fieldsMap
-     *
-     * @param processField
-     *            the string
-     * @param fieldsMap
-     *            processes list
-     * @return the process name
-     */
-    public static String parseProcess(String processField, Map<String, Object> fieldsMap) {
-        @Nullable
-        JsonObject root = G_SON.fromJson(processField, JsonObject.class);
-
-        String name = String.valueOf(optString(root, IOpenTracingConstants.SERVICE_NAME));
-        if (name == "null") { //$NON-NLS-1$
-            return ""; //$NON-NLS-1$
-        }
-
-        JsonArray tags = optJSONArray(root, IOpenTracingConstants.TAGS);
-        if (tags != null) {
-            for (int i = 0; i < tags.size(); i++) {
-                String key = Objects.requireNonNull(tags.get(i).getAsJsonObject().get("key").getAsString()); //$NON-NLS-1$
-                JsonElement element = Objects.requireNonNull(tags.get(i).getAsJsonObject().get("value")); //$NON-NLS-1$
-                String value = String.valueOf(element.isJsonPrimitive() ? element.getAsJsonPrimitive().getAsString() : element.toString());
-                fieldsMap.put(IOpenTracingConstants.PROCESS_TAGS + '/' + key, value);
+    private static List<String> readReferences(JsonReader reader) throws IOException {
+        List<String> references = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String type = null;
+            String spanId = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (IOpenTracingConstants.REFERENCE_TYPE.equals(name)) {
+                    type = OpenTracingProcess.readValue(reader);
+                } else if (IOpenTracingConstants.SPAN_ID.equals(name)) {
+                    spanId = OpenTracingProcess.readValue(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (type == null || spanId == null) {
+                throw new IllegalStateException("Missing reference type or span ID"); //$NON-NLS-1$
             }
+            references.add(type);
+            references.add(spanId);
         }
-
-        return name;
-
-    }
-
-    private static long optLong(JsonObject root, String key) {
-        JsonElement jsonElement = root.get(key);
-        return jsonElement != null ? jsonElement.getAsLong() : Long.MIN_VALUE;
-    }
-
-    private static int optInt(JsonObject root, String key) {
-        JsonElement jsonElement = root.get(key);
-        return jsonElement != null ? jsonElement.getAsInt() : Integer.MIN_VALUE;
-    }
-
-    private static @Nullable JsonArray optJSONArray(JsonObject root, String key) {
-        JsonElement jsonElement = root.get(key);
-        return jsonElement != null ? jsonElement.getAsJsonArray() : null;
+        reader.endArray();
+        return references;
     }
 
-    private static @Nullable String optString(JsonObject root, String key) {
-        JsonElement jsonElement = root.get(key);
-        return jsonElement != null ? jsonElement.getAsString() : null;
+    private static void readLogs(JsonReader reader, List<Long> timestamps, List<String[]> fields) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            long timestamp = Long.MIN_VALUE;
+            List<String> logFields = Collections.emptyList();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (IOpenTracingConstants.TIMESTAMP.equals(name)) {
+                    timestamp = reader.nextLong();
+                } else if (IOpenTracingConstants.FIELDS.equals(name)) {
+                    logFields = OpenTracingProcess.readKeyValues(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            timestamps.add(TmfTimestamp.fromMicros(timestamp).toNanos());
+            fields.add(logFields.toArray(EMPTY));
+        }
+        reader.endArray();
     }
 
-    /**
-     * Constructor
-     *
-     * @param name
-     *            operation name
-     * @param fields
-     *            span fields (arguments)
-     * @param spanId
-     *            the span id
-     * @param startTime
-     *            the span start time
-     * @param duration
-     *            the span duration
-     * @param processName
-     *            the span process name
-     */
-    private OpenTracingField(String name, Map<String, Object> fields, String spanId, Long startTime, Long duration, String processName) {
+    private OpenTracingField(String name, String traceId, String spanId, int flags, long startTime, long duration,
+            String[] references, String[] tags, long[] logTimestamps, String[][] logFields, @Nullable OpenTracingProcess process) {
         fOperationName = name;
-        ITmfEventField[] array = fields.entrySet().stream()
-                .map(entry -> new TmfEventField(entry.getKey(), entry.getValue(), null))
-                .toArray(ITmfEventField[]::new);
-        fContent = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, fields, array);
+        fTraceId = traceId;
         fSpanId = spanId;
+        fFlags = flags;
         fStartTime = startTime;
         fDuration = duration;
-        @SuppressWarnings("null")
-        Map<@NonNull String, @NonNull Object> tags = fields.entrySet().stream()
-                .filter(entry -> {
-                    return entry.getKey().startsWith(IOpenTracingConstants.TAGS + '/');
-                })
-                .collect(Collectors.toMap(entry -> entry.getKey().substring(5), Entry::getValue));
-        fTags = tags.isEmpty() ? null : tags;
-        @SuppressWarnings("null")
-        Map<@NonNull String, @NonNull Object> processTags = fields.entrySet().stream()
-                .filter(entry -> {
-                    return entry.getKey().startsWith(IOpenTracingConstants.PROCESS_TAGS + '/');
-                })
-                .collect(Collectors.toMap(entry -> entry.getKey().substring(12), Entry::getValue));
-        fProcessTags = processTags.isEmpty() ? null : processTags;
-        fProcessName = processName;
+        fReferences = references;
+        fTags = tags;
+        fLogTimestamps = logTimestamps;
+        fLogFields = logFields;
+        fProcess = process;
     }
 
     /**
@@ -255,12 +226,60 @@ public class OpenTracingField {
     }
 
     /**
-     * Get the event content
+     * Get the event content. It is created the first time it is requested.
      *
      * @return the event content
      */
     public ITmfEventField getContent() {
-        return fContent;
+        ITmfEventField content = fContent;
+        if (content == null) {
+            content = createContent();
+            fContent = content;
+        }
+        return content;
+    }
+
+    private ITmfEventField createContent() {
+        Map<@NonNull String, @NonNull Object> fieldsMap = new HashMap<>();
+        for (int i = 0; i < fReferences.length; i += 2) {
+            fieldsMap.put(IOpenTracingConstants.REFERENCES + '/' + fReferences[i], fReferences[i + 1]);
+        }
+        for (int i = 0; i < fTags.length; i += 2) {
+            fieldsMap.put(IOpenTracingConstants.TAGS + '/' + fTags[i], fTags[i + 1]);
+        }
+        Map<Long, Map<String, String>> logs = getLogs();
+        if (logs != null) {
+            fieldsMap.put(IOpenTracingConstants.LOGS, logs);
+        }
+        fieldsMap.put(IOpenTracingConstants.OPERATION_NAME, fOperationName);
+        fieldsMap.put(IOpenTracingConstants.TRACE_ID, fTraceId);
+        fieldsMap.put(IOpenTracingConstants.SPAN_ID, fSpanId);
+        if (fFlags != Integer.MIN_VALUE) {
+            fieldsMap.put(IOpenTracingConstants.FLAGS, fFlags);
+        }
+        fieldsMap.put(IOpenTracingConstants.START_TIME, fStartTime);
+        fieldsMap.put(IOpenTracingConstants.DURATION, fDuration);
+        fieldsMap.put(IOpenTracingConstants.PROCESS_NAME, getProcessName());
+        Map<String, Object> processTags = getProcessTags();
+        if (processTags != null) {
+            for (Entry<String, Object> tag : processTags.entrySet()) {
+                fieldsMap.put(IOpenTracingConstants.PROCESS_TAGS + '/' + tag.getKey(), tag.getValue());
+            }
+        }
+
+        ITmfEventField[] array = fieldsMap.entrySet().stream()
+                .map(entry -> new TmfEventField(entry.getKey(), entry.getValue(), null))
+                .toArray(ITmfEventField[]::new);
+        return new TmfEventField(ITmfEventField.ROOT_FIELD_ID, fieldsMap, array);
+    }
+
+    /**
+     * Get the trace id
+     *
+     * @return the trace id
+     */
+    public String getTraceId() {
+        return fTraceId;
     }
 
     /**
@@ -272,6 +291,24 @@ public class OpenTracingField {
         return fSpanId;
     }
 
+    /**
+     * Get the span ID referenced by this span
+     *
+     * @param referenceType
+     *            the type of reference, like <code>CHILD_OF</code>
+     * @return the referenced span ID, or <code>null</code> if there is no
+     *         reference of this type
+     */
+    public @Nullable String getReference(String referenceType) {
+        String spanId = null;
+        for (int i = 0; i < fReferences.length; i += 2) {
+            if (fReferences[i].equals(referenceType)) {
+                spanId = fReferences[i + 1];
+            }
+        }
+        return spanId;
+    }
+
     /**
      * Get the span start time
      *
@@ -290,13 +327,64 @@ public class OpenTracingField {
         return fDuration;
     }
 
+    /**
+     * Get the value of a span tag, without materializing all the tags
+     *
+     * @param key
+     *            the tag key
+     * @return the tag value, or <code>null</code> if the span does not have
+     *         this tag
+     */
+    public @Nullable String getTag(String key) {
+        String value = null;
+        for (int i = 0; i < fTags.length; i += 2) {
+            if (fTags[i].equals(key)) {
+                value = fTags[i + 1];
+            }
+        }
+        return value;
+    }
+
     /**
      * Get the span tags
      *
      * @return a map of the tags and their field names
      */
     public @Nullable Map<String, Object> getTags() {
-        return fTags;
+        if (fTags.length == 0) {
+            return null;
+        }
+        Map<String, Object> tags = fTagMap;
+        if (tags == null) {
+            tags = new HashMap<>();
+            for (int i = 0; i < fTags.length; i += 2) {
+                tags.put(fTags[i], fTags[i + 1]);
+            }
+            fTagMap = tags;
+        }
+        return tags;
+    }
+
+    /**
+     * Get the span logs
+     *
+     * @return the fields of the logs by timestamp, or <code>null</code> if the
+     *         span has no logs
+     */
+    public @Nullable Map<Long, Map<String, String>> getLogs() {
+        if (fLogTimestamps.length == 0) {
+            return null;
+        }
+        Map<Long, Map<String, String>> logs = new HashMap<>();
+        for (int i = 0; i < fLogTimestamps.length; i++) {
+            String[] fields = fLogFields[i];
+            Map<String, String> fieldMap = new HashMap<>();
+            for (int j = 0; j < fields.length; j += 2) {
+                fieldMap.put(fields[j], fields[j + 1]);
+            }
+            logs.put(fLogTimestamps[i], fieldMap);
+        }
+        return logs;
     }
 
     /**
@@ -306,7 +394,8 @@ public class OpenTracingField {
      */
     @Nullable
     public Map<String, Object> getProcessTags() {
-        return fProcessTags;
+        OpenTracingProcess process = fProcess;
+        return process == null ? null : process.getTags();
     }
 
     /**
@@ -315,6 +404,7 @@ public class OpenTracingField {
      * @return the process name
      */
     public String getProcessName() {
-        return fProcessName;
+        OpenTracingProcess process = fProcess;
+        return process == null ? "" : process.getServiceName(); //$NON-NLS-1$
     }
 }
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.event;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A process of an Open Tracing trace, shared by all the spans that reference
+ * it.
+ *
+ * @author agent
+ */
+public class OpenTracingProcess {
+
+    private static final Gson G_SON = new Gson();
+
+    private final String fServiceName;
+    private final @Nullable Map<String, Object> fTags;
+
+    private OpenTracingProcess(String serviceName, @Nullable Map<String, Object> tags) {
+        fServiceName = serviceName;
+        fTags = tags;
+    }
+
+    /**
+     * Get the service name of the process
+     *
+     * @return the service name, or an empty string if it is unknown
+     */
+    public String getServiceName() {
+        return fServiceName;
+    }
+
+    /**
+     * Get the process tags
+     *
+     * @return a map of the tags, or <code>null</code> if there are no tags
+     */
+    public @Nullable Map<String, Object> getTags() {
+        return fTags;
+    }
+
+    /**
+     * Table of the processes of a trace, by trace ID and process ID
+     */
+    public static class ProcessTable {
+
+        private final Map<String, Map<String, OpenTracingProcess>> fByTrace = new HashMap<>();
+        private Map<String, OpenTracingProcess> fDefault = Collections.emptyMap();
+
+        /**
+         * Get a process
+         *
+         * @param traceId
+         *            the ID of the trace of the span referencing the process
+         * @param processId
+         *            the process ID
+         * @return the process, or <code>null</code> if it is not in the table
+         */
+        public @Nullable OpenTracingProcess get(@Nullable String traceId, String processId) {
+            Map<String, OpenTracingProcess> processes = (traceId == null) ? null : fByTrace.get(traceId);
+            return (processes == null) ? fDefault.get(processId) : processes.get(processId);
+        }
+
+        private void add(@Nullable String traceId, Map<String, OpenTracingProcess> processes) {
+            if (fDefault.isEmpty()) {
+                fDefault = processes;
+            }
+            if (traceId != null) {
+                fByTrace.putIfAbsent(traceId, processes);
+            }
+        }
+    }
+
+    /**
+     * Read the processes of a Jaeger JSON export. The file is read in a
+     * streaming fashion and the spans are skipped, so only the processes are
+     * kept in memory.
+     *
+     * @param input
+     *            the reader of the JSON export
+     * @return the table of processes
+     * @throws IOException
+     *             Exceptions reading the file or invalid JSON
+     */
+    public static ProcessTable readProcesses(Reader input) throws IOException {
+        ProcessTable table = new ProcessTable();
+        try (JsonReader reader = new JsonReader(input)) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return table;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"data".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) { //$NON-NLS-1$
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readTraceProcesses(reader, table);
+                }
+                reader.endArray();
+            }
+        }
+        return table;
+    }
+
+    private static void readTraceProcesses(JsonReader reader, ProcessTable table) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        String traceId = null;
+        Map<String, OpenTracingProcess> processes = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (IOpenTracingConstants.TRACE_ID.equals(name) && reader.peek() == JsonToken.STRING) {
+                traceId = reader.nextString();
+            } else if ("processes".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) { //$NON-NLS-1$
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String processId = reader.nextName();
+                    processes.put(processId, read(reader));
+                }
+                reader.endObject();
+            } else {
+                // The spans are skipped without being materialized
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        table.add(traceId, processes);
+    }
+
+    private static OpenTracingProcess read(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return new OpenTracingProcess("", null); //$NON-NLS-1$
+        }
+        String serviceName = ""; //$NON-NLS-1$
+        List<String> tags = Collections.emptyList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (IOpenTracingConstants.SERVICE_NAME.equals(name) && reader.peek() == JsonToken.STRING) {
+                serviceName = reader.nextString();
+            } else if (IOpenTracingConstants.TAGS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                tags = readKeyValues(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        Map<String, Object> tagMap = new HashMap<>();
+        for (int i = 0; i < tags.size(); i += 2) {
+            tagMap.put(tags.get(i), tags.get(i + 1));
+        }
+        return new OpenTracingProcess(serviceName, tagMap.isEmpty() ? null : Collections.unmodifiableMap(tagMap));
+    }
+
+    /**
+     * Read an array of key/value objects, like the tags of a span or the
+     * fields of a log
+     *
+     * @param reader
+     *            the JSON reader, positioned at the beginning of the array
+     * @return the keys and values, one after the other
+     * @throws IOException
+     *             Exceptions reading the JSON
+     */
+    static List<String> readKeyValues(JsonReader reader) throws IOException {
+        List<String> keyValues = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String key = null;
+            String value = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (IOpenTracingConstants.KEY.equals(name)) {
+                    key = readValue(reader);
+                } else if (IOpenTracingConstants.VALUE.equals(name)) {
+                    value = readValue(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (key == null || value == null) {
+                throw new IllegalStateException("Missing key or value"); //$NON-NLS-1$
+            }
+            keyValues.add(key);
+            keyValues.add(value);
+        }
+        reader.endArray();
+        return keyValues;
+    }
+
+    /**
+     * Read a value as a string. Primitives are read as is, other values are
+     * read as their JSON string.
+     *
+     * @param reader
+     *            the JSON reader
+     * @return the value
+     * @throws IOException
+     *             Exceptions reading the JSON
+     */
+    static String readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+        case STRING:
+        case NUMBER:
+            return reader.nextString();
+        case BOOLEAN:
+            return String.valueOf(reader.nextBoolean());
+        case BEGIN_ARRAY:
+        case BEGIN_OBJECT:
+        case NULL:
+            JsonElement element = G_SON.fromJson(reader, JsonElement.class);
+            return String.valueOf(element);
+        case END_ARRAY:
+        case END_DOCUMENT:
+        case END_OBJECT:
+        case NAME:
+        default:
+            throw new IllegalStateException("Unexpected token " + reader.peek()); //$NON-NLS-1$
+        }
+    }
+}
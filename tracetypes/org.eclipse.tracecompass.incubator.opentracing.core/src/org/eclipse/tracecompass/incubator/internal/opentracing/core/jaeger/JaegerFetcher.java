@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.Activator;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Fetches traces from a Jaeger query API. A search is split in pages of its
+ * time range that are downloaded concurrently and streamed to disk, then each
+ * page is split in one file per trace, so no response is ever held in memory
+ * entirely.
+ *
+ * The fetcher only depends on the JDK, so it can be used from the UI, scripts
+ * or the trace server alike.
+ *
+ * @author agent
+ */
+public class JaegerFetcher {
+
+    /** Default number of concurrent downloads */
+    public static final int DEFAULT_NB_THREADS = 4;
+
+    private static final String SERVICES_ENDPOINT = "/services"; //$NON-NLS-1$
+    private static final String PAGE_PREFIX = "page-"; //$NON-NLS-1$
+    private static final String JSON_EXTENSION = ".json"; //$NON-NLS-1$
+    private static final String TOTAL_KEY = "total"; //$NON-NLS-1$
+    private static final String LIMIT_KEY = "limit"; //$NON-NLS-1$
+    private static final String OFFSET_KEY = "offset"; //$NON-NLS-1$
+    private static final String ERRORS_KEY = "errors"; //$NON-NLS-1$
+    private static final Pattern TRACE_ID_PATTERN = Pattern.compile("[0-9A-Za-z_-]+"); //$NON-NLS-1$
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 60000;
+
+    private static final Gson G_SON = new Gson();
+
+    private final String fBaseUrl;
+    private final int fNbThreads;
+
+    /**
+     * Constructor
+     *
+     * @param baseUrl
+     *            the base URL of the Jaeger API, like
+     *            <code>http://localhost:16686/api</code>
+     * @param nbThreads
+     *            the maximum number of concurrent downloads
+     */
+    public JaegerFetcher(String baseUrl, int nbThreads) {
+        fBaseUrl = baseUrl;
+        fNbThreads = Math.max(1, nbThreads);
+    }
+
+    /**
+     * Verify the connection with the API
+     *
+     * @return <code>true</code> if the API answers
+     */
+    public boolean checkConnection() {
+        try {
+            HttpURLConnection connection = open(fBaseUrl + SERVICES_ENDPOINT);
+            try {
+                return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Fetch the names of the services available in Jaeger
+     *
+     * @return the service names
+     * @throws IOException
+     *             Exceptions connecting to the API or invalid response
+     */
+    public List<String> fetchServices() throws IOException {
+        HttpURLConnection connection = open(fBaseUrl + SERVICES_ENDPOINT);
+        List<String> services = new ArrayList<>();
+        try (Reader input = new InputStreamReader(getInputStream(connection), StandardCharsets.UTF_8)) {
+            JsonReader reader = new JsonReader(input);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!JaegerTraceInfo.DATA_KEY.equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    services.add(reader.nextString());
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        } finally {
+            connection.disconnect();
+        }
+        return services;
+    }
+
+    /**
+     * Fetch the traces of a query. The query is split in pages that are
+     * downloaded concurrently, then each trace is written to its own file in
+     * the destination directory, named after its ID. A trace returned by many
+     * pages is only written once.
+     *
+     * @param query
+     *            the query
+     * @param nbPages
+     *            the number of pages in which to split the time range of the
+     *            query
+     * @param directory
+     *            the destination directory, created if needed
+     * @param monitor
+     *            the progress monitor
+     * @return the summaries of the fetched traces, in the order of the pages.
+     *         If the fetch is cancelled, the traces fetched so far are
+     *         returned. The downloaded pages are deleted in any case.
+     * @throws IOException
+     *             Exceptions downloading a page or writing the files
+     */
+    public List<JaegerTraceInfo> fetch(JaegerQuery query, int nbPages, Path directory, IProgressMonitor monitor) throws IOException {
+        Files.createDirectories(directory);
+        List<JaegerQuery> pages = query.split(nbPages);
+        SubMonitor subMonitor = SubMonitor.convert(monitor, pages.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(fNbThreads, pages.size()));
+        List<Future<Path>> downloads = new ArrayList<>();
+        List<Path> pageFiles = new ArrayList<>();
+        AtomicBoolean finished = new AtomicBoolean(false);
+        for (int i = 0; i < pages.size(); i++) {
+            String url = pages.get(i).toUrl(fBaseUrl);
+            Path page = directory.resolve(PAGE_PREFIX + i + JSON_EXTENSION);
+            pageFiles.add(page);
+            downloads.add(executor.submit(() -> download(url, page, finished)));
+        }
+        executor.shutdown();
+
+        // The pages are split as soon as they are downloaded, while the next ones are still downloading
+        List<JaegerTraceInfo> traces = new ArrayList<>();
+        Set<String> traceIds = new HashSet<>();
+        try {
+            for (Future<Path> download : downloads) {
+                if (subMonitor.isCanceled()) {
+                    break;
+                }
+                Path page = download.get();
+                try {
+                    JaegerTraceInfo.readTraces(page, index -> true, (index, trace) -> {
+                        JaegerTraceInfo info = writeTrace(trace, directory, traceIds);
+                        if (info != null) {
+                            traces.add(info);
+                        }
+                    });
+                } finally {
+                    Files.deleteIfExists(page);
+                }
+                subMonitor.worked(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            finished.set(true);
+            executor.shutdownNow();
+            for (Path page : pageFiles) {
+                deletePage(page);
+            }
+        }
+        return traces;
+    }
+
+    private static Path download(String url, Path destination, AtomicBoolean finished) throws IOException {
+        HttpURLConnection connection = open(url);
+        try (InputStream input = getInputStream(connection)) {
+            Files.copy(input, destination, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(destination);
+            throw e;
+        } finally {
+            connection.disconnect();
+        }
+        // The fetch was cancelled or failed while this page was downloading
+        if (finished.get()) {
+            Files.deleteIfExists(destination);
+        }
+        return destination;
+    }
+
+    private static void deletePage(Path page) {
+        try {
+            Files.deleteIfExists(page);
+        } catch (IOException e) {
+            // A page still being written is deleted by its download when done
+            Activator.getInstance().logWarning("Could not delete Jaeger page " + page, e); //$NON-NLS-1$
+        }
+    }
+
+    private static @Nullable JaegerTraceInfo writeTrace(JsonObject trace, Path directory, Set<String> traceIds) throws IOException {
+        JaegerTraceInfo info = JaegerTraceInfo.fromJson(trace);
+        if (info == null || !traceIds.add(info.getTraceId())) {
+            return null;
+        }
+        // The ID comes from the server and is used as a file name
+        if (!TRACE_ID_PATTERN.matcher(info.getTraceId()).matches()) {
+            Activator.getInstance().logWarning("Ignoring Jaeger trace with invalid ID " + info.getTraceId()); //$NON-NLS-1$
+            return null;
+        }
+        // Same layout as a Jaeger response, with a single trace
+        try (BufferedWriter output = Files.newBufferedWriter(directory.resolve(info.getTraceId() + JSON_EXTENSION), StandardCharsets.UTF_8);
+                JsonWriter writer = new JsonWriter(output)) {
+            JsonArray data = new JsonArray();
+            data.add(trace);
+            writer.beginObject();
+            writer.name(JaegerTraceInfo.DATA_KEY);
+            G_SON.toJson(data, writer);
+            writer.name(TOTAL_KEY).value(0);
+            writer.name(LIMIT_KEY).value(0);
+            writer.name(OFFSET_KEY).value(0);
+            writer.name(ERRORS_KEY).nullValue();
+            writer.endObject();
+        }
+        return info;
+    }
+
+    private static HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestProperty("Accept", "application/json"); //$NON-NLS-1$ //$NON-NLS-2$
+        return connection;
+    }
+
+    private static InputStream getInputStream(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        if (code != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Jaeger request " + connection.getURL() + " failed with HTTP status " + code); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return connection.getInputStream();
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Parameters of a search for traces with the Jaeger query API. The query can
+ * be split in pages covering consecutive parts of its time range, to fetch
+ * them concurrently.
+ *
+ * @author agent
+ */
+public class JaegerQuery {
+
+    /** Parameter of the service name */
+    static final String SERVICE = "service"; //$NON-NLS-1$
+    /** Parameter of the search start time, in microseconds */
+    static final String START = "start"; //$NON-NLS-1$
+    /** Parameter of the search end time, in microseconds */
+    static final String END = "end"; //$NON-NLS-1$
+    /** Parameter of the maximum number of traces */
+    static final String LIMIT = "limit"; //$NON-NLS-1$
+    /** Parameter of the minimum span duration */
+    static final String MIN_DURATION = "minDuration"; //$NON-NLS-1$
+    /** Parameter of the maximum span duration */
+    static final String MAX_DURATION = "maxDuration"; //$NON-NLS-1$
+    /** Parameter of the span tags, as a JSON object */
+    static final String TAGS = "tags"; //$NON-NLS-1$
+
+    private static final String TRACES_ENDPOINT = "/traces"; //$NON-NLS-1$
+
+    private final String fService;
+    private final long fStart;
+    private final long fEnd;
+    private final int fLimit;
+    private @Nullable String fMinDuration = null;
+    private @Nullable String fMaxDuration = null;
+    private @Nullable String fTags = null;
+
+    /**
+     * Constructor
+     *
+     * @param service
+     *            the name of the service of the traces
+     * @param start
+     *            the search start time, in microseconds since the epoch
+     * @param end
+     *            the search end time, in microseconds since the epoch
+     * @param limit
+     *            the maximum number of traces to return. When the query is
+     *            split in pages, the limit applies to each page.
+     */
+    public JaegerQuery(String service, long start, long end, int limit) {
+        fService = service;
+        fStart = start;
+        fEnd = end;
+        fLimit = limit;
+    }
+
+    /**
+     * Set the span duration filters, with the Jaeger duration syntax, like
+     * <code>100ms</code> or <code>1.5s</code>
+     *
+     * @param minDuration
+     *            the minimum duration, or <code>null</code> for no minimum
+     * @param maxDuration
+     *            the maximum duration, or <code>null</code> for no maximum
+     * @return this query
+     */
+    public JaegerQuery setDurations(@Nullable String minDuration, @Nullable String maxDuration) {
+        fMinDuration = minDuration;
+        fMaxDuration = maxDuration;
+        return this;
+    }
+
+    /**
+     * Set the span tags filter
+     *
+     * @param tags
+     *            the tags, as a JSON object of keys and values, or
+     *            <code>null</code> for no tags filter
+     * @return this query
+     */
+    public JaegerQuery setTags(@Nullable String tags) {
+        fTags = tags;
+        return this;
+    }
+
+    /**
+     * Get the search start time
+     *
+     * @return the start time, in microseconds since the epoch
+     */
+    public long getStart() {
+        return fStart;
+    }
+
+    /**
+     * Get the search end time
+     *
+     * @return the end time, in microseconds since the epoch
+     */
+    public long getEnd() {
+        return fEnd;
+    }
+
+    /**
+     * Split this query in pages of consecutive time ranges, with the same
+     * filters
+     *
+     * @param nbPages
+     *            the number of pages
+     * @return the queries of the pages, at most one per microsecond of the
+     *         time range
+     */
+    public List<JaegerQuery> split(int nbPages) {
+        long range = Math.max(1, fEnd - fStart);
+        int pages = (int) Math.max(1, Math.min(nbPages, range));
+        List<JaegerQuery> queries = new ArrayList<>(pages);
+        long pageStart = fStart;
+        for (int i = 1; i <= pages; i++) {
+            // The ranges are inclusive, so the next page starts one microsecond later
+            long pageEnd = (i == pages) ? fEnd : fStart + range * i / pages;
+            JaegerQuery query = new JaegerQuery(fService, pageStart, pageEnd, fLimit);
+            query.setDurations(fMinDuration, fMaxDuration).setTags(fTags);
+            queries.add(query);
+            pageStart = pageEnd + 1;
+        }
+        return queries;
+    }
+
+    /**
+     * Build the URL of this query
+     *
+     * @param baseUrl
+     *            the base URL of the Jaeger API, like
+     *            <code>http://localhost:16686/api</code>
+     * @return the URL to fetch the traces
+     */
+    public String toUrl(String baseUrl) {
+        StringBuilder url = new StringBuilder(baseUrl).append(TRACES_ENDPOINT);
+        url.append('?').append(SERVICE).append('=').append(encode(fService));
+        url.append('&').append(START).append('=').append(fStart);
+        url.append('&').append(END).append('=').append(fEnd);
+        url.append('&').append(LIMIT).append('=').append(fLimit);
+        appendOptional(url, MIN_DURATION, fMinDuration);
+        appendOptional(url, MAX_DURATION, fMaxDuration);
+        appendOptional(url, TAGS, fTags);
+        return url.toString();
+    }
+
+    private static void appendOptional(StringBuilder url, String key, @Nullable String value) {
+        if (value != null && !value.isEmpty()) {
+            url.append('&').append(key).append('=').append(encode(value));
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+}
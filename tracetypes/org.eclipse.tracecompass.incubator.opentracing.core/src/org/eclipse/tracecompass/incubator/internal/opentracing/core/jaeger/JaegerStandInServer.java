@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenTracingConstants;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A local stand-in for the Jaeger query API, that serves the traces of the
+ * Jaeger JSON exports of a directory. It answers the
+ * <code>/api/services</code>, <code>/api/traces</code> and
+ * <code>/api/traces/{traceID}</code> requests, so the fetch of traces can be
+ * used in tests and offline environments.
+ *
+ * Only a summary of each trace is kept in memory. The files are read again to
+ * answer a request, the traces are parsed and written to the response one at a
+ * time.
+ *
+ * @author agent
+ */
+public class JaegerStandInServer implements AutoCloseable {
+
+    private static final String API_PATH = "/api"; //$NON-NLS-1$
+    private static final String SERVICES_PATH = API_PATH + "/services"; //$NON-NLS-1$
+    private static final String TRACES_PATH = API_PATH + "/traces"; //$NON-NLS-1$
+    private static final Pattern REQUEST_LINE = Pattern.compile("GET (/[^ ?]*)(?:\\?([^ ]*))? HTTP/1\\.[01]"); //$NON-NLS-1$
+    private static final Pattern DURATION = Pattern.compile("(\\d+(?:\\.\\d+)?)(ns|us|\\u00b5s|ms|s|m|h)"); //$NON-NLS-1$
+    private static final int NB_THREADS = 4;
+
+    private static final Gson G_SON = new Gson();
+
+    private final ServerSocket fSocket;
+    private final ExecutorService fExecutor = Executors.newFixedThreadPool(NB_THREADS);
+    private final List<IndexEntry> fEntries;
+    private final Set<String> fServices = new TreeSet<>();
+
+    /**
+     * A trace of the directory, with what is needed to filter it
+     */
+    private static class IndexEntry {
+        private final JaegerTraceInfo fInfo;
+        private final Path fFile;
+        private final int fIndex;
+        private final long[] fDurations;
+        private final Set<String> fTags;
+
+        public IndexEntry(JaegerTraceInfo info, Path file, int index, long[] durations, Set<String> tags) {
+            fInfo = info;
+            fFile = file;
+            fIndex = index;
+            fDurations = durations;
+            fTags = tags;
+        }
+    }
+
+    private JaegerStandInServer(ServerSocket socket, List<IndexEntry> entries) {
+        fSocket = socket;
+        fEntries = entries;
+        for (IndexEntry entry : entries) {
+            fServices.addAll(entry.fInfo.getServices());
+        }
+    }
+
+    /**
+     * Index the traces of a directory and start serving them on the loopback
+     * interface
+     *
+     * @param directory
+     *            the directory of the Jaeger JSON files, with the
+     *            <code>.json</code> extension
+     * @param port
+     *            the port to listen to, or 0 to use any free port
+     * @return the started server
+     * @throws IOException
+     *             Exceptions reading the files or opening the socket
+     */
+    public static JaegerStandInServer start(Path directory, int port) throws IOException {
+        List<IndexEntry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) { //$NON-NLS-1$
+            for (Path file : files) {
+                try {
+                    JaegerTraceInfo.readTraces(file, index -> true, (index, trace) -> {
+                        IndexEntry entry = index(file, index, trace);
+                        if (entry != null) {
+                            entries.add(entry);
+                        }
+                    });
+                } catch (IOException | JsonParseException | IllegalStateException e) {
+                    Activator.getInstance().logWarning("Ignoring invalid Jaeger file " + file, e); //$NON-NLS-1$
+                }
+            }
+        }
+        // Like Jaeger, the most recent traces come first
+        entries.sort(Comparator.comparingLong((IndexEntry entry) -> entry.fInfo.getStartTime()).reversed());
+
+        JaegerStandInServer server = new JaegerStandInServer(new ServerSocket(port, 0, InetAddress.getLoopbackAddress()), entries);
+        Thread acceptThread = new Thread(server::accept, "Jaeger stand-in server"); //$NON-NLS-1$
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return server;
+    }
+
+    /**
+     * Get the base URL of the API served
+     *
+     * @return the base URL, to use with a {@link JaegerFetcher}
+     */
+    public String getBaseUrl() {
+        return "http://" + fSocket.getInetAddress().getHostAddress() + ':' + fSocket.getLocalPort() + API_PATH; //$NON-NLS-1$
+    }
+
+    /**
+     * Get the number of traces served
+     *
+     * @return the number of traces
+     */
+    public int getNbTraces() {
+        return fEntries.size();
+    }
+
+    @Override
+    public void close() {
+        try {
+            fSocket.close();
+        } catch (IOException e) {
+            // Nothing to do, the server is stopped anyway
+        }
+        fExecutor.shutdownNow();
+    }
+
+    private static @Nullable IndexEntry index(Path file, int index, JsonObject trace) {
+        JaegerTraceInfo info = JaegerTraceInfo.fromJson(trace);
+        if (info == null) {
+            return null;
+        }
+        List<Long> durations = new ArrayList<>();
+        Set<String> tags = new HashSet<>();
+        JsonElement spans = trace.get(JaegerTraceInfo.SPANS_KEY);
+        if (spans != null && spans.isJsonArray()) {
+            for (JsonElement spanElement : spans.getAsJsonArray()) {
+                if (!spanElement.isJsonObject()) {
+                    continue;
+                }
+                JsonObject span = spanElement.getAsJsonObject();
+                durations.add(JaegerTraceInfo.getLong(span, IOpenTracingConstants.DURATION));
+                JsonElement spanTags = span.get(IOpenTracingConstants.TAGS);
+                if (spanTags == null || !spanTags.isJsonArray()) {
+                    continue;
+                }
+                for (JsonElement tag : spanTags.getAsJsonArray()) {
+                    if (tag.isJsonObject()) {
+                        tags.add(JaegerTraceInfo.getString(tag.getAsJsonObject(), IOpenTracingConstants.KEY) + '=' + JaegerTraceInfo.getString(tag.getAsJsonObject(), IOpenTracingConstants.VALUE));
+                    }
+                }
+            }
+        }
+        return new IndexEntry(info, file, index, durations.stream().mapToLong(Long::longValue).toArray(), tags);
+    }
+
+    private void accept() {
+        while (!fSocket.isClosed()) {
+            try {
+                Socket client = fSocket.accept();
+                fExecutor.execute(() -> handle(client));
+            } catch (SocketException e) {
+                // The server was closed
+                return;
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Jaeger stand-in server error", e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client;
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                Writer output = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String requestLine = reader.readLine();
+            // Skip the headers, the requests have no body
+            String header = reader.readLine();
+            while (header != null && !header.isEmpty()) {
+                header = reader.readLine();
+            }
+            Matcher matcher = REQUEST_LINE.matcher(requestLine == null ? "" : requestLine); //$NON-NLS-1$
+            if (!matcher.matches()) {
+                writeStatus(output, "400 Bad Request"); //$NON-NLS-1$
+                return;
+            }
+            String path = Objects.requireNonNull(matcher.group(1));
+            if (SERVICES_PATH.equals(path)) {
+                writeStatus(output, "200 OK"); //$NON-NLS-1$
+                writeServices(output);
+            } else if (TRACES_PATH.equals(path)) {
+                List<IndexEntry> entries;
+                try {
+                    // Malformed escapes in the query are bad requests too
+                    entries = search(parseParameters(matcher.group(2)));
+                } catch (IllegalArgumentException e) {
+                    writeStatus(output, "400 Bad Request"); //$NON-NLS-1$
+                    return;
+                }
+                writeStatus(output, "200 OK"); //$NON-NLS-1$
+                writeTraces(output, entries);
+            } else if (path.startsWith(TRACES_PATH + '/')) {
+                String traceId = path.substring(TRACES_PATH.length() + 1);
+                List<IndexEntry> entries = new ArrayList<>();
+                for (IndexEntry entry : fEntries) {
+                    if (entry.fInfo.getTraceId().equals(traceId)) {
+                        entries.add(entry);
+                        break;
+                    }
+                }
+                writeStatus(output, entries.isEmpty() ? "404 Not Found" : "200 OK"); //$NON-NLS-1$ //$NON-NLS-2$
+                writeTraces(output, entries);
+            } else {
+                writeStatus(output, "404 Not Found"); //$NON-NLS-1$
+            }
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Jaeger stand-in server could not answer a request", e); //$NON-NLS-1$
+        }
+    }
+
+    private List<IndexEntry> search(Map<String, String> parameters) {
+        String service = parameters.get(JaegerQuery.SERVICE);
+        long start = parseLong(parameters.get(JaegerQuery.START), Long.MIN_VALUE);
+        long end = parseLong(parameters.get(JaegerQuery.END), Long.MAX_VALUE);
+        long limit = parseLong(parameters.get(JaegerQuery.LIMIT), 0);
+        long minDuration = parseDuration(parameters.get(JaegerQuery.MIN_DURATION), 0);
+        long maxDuration = parseDuration(parameters.get(JaegerQuery.MAX_DURATION), Long.MAX_VALUE);
+        Set<String> tags = parseTags(parameters.get(JaegerQuery.TAGS));
+
+        List<IndexEntry> entries = new ArrayList<>();
+        for (IndexEntry entry : fEntries) {
+            if (limit > 0 && entries.size() >= limit) {
+                break;
+            }
+            JaegerTraceInfo info = entry.fInfo;
+            if ((service != null && !service.isEmpty() && !info.getServices().contains(service))
+                    || info.getStartTime() > end || info.getEndTime() < start
+                    || !entry.fTags.containsAll(tags)) {
+                continue;
+            }
+            for (long duration : entry.fDurations) {
+                if (duration >= minDuration && duration <= maxDuration) {
+                    entries.add(entry);
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void writeServices(Writer output) throws IOException {
+        JsonWriter writer = new JsonWriter(output);
+        writer.beginObject();
+        writer.name(JaegerTraceInfo.DATA_KEY).beginArray();
+        for (String service : fServices) {
+            writer.value(service);
+        }
+        writer.endArray();
+        writer.name("total").value(fServices.size()); //$NON-NLS-1$
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void writeTraces(Writer output, List<IndexEntry> entries) throws IOException {
+        // Read each file once, keeping the order of the entries within a file
+        Map<Path, Set<Integer>> byFile = new LinkedHashMap<>();
+        for (IndexEntry entry : entries) {
+            Set<Integer> indexes = byFile.get(entry.fFile);
+            if (indexes == null) {
+                indexes = new HashSet<>();
+                byFile.put(entry.fFile, indexes);
+            }
+            indexes.add(entry.fIndex);
+        }
+        JsonWriter writer = new JsonWriter(output);
+        writer.beginObject();
+        writer.name(JaegerTraceInfo.DATA_KEY).beginArray();
+        for (Map.Entry<Path, Set<Integer>> file : byFile.entrySet()) {
+            Set<Integer> indexes = file.getValue();
+            JaegerTraceInfo.readTraces(file.getKey(), indexes::contains, (index, trace) -> G_SON.toJson(trace, writer));
+        }
+        writer.endArray();
+        writer.name("total").value(entries.size()); //$NON-NLS-1$
+        writer.name("limit").value(0); //$NON-NLS-1$
+        writer.name("offset").value(0); //$NON-NLS-1$
+        writer.name("errors").nullValue(); //$NON-NLS-1$
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void writeStatus(Writer output, String status) throws IOException {
+        // Without a content length, the end of the response is the end of the connection
+        output.write("HTTP/1.1 " + status + "\r\nContent-Type: application/json\r\nConnection: close\r\n\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static Map<String, String> parseParameters(@Nullable String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) { //$NON-NLS-1$
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                String name = URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8.name());
+                parameters.put(name, URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8.name()));
+            }
+        }
+        return parameters;
+    }
+
+    private static long parseLong(@Nullable String value, long defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        // An invalid value throws a NumberFormatException, answered as a bad request
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Parse a duration with the Jaeger syntax, like <code>1.5s</code>, to
+     * microseconds, the unit of the span durations
+     */
+    private static long parseDuration(@Nullable String value, long defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        Matcher matcher = DURATION.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration " + value); //$NON-NLS-1$
+        }
+        double amount = Double.parseDouble(matcher.group(1));
+        switch (matcher.group(2)) {
+        case "ns": //$NON-NLS-1$
+            return (long) (amount / 1000);
+        case "ms": //$NON-NLS-1$
+            return (long) (amount * 1000);
+        case "s": //$NON-NLS-1$
+            return (long) (amount * 1000000);
+        case "m": //$NON-NLS-1$
+            return (long) (amount * 60000000);
+        case "h": //$NON-NLS-1$
+            return (long) (amount * 3600000000L);
+        default:
+            // Microseconds
+            return (long) amount;
+        }
+    }
+
+    private static Set<String> parseTags(@Nullable String value) {
+        Set<String> tags = new HashSet<>();
+        if (value == null || value.isEmpty()) {
+            return tags;
+        }
+        try {
+            JsonObject object = G_SON.fromJson(value, JsonObject.class);
+            for (Map.Entry<String, JsonElement> tag : object.entrySet()) {
+                JsonElement tagValue = tag.getValue();
+                tags.add(tag.getKey() + '=' + (tagValue.isJsonPrimitive() ? tagValue.getAsString() : String.valueOf(tagValue)));
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IllegalArgumentException("Invalid tags " + value, e); //$NON-NLS-1$
+        }
+        return tags;
+    }
+}
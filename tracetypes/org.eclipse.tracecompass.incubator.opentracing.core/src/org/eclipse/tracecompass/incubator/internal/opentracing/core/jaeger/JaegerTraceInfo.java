@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenTracingConstants;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Summary of a trace of a Jaeger JSON export, to present the trace before
+ * opening it
+ *
+ * @author agent
+ */
+public class JaegerTraceInfo {
+
+    /** Key of the traces array in Jaeger responses */
+    static final String DATA_KEY = "data"; //$NON-NLS-1$
+    /** Key of the spans array of a trace */
+    static final String SPANS_KEY = "spans"; //$NON-NLS-1$
+    /** Key of the processes object of a trace */
+    static final String PROCESSES_KEY = "processes"; //$NON-NLS-1$
+
+    private static final Gson G_SON = new Gson();
+
+    private final String fTraceId;
+    private final String fFirstSpanName;
+    private final int fNbSpans;
+    private final List<String> fServices;
+    private final long fStartTime;
+    private final long fEndTime;
+
+    /**
+     * Visitor of the traces of a Jaeger JSON export
+     */
+    @FunctionalInterface
+    interface ITraceVisitor {
+        /**
+         * Visit a trace
+         *
+         * @param index
+         *            the index of the trace in the data array
+         * @param trace
+         *            the trace object
+         * @throws IOException
+         *             Exceptions handling the trace
+         */
+        void visit(int index, JsonObject trace) throws IOException;
+    }
+
+    private JaegerTraceInfo(String traceId, String firstSpanName, int nbSpans, List<String> services, long startTime, long endTime) {
+        fTraceId = traceId;
+        fFirstSpanName = firstSpanName;
+        fNbSpans = nbSpans;
+        fServices = services;
+        fStartTime = startTime;
+        fEndTime = endTime;
+    }
+
+    /**
+     * Get the trace ID
+     *
+     * @return the trace ID
+     */
+    public String getTraceId() {
+        return fTraceId;
+    }
+
+    /**
+     * Get the operation name of the first span of the trace
+     *
+     * @return the operation name, or an empty string if there are no spans
+     */
+    public String getFirstSpanName() {
+        return fFirstSpanName;
+    }
+
+    /**
+     * Get the number of spans of the trace
+     *
+     * @return the number of spans
+     */
+    public int getNbSpans() {
+        return fNbSpans;
+    }
+
+    /**
+     * Get the names of the services of the trace
+     *
+     * @return the service names, in alphabetical order
+     */
+    public List<String> getServices() {
+        return fServices;
+    }
+
+    /**
+     * Get the start time of the first span
+     *
+     * @return the start time, in microseconds since the epoch
+     */
+    public long getStartTime() {
+        return fStartTime;
+    }
+
+    /**
+     * Get the end time of the last span
+     *
+     * @return the end time, in microseconds since the epoch
+     */
+    public long getEndTime() {
+        return fEndTime;
+    }
+
+    /**
+     * Summarize a trace object of a Jaeger JSON export
+     *
+     * @param trace
+     *            the trace object, with its spans and processes
+     * @return the summary, or <code>null</code> if the trace has no ID
+     */
+    public static @Nullable JaegerTraceInfo fromJson(JsonObject trace) {
+        String traceId = getString(trace, IOpenTracingConstants.TRACE_ID);
+        if (traceId == null) {
+            return null;
+        }
+        Map<String, String> processes = new HashMap<>();
+        JsonElement processesElement = trace.get(PROCESSES_KEY);
+        if (processesElement != null && processesElement.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> process : processesElement.getAsJsonObject().entrySet()) {
+                String serviceName = process.getValue().isJsonObject() ? getString(process.getValue().getAsJsonObject(), IOpenTracingConstants.SERVICE_NAME) : null;
+                if (serviceName != null) {
+                    processes.put(process.getKey(), serviceName);
+                }
+            }
+        }
+
+        TreeSet<String> services = new TreeSet<>();
+        String firstSpanName = ""; //$NON-NLS-1$
+        int nbSpans = 0;
+        long startTime = Long.MAX_VALUE;
+        long endTime = Long.MIN_VALUE;
+        JsonElement spansElement = trace.get(SPANS_KEY);
+        JsonArray spans = (spansElement != null && spansElement.isJsonArray()) ? spansElement.getAsJsonArray() : new JsonArray();
+        for (JsonElement spanElement : spans) {
+            if (!spanElement.isJsonObject()) {
+                continue;
+            }
+            JsonObject span = spanElement.getAsJsonObject();
+            nbSpans++;
+            long spanStart = getLong(span, IOpenTracingConstants.START_TIME);
+            if (spanStart < startTime) {
+                startTime = spanStart;
+                String operation = getString(span, IOpenTracingConstants.OPERATION_NAME);
+                firstSpanName = (operation == null) ? "" : operation; //$NON-NLS-1$
+            }
+            endTime = Math.max(endTime, spanStart + getLong(span, IOpenTracingConstants.DURATION));
+            String processId = getString(span, IOpenTracingConstants.PROCESS_ID);
+            String service = (processId == null) ? null : processes.get(processId);
+            if (service != null) {
+                services.add(service);
+            }
+        }
+        if (nbSpans == 0) {
+            startTime = 0;
+            endTime = 0;
+        }
+        return new JaegerTraceInfo(traceId, firstSpanName, nbSpans, Collections.unmodifiableList(new ArrayList<>(services)), startTime, endTime);
+    }
+
+    /**
+     * Read the traces of a Jaeger JSON export one at a time. Only the wanted
+     * traces are parsed, the others are skipped, so only one trace is in
+     * memory at any time.
+     *
+     * @param file
+     *            the Jaeger JSON file
+     * @param wanted
+     *            whether the trace at an index of the data array should be
+     *            visited
+     * @param visitor
+     *            the visitor of the wanted traces
+     * @throws IOException
+     *             Exceptions reading the file or invalid JSON
+     */
+    static void readTraces(Path file, IntPredicate wanted, ITraceVisitor visitor) throws IOException {
+        try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            readTraces(input, wanted, visitor);
+        }
+    }
+
+    /**
+     * Read the traces of a Jaeger JSON export one at a time
+     *
+     * @param input
+     *            the reader of the JSON export
+     * @param wanted
+     *            whether the trace at an index of the data array should be
+     *            visited
+     * @param visitor
+     *            the visitor of the wanted traces
+     * @throws IOException
+     *             Exceptions reading the input or invalid JSON
+     */
+    static void readTraces(Reader input, IntPredicate wanted, ITraceVisitor visitor) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!DATA_KEY.equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            int index = 0;
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonToken.BEGIN_OBJECT && wanted.test(index)) {
+                    JsonObject trace = G_SON.fromJson(reader, JsonObject.class);
+                    visitor.visit(index, trace);
+                } else {
+                    reader.skipValue();
+                }
+                index++;
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+    }
+
+    static @Nullable String getString(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return (element != null && element.isJsonPrimitive()) ? element.getAsString() : null;
+    }
+
+    static long getLong(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        if (element == null || !element.isJsonPrimitive()) {
+            return 0;
+        }
+        try {
+            return element.getAsLong();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
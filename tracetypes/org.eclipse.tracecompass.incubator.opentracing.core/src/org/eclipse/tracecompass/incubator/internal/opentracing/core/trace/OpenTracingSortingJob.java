@@ -16,14 +16,15 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.internal.jsontrace.core.job.SortingJob;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Sorting job particular to open tracing that has a list of processes after the
@@ -51,9 +52,10 @@ public class OpenTracingSortingJob extends SortingJob {
         try (FileReader fileReader = new FileReader(getPath())) {
             try (JsonReader reader = new JsonReader(fileReader);) {
                 Gson gson = new Gson();
-                JsonObject object = gson.fromJson(reader, JsonObject.class);
-                JsonElement jsonTrace = object.get("data").getAsJsonArray().get(0); //$NON-NLS-1$
-                JsonObject jsonProcesses = jsonTrace.getAsJsonObject().get("processes").getAsJsonObject(); //$NON-NLS-1$
+                JsonObject jsonProcesses = readFirstProcesses(gson, reader);
+                if (jsonProcesses == null) {
+                    return;
+                }
                 JsonArray processes = new JsonArray();
                 processes.add(jsonProcesses);
 
@@ -69,4 +71,31 @@ public class OpenTracingSortingJob extends SortingJob {
         }
     }
 
+    /**
+     * Get the processes of the first trace of the data, without reading the
+     * spans in memory
+     */
+    private static @Nullable JsonObject readFirstProcesses(Gson gson, JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"data".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) { //$NON-NLS-1$
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            if (!reader.hasNext()) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("processes".equals(reader.nextName())) { //$NON-NLS-1$
+                    return gson.fromJson(reader, JsonObject.class);
+                }
+                reader.skipValue();
+            }
+            return null;
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.trace;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+
+/**
+ * Index of the spans of an Open Tracing trace, by trace ID and span ID. The
+ * spans are kept in primitive arrays sorted by trace ID, then by span ID, so
+ * a span is found by binary search. The spans of a trace are contiguous, and
+ * the trace IDs index gives the range of spans of each trace.
+ *
+ * Span IDs are expected to be 64 bits hexadecimal numbers, spans with other
+ * IDs are not indexed.
+ *
+ * @author agent
+ */
+public class OpenTracingSpanIndex {
+
+    private static final int VERSION = 1;
+
+    /* Sorted trace IDs, and for each, the position of its first span */
+    private final String[] fTraceIds;
+    private final int[] fTraceStarts;
+    private final long[] fTraceStartTimes;
+    private final long[] fTraceEndTimes;
+
+    /* Spans, sorted by trace, then by unsigned span ID */
+    private final long[] fSpanIds;
+    private final long[] fRanks;
+    private final long[] fTimes;
+
+    private OpenTracingSpanIndex(String[] traceIds, int[] traceStarts, long[] traceStartTimes, long[] traceEndTimes, long[] spanIds, long[] ranks, long[] times) {
+        fTraceIds = traceIds;
+        fTraceStarts = traceStarts;
+        fTraceStartTimes = traceStartTimes;
+        fTraceEndTimes = traceEndTimes;
+        fSpanIds = spanIds;
+        fRanks = ranks;
+        fTimes = times;
+    }
+
+    /**
+     * Builder of the span index. The spans can be added in any order, each
+     * rank is only added once.
+     */
+    public static class Builder {
+
+        private static final int INITIAL_SIZE = 1024;
+
+        private final Map<String, Integer> fTraceIdMap = new HashMap<>();
+        private final List<String> fTraceIdList = new ArrayList<>();
+        private int[] fTraces = new int[INITIAL_SIZE];
+        private long[] fSpanIds = new long[INITIAL_SIZE];
+        private long[] fTimes = new long[INITIAL_SIZE];
+        private long[] fEndTimes = new long[INITIAL_SIZE];
+        private long[] fRanks = new long[INITIAL_SIZE];
+        private int fSize = 0;
+        /* All the ranks before this one were added */
+        private long fNextRank = 0;
+        /* The ranks added after the next rank */
+        private final Set<Long> fLaterRanks = new HashSet<>();
+
+        /**
+         * Get the first rank that was not added yet. All the ranks before it
+         * were added.
+         *
+         * @return the rank of the next span
+         */
+        public long getNextRank() {
+            return fNextRank;
+        }
+
+        /**
+         * Add a span. Ranks that were already added are ignored.
+         *
+         * @param rank
+         *            the rank of the span's event
+         * @param field
+         *            the span field, or <code>null</code> if the event at this
+         *            rank is not a span
+         */
+        public void add(long rank, @Nullable OpenTracingField field) {
+            if (rank < fNextRank) {
+                return;
+            }
+            if (rank == fNextRank) {
+                fNextRank++;
+                while (fLaterRanks.remove(fNextRank)) {
+                    fNextRank++;
+                }
+            } else if (!fLaterRanks.add(rank)) {
+                return;
+            }
+            if (field == null || !isIndexable(field.getSpanId())) {
+                return;
+            }
+            long spanId = Long.parseUnsignedLong(field.getSpanId(), 16);
+            if (fSize == fTraces.length) {
+                int newSize = fSize * 2;
+                fTraces = Arrays.copyOf(fTraces, newSize);
+                fSpanIds = Arrays.copyOf(fSpanIds, newSize);
+                fTimes = Arrays.copyOf(fTimes, newSize);
+                fEndTimes = Arrays.copyOf(fEndTimes, newSize);
+                fRanks = Arrays.copyOf(fRanks, newSize);
+            }
+            String traceId = field.getTraceId();
+            Integer trace = fTraceIdMap.get(traceId);
+            if (trace == null) {
+                trace = fTraceIdList.size();
+                fTraceIdMap.put(traceId, trace);
+                fTraceIdList.add(traceId);
+            }
+            long start = field.getStartTime();
+            fTraces[fSize] = trace;
+            fSpanIds[fSize] = spanId;
+            fTimes[fSize] = start;
+            fEndTimes[fSize] = start + field.getDuration();
+            fRanks[fSize] = rank;
+            fSize++;
+        }
+
+        /**
+         * Build the index
+         *
+         * @return the span index
+         */
+        public OpenTracingSpanIndex build() {
+            int nbTraces = fTraceIdList.size();
+            Integer[] traceOrder = new Integer[nbTraces];
+            for (int i = 0; i < nbTraces; i++) {
+                traceOrder[i] = i;
+            }
+            Arrays.sort(traceOrder, (t1, t2) -> fTraceIdList.get(t1).compareTo(fTraceIdList.get(t2)));
+            int[] sortedTrace = new int[nbTraces];
+            String[] traceIds = new String[nbTraces];
+            for (int i = 0; i < nbTraces; i++) {
+                sortedTrace[traceOrder[i]] = i;
+                traceIds[i] = fTraceIdList.get(traceOrder[i]);
+            }
+
+            // Bucket the spans by trace, keeping the trace time ranges
+            int[] traceStarts = new int[nbTraces + 1];
+            long[] traceStartTimes = new long[nbTraces];
+            long[] traceEndTimes = new long[nbTraces];
+            Arrays.fill(traceStartTimes, Long.MAX_VALUE);
+            Arrays.fill(traceEndTimes, Long.MIN_VALUE);
+            for (int i = 0; i < fSize; i++) {
+                int trace = sortedTrace[fTraces[i]];
+                traceStarts[trace + 1]++;
+                traceStartTimes[trace] = Math.min(traceStartTimes[trace], fTimes[i]);
+                traceEndTimes[trace] = Math.max(traceEndTimes[trace], fEndTimes[i]);
+            }
+            for (int t = 0; t < nbTraces; t++) {
+                traceStarts[t + 1] += traceStarts[t];
+            }
+            int[] positions = Arrays.copyOf(traceStarts, nbTraces);
+            long[] spanIds = new long[fSize];
+            long[] ranks = new long[fSize];
+            long[] times = new long[fSize];
+            for (int i = 0; i < fSize; i++) {
+                int pos = positions[sortedTrace[fTraces[i]]]++;
+                spanIds[pos] = fSpanIds[i];
+                ranks[pos] = fRanks[i];
+                times[pos] = fTimes[i];
+            }
+
+            // Sort the spans of each trace by span ID
+            for (int t = 0; t < nbTraces; t++) {
+                sortSpans(spanIds, ranks, times, traceStarts[t], traceStarts[t + 1]);
+            }
+            return new OpenTracingSpanIndex(traceIds, traceStarts, traceStartTimes, traceEndTimes, spanIds, ranks, times);
+        }
+
+        private static void sortSpans(long[] spanIds, long[] ranks, long[] times, int from, int to) {
+            int size = to - from;
+            if (size < 2) {
+                return;
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = from + i;
+            }
+            Arrays.sort(order, (s1, s2) -> {
+                int cmp = Long.compareUnsigned(spanIds[s1], spanIds[s2]);
+                return cmp != 0 ? cmp : Long.compare(ranks[s1], ranks[s2]);
+            });
+            long[] sortedIds = new long[size];
+            long[] sortedRanks = new long[size];
+            long[] sortedTimes = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedIds[i] = spanIds[order[i]];
+                sortedRanks[i] = ranks[order[i]];
+                sortedTimes[i] = times[order[i]];
+            }
+            System.arraycopy(sortedIds, 0, spanIds, from, size);
+            System.arraycopy(sortedRanks, 0, ranks, from, size);
+            System.arraycopy(sortedTimes, 0, times, from, size);
+        }
+    }
+
+    /**
+     * Whether a span ID is a 64 bits hexadecimal number
+     */
+    private static boolean isIndexable(String id) {
+        if (id.isEmpty() || id.length() > 16) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of indexed spans
+     *
+     * @return the number of spans
+     */
+    public int size() {
+        return fSpanIds.length;
+    }
+
+    /**
+     * Get the IDs of the traces, in sorted order
+     *
+     * @return the trace IDs
+     */
+    public List<String> getTraceIds() {
+        return Arrays.asList(fTraceIds);
+    }
+
+    private int getTrace(String traceId) {
+        return Arrays.binarySearch(fTraceIds, traceId);
+    }
+
+    /**
+     * Get the position of a span in the index
+     *
+     * @param traceId
+     *            the trace ID
+     * @param spanId
+     *            the span ID
+     * @return the position of the span, or a negative value if the span is
+     *         not in the index
+     */
+    private int getPosition(String traceId, String spanId) {
+        int trace = getTrace(traceId);
+        if (trace < 0 || !isIndexable(spanId)) {
+            return -1;
+        }
+        long id = Long.parseUnsignedLong(spanId, 16);
+        int low = fTraceStarts[trace];
+        int high = fTraceStarts[trace + 1] - 1;
+        int found = -1;
+        // Find the first span with this ID
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compareUnsigned(fSpanIds[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                if (cmp == 0) {
+                    found = mid;
+                }
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the rank of the event of a span
+     *
+     * @param traceId
+     *            the trace ID
+     * @param spanId
+     *            the span ID
+     * @return the rank of the span's event, or -1 if the span is not in the
+     *         index
+     */
+    public long getRank(String traceId, String spanId) {
+        int pos = getPosition(traceId, spanId);
+        return pos < 0 ? -1 : fRanks[pos];
+    }
+
+    /**
+     * Get the start time of a span
+     *
+     * @param traceId
+     *            the trace ID
+     * @param spanId
+     *            the span ID
+     * @return the start time of the span, or {@link Long#MIN_VALUE} if the
+     *         span is not in the index
+     */
+    public long getStartTime(String traceId, String spanId) {
+        int pos = getPosition(traceId, spanId);
+        return pos < 0 ? Long.MIN_VALUE : fTimes[pos];
+    }
+
+    /**
+     * Get the ranks of the events of all the spans of a trace
+     *
+     * @param traceId
+     *            the trace ID
+     * @return the sorted ranks, empty if the trace is not in the index
+     */
+    public long[] getRanks(String traceId) {
+        int trace = getTrace(traceId);
+        if (trace < 0) {
+            return new long[0];
+        }
+        long[] ranks = Arrays.copyOfRange(fRanks, fTraceStarts[trace], fTraceStarts[trace + 1]);
+        Arrays.sort(ranks);
+        return ranks;
+    }
+
+    /**
+     * Get the time range covered by the spans of a trace
+     *
+     * @param traceId
+     *            the trace ID
+     * @return the start and end times of the trace, or <code>null</code> if
+     *         the trace is not in the index
+     */
+    public long @Nullable [] getTimeRange(String traceId) {
+        int trace = getTrace(traceId);
+        if (trace < 0) {
+            return null;
+        }
+        return new long[] { fTraceStartTimes[trace], fTraceEndTimes[trace] };
+    }
+
+    /**
+     * Write the index to a stream
+     *
+     * @param out
+     *            the stream to write to
+     * @param nbEvents
+     *            the number of events of the trace, to validate the index
+     *            when it is read
+     * @throws IOException
+     *             Exceptions writing to the stream
+     */
+    public void write(DataOutputStream out, long nbEvents) throws IOException {
+        out.writeInt(VERSION);
+        out.writeLong(nbEvents);
+        out.writeInt(fTraceIds.length);
+        for (int t = 0; t < fTraceIds.length; t++) {
+            out.writeUTF(fTraceIds[t]);
+            out.writeInt(fTraceStarts[t + 1]);
+            out.writeLong(fTraceStartTimes[t]);
+            out.writeLong(fTraceEndTimes[t]);
+        }
+        for (int i = 0; i < fSpanIds.length; i++) {
+            out.writeLong(fSpanIds[i]);
+            out.writeLong(fRanks[i]);
+            out.writeLong(fTimes[i]);
+        }
+    }
+
+    /**
+     * Read an index written with {@link #write(DataOutputStream, long)}
+     *
+     * @param in
+     *            the stream to read
+     * @param nbEvents
+     *            the number of events of the trace
+     * @return the index, or <code>null</code> if it is of another version or
+     *         another trace
+     * @throws IOException
+     *             Exceptions reading the stream
+     */
+    public static @Nullable OpenTracingSpanIndex read(DataInputStream in, long nbEvents) throws IOException {
+        if (in.readInt() != VERSION || in.readLong() != nbEvents) {
+            return null;
+        }
+        int nbTraces = in.readInt();
+        String[] traceIds = new String[nbTraces];
+        int[] traceStarts = new int[nbTraces + 1];
+        long[] traceStartTimes = new long[nbTraces];
+        long[] traceEndTimes = new long[nbTraces];
+        for (int t = 0; t < nbTraces; t++) {
+            traceIds[t] = in.readUTF();
+            traceStarts[t + 1] = in.readInt();
+            traceStartTimes[t] = in.readLong();
+            traceEndTimes[t] = in.readLong();
+        }
+        int size = traceStarts[nbTraces];
+        long[] spanIds = new long[size];
+        long[] ranks = new long[size];
+        long[] times = new long[size];
+        for (int i = 0; i < size; i++) {
+            spanIds[i] = in.readLong();
+            ranks[i] = in.readLong();
+            times[i] = in.readLong();
+        }
+        return new OpenTracingSpanIndex(traceIds, traceStarts, traceStartTimes, traceEndTimes, spanIds, ranks, times);
+    }
+}
@@ -11,18 +11,24 @@
 
 package org.eclipse.tracecompass.incubator.internal.opentracing.core.trace;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.NonNull;
@@ -32,6 +38,8 @@ import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenT
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingAspects;
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingEvent;
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingProcess.ProcessTable;
 import org.eclipse.tracecompass.internal.provisional.jsontrace.core.trace.JsonTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
@@ -48,10 +56,6 @@ import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 
 import com.google.common.collect.Lists;
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.stream.JsonReader;
 
 /**
  * Open Tracing trace. Can read jaeger unsorted or sorted JSON traces.
@@ -61,8 +65,15 @@ import com.google.gson.stream.JsonReader;
  */
 public class OpenTracingTrace extends JsonTrace {
 
+    private static final String SPAN_INDEX_FILE = "span-index.idx"; //$NON-NLS-1$
+    private static final long SPAN_INDEX_WAIT_MS = 100;
+
     private final @NonNull Iterable<@NonNull ITmfEventAspect<?>> fEventAspects;
-    private final Map<String, String> fProcesses;
+    private ProcessTable fProcesses;
+    /* The builder, the job and the index are guarded by this trace */
+    private OpenTracingSpanIndex.@Nullable Builder fSpanIndexBuilder = new OpenTracingSpanIndex.Builder();
+    private @Nullable Job fSpanIndexJob = null;
+    private volatile @Nullable OpenTracingSpanIndex fSpanIndex = null;
 
     /**
      * Constructor
@@ -70,7 +81,7 @@ public class OpenTracingTrace extends JsonTrace {
     @SuppressWarnings("null")
     public OpenTracingTrace() {
         fEventAspects = Lists.newArrayList(OpenTracingAspects.getAspects());
-        fProcesses = new HashMap<>();
+        fProcesses = new ProcessTable();
     }
 
     @Override
@@ -94,6 +105,10 @@ public class OpenTracingTrace extends JsonTrace {
                 throw new TmfTraceException("Job failed " + result.getMessage()); //$NON-NLS-1$
             }
         }
+        if (getSpanIndexFile().exists()) {
+            // The span index was persisted, no need to build it again
+            fSpanIndexBuilder = null;
+        }
         try {
             fFileInput = new BufferedRandomAccessFile(fFile, "r"); //$NON-NLS-1$
             goToCorrectStart(fFileInput);
@@ -104,28 +119,179 @@ public class OpenTracingTrace extends JsonTrace {
     }
 
     /**
-     * Save the processes list
+     * Save the processes list. The trace file is read in a streaming fashion,
+     * only the processes are kept.
      *
      * @param path
      *            trace file path
      */
     public void registerProcesses(String path) {
         try (FileReader fileReader = new FileReader(path)) {
-            try (JsonReader reader = new JsonReader(fileReader);) {
-                Gson gson = new Gson();
-                JsonObject object = gson.fromJson(reader, JsonObject.class);
-                JsonElement trace = object.get("data").getAsJsonArray().get(0); //$NON-NLS-1$
-                JsonObject processes = trace.getAsJsonObject().get("processes").getAsJsonObject(); //$NON-NLS-1$
-                for (int i = 1; i <= processes.size(); i++) {
-                    String processName = "p" + i; //$NON-NLS-1$
-                    fProcesses.put(processName, gson.toJson(processes.get(processName)));
+            fProcesses = OpenTracingProcess.readProcesses(fileReader);
+        } catch (IOException | RuntimeException e) {
+            // Nothing
+        }
+    }
+
+    private File getSpanIndexFile() {
+        return new File(TmfTraceManager.getSupplementaryFileDir(this), SPAN_INDEX_FILE);
+    }
+
+    /**
+     * Get the index of the spans of this trace by trace ID and span ID. The
+     * index is built while the trace is indexed, then it is completed and
+     * persisted in the supplementary files by a background job. This method
+     * does not wait for the index, it can be called from any thread.
+     *
+     * @return the span index, or <code>null</code> if it is not available yet
+     */
+    public @Nullable OpenTracingSpanIndex getSpanIndex() {
+        OpenTracingSpanIndex index = fSpanIndex;
+        if (index == null) {
+            scheduleSpanIndexJob();
+        }
+        return index;
+    }
+
+    /**
+     * Get the index of the spans of this trace, waiting for the trace to be
+     * indexed and for the index to be built if necessary. It is meant for
+     * analyses, it should not be called from the UI thread.
+     *
+     * @param monitor
+     *            the progress monitor, to stop waiting when it is canceled
+     * @return the span index, or <code>null</code> if the wait was canceled or
+     *         the index could not be built
+     */
+    public @Nullable OpenTracingSpanIndex waitForSpanIndex(IProgressMonitor monitor) {
+        synchronized (this) {
+            while (fSpanIndex == null && !monitor.isCanceled()) {
+                if (!scheduleSpanIndexJob() && !isIndexing()) {
+                    // The job failed or was canceled
+                    return null;
+                }
+                try {
+                    wait(SPAN_INDEX_WAIT_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
                 }
             }
-        } catch (IOException e) {
-            // Nothing
+            return fSpanIndex;
         }
     }
 
+    /**
+     * Schedule the job that builds the span index, once the trace is indexed
+     *
+     * @return whether the job is scheduled or running
+     */
+    private synchronized boolean scheduleSpanIndexJob() {
+        if (fSpanIndexJob != null) {
+            return true;
+        }
+        if (fSpanIndex != null || isIndexing()) {
+            return false;
+        }
+        Job job = new Job("Building the span index of " + getName()) { //$NON-NLS-1$
+            @Override
+            protected IStatus run(@Nullable IProgressMonitor monitor) {
+                return buildSpanIndex(monitor == null ? new NullProgressMonitor() : monitor);
+            }
+        };
+        job.setSystem(true);
+        fSpanIndexJob = job;
+        job.schedule();
+        return true;
+    }
+
+    private IStatus buildSpanIndex(IProgressMonitor monitor) {
+        File file = getSpanIndexFile();
+        OpenTracingSpanIndex index = null;
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                index = OpenTracingSpanIndex.read(in, getNbEvents());
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error reading the span index " + file, e); //$NON-NLS-1$
+            }
+        }
+        if (index == null) {
+            OpenTracingSpanIndex.Builder builder;
+            long nextRank;
+            synchronized (this) {
+                builder = fSpanIndexBuilder;
+                if (builder == null) {
+                    builder = new OpenTracingSpanIndex.Builder();
+                    fSpanIndexBuilder = builder;
+                }
+                nextRank = builder.getNextRank();
+            }
+            // Read the events that were not added to the index yet
+            ITmfContext context = seekEvent(nextRank);
+            while (!monitor.isCanceled() && getNext(context) != null) {
+                // The events are added to the index when they are read
+            }
+            context.dispose();
+            if (monitor.isCanceled()) {
+                // The builder is kept for the next job
+                synchronized (this) {
+                    fSpanIndexJob = null;
+                    notifyAll();
+                }
+                return Status.CANCEL_STATUS;
+            }
+            synchronized (this) {
+                index = builder.build();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                index.write(out, getNbEvents());
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error writing the span index " + file, e); //$NON-NLS-1$
+            }
+        }
+        synchronized (this) {
+            fSpanIndexBuilder = null;
+            fSpanIndex = index;
+            fSpanIndexJob = null;
+            notifyAll();
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Get the event of a span
+     *
+     * @param traceId
+     *            the trace ID
+     * @param spanId
+     *            the span ID
+     * @return the event of the span, or <code>null</code> if the span is not
+     *         found or the span index is not available yet
+     */
+    public @Nullable ITmfEvent getSpanEvent(String traceId, String spanId) {
+        OpenTracingSpanIndex index = getSpanIndex();
+        long rank = (index == null) ? -1 : index.getRank(traceId, spanId);
+        if (rank < 0) {
+            return null;
+        }
+        ITmfContext context = seekEvent(rank);
+        ITmfEvent event = getNext(context);
+        context.dispose();
+        return event;
+    }
+
+    @Override
+    public void dispose() {
+        Job job;
+        synchronized (this) {
+            job = fSpanIndexJob;
+        }
+        if (job != null) {
+            job.cancel();
+        }
+        super.dispose();
+    }
+
     @Override
     public IStatus validate(IProject project, String path) {
         File file = new File(path);
@@ -145,6 +311,7 @@ public class OpenTracingTrace extends JsonTrace {
             Activator.getInstance().logError("Error validating file: " + path, e); //$NON-NLS-1$
             return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "IOException validating file: " + path, e); //$NON-NLS-1$
         }
+        ProcessTable noProcesses = new ProcessTable();
         try (BufferedRandomAccessFile rafile = new BufferedRandomAccessFile(path, "r")) { //$NON-NLS-1$
             goToCorrectStart(rafile);
             int lineCount = 0;
@@ -152,7 +319,7 @@ public class OpenTracingTrace extends JsonTrace {
             String line = readNextEventString(() -> rafile.read());
             while ((line != null) && (lineCount++ < MAX_LINES)) {
                 try {
-                    OpenTracingField field = OpenTracingField.parseJson(line, null);
+                    OpenTracingField field = OpenTracingField.parseJson(line, noProcesses);
                     if (field != null) {
                         matches++;
                     }
@@ -230,8 +397,7 @@ public class OpenTracingTrace extends JsonTrace {
                 }
                 String nextJson = readNextEventString(() -> fFileInput.read());
                 if (nextJson != null) {
-                    String process = fProcesses.get(OpenTracingField.getProcess(nextJson));
-                    OpenTracingField field = OpenTracingField.parseJson(nextJson, process);
+                    OpenTracingField field = OpenTracingField.parseJson(nextJson, fProcesses);
                     if (field == null) {
                         return null;
                     }
@@ -247,7 +413,7 @@ public class OpenTracingTrace extends JsonTrace {
     @Override
     protected synchronized void updateAttributes(final ITmfContext context, final @NonNull ITmfEvent event) {
         ITmfTimestamp timestamp = event.getTimestamp();
-        Long duration = event.getContent().getFieldValue(Long.class, IOpenTracingConstants.DURATION);
+        Long duration = (event instanceof OpenTracingEvent) ? ((OpenTracingEvent) event).getField().getDuration() : event.getContent().getFieldValue(Long.class, IOpenTracingConstants.DURATION);
         ITmfTimestamp endTime = duration != null ? TmfTimestamp.fromNanos(timestamp.toNanos() + duration) : timestamp;
         if (event instanceof ITmfLostEvent) {
             endTime = ((ITmfLostEvent) event).getTimeRange().getEndTime();
@@ -260,6 +426,10 @@ public class OpenTracingTrace extends JsonTrace {
         }
         if (context.hasValidRank()) {
             long rank = context.getRank();
+            OpenTracingSpanIndex.Builder builder = fSpanIndexBuilder;
+            if (builder != null) {
+                builder.add(rank, (event instanceof OpenTracingEvent) ? ((OpenTracingEvent) event).getField() : null);
+            }
             if (getNbEvents() <= rank) {
                 setNbEvents(rank + 1);
             }
@@ -14,12 +14,17 @@ package org.eclipse.tracecompass.incubator.internal.opentracing.ui.project.handl
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.tracecompass.incubator.internal.opentracing.ui.Activator;
 import org.eclipse.tracecompass.tmf.core.project.model.TmfTraceType;
 import org.eclipse.tracecompass.tmf.core.project.model.TraceTypeHelper;
 import org.eclipse.tracecompass.tmf.ui.project.model.TmfTraceFolder;
@@ -108,4 +113,54 @@ public class SplitImportTracesOperation {
         }
     }
 
+    /**
+     * Import traces already split in one file per trace, like the traces
+     * fetched from Jaeger
+     *
+     * @param sourceDirectory
+     *            Directory of the trace files, named after the trace IDs
+     * @param selectedTracesId
+     *            List of trace id's to import
+     * @param newTracesDestination
+     *            Path of the new traces folder relative to the destination folder
+     * @param tracesDestinationFolder
+     *            "Traces" folder where to import the traces
+     * @return <code>true</code> if all the traces were imported,
+     *         <code>false</code> if some failed, the errors are logged
+     */
+    public static boolean importTraces(Path sourceDirectory, List<String> selectedTracesId, String newTracesDestination, TmfTraceFolder tracesDestinationFolder) {
+        TraceTypeHelper traceTypeHelper = TmfTraceType.getTraceType(TRACE_TYPE_ID);
+
+        Path newFolderPath = Paths.get(tracesDestinationFolder.getLocation().getPath() + newTracesDestination);
+        try {
+            Files.createDirectories(newFolderPath);
+        } catch (IOException e) {
+            logError("Could not create the folder " + newFolderPath, e); //$NON-NLS-1$
+            return false;
+        }
+
+        boolean imported = true;
+        IFolder resource = tracesDestinationFolder.getResource();
+        for (String traceId : selectedTracesId) {
+            String fileName = traceId + ".json"; //$NON-NLS-1$
+            try {
+                Files.copy(sourceDirectory.resolve(fileName), newFolderPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+                resource.refreshLocal(IResource.DEPTH_INFINITE, null);
+                IFile file = resource.getFile(newTracesDestination + '/' + fileName);
+                TmfTraceTypeUIUtils.setTraceType(file, traceTypeHelper);
+            } catch (IOException | CoreException e) {
+                logError("Could not import the Jaeger trace " + traceId, e); //$NON-NLS-1$
+                imported = false;
+            }
+        }
+        return imported;
+    }
+
+    private static void logError(String message, Throwable exception) {
+        Activator activator = Activator.getDefault();
+        if (activator != null) {
+            activator.logError(message, exception);
+        }
+    }
+
 }
@@ -11,9 +11,16 @@
 
 package org.eclipse.tracecompass.incubator.internal.opentracing.ui.project.wizards;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IPath;
@@ -37,11 +44,12 @@ import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerFetcher;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerQuery;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.jaeger.JaegerTraceInfo;
 import org.eclipse.tracecompass.incubator.internal.opentracing.ui.project.handlers.SplitImportTracesOperation;
 import org.eclipse.tracecompass.tmf.ui.project.model.TmfTraceFolder;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 /**
@@ -58,19 +66,14 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
     private static final String[] DEFAULT_LOOKBACKS = {"1h", "2h", "3h", "6h", "12h", "1d", "2d"};
     private static final Long[] DEFAULT_LOOKBACKS_SECONDS = {3600L, 7200L, 10800L, 21600L, 43200L, 86400L, 172800L};
 
-    private static final String NANOSECONDS_PADDING = "000"; //$NON-NLS-1$
-    private static final String JAEGER_DATA_KEY = "data"; //$NON-NLS-1$
-    private static final String JAEGER_SPANS_KEY = "spans"; //$NON-NLS-1$
-    private static final String JAEGER_TRACE_ID_KEY = "traceID"; //$NON-NLS-1$
-    private static final String JAEGER_SPAN_NAME_KEY = "operationName"; //$NON-NLS-1$
-    private static final String JAEGER_PROCESSES_KEY = "processes"; //$NON-NLS-1$
-    private static final String JAEGER_SERVICE_KEY = "serviceName"; //$NON-NLS-1$
-
+    /** The lookback is split in pages that are fetched concurrently */
+    private static final int FETCH_NB_PAGES = 4;
 
     private Table fTracesTable;
     private String fTraceFolderName;
     private TmfTraceFolder fTmfTraceFolder;
-    private JsonObject fJaegerJsonTrace;
+    private List<JaegerTraceInfo> fTraces = Collections.emptyList();
+    private Path fFetchDirectory;
 
     /**
      * Constructor.
@@ -113,15 +116,19 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
 
             @Override
             public void focusLost(FocusEvent e) {
-                if (!JaegerRestUtils.jaegerCheckConnection(targetUrlText.getText())) {
-                    setPageComplete(false);
-                    setErrorMessage(Messages.FetchJaegerTracesWizardPage_errorApiConnection);
-                } else {
-                    String[] fetchServices = JaegerRestUtils.fetchServices(targetUrlText.getText());
-                    if (fetchServices != null) {
-                        serviceCombo.setItems(fetchServices);
+                JaegerFetcher fetcher = new JaegerFetcher(targetUrlText.getText(), JaegerFetcher.DEFAULT_NB_THREADS);
+                try {
+                    if (!fetcher.checkConnection()) {
+                        throw new IOException("Jaeger API not reachable"); //$NON-NLS-1$
+                    }
+                    List<String> services = fetcher.fetchServices();
+                    if (!services.isEmpty()) {
+                        serviceCombo.setItems(services.toArray(new String[services.size()]));
                         serviceCombo.select(0);
                     }
+                } catch (IOException exception) {
+                    setPageComplete(false);
+                    setErrorMessage(Messages.FetchJaegerTracesWizardPage_errorApiConnection);
                 }
             }
 
@@ -224,37 +231,37 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
         fetchJagerButton.addSelectionListener(new SelectionAdapter() {
             @Override
             public void widgetSelected(SelectionEvent e) {
-                long endTime = Instant.now().toEpochMilli();
-                long startTime = Instant.now().minusSeconds(DEFAULT_LOOKBACKS_SECONDS[lookbackCombo.indexOf(lookbackCombo.getText())]).toEpochMilli();
-                String tags = buildTagsString(targetTagsText.getText());
-                String requestUrl = JaegerRestUtils.buildTracesUrl(targetUrlText.getText(), Long.toString(endTime) + NANOSECONDS_PADDING, traceNumberLimitText.getText(), lookbackCombo.getText(),
-                        targetMaxDurationText.getText(), targetMinDurationText.getText(), serviceCombo.getText(), Long.toString(startTime) + NANOSECONDS_PADDING, tags);
-                String jaegerTraces = JaegerRestUtils.fetchJaegerTraces(requestUrl);
-                if (jaegerTraces == null) {
+                long endTime = TimeUnit.MILLISECONDS.toMicros(Instant.now().toEpochMilli());
+                long startTime = endTime - TimeUnit.SECONDS.toMicros(DEFAULT_LOOKBACKS_SECONDS[Math.max(0, lookbackCombo.indexOf(lookbackCombo.getText()))]);
+                List<JaegerTraceInfo> traces;
+                try {
+                    JaegerQuery query = new JaegerQuery(serviceCombo.getText(), startTime, endTime, Integer.parseInt(traceNumberLimitText.getText()))
+                            .setDurations(targetMinDurationText.getText(), targetMaxDurationText.getText())
+                            .setTags(buildTagsString(targetTagsText.getText()));
+                    traces = fetchTraces(new JaegerFetcher(targetUrlText.getText(), JaegerFetcher.DEFAULT_NB_THREADS), query);
+                } catch (NumberFormatException | IOException | InvocationTargetException exception) {
                     setPageComplete(false);
                     setErrorMessage(Messages.FetchJaegerTracesWizardPage_errorFetchTraces);
                     return;
+                } catch (InterruptedException exception) {
+                    // The fetch was cancelled
+                    return;
                 }
-                Gson gson = new Gson();
-                JsonObject tracesObject = gson.fromJson(jaegerTraces, JsonObject.class);
-                JsonArray tracesArray = tracesObject.get(JAEGER_DATA_KEY).getAsJsonArray();
                 fTracesTable.removeAll();
-                tracesInfoGroup.setText(Messages.FetchJaegerTracesWizardPage_tracesGroup + " ("+ tracesArray.size() + ')'); //$NON-NLS-1$
-                if (tracesArray.size() > 0) {
-                    for (int i = 0; i < tracesArray.size(); i++) {
+                tracesInfoGroup.setText(Messages.FetchJaegerTracesWizardPage_tracesGroup + " ("+ traces.size() + ')'); //$NON-NLS-1$
+                fTraces = traces;
+                if (!traces.isEmpty()) {
+                    for (JaegerTraceInfo trace : traces) {
                         TableItem traceItem = new TableItem(fTracesTable, SWT.NONE);
-                        JsonObject trace = tracesArray.get(i).getAsJsonObject();
-                        JsonArray spans = trace.get(JAEGER_SPANS_KEY).getAsJsonArray();
-                        traceItem.setText(0, spans.get(0).getAsJsonObject().get(JAEGER_SPAN_NAME_KEY).getAsString());
-                        traceItem.setText(1, Integer.toString(spans.size()));
-                        traceItem.setText(2, StringUtils.join(fetchTraceServices(trace), ", ")); //$NON-NLS-1$
-                        traceItem.setText(3, trace.get(JAEGER_TRACE_ID_KEY).getAsString());
+                        traceItem.setText(0, trace.getFirstSpanName());
+                        traceItem.setText(1, Integer.toString(trace.getNbSpans()));
+                        traceItem.setText(2, StringUtils.join(trace.getServices(), ", ")); //$NON-NLS-1$
+                        traceItem.setText(3, trace.getTraceId());
                         traceItem.setChecked(true);
-                        for(TableColumn column : fTracesTable.getColumns()) {
-                            column.pack();
-                        }
                     }
-                    fJaegerJsonTrace = tracesObject;
+                    for (TableColumn column : fTracesTable.getColumns()) {
+                        column.pack();
+                    }
                     updatePageCompletion();
                 } else {
                     setPageComplete(false);
@@ -330,7 +337,10 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
             List<String> checkedTraceIds = getCheckedTraces();
             IPath destinationFolderPath = fTmfTraceFolder.getPath().append(fTraceFolderName);
             String destinationSubPath = destinationFolderPath.makeRelativeTo(tracesFolder.getPath()).toOSString();
-            SplitImportTracesOperation.splitAndImport(fJaegerJsonTrace, checkedTraceIds, destinationSubPath, tracesFolder);
+            if (!SplitImportTracesOperation.importTraces(fFetchDirectory, checkedTraceIds, destinationSubPath, tracesFolder)) {
+                setErrorMessage(Messages.FetchJaegerTracesWizardPage_errorImportTraces);
+                return false;
+            }
             return true;
         }
 
@@ -349,7 +359,7 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
 
     private void updatePageCompletion() {
         setErrorMessage(null);
-        if (fJaegerJsonTrace == null || fJaegerJsonTrace.get(JAEGER_DATA_KEY).getAsJsonArray().size() == 0) {
+        if (fTraces.isEmpty()) {
             setPageComplete(false);
             return;
         }
@@ -383,12 +393,44 @@ public class FetchJaegerTracesWizardPage extends WizardPage {
         return tags;
     }
 
-    private static String[] fetchTraceServices(JsonObject trace) {
-        JsonObject servicesArray = trace.get(JAEGER_PROCESSES_KEY).getAsJsonObject();
-        String[] services = new String[servicesArray.size()];
-        for (int i = 0; i < servicesArray.size(); i++) {
-            services[i] = servicesArray.get("p" + (i + 1)).getAsJsonObject().get(JAEGER_SERVICE_KEY).getAsString(); //$NON-NLS-1$
+    /**
+     * Fetch the traces in a new temporary directory, replacing the one of the
+     * previous fetch, while showing the progress in the wizard
+     */
+    private List<JaegerTraceInfo> fetchTraces(JaegerFetcher fetcher, JaegerQuery query) throws IOException, InvocationTargetException, InterruptedException {
+        deleteFetchDirectory();
+        Path directory = Files.createTempDirectory(DEFAULT_TRACE_FOLDER_NAME);
+        fFetchDirectory = directory;
+        List<JaegerTraceInfo> traces = new ArrayList<>();
+        getContainer().run(true, true, monitor -> {
+            try {
+                traces.addAll(fetcher.fetch(query, FETCH_NB_PAGES, directory, monitor));
+            } catch (IOException e) {
+                throw new InvocationTargetException(e);
+            }
+        });
+        return traces;
+    }
+
+    private void deleteFetchDirectory() {
+        Path directory = fFetchDirectory;
+        if (directory == null) {
+            return;
         }
-        return services;
+        fFetchDirectory = null;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // Only temporary files are left behind
+        }
+    }
+
+    @Override
+    public void dispose() {
+        deleteFetchDirectory();
+        super.dispose();
     }
 }
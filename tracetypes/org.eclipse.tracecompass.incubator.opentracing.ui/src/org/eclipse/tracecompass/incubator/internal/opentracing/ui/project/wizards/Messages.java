@@ -19,7 +19,6 @@ import org.eclipse.osgi.util.NLS;
 @SuppressWarnings("javadoc")
 public class Messages extends NLS {
     private static final String BUNDLE_NAME = "org.eclipse.tracecompass.incubator.internal.opentracing.ui.project.wizards.messages"; //$NON-NLS-1$
-    public static String FetchJaegerTracesWizardPage_importNotAvailable;
     public static String FetchJaegerTracesWizardPage_apiBaseUrlLabel;
     public static String FetchJaegerTracesWizardPage_deselectAllButton;
     public static String FetchJaegerTracesWizardPage_fetchJaegerShellTitle;
@@ -41,6 +40,7 @@ public class Messages extends NLS {
     public static String FetchJaegerTracesWizardPage_errorApiConnection;
     public static String FetchJaegerTracesWizardPage_errorFetchTraces;
     public static String FetchJaegerTracesWizardPage_errorFileName;
+    public static String FetchJaegerTracesWizardPage_errorImportTraces;
     public static String FetchJaegerTracesWizardPage_errorNoTracesFound;
     public static String FetchJaegerTracesWizardPage_importDestinationLabel;
     public static String FetchJaegerTracesWizardPage_wizardDescriptionMessage;
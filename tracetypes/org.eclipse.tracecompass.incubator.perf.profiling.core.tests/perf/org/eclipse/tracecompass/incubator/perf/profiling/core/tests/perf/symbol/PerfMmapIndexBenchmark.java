@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.perf.symbol;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Mapping;
+import org.junit.Test;
+
+/**
+ * Benchmarks the lookups of the {@link PerfMmapIndex} for a process that maps
+ * and unmaps many libraries during the trace, so that many mappings are not
+ * valid at the time of a sample
+ *
+ * @author agent
+ */
+public class PerfMmapIndexBenchmark {
+
+    /**
+     * Test test ID for the perf profiling benchmarks
+     */
+    public static final String TEST_ID = "org.eclipse.tracecompass.incubator#Perf profiling#";
+    private static final String TEST_LOOKUP = "Mmap index lookup (%d mappings)";
+
+    private static final long SEED = 98234729834L;
+    private static final int LOOP_COUNT = 10;
+    private static final int PID = 1000;
+    private static final int NB_LIBRARIES = 2000;
+    private static final int NB_REMAPS = 50;
+    private static final long LIBRARY_SIZE = 0x10000L;
+    private static final long PERIOD = 1000L;
+    private static final int NB_LOOKUPS = 1000000;
+
+    /**
+     * Run the lookup benchmark
+     */
+    @Test
+    public void runLookupBenchmark() {
+        PerfMmapIndex.Builder builder = new PerfMmapIndex.Builder();
+        for (int lib = 0; lib < NB_LIBRARIES; lib++) {
+            // Each library is mapped half of the time, at a different phase
+            long phase = (lib % 10) * PERIOD / 10;
+            for (int remap = 0; remap < NB_REMAPS; remap++) {
+                long start = remap * PERIOD + phase;
+                builder.add(PID, lib * LIBRARY_SIZE, start, start + PERIOD / 2, "lib" + lib); //$NON-NLS-1$
+            }
+        }
+        PerfMmapIndex index = builder.build();
+
+        Performance perf = Performance.getDefault();
+        String name = String.format(TEST_LOOKUP, NB_LIBRARIES * NB_REMAPS);
+        PerformanceMeter pm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + name));
+        perf.tagAsSummary(pm, name, Dimension.CPU_TIME);
+
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            Random random = new Random(SEED);
+            int found = 0;
+            pm.start();
+            for (int lookup = 0; lookup < NB_LOOKUPS; lookup++) {
+                long address = (long) (random.nextDouble() * NB_LIBRARIES * LIBRARY_SIZE);
+                long time = (long) (random.nextDouble() * NB_REMAPS * PERIOD);
+                Mapping mapping = index.getMapping(PID, address, time);
+                if (mapping != null && mapping.isValidAt(time) && mapping.getBaseAddress() <= address) {
+                    found++;
+                }
+            }
+            pm.stop();
+            assertTrue(found > NB_LOOKUPS / 2);
+        }
+        pm.commit();
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.symbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapAddressCache;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Mapping;
+import org.junit.Test;
+
+/**
+ * Test the {@link PerfMmapAddressCache} class
+ *
+ * @author agent
+ */
+public class PerfMmapAddressCacheTest {
+
+    private static final int PID = 10;
+
+    private final PerfMmapIndex fIndex = new PerfMmapIndex.Builder()
+            .add(PID, 0, 0, 1000, "binary")
+            .add(PID, 5000, 100, 350, "libfoo")
+            .add(PID + 1, 0, 0, 1000, "other")
+            .build();
+
+    /**
+     * Resolve the file of an address through the cache, like the symbol
+     * provider does
+     */
+    private static @Nullable String resolve(PerfMmapIndex index, PerfMmapAddressCache<String> cache, int pid, long address, long timestamp) {
+        String cached = cache.get(pid, address, timestamp);
+        if (cached != null) {
+            return cached;
+        }
+        Mapping mapping = index.getMapping(pid, address, timestamp);
+        if (mapping == null) {
+            return null;
+        }
+        cache.put(pid, address, mapping, mapping.getFilename());
+        return mapping.getFilename();
+    }
+
+    /**
+     * Test the lookups of an address covered by overlapping mappings, queried
+     * out of time order
+     */
+    @Test
+    public void testOverlappingMappings() {
+        PerfMmapAddressCache<String> cache = new PerfMmapAddressCache<>(10);
+
+        assertEquals("binary", resolve(fIndex, cache, PID, 6000, 600));
+        // libfoo hides the binary at this time, the cached value is not used
+        assertNull(cache.get(PID, 6000, 300));
+        assertEquals("libfoo", resolve(fIndex, cache, PID, 6000, 300));
+        assertEquals("libfoo", cache.get(PID, 6000, 100));
+        assertNull(cache.get(PID, 6000, 351));
+        assertEquals("binary", resolve(fIndex, cache, PID, 6000, 50));
+        assertEquals("binary", cache.get(PID, 6000, 99));
+        assertNull(cache.get(PID, 6000, 100));
+        assertEquals("libfoo", resolve(fIndex, cache, PID, 6000, 200));
+        assertEquals("binary", resolve(fIndex, cache, PID, 6000, 1000));
+
+        // Another process at the same address
+        assertNull(cache.get(PID + 1, 6000, 1000));
+        assertEquals("other", resolve(fIndex, cache, PID + 1, 6000, 1000));
+    }
+
+    /**
+     * Test that the least recently used addresses are evicted
+     */
+    @Test
+    public void testEviction() {
+        PerfMmapAddressCache<String> cache = new PerfMmapAddressCache<>(2);
+        Mapping mapping = fIndex.getMapping(PID, 10, 500);
+        assertNotNull(mapping);
+        cache.put(PID, 10, mapping, "a");
+        cache.put(PID, 20, mapping, "b");
+        assertEquals("a", cache.get(PID, 10, 500));
+        cache.put(PID, 30, mapping, "c");
+        assertEquals("a", cache.get(PID, 10, 500));
+        assertNull(cache.get(PID, 20, 500));
+        assertEquals("c", cache.get(PID, 30, 500));
+    }
+
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.symbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Mapping;
+import org.junit.Test;
+
+/**
+ * Test the {@link PerfMmapIndex} class
+ *
+ * @author agent
+ */
+public class PerfMmapIndexTest {
+
+    private static final int PID = 10;
+
+    private static PerfMmapIndex buildIndex() {
+        return new PerfMmapIndex.Builder()
+                // libc at 1000, remapped over time
+                .add(PID, 1000, 0, 99, "libc-1")
+                .add(PID, 1000, 200, 299, "libc-2")
+                .add(PID, 1000, 400, 499, "libc-3")
+                // A library above libc, only mapped for a while
+                .add(PID, 5000, 100, 350, "libfoo")
+                // The binary below everything, always mapped
+                .add(PID, 100, 0, 1000, "binary")
+                // Another process at the same address
+                .add(PID + 1, 5000, 0, 1000, "other")
+                .build();
+    }
+
+    private static void assertMapping(String expected, PerfMmapIndex index, int pid, long address, long time) {
+        Mapping mapping = index.getMapping(pid, address, time);
+        assertNotNull(mapping);
+        assertEquals(expected, mapping.getFilename());
+    }
+
+    /**
+     * Test finding the closest mapping below an address valid at a time
+     */
+    @Test
+    public void testGetMapping() {
+        PerfMmapIndex index = buildIndex();
+
+        // The remappings of libc at the same address
+        assertMapping("libc-1", index, PID, 1500, 50);
+        assertMapping("libc-2", index, PID, 1500, 250);
+        assertMapping("libc-3", index, PID, 1000, 450);
+
+        // libc is not mapped, the binary below it is the closest
+        assertMapping("binary", index, PID, 1500, 150);
+        assertMapping("binary", index, PID, 100, 1000);
+
+        // libfoo is above libc, but only mapped for a while
+        assertMapping("libfoo", index, PID, 6000, 300);
+        assertMapping("libc-3", index, PID, 6000, 450);
+        assertMapping("binary", index, PID, 6000, 600);
+
+        // The mapping is valid for its whole range
+        Mapping mapping = index.getMapping(PID, 6000, 300);
+        assertNotNull(mapping);
+        assertEquals(5000, mapping.getBaseAddress());
+
+        // Each process has its own mappings
+        assertMapping("other", index, PID + 1, 6000, 600);
+    }
+
+    /**
+     * Test the times at which a lookup returns the same mapping, when mappings
+     * of higher base addresses hide it during part of its validity
+     */
+    @Test
+    public void testLookupValidity() {
+        PerfMmapIndex index = buildIndex();
+
+        // The binary is the mapping of 6000 after libc-3 is unmapped
+        Mapping mapping = index.getMapping(PID, 6000, 600);
+        assertNotNull(mapping);
+        assertEquals("binary", mapping.getFilename());
+        assertTrue(mapping.isValidAt(300));
+        assertFalse(mapping.isLookupValidAt(300));
+        assertFalse(mapping.isLookupValidAt(499));
+        assertTrue(mapping.isLookupValidAt(500));
+        assertTrue(mapping.isLookupValidAt(1000));
+        assertFalse(mapping.isLookupValidAt(1001));
+
+        // The binary between the remappings of libc
+        mapping = index.getMapping(PID, 6000, 99);
+        assertNotNull(mapping);
+        assertEquals("libc-1", mapping.getFilename());
+        mapping = index.getMapping(PID, 1500, 150);
+        assertNotNull(mapping);
+        assertEquals("binary", mapping.getFilename());
+        assertTrue(mapping.isLookupValidAt(100));
+        assertTrue(mapping.isLookupValidAt(199));
+        assertFalse(mapping.isLookupValidAt(99));
+        assertFalse(mapping.isLookupValidAt(200));
+
+        // libfoo is not hidden by anything
+        mapping = index.getMapping(PID, 6000, 300);
+        assertNotNull(mapping);
+        assertTrue(mapping.isLookupValidAt(100));
+        assertTrue(mapping.isLookupValidAt(350));
+        assertFalse(mapping.isLookupValidAt(351));
+    }
+
+    /**
+     * Test the lookups that have no mapping
+     */
+    @Test
+    public void testNoMapping() {
+        PerfMmapIndex index = buildIndex();
+
+        // Below the lowest mapping
+        assertNull(index.getMapping(PID, 50, 100));
+        // After every mapping
+        assertNull(index.getMapping(PID, 6000, 2000));
+        // Another process below its only mapping
+        assertNull(index.getMapping(PID + 1, 100, 100));
+        // An unknown process
+        assertNull(index.getMapping(PID + 2, 6000, 100));
+        // An empty index
+        assertNull(new PerfMmapIndex.Builder().build().getMapping(PID, 6000, 100));
+    }
+
+}
@@ -73,7 +73,7 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
     }
 
     @Override
-    protected @Nullable Pair<ICallStackElement, AggregatedCallSite> getProfiledStackTrace(@NonNull ITmfEvent event) {
+    protected @Nullable Pair<ICallStackElement, long[]> getSampledStack(@NonNull ITmfEvent event) {
         if (!event.getName().startsWith(EVENT_SAMPLING)) {
             return null;
         }
@@ -84,15 +84,23 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
         }
         long[] value = (long[]) field.getValue();
         int size = value.length;
-        long tmp;
-        // Reverse the stack so that element at position 0 is the bottom
-        for (int i = 0, mid = size >> 1, j = size - 1; i < mid; i++, j--) {
-            tmp = value[i];
-            value[i] = value[j];
-            value[j] = tmp;
+        // Reverse the stack so that element at position 0 is the bottom. The
+        // stack is copied as it will be aggregated after the event is handled
+        long[] stack = new long[size];
+        for (int i = 0, j = size - 1; i < size; i++, j--) {
+            stack[i] = value[j];
+        }
+        return new Pair<>(getElement(event), stack);
+    }
+
+    @Override
+    protected @Nullable Pair<ICallStackElement, AggregatedCallSite> getProfiledStackTrace(@NonNull ITmfEvent event) {
+        Pair<ICallStackElement, long[]> stack = getSampledStack(event);
+        if (stack == null || stack.getSecond().length == 0) {
+            return null;
         }
-        ICallStackElement element = getElement(event);
-        return new Pair<>(element, getCallSite(element, value, event.getTimestamp().getValue()));
+        ICallStackElement element = stack.getFirst();
+        return new Pair<>(element, getCallSite(element, stack.getSecond(), event.getTimestamp().getValue()));
     }
 
     /**
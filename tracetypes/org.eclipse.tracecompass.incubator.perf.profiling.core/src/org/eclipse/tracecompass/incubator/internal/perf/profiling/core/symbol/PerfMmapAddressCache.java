@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Mapping;
+
+/**
+ * Least recently used cache of the values resolved for addresses, like their
+ * symbols. A value is returned for an address only at the times the mapping it
+ * was resolved in is still the mapping of the address.
+ *
+ * @author agent
+ * @param <T>
+ *            The type of values
+ */
+public class PerfMmapAddressCache<T> {
+
+    private final Map<Long, ResolvedAddress<T>> fCache;
+
+    private static class ResolvedAddress<T> {
+        private final int fPid;
+        private final Mapping fMapping;
+        private final T fValue;
+
+        public ResolvedAddress(int pid, Mapping mapping, T value) {
+            fPid = pid;
+            fMapping = mapping;
+            fValue = value;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param size
+     *            The maximum number of addresses in the cache
+     */
+    public PerfMmapAddressCache(int size) {
+        fCache = new LinkedHashMap<Long, ResolvedAddress<T>>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3596297349187573329L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<Long, ResolvedAddress<T>> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Get the value of an address at a time
+     *
+     * @param pid
+     *            The ID of the process
+     * @param address
+     *            The address
+     * @param timestamp
+     *            The time of the lookup
+     * @return The value, or <code>null</code> if the address is not in the
+     *         cache or was resolved in a mapping that is not the mapping of the
+     *         address at this time
+     */
+    public synchronized @Nullable T get(int pid, long address, long timestamp) {
+        ResolvedAddress<T> resolved = fCache.get(address);
+        if (resolved != null && resolved.fPid == pid && resolved.fMapping.isLookupValidAt(timestamp)) {
+            return resolved.fValue;
+        }
+        return null;
+    }
+
+    /**
+     * Add the value of an address
+     *
+     * @param pid
+     *            The ID of the process
+     * @param address
+     *            The address
+     * @param mapping
+     *            The mapping returned by the lookup of the address in the
+     *            {@link PerfMmapIndex}
+     * @param value
+     *            The value resolved for the address
+     */
+    public synchronized void put(int pid, long address, Mapping mapping, T value) {
+        fCache.put(address, new ResolvedAddress<>(pid, mapping, value));
+    }
+
+}
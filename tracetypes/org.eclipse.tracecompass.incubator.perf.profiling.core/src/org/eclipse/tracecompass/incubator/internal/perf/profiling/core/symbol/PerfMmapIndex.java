@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Index of the memory mappings of the processes of a perf trace, built in a
+ * single sweep of a complete mmap state system. For each process, the mappings
+ * are kept in primitive arrays sorted by base address, then by start time, so
+ * that the mapping of an address at a given time is found by binary search.
+ *
+ * Mappings of lower base addresses or of other times may be interleaved with
+ * the candidates, so the arrays are augmented with a segment tree of the
+ * minimum start and maximum end times of each range of mappings. The lookup
+ * skips the ranges that have no mapping valid at the requested time instead
+ * of scanning them. This is logarithmic when the mappings valid at a time are
+ * grouped, but in the worst case, when the ranges of the tree all overlap the
+ * requested time without containing a valid mapping, the lookup visits every
+ * mapping below the address, like a linear scan.
+ *
+ * @author agent
+ */
+public class PerfMmapIndex {
+
+    /**
+     * A memory mapping found in the index
+     */
+    public static class Mapping {
+        private final long fBaseAddress;
+        private final long fStart;
+        private final long fEnd;
+        private final String fFilename;
+        private final long fLookupStart;
+        private final long fLookupEnd;
+
+        private Mapping(long baseAddress, long start, long end, String filename) {
+            this(baseAddress, start, end, filename, start, end);
+        }
+
+        private Mapping(long baseAddress, long start, long end, String filename, long lookupStart, long lookupEnd) {
+            fBaseAddress = baseAddress;
+            fStart = start;
+            fEnd = end;
+            fFilename = filename;
+            fLookupStart = lookupStart;
+            fLookupEnd = lookupEnd;
+        }
+
+        /**
+         * @return The base address of the mapping in the process
+         */
+        public long getBaseAddress() {
+            return fBaseAddress;
+        }
+
+        /**
+         * @return The name of the mapped file
+         */
+        public String getFilename() {
+            return fFilename;
+        }
+
+        /**
+         * @param timestamp
+         *            The time to check
+         * @return Whether this mapping is valid at this time
+         */
+        public boolean isValidAt(long timestamp) {
+            return fStart <= timestamp && timestamp <= fEnd;
+        }
+
+        /**
+         * Get whether the lookup that returned this mapping would return it
+         * again at another time for the same address. A mapping with a higher
+         * base address may hide this one during part of its validity.
+         *
+         * @param timestamp
+         *            The time to check
+         * @return Whether this mapping is the mapping of the address of the
+         *         lookup at this time
+         */
+        public boolean isLookupValidAt(long timestamp) {
+            return fLookupStart <= timestamp && timestamp <= fLookupEnd;
+        }
+    }
+
+    /**
+     * Builder of the index, the mappings can be added in any order
+     */
+    public static class Builder {
+        private final Map<Integer, List<Mapping>> fMappings = new HashMap<>();
+
+        /**
+         * Add a mapping
+         *
+         * @param pid
+         *            The ID of the process
+         * @param baseAddress
+         *            The base address of the mapping
+         * @param start
+         *            The time at which the file is mapped
+         * @param end
+         *            The last time at which the file is mapped
+         * @param filename
+         *            The name of the mapped file
+         * @return This builder
+         */
+        public Builder add(int pid, long baseAddress, long start, long end, String filename) {
+            fMappings.computeIfAbsent(pid, p -> new ArrayList<>()).add(new Mapping(baseAddress, start, end, filename));
+            return this;
+        }
+
+        /**
+         * Build the index
+         *
+         * @return The mapping index
+         */
+        public PerfMmapIndex build() {
+            Map<Integer, ProcessMappings> processes = new HashMap<>();
+            for (Map.Entry<Integer, List<Mapping>> entry : fMappings.entrySet()) {
+                processes.put(entry.getKey(), new ProcessMappings(entry.getValue()));
+            }
+            return new PerfMmapIndex(processes);
+        }
+    }
+
+    /**
+     * The mappings of one process, sorted by base address and start time
+     */
+    private static class ProcessMappings {
+        private final long[] fBaseAddresses;
+        private final long[] fStarts;
+        private final long[] fEnds;
+        private final String[] fFilenames;
+        /* Segment tree of the minimum start and maximum end of the ranges of mappings */
+        private final long[] fMinStarts;
+        private final long[] fMaxEnds;
+
+        public ProcessMappings(List<Mapping> mappings) {
+            mappings.sort(Comparator.comparingLong((Mapping m) -> m.fBaseAddress).thenComparingLong(m -> m.fStart));
+            int size = mappings.size();
+            fBaseAddresses = new long[size];
+            fStarts = new long[size];
+            fEnds = new long[size];
+            fFilenames = new String[size];
+            for (int i = 0; i < size; i++) {
+                Mapping mapping = mappings.get(i);
+                fBaseAddresses[i] = mapping.fBaseAddress;
+                fStarts[i] = mapping.fStart;
+                fEnds[i] = mapping.fEnd;
+                fFilenames[i] = mapping.fFilename;
+            }
+            fMinStarts = new long[Math.max(1, 4 * size)];
+            fMaxEnds = new long[Math.max(1, 4 * size)];
+            if (size > 0) {
+                buildTree(0, 0, size - 1);
+            }
+        }
+
+        private void buildTree(int node, int low, int high) {
+            if (low == high) {
+                fMinStarts[node] = fStarts[low];
+                fMaxEnds[node] = fEnds[low];
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            buildTree(2 * node + 1, low, mid);
+            buildTree(2 * node + 2, mid + 1, high);
+            fMinStarts[node] = Math.min(fMinStarts[2 * node + 1], fMinStarts[2 * node + 2]);
+            fMaxEnds[node] = Math.max(fMaxEnds[2 * node + 1], fMaxEnds[2 * node + 2]);
+        }
+
+        /**
+         * Find the last mapping at or before an index that is valid at a time,
+         * skipping the ranges of the tree with no mapping valid at this time
+         */
+        private int findLastValid(int node, int low, int high, int last, long timestamp) {
+            if (low > last || fMinStarts[node] > timestamp || fMaxEnds[node] < timestamp) {
+                return -1;
+            }
+            if (low == high) {
+                // A single mapping, its start and end are the node's
+                return low;
+            }
+            int mid = (low + high) >>> 1;
+            int found = findLastValid(2 * node + 2, mid + 1, high, last, timestamp);
+            if (found >= 0) {
+                return found;
+            }
+            return findLastValid(2 * node + 1, low, mid, last, timestamp);
+        }
+
+        public @Nullable Mapping getMapping(long address, long timestamp) {
+            // Find the last mapping whose base address is lower or equal
+            int low = 0;
+            int high = fBaseAddresses.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fBaseAddresses[mid] <= address) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int index = low - 1;
+            if (index < 0) {
+                return null;
+            }
+            // The closest base address valid at this time is the mapping
+            int found = findLastValid(0, 0, fBaseAddresses.length - 1, index, timestamp);
+            if (found < 0) {
+                return null;
+            }
+            /*
+             * The mappings of higher base addresses below the address are not
+             * valid at this time, but they hide the found mapping when they are
+             */
+            long lookupStart = fStarts[found];
+            long lookupEnd = fEnds[found];
+            for (int i = found + 1; i <= index; i++) {
+                if (fEnds[i] < timestamp) {
+                    lookupStart = Math.max(lookupStart, fEnds[i] + 1);
+                } else {
+                    lookupEnd = Math.min(lookupEnd, fStarts[i] - 1);
+                }
+            }
+            return new Mapping(fBaseAddresses[found], fStarts[found], fEnds[found], fFilenames[found], lookupStart, lookupEnd);
+        }
+    }
+
+    private final Map<Integer, ProcessMappings> fProcesses;
+
+    private PerfMmapIndex(Map<Integer, ProcessMappings> processes) {
+        fProcesses = processes;
+    }
+
+    /**
+     * Build the index from the perf mmap state system. The state system should
+     * be completely built.
+     *
+     * @param stateSystem
+     *            The state system of the perf mmap analysis
+     * @return The mapping index
+     * @throws StateSystemDisposedException
+     *             If the state system was disposed during the query
+     */
+    public static PerfMmapIndex build(ITmfStateSystem stateSystem) throws StateSystemDisposedException {
+        // Parse the attribute names only once per attribute
+        List<Integer> baddrQuarks = stateSystem.getQuarks("*", "*"); //$NON-NLS-1$ //$NON-NLS-2$
+        Map<Integer, Long> baseAddresses = new HashMap<>();
+        Map<Integer, Integer> pids = new HashMap<>();
+        for (Integer quark : baddrQuarks) {
+            try {
+                baseAddresses.put(quark, Long.parseLong(stateSystem.getAttributeName(quark)));
+                pids.put(quark, Integer.parseInt(stateSystem.getAttributeName(stateSystem.getParentAttributeQuark(quark))));
+            } catch (NumberFormatException e) {
+                // Not a mapping attribute, ignore
+            }
+        }
+
+        Builder builder = new Builder();
+        for (ITmfStateInterval interval : stateSystem.query2D(baseAddresses.keySet(), stateSystem.getStartTime(), stateSystem.getCurrentEndTime())) {
+            Object value = interval.getValue();
+            if (value == null) {
+                continue;
+            }
+            int quark = interval.getAttribute();
+            Long baddr = baseAddresses.get(quark);
+            Integer pid = pids.get(quark);
+            if (baddr == null || pid == null) {
+                continue;
+            }
+            builder.add(pid, baddr, interval.getStartTime(), interval.getEndTime(), String.valueOf(value));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the mapping containing an address for a process at a given time
+     *
+     * @param pid
+     *            The ID of the process
+     * @param address
+     *            The address to look for
+     * @param timestamp
+     *            The time at which to look for the mapping
+     * @return The mapping of this address, or <code>null</code> if no file
+     *         was mapped below this address at this time
+     */
+    public @Nullable Mapping getMapping(int pid, long address, long timestamp) {
+        ProcessMappings processMappings = fProcesses.get(pid);
+        if (processMappings == null) {
+            return null;
+        }
+        return processMappings.getMapping(address, timestamp);
+    }
+
+}
@@ -27,6 +27,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Mapping;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
@@ -41,9 +42,14 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  */
 public class PerfMmapSymbolProvider implements ISymbolProvider {
 
+    /** Maximum number of resolved addresses to keep in the cache */
+    private static final int ADDRESS_CACHE_SIZE = 10000;
+
     private final PerfMmapAnalysisModule fMmapModule;
     private final ITmfTrace fTrace;
     private final Map<String, IMappingFile> fSymbolMapping = new HashMap<>();
+    private final PerfMmapAddressCache<TmfResolvedSymbol> fAddressCache = new PerfMmapAddressCache<>(ADDRESS_CACHE_SIZE);
+    private volatile @Nullable PerfMmapIndex fIndex = null;
 
     /**
      * Constructor
@@ -71,6 +77,11 @@ public class PerfMmapSymbolProvider implements ISymbolProvider {
         if (stateSystem == null) {
             return null;
         }
+        PerfMmapIndex index = getIndex(stateSystem);
+        if (index != null) {
+            return getSymbolFromIndex(index, pid, timestamp, address);
+        }
+        // The mmap analysis is not done yet, query the state system directly
         // Get the quark for the process
         int pidQuark = stateSystem.optQuarkAbsolute(String.valueOf(pid));
         if (pidQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
@@ -109,7 +120,52 @@ public class PerfMmapSymbolProvider implements ISymbolProvider {
 
     }
 
-    private @Nullable TmfResolvedSymbol getSymbolInFile(int pid, String filename, long address, long offset) {
+    /**
+     * Get the mapping index, building it the first time it is requested after
+     * the state system is completely built
+     */
+    private @Nullable PerfMmapIndex getIndex(ITmfStateSystem stateSystem) {
+        PerfMmapIndex index = fIndex;
+        if (index != null) {
+            return index;
+        }
+        if (!stateSystem.waitUntilBuilt(0)) {
+            return null;
+        }
+        synchronized (this) {
+            index = fIndex;
+            if (index == null) {
+                try {
+                    index = PerfMmapIndex.build(stateSystem);
+                } catch (IndexOutOfBoundsException | TimeRangeException | StateSystemDisposedException e) {
+                    Activator.getInstance().logWarning("Exceptions while building perf mmap index", e); //$NON-NLS-1$
+                    return null;
+                }
+                fIndex = index;
+            }
+            return index;
+        }
+    }
+
+    private @Nullable TmfResolvedSymbol getSymbolFromIndex(PerfMmapIndex index, int pid, long timestamp, long address) {
+        TmfResolvedSymbol cached = fAddressCache.get(pid, address, timestamp);
+        if (cached != null) {
+            return cached;
+        }
+        Mapping mapping = index.getMapping(pid, address, timestamp);
+        if (mapping == null) {
+            return null;
+        }
+        String filename = mapping.getFilename();
+        TmfResolvedSymbol symbol = getSymbolInFile(pid, filename, address, mapping.getBaseAddress());
+        if (symbol == null) {
+            symbol = new TmfResolvedSymbol(mapping.getBaseAddress(), filename);
+        }
+        fAddressCache.put(pid, address, mapping, symbol);
+        return symbol;
+    }
+
+    private synchronized @Nullable TmfResolvedSymbol getSymbolInFile(int pid, String filename, long address, long offset) {
         long addressInFile = address - offset;
         IMappingFile mappingFile = fSymbolMapping.get(filename);
         if (mappingFile == null) {
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.ros.core.tests.perf.messagestransport;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessagesTransportEventMatching;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher.PacketList;
+import org.junit.Test;
+
+/**
+ * Benchmarks the {@link TcpPacketMatcher} with synthetic ROS traffic between
+ * many hosts
+ *
+ * @author agent
+ */
+public class TcpPacketMatcherBenchmark {
+
+    /**
+     * Test test ID for the ROS benchmarks
+     */
+    public static final String TEST_ID = "org.eclipse.tracecompass.incubator#ROS#";
+    private static final String TEST_MATCHING = "TCP packet matching (%d hosts)";
+
+    private static final long SEED = 473892745896L;
+    private static final int LOOP_COUNT = 10;
+    private static final int NB_HOSTS = 8;
+    private static final int NB_CONNECTIONS = 200;
+    private static final int NB_PACKETS = 1000000;
+    /** One packet out of this number is lost */
+    private static final int LOSS_RATE = 100;
+    private static final long PERIOD = 10000L;
+    private static final long MAX_LATENCY = 500000L;
+
+    /**
+     * Run the matching benchmark
+     */
+    @Test
+    public void runMatchingBenchmark() {
+        Performance perf = Performance.getDefault();
+        String name = String.format(TEST_MATCHING, NB_HOSTS);
+        PerformanceMeter pm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + name));
+        perf.tagAsSummary(pm, name, Dimension.CPU_TIME);
+
+        int expected = NB_PACKETS - (NB_PACKETS + LOSS_RATE - 1) / LOSS_RATE;
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            List<PacketList> packets = generateTraffic();
+            TcpPacketMatcher matcher = new TcpPacketMatcher(RosMessagesTransportEventMatching.DEFAULT_WINDOW);
+            pm.start();
+            int nbMatches = matcher.match(packets, (connection, sendTime, receiveTime) -> {
+                // Nothing to do
+            }, new NullProgressMonitor());
+            pm.stop();
+            assertEquals(expected, nbMatches);
+        }
+        pm.commit();
+    }
+
+    /**
+     * Generate the packet events of the hosts. Each connection goes from one
+     * host to another, a packet is sent on a random connection every period
+     * and received after a random latency, unless it is lost.
+     */
+    private static List<PacketList> generateTraffic() {
+        Random random = new Random(SEED);
+        int[] sources = new int[NB_CONNECTIONS];
+        int[] destinations = new int[NB_CONNECTIONS];
+        long[] sequences = new long[NB_CONNECTIONS];
+        for (int c = 0; c < NB_CONNECTIONS; c++) {
+            sources[c] = random.nextInt(NB_HOSTS);
+            destinations[c] = (sources[c] + 1 + random.nextInt(NB_HOSTS - 1)) % NB_HOSTS;
+            sequences[c] = random.nextInt() & 0xFFFFFFFFL;
+        }
+
+        List<List<long[]>> events = new ArrayList<>();
+        for (int h = 0; h < NB_HOSTS; h++) {
+            events.add(new ArrayList<>());
+        }
+        // Events are { time, connection, sequence, ack, send }
+        for (int p = 0; p < NB_PACKETS; p++) {
+            int c = random.nextInt(NB_CONNECTIONS);
+            long time = p * PERIOD;
+            long ack = random.nextInt() & 0xFFFFFFFFL;
+            events.get(sources[c]).add(new long[] { time, c, sequences[c], ack, 1 });
+            if (p % LOSS_RATE != 0) {
+                long latency = 1 + (long) (random.nextDouble() * MAX_LATENCY);
+                events.get(destinations[c]).add(new long[] { time + latency, c, sequences[c], ack, 0 });
+            }
+            sequences[c] = (sequences[c] + 1 + random.nextInt(1500)) & 0xFFFFFFFFL;
+        }
+
+        List<PacketList> packets = new ArrayList<>();
+        for (List<long[]> hostEvents : events) {
+            hostEvents.sort(Comparator.comparingLong(event -> event[0]));
+            PacketList list = new PacketList();
+            for (long[] event : hostEvents) {
+                // ACK and PSH flags
+                list.add(event[0], (int) event[1], event[2], event[3], 0x18, event[4] == 1);
+            }
+            packets.add(list);
+        }
+        return packets;
+    }
+}
@@ -0,0 +1,402 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.ros.core.tests.messageflow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.AbstractRosStateProvider;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.TargetMessageInfo;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.TargetMessageInfo.RosQueueType;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.ConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnection;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex.IndexedTransport;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex.MessageQueue;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowSegment;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowSegment.SegmentType;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.IRosMessagesTransportModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessageTransport;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link RosMessageFlowIndex}, its file format and the message flows
+ * followed through it
+ *
+ * @author agent
+ */
+public class RosMessageFlowIndexTest {
+
+    private static final String TOPIC = "/chatter";
+    private static final String PUB = "/talker";
+    private static final String SUB = "/listener";
+    private static final long END_TIME = 100;
+
+    /* Offset of the number of queues, after the version and end time */
+    private static final int NB_QUEUES_OFFSET = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Messages transport model with fixed transports
+     */
+    private static class TransportModelStub implements IRosMessagesTransportModel {
+        private final List<RosMessageTransport> fTransports = new ArrayList<>();
+
+        public void addTransport(String subNode, long source, long destination) {
+            RosConnectionEndpoint pub = new RosConnectionEndpoint(TOPIC, PUB, new ConnectionEndpoint(new long[] { 127, 0, 0, 1 }, 1000), 0);
+            RosConnectionEndpoint sub = new RosConnectionEndpoint(TOPIC, subNode, new ConnectionEndpoint(new long[] { 127, 0, 0, 1 }, 2000), 0);
+            fTransports.add(new RosMessageTransport(new RosConnection(pub, sub), source, destination));
+        }
+
+        @Override
+        public void generateModel() {
+            // Nothing to do
+        }
+
+        @Override
+        public @Nullable RosMessageTransport getNextMessageTransport(long timestamp, String node, String topicName) {
+            return null;
+        }
+
+        @Override
+        public @Nullable Collection<RosMessageTransport> getMessageTransports() {
+            return fTransports;
+        }
+    }
+
+    private ITmfStateSystemBuilder fSs;
+    private TransportModelStub fTransportModel;
+
+    /**
+     * Create the queues of two messages published to a subscriber. The first
+     * one is handled by the subscriber's callback, the second one is dropped
+     * from the subscriber queue.
+     */
+    @Before
+    public void setUp() {
+        fSs = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("test", 0L));
+        addQueue(fSs, PUB, AbstractRosStateProvider.PUBLISHERS_LIST, 10, 20, 50, 60);
+        addQueue(fSs, SUB, AbstractRosStateProvider.SUBSCRIBERS_LIST, 26, 30, 66, 70);
+        addCallbacks(fSs, SUB, 30, 40);
+        int dropsQuark = fSs.getQuarkAbsoluteAndAdd(SUB, AbstractRosStateProvider.SUBSCRIBERS_LIST, TOPIC, AbstractRosStateProvider.DROPS);
+        fSs.modifyAttribute(66, 0x2L, dropsQuark);
+        fSs.modifyAttribute(70, (Object) null, dropsQuark);
+        fSs.closeHistory(END_TIME);
+
+        fTransportModel = new TransportModelStub();
+        fTransportModel.addTransport(SUB, 60, 65);
+        fTransportModel.addTransport(SUB, 20, 25);
+    }
+
+    /**
+     * Dispose the state system
+     */
+    @After
+    public void tearDown() {
+        fSs.dispose();
+    }
+
+    /**
+     * Test the queues, callbacks and transports of the index
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testBuild() throws StateSystemDisposedException {
+        RosMessageFlowIndex index = RosMessageFlowIndex.build(fSs, fTransportModel);
+        assertEquals(END_TIME, index.getEndTime());
+        assertEquals(Arrays.asList(TOPIC), index.getPublishedTopics(PUB));
+        assertEquals(Arrays.asList(), index.getPublishedTopics(SUB));
+
+        MessageQueue pubQueue = index.getQueue(PUB, RosQueueType.PUB, TOPIC);
+        assertNotNull(pubQueue);
+        assertEquals(2, pubQueue.size());
+        assertEquals(10, pubQueue.getEnqueueTime(0));
+        assertEquals(20, pubQueue.getDequeueTime(0));
+        assertEquals(0, pubQueue.getMessageAt(15, 1));
+        assertEquals(-1, pubQueue.getMessageAt(15, 2));
+        assertEquals(-1, pubQueue.getMessageAt(30, 1));
+        assertEquals(1, pubQueue.getFirstMessageFrom(11));
+        assertEquals(-1, pubQueue.getFirstMessageFrom(51));
+
+        MessageQueue subQueue = index.getQueue(SUB, RosQueueType.SUB, TOPIC);
+        assertNotNull(subQueue);
+        assertFalse(subQueue.isDropped(0));
+        assertTrue(subQueue.isDropped(1));
+        assertNull(index.getQueue(SUB, RosQueueType.PUB, TOPIC));
+
+        assertArrayEquals(new long[] { 30, 40 }, index.getCallbackAt(SUB, 35));
+        assertNull(index.getCallbackAt(PUB, 35));
+
+        IndexedTransport transport = index.getNextTransport(PUB, TOPIC, 21);
+        assertNotNull(transport);
+        assertEquals(60, transport.getSourceTimestamp());
+        assertEquals(65, transport.getDestinationTimestamp());
+        assertEquals(SUB, transport.getSubNode());
+        assertNull(index.getNextTransport(PUB, TOPIC, 61));
+        assertEquals(1, index.getTransports(PUB, TOPIC, 0, END_TIME).size());
+    }
+
+    /**
+     * Test that an index read back from its file has the same content
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     * @throws IOException
+     *             Exception thrown reading or writing the index
+     */
+    @Test
+    public void testWriteRead() throws StateSystemDisposedException, IOException {
+        RosMessageFlowIndex index = RosMessageFlowIndex.build(fSs, fTransportModel);
+        byte[] bytes = toBytes(index);
+        RosMessageFlowIndex read = RosMessageFlowIndex.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        assertSameIndex(index, read);
+        assertArrayEquals(bytes, toBytes(read));
+    }
+
+    /**
+     * Test that invalid counts and times are rejected with an
+     * {@link IOException}, without allocating arrays of the invalid sizes
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     * @throws IOException
+     *             Exception thrown writing the index
+     */
+    @Test
+    public void testReadInvalid() throws StateSystemDisposedException, IOException {
+        byte[] bytes = toBytes(RosMessageFlowIndex.build(fSs, fTransportModel));
+
+        // Negative and huge number of queues
+        assertInvalid(withInt(bytes, NB_QUEUES_OFFSET, -1));
+        assertInvalid(withInt(bytes, NB_QUEUES_OFFSET, Integer.MAX_VALUE));
+
+        // Negative and huge number of messages of the first queue
+        int nbMessagesOffset = NB_QUEUES_OFFSET + Integer.BYTES + utfLength(PUB) + utfLength(TOPIC) + utfLength(RosQueueType.PUB.name());
+        assertInvalid(withInt(bytes, nbMessagesOffset, -1));
+        assertInvalid(withInt(bytes, nbMessagesOffset, Integer.MAX_VALUE));
+
+        // A message that leaves the queue before it is added
+        int firstMessageOffset = nbMessagesOffset + Integer.BYTES;
+        assertInvalid(withLong(bytes, firstMessageOffset, 25));
+
+        // Truncated file and unknown version
+        assertInvalid(Arrays.copyOf(bytes, bytes.length - 1));
+        assertInvalid(withInt(bytes, 0, 0));
+    }
+
+    /**
+     * Test that an index file that cannot be read is rebuilt and replaced
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     * @throws IOException
+     *             Exception thrown reading or writing the index file
+     */
+    @Test
+    public void testCorruptFileRebuilt() throws StateSystemDisposedException, IOException {
+        RosMessageFlowIndex expected = RosMessageFlowIndex.build(fSs, fTransportModel);
+        File file = File.createTempFile("ros-message-flow", ".idx");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(withInt(toBytes(expected), NB_QUEUES_OFFSET, Integer.MAX_VALUE));
+            }
+            RosMessageFlowIndex index = RosMessageFlowIndex.getIndex(file, fSs, fTransportModel);
+            assertSameIndex(expected, index);
+
+            // The file was replaced by a valid index
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                assertSameIndex(expected, RosMessageFlowIndex.read(in));
+            }
+            assertSameIndex(expected, RosMessageFlowIndex.getIndex(file, fSs, fTransportModel));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test following a message from the publisher queue to the subscriber
+     * callback, through the transport that starts after it left the publisher
+     * queue
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testMessageFlow() throws StateSystemDisposedException {
+        RosMessageFlowIndex index = RosMessageFlowIndex.build(fSs, fTransportModel);
+        TargetMessageInfo info = new TargetMessageInfo(PUB, TOPIC, RosQueueType.PUB, 1, "0x1", 15, 10);
+        RosMessageFlowModel model = new RosMessageFlowModel(info, index);
+        model.generateModel();
+        assertTrue(model.isModelDone());
+
+        Iterator<RosMessageFlowSegment> segments = segments(model.getFirstSegment()).iterator();
+        assertSegment(segments.next(), SegmentType.PUB_QUEUE, PUB, 10, 19);
+        assertSegment(segments.next(), SegmentType.SUB_QUEUE, SUB, 26, 29);
+        assertSegment(segments.next(), SegmentType.SUB_CALLBACK, SUB, 30, 40);
+        assertFalse(segments.hasNext());
+    }
+
+    /**
+     * Test that the flow of a message ends in the queue it was dropped from
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testDroppedMessageFlow() throws StateSystemDisposedException {
+        RosMessageFlowIndex index = RosMessageFlowIndex.build(fSs, fTransportModel);
+        TargetMessageInfo info = new TargetMessageInfo(PUB, TOPIC, RosQueueType.PUB, 1, "0x2", 55, 50);
+        RosMessageFlowModel model = new RosMessageFlowModel(info, index);
+        model.generateModel();
+        assertTrue(model.isModelDone());
+
+        Iterator<RosMessageFlowSegment> segments = segments(model.getFirstSegment()).iterator();
+        assertSegment(segments.next(), SegmentType.PUB_QUEUE, PUB, 50, 59);
+        assertSegment(segments.next(), SegmentType.SUB_QUEUE, SUB, 66, 69);
+        assertFalse(segments.hasNext());
+    }
+
+    private static List<RosMessageFlowSegment> segments(@Nullable RosMessageFlowSegment first) {
+        List<RosMessageFlowSegment> segments = new ArrayList<>();
+        RosMessageFlowSegment segment = first;
+        while (segment != null) {
+            segments.add(segment);
+            Collection<RosMessageFlowSegment> next = segment.getNext();
+            segment = next.isEmpty() ? null : next.iterator().next();
+        }
+        return segments;
+    }
+
+    private static void assertSegment(RosMessageFlowSegment segment, SegmentType type, String node, long start, long end) {
+        assertEquals(type, segment.getType());
+        assertEquals(node, segment.getNodeName());
+        assertEquals(start, segment.getStartTime());
+        assertEquals(end, segment.getEndTime());
+    }
+
+    private static void assertSameIndex(RosMessageFlowIndex expected, RosMessageFlowIndex actual) {
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        assertEquals(expected.getQueues().size(), actual.getQueues().size());
+        for (MessageQueue expectedQueue : expected.getQueues()) {
+            MessageQueue queue = actual.getQueue(expectedQueue.getNode(), expectedQueue.getType(), expectedQueue.getTopic());
+            assertNotNull(queue);
+            assertEquals(expectedQueue.size(), queue.size());
+            for (int i = 0; i < queue.size(); i++) {
+                assertEquals(expectedQueue.getEnqueueTime(i), queue.getEnqueueTime(i));
+                assertEquals(expectedQueue.getDequeueTime(i), queue.getDequeueTime(i));
+                assertEquals(expectedQueue.getReference(i), queue.getReference(i));
+                assertEquals(expectedQueue.isDropped(i), queue.isDropped(i));
+            }
+        }
+        for (String node : Arrays.asList(PUB, SUB)) {
+            assertEquals(expected.getPublishedTopics(node), actual.getPublishedTopics(node));
+            for (long time = 0; time <= END_TIME; time++) {
+                assertArrayEquals(expected.getCallbackAt(node, time), actual.getCallbackAt(node, time));
+            }
+        }
+        List<IndexedTransport> expectedTransports = expected.getTransports(PUB, TOPIC, 0, END_TIME);
+        List<IndexedTransport> transports = actual.getTransports(PUB, TOPIC, 0, END_TIME);
+        assertEquals(expectedTransports.size(), transports.size());
+        for (int i = 0; i < transports.size(); i++) {
+            assertEquals(expectedTransports.get(i).getSourceTimestamp(), transports.get(i).getSourceTimestamp());
+            assertEquals(expectedTransports.get(i).getDestinationTimestamp(), transports.get(i).getDestinationTimestamp());
+            assertEquals(expectedTransports.get(i).getSubNode(), transports.get(i).getSubNode());
+            assertEquals(expectedTransports.get(i).getSubTopic(), transports.get(i).getSubTopic());
+        }
+    }
+
+    private static void assertInvalid(byte[] bytes) {
+        try {
+            RosMessageFlowIndex.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+            fail("Invalid index was read");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    private static byte[] toBytes(RosMessageFlowIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        byte[] copy = Arrays.copyOf(bytes, bytes.length);
+        ByteBuffer.wrap(copy).putInt(offset, value);
+        return copy;
+    }
+
+    private static byte[] withLong(byte[] bytes, int offset, long value) {
+        byte[] copy = Arrays.copyOf(bytes, bytes.length);
+        ByteBuffer.wrap(copy).putLong(offset, value);
+        return copy;
+    }
+
+    /* Length of an ASCII string written with writeUTF */
+    private static int utfLength(String string) {
+        return Short.BYTES + string.length();
+    }
+
+    /**
+     * Add a queue for a topic of a node, where each message is enqueued then
+     * dequeued before the next one
+     */
+    private static void addQueue(ITmfStateSystemBuilder ss, String node, String list, long... times) {
+        int queueQuark = ss.getQuarkAbsoluteAndAdd(node, list, TOPIC, AbstractRosStateProvider.QUEUE);
+        for (int i = 0; i < times.length; i += 2) {
+            ss.modifyAttribute(times[i], 1, queueQuark);
+            ss.modifyAttribute(times[i + 1], 0, queueQuark);
+        }
+    }
+
+    private static void addCallbacks(ITmfStateSystemBuilder ss, String node, long... times) {
+        int callbacksQuark = ss.getQuarkAbsoluteAndAdd(node, AbstractRosStateProvider.SUBSCRIBERS_LIST, AbstractRosStateProvider.CALLBACKS);
+        for (int i = 0; i < times.length; i += 2) {
+            ss.modifyAttribute(times[i], TOPIC, callbacksQuark);
+            ss.modifyAttribute(times[i + 1] + 1, (Object) null, callbacksQuark);
+        }
+    }
+
+}
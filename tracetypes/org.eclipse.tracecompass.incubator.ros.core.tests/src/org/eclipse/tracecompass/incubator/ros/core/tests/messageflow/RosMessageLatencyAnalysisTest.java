@@ -0,0 +1,161 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.ros.core.tests.messageflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.AbstractRosStateProvider;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.RosMessageLatencyAnalysis;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.RosMessageLatencySegment;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.TargetMessageInfo.RosQueueType;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.ConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnection;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex.MessageQueue;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.IRosMessagesTransportModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessageTransport;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.junit.Test;
+
+/**
+ * Test the latencies computed by the {@link RosMessageLatencyAnalysis}
+ *
+ * @author agent
+ */
+public class RosMessageLatencyAnalysisTest {
+
+    private static final String TOPIC = "/chatter";
+    private static final String PUB = "/talker";
+    private static final String SUB1 = "/listener1";
+    private static final String SUB2 = "/listener2";
+
+    /**
+     * Messages transport model with fixed transports
+     */
+    private static class TransportModelStub implements IRosMessagesTransportModel {
+        private final List<RosMessageTransport> fTransports = new ArrayList<>();
+
+        public void addTransport(String subNode, long source, long destination) {
+            RosConnectionEndpoint pub = new RosConnectionEndpoint(TOPIC, PUB, new ConnectionEndpoint(new long[] { 127, 0, 0, 1 }, 1000), 0);
+            RosConnectionEndpoint sub = new RosConnectionEndpoint(TOPIC, subNode, new ConnectionEndpoint(new long[] { 127, 0, 0, 1 }, 2000 + fTransports.size()), 0);
+            fTransports.add(new RosMessageTransport(new RosConnection(pub, sub), source, destination));
+        }
+
+        @Override
+        public void generateModel() {
+            // Nothing to do
+        }
+
+        @Override
+        public @Nullable RosMessageTransport getNextMessageTransport(long timestamp, String node, String topicName) {
+            return null;
+        }
+
+        @Override
+        public @Nullable Collection<RosMessageTransport> getMessageTransports() {
+            return fTransports;
+        }
+    }
+
+    /**
+     * Test that a message published to two subscribers has the latency of
+     * each subscriber
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state system
+     */
+    @Test
+    public void testOnePublisherTwoSubscribers() throws StateSystemDisposedException {
+        ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(StateHistoryBackendFactory.createInMemoryBackend("test", 0L));
+        // Two messages enqueued and dequeued by the publisher
+        addQueue(ss, PUB, AbstractRosStateProvider.PUBLISHERS_LIST, 10, 20, 50, 60);
+        // Each subscriber receives both messages and handles them in its callback
+        addQueue(ss, SUB1, AbstractRosStateProvider.SUBSCRIBERS_LIST, 26, 30, 66, 70);
+        addCallbacks(ss, SUB1, 30, 40, 70, 80);
+        addQueue(ss, SUB2, AbstractRosStateProvider.SUBSCRIBERS_LIST, 28, 35, 67, 75);
+        addCallbacks(ss, SUB2, 35, 45, 75, 85);
+        ss.closeHistory(100);
+
+        TransportModelStub transportModel = new TransportModelStub();
+        transportModel.addTransport(SUB1, 20, 25);
+        transportModel.addTransport(SUB2, 21, 27);
+        transportModel.addTransport(SUB2, 60, 66);
+        transportModel.addTransport(SUB1, 61, 65);
+
+        RosMessageFlowIndex index = RosMessageFlowIndex.build(ss, transportModel);
+        MessageQueue pubQueue = index.getQueue(PUB, RosQueueType.PUB, TOPIC);
+        assertNotNull(pubQueue);
+        List<RosMessageLatencySegment> segments = new ArrayList<>(RosMessageLatencyAnalysis.computeLatencies(index, pubQueue, new NullProgressMonitor()));
+        segments.sort(Comparator.comparingLong(RosMessageLatencySegment::getStart).thenComparing(RosMessageLatencySegment::getName));
+
+        String toSub1 = PUB + ' ' + TOPIC + " -> " + SUB1;
+        String toSub2 = PUB + ' ' + TOPIC + " -> " + SUB2;
+        assertEquals(Arrays.asList(toSub1, toSub2, toSub1, toSub2), names(segments));
+        long[][] expected = {
+                // start, end, queue wait, transport, callback
+                { 10, 40, 14, 6, 10 },
+                { 10, 45, 17, 8, 10 },
+                { 50, 80, 14, 6, 10 },
+                { 50, 85, 18, 7, 10 } };
+        for (int i = 0; i < expected.length; i++) {
+            RosMessageLatencySegment segment = segments.get(i);
+            assertEquals(expected[i][0], segment.getStart());
+            assertEquals(expected[i][1], segment.getEnd());
+            assertEquals(expected[i][2], segment.getQueueWait());
+            assertEquals(expected[i][3], segment.getTransport());
+            assertEquals(expected[i][4], segment.getCallback());
+        }
+        ss.dispose();
+    }
+
+    private static List<String> names(List<RosMessageLatencySegment> segments) {
+        List<String> names = new ArrayList<>();
+        for (RosMessageLatencySegment segment : segments) {
+            names.add(segment.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Add a queue for a topic of a node, where each message is enqueued then
+     * dequeued before the next one
+     */
+    private static void addQueue(ITmfStateSystemBuilder ss, String node, String list, long... times) {
+        int queueQuark = ss.getQuarkAbsoluteAndAdd(node, list, TOPIC, AbstractRosStateProvider.QUEUE);
+        for (int i = 0; i < times.length; i += 2) {
+            ss.modifyAttribute(times[i], 1, queueQuark);
+            ss.modifyAttribute(times[i + 1], 0, queueQuark);
+        }
+    }
+
+    private static void addCallbacks(ITmfStateSystemBuilder ss, String node, long... times) {
+        int callbacksQuark = ss.getQuarkAbsoluteAndAdd(node, AbstractRosStateProvider.SUBSCRIBERS_LIST, AbstractRosStateProvider.CALLBACKS);
+        for (int i = 0; i < times.length; i += 2) {
+            ss.modifyAttribute(times[i], TOPIC, callbacksQuark);
+            ss.modifyAttribute(times[i + 1] + 1, (Object) null, callbacksQuark);
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.ros.core.tests.messagestransport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.ConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.IRosConnectionsModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnection;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.NetworkConnection;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessageTransport;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessagesTransportEventMatching;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher.PacketList;
+import org.junit.Test;
+
+/**
+ * Test the matching of the packets of ROS connections by the
+ * {@link RosMessagesTransportEventMatching}
+ *
+ * @author agent
+ */
+public class RosMessagesTransportEventMatchingTest {
+
+    private static final long WINDOW = 100;
+    /** ACK and PSH flags */
+    private static final long FLAGS = 0x18;
+
+    private static final ConnectionEndpoint PUB_ENDPOINT = new ConnectionEndpoint(new long[] { 10, 0, 0, 1 }, 1000);
+    private static final ConnectionEndpoint SUB1_ENDPOINT = new ConnectionEndpoint(new long[] { 10, 0, 0, 2 }, 2000);
+    private static final ConnectionEndpoint SUB2_ENDPOINT = new ConnectionEndpoint(new long[] { 10, 0, 0, 3 }, 2000);
+
+    private static final RosConnection CHATTER_TO_SUB1 = connection("/chatter", PUB_ENDPOINT, "/listener1", SUB1_ENDPOINT);
+    private static final RosConnection OTHER_TO_SUB1 = connection("/other", PUB_ENDPOINT, "/listener1", SUB1_ENDPOINT);
+    private static final RosConnection CHATTER_TO_SUB2 = connection("/chatter", PUB_ENDPOINT, "/listener2", SUB2_ENDPOINT);
+
+    /**
+     * Connections model with fixed connections
+     */
+    private static class ConnectionsModelStub implements IRosConnectionsModel {
+        private final @Nullable Collection<RosConnection> fConnections;
+
+        public ConnectionsModelStub(@Nullable Collection<RosConnection> connections) {
+            fConnections = connections;
+        }
+
+        @Override
+        public void generateModel() {
+            // Nothing to do
+        }
+
+        @Override
+        public @Nullable Collection<RosConnection> getConnections() {
+            return fConnections;
+        }
+
+        @Override
+        public List<RosConnection> getNodeConnections(String nodeName) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public @Nullable RosConnection getConnection(ConnectionEndpoint endpoint, String topicName) {
+            return null;
+        }
+
+        @Override
+        public @Nullable RosConnection getConnectionFromNodePublishingOnTopic(String pubNodeName, String topicName) {
+            return null;
+        }
+
+        @Override
+        public @Nullable RosConnection getConnectionBetweenEndpoints(ConnectionEndpoint source, ConnectionEndpoint destination) {
+            return null;
+        }
+    }
+
+    /**
+     * Test the IDs of the connections, which are shared by the ROS connections
+     * of a network connection
+     */
+    @Test
+    public void testConnectionIds() {
+        RosMessagesTransportEventMatching matching = new RosMessagesTransportEventMatching(new ConnectionsModelStub(Arrays.asList(CHATTER_TO_SUB1, OTHER_TO_SUB1, CHATTER_TO_SUB2)), WINDOW);
+        Integer sub1 = matching.getConnectionId(new NetworkConnection(PUB_ENDPOINT, SUB1_ENDPOINT));
+        Integer sub2 = matching.getConnectionId(new NetworkConnection(PUB_ENDPOINT, SUB2_ENDPOINT));
+        assertNotNull(sub1);
+        assertNotNull(sub2);
+        assertNotEquals(sub1, sub2);
+        // Packets from the subscriber to the publisher do not transport messages
+        assertNull(matching.getConnectionId(new NetworkConnection(SUB1_ENDPOINT, PUB_ENDPOINT)));
+    }
+
+    /**
+     * Test that the matched packets are transports of their ROS connection,
+     * whichever trace saw them first
+     */
+    @Test
+    public void testMatchPackets() {
+        RosMessagesTransportEventMatching matching = new RosMessagesTransportEventMatching(new ConnectionsModelStub(Arrays.asList(CHATTER_TO_SUB1, CHATTER_TO_SUB2)), WINDOW);
+        int sub1 = getConnectionId(matching, SUB1_ENDPOINT);
+        int sub2 = getConnectionId(matching, SUB2_ENDPOINT);
+
+        PacketList pubTrace = new PacketList();
+        pubTrace.add(10, sub1, 1000, 5, FLAGS, true);
+        pubTrace.add(11, sub2, 1000, 5, FLAGS, true);
+        pubTrace.add(50, sub1, 2000, 5, FLAGS, true);
+        PacketList sub1Trace = new PacketList();
+        sub1Trace.add(15, sub1, 1000, 5, FLAGS, false);
+        // Clock of the second subscriber's trace is behind
+        PacketList sub2Trace = new PacketList();
+        sub2Trace.add(8, sub2, 1000, 5, FLAGS, false);
+
+        List<RosMessageTransport> transports = new ArrayList<>(matching.matchPackets(Arrays.asList(pubTrace, sub1Trace, sub2Trace), new NullProgressMonitor()));
+        transports.sort(Comparator.comparingLong(RosMessageTransport::getSourceTimestamp));
+        assertEquals(2, transports.size());
+        assertTransport(transports.get(0), CHATTER_TO_SUB1, 10, 15);
+        assertTransport(transports.get(1), CHATTER_TO_SUB2, 11, 8);
+    }
+
+    /**
+     * Test a connections model without connections
+     */
+    @Test
+    public void testNoConnections() {
+        RosMessagesTransportEventMatching matching = new RosMessagesTransportEventMatching(new ConnectionsModelStub(null), WINDOW);
+        assertNull(matching.getConnectionId(new NetworkConnection(PUB_ENDPOINT, SUB1_ENDPOINT)));
+        assertTrue(matching.matchPackets(Collections.emptyList(), new NullProgressMonitor()).isEmpty());
+    }
+
+    /**
+     * Test that no transports are returned when the matching is canceled
+     */
+    @Test
+    public void testCanceled() {
+        RosMessagesTransportEventMatching matching = new RosMessagesTransportEventMatching(new ConnectionsModelStub(Arrays.asList(CHATTER_TO_SUB1)), WINDOW);
+        int sub1 = getConnectionId(matching, SUB1_ENDPOINT);
+        PacketList packets = new PacketList();
+        packets.add(10, sub1, 1000, 5, FLAGS, true);
+        packets.add(15, sub1, 1000, 5, FLAGS, false);
+
+        IProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        assertTrue(matching.matchPackets(Arrays.asList(packets), monitor).isEmpty());
+    }
+
+    private static int getConnectionId(RosMessagesTransportEventMatching matching, ConnectionEndpoint sub) {
+        Integer id = matching.getConnectionId(new NetworkConnection(PUB_ENDPOINT, sub));
+        assertNotNull(id);
+        return id;
+    }
+
+    private static void assertTransport(RosMessageTransport transport, RosConnection connection, long source, long destination) {
+        assertSame(connection, transport.getConnection());
+        assertEquals(source, transport.getSourceTimestamp());
+        assertEquals(destination, transport.getDestinationTimestamp());
+    }
+
+    private static RosConnection connection(String topic, ConnectionEndpoint pubEndpoint, String subNode, ConnectionEndpoint subEndpoint) {
+        return new RosConnection(new RosConnectionEndpoint(topic, "/talker", pubEndpoint, 0), new RosConnectionEndpoint(topic, subNode, subEndpoint, 0));
+    }
+}
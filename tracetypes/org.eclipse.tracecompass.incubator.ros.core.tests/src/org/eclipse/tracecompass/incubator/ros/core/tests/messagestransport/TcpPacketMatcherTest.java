@@ -0,0 +1,180 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.ros.core.tests.messagestransport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher.PacketList;
+import org.junit.Test;
+
+/**
+ * Test the {@link TcpPacketMatcher}
+ *
+ * @author agent
+ */
+public class TcpPacketMatcherTest {
+
+    private static final long WINDOW = 100;
+    /** ACK and PSH flags */
+    private static final long FLAGS = 0x18;
+
+    /**
+     * Test matching a packet received after it was sent
+     */
+    @Test
+    public void testSendThenReceive() {
+        PacketList sender = new PacketList();
+        sender.add(10, 0, 1000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(15, 0, 1000, 5, FLAGS, false);
+
+        List<long[]> matches = match(WINDOW, sender, receiver);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new long[] { 0, 10, 15 }, matches.get(0));
+    }
+
+    /**
+     * Test matching a packet received before it was sent, as happens when the
+     * clocks of the traces are not synchronized
+     */
+    @Test
+    public void testReceiveBeforeSend() {
+        PacketList sender = new PacketList();
+        sender.add(10, 3, 1000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(8, 3, 1000, 5, FLAGS, false);
+
+        List<long[]> matches = match(WINDOW, sender, receiver);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new long[] { 3, 10, 8 }, matches.get(0));
+    }
+
+    /**
+     * Test that a packet sent twice, like a retransmission, is matched once
+     * with its first send, and that packets that only differ by their
+     * connection, acknowledgment number or flags are not matched
+     */
+    @Test
+    public void testDuplicateKeys() {
+        PacketList sender = new PacketList();
+        sender.add(10, 0, 1000, 5, FLAGS, true);
+        sender.add(12, 0, 1000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(20, 0, 1000, 5, FLAGS, false);
+        receiver.add(22, 0, 1000, 5, FLAGS, false);
+        receiver.add(23, 1, 1000, 5, FLAGS, false);
+        receiver.add(24, 0, 1000, 6, FLAGS, false);
+        receiver.add(25, 0, 1000, 5, 0x10, false);
+
+        List<long[]> matches = match(WINDOW, sender, receiver);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new long[] { 0, 10, 20 }, matches.get(0));
+    }
+
+    /**
+     * Test that a packet is not matched once it is older than the window
+     */
+    @Test
+    public void testEviction() {
+        PacketList sender = new PacketList();
+        sender.add(0, 0, 1000, 5, FLAGS, true);
+        sender.add(150, 0, 2000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(160, 0, 1000, 5, FLAGS, false);
+        receiver.add(170, 0, 2000, 5, FLAGS, false);
+
+        List<long[]> matches = match(WINDOW, sender, receiver);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new long[] { 0, 150, 170 }, matches.get(0));
+    }
+
+    /**
+     * Test that a packet exactly at the start of the window when the unmatched
+     * packets are evicted is kept
+     */
+    @Test
+    public void testEvictionBound() {
+        PacketList sender = new PacketList();
+        sender.add(0, 1, 1000, 5, FLAGS, true);
+        sender.add(50, 0, 1000, 5, FLAGS, true);
+        sender.add(150, 0, 2000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(160, 0, 1000, 5, FLAGS, false);
+
+        List<long[]> matches = match(WINDOW, sender, receiver);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new long[] { 0, 50, 160 }, matches.get(0));
+    }
+
+    /**
+     * Test matching more unmatched packets than the initial capacity of the
+     * tables, received in the reverse order
+     */
+    @Test
+    public void testManyPending() {
+        int nbPackets = 5000;
+        PacketList sender = new PacketList();
+        PacketList receiver = new PacketList();
+        for (int i = 0; i < nbPackets; i++) {
+            sender.add(i, i % 7, i, 5, FLAGS, true);
+        }
+        for (int i = nbPackets - 1; i >= 0; i--) {
+            receiver.add(2L * nbPackets - i, i % 7, i, 5, FLAGS, false);
+        }
+
+        List<long[]> matches = match(10 * nbPackets, sender, receiver);
+        assertEquals(nbPackets, matches.size());
+        for (long[] match : matches) {
+            assertEquals(2L * nbPackets - match[1], match[2]);
+        }
+    }
+
+    /**
+     * Test that the matching stops when it is canceled
+     */
+    @Test
+    public void testCanceled() {
+        PacketList sender = new PacketList();
+        sender.add(10, 0, 1000, 5, FLAGS, true);
+        PacketList receiver = new PacketList();
+        receiver.add(15, 0, 1000, 5, FLAGS, false);
+
+        IProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        List<long[]> matches = new ArrayList<>();
+        int nbMatches = new TcpPacketMatcher(WINDOW).match(Arrays.asList(sender, receiver),
+                (connection, sendTime, receiveTime) -> matches.add(new long[] { connection, sendTime, receiveTime }), monitor);
+        assertEquals(0, nbMatches);
+        assertEquals(0, matches.size());
+    }
+
+    /**
+     * Match packet lists
+     *
+     * @return the matches, as { connection, send time, receive time }
+     */
+    private static List<long[]> match(long window, PacketList... packets) {
+        List<long[]> matches = new ArrayList<>();
+        int nbMatches = new TcpPacketMatcher(window).match(Arrays.asList(packets),
+                (connection, sendTime, receiveTime) -> matches.add(new long[] { connection, sendTime, receiveTime }), new NullProgressMonitor());
+        assertEquals(nbMatches, matches.size());
+        return matches;
+    }
+}
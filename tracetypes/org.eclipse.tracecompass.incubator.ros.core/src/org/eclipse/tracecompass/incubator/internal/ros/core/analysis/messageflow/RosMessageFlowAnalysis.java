@@ -20,11 +20,13 @@ import org.eclipse.tracecompass.incubator.internal.ros.core.Activator;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.IRosModelProvider;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.RosModelUtils;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.IRosMessageFlowModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowModel;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.IRosMessagesTransportModel;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessagesTransportModelAnalysis;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.queues.RosQueuesAnalysis;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -48,6 +50,8 @@ public class RosMessageFlowAnalysis extends TmfAbstractAnalysisModule implements
 
     private @Nullable IProgressMonitor fMonitor;
     private @Nullable RosMessageFlowModel fModel = null;
+    /* The index is kept between the executions for different target messages */
+    private @Nullable RosMessageFlowIndex fIndex = null;
 
     /**
      * Constructor
@@ -91,7 +95,18 @@ public class RosMessageFlowAnalysis extends TmfAbstractAnalysisModule implements
             return false;
         }
 
-        RosMessageFlowModel model = new RosMessageFlowModel(targetMessageInfo, queuesStateSystem, messagesTransportModel);
+        RosMessageFlowIndex index = fIndex;
+        if (index == null) {
+            try {
+                index = RosMessageFlowIndex.getIndex(trace, queuesStateSystem, messagesTransportModel);
+            } catch (StateSystemDisposedException e) {
+                Activator.getInstance().logError("Error building the message flow index", e); //$NON-NLS-1$
+                return false;
+            }
+            fIndex = index;
+        }
+
+        RosMessageFlowModel model = new RosMessageFlowModel(targetMessageInfo, index);
         model.generateModel();
         fModel = model;
         return fModel.isModelDone() && !monitor.isCanceled();
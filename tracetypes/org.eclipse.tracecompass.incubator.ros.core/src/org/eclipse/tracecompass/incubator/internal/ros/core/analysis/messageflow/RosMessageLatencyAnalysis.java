@@ -0,0 +1,231 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.AbstractSegmentStoreAnalysisModule;
+import org.eclipse.tracecompass.incubator.internal.ros.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.TargetMessageInfo.RosQueueType;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.RosModelUtils;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex.IndexedTransport;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.RosMessageFlowIndex.MessageQueue;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.IRosMessagesTransportModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessagesTransportModelAnalysis;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.queues.RosQueuesAnalysis;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.segment.ISegmentAspect;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * ROS message latency analysis, which computes the end-to-end latency of every
+ * message going from a publisher to a subscriber callback. The latencies are
+ * broken down by time spent in the queues, in the network transport and in the
+ * callback.
+ *
+ * @author agent
+ */
+public class RosMessageLatencyAnalysis extends AbstractSegmentStoreAnalysisModule {
+
+    /** The ID of this analysis module */
+    public static final @NonNull String ID = "org.eclipse.tracecompass.incubator.ros.core.analysis.messageflow.latency"; //$NON-NLS-1$
+
+    private static final Iterable<ISegmentAspect> ASPECTS = ImmutableList.of(
+            new LatencyAspect("Queue Wait", "Time spent in the publisher and subscriber queues", RosMessageLatencySegment::getQueueWait), //$NON-NLS-1$ //$NON-NLS-2$
+            new LatencyAspect("Transport", "Time between leaving the publisher queue and being added to the subscriber queue", RosMessageLatencySegment::getTransport), //$NON-NLS-1$ //$NON-NLS-2$
+            new LatencyAspect("Callback", "Time spent in the subscriber callback", RosMessageLatencySegment::getCallback)); //$NON-NLS-1$ //$NON-NLS-2$
+
+    private @Nullable IProgressMonitor fMonitor;
+
+    /**
+     * Aspect for one part of the latency of a message
+     */
+    private static final class LatencyAspect implements ISegmentAspect {
+        private final String fName;
+        private final String fHelpText;
+        private final ToLongFunction<RosMessageLatencySegment> fFunction;
+
+        public LatencyAspect(String name, String helpText, ToLongFunction<RosMessageLatencySegment> function) {
+            fName = name;
+            fHelpText = helpText;
+            fFunction = function;
+        }
+
+        @Override
+        public String getName() {
+            return fName;
+        }
+
+        @Override
+        public String getHelpText() {
+            return fHelpText;
+        }
+
+        @Override
+        public @Nullable Comparator<?> getComparator() {
+            return Comparator.comparingLong((ISegment segment) -> {
+                Object value = resolve(segment);
+                return (value instanceof Long) ? (Long) value : Long.MIN_VALUE;
+            });
+        }
+
+        @Override
+        public @Nullable Object resolve(ISegment segment) {
+            if (segment instanceof RosMessageLatencySegment) {
+                return fFunction.applyAsLong((RosMessageLatencySegment) segment);
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public Iterable<ISegmentAspect> getSegmentAspects() {
+        return ASPECTS;
+    }
+
+    @Override
+    protected boolean buildAnalysisSegments(ISegmentStore<ISegment> segmentStore, IProgressMonitor monitor) {
+        ITmfTrace trace = getTrace();
+        if (!(trace instanceof TmfExperiment)) {
+            throw new IllegalStateException();
+        }
+        fMonitor = monitor;
+        @Nullable
+        ITmfStateSystem queuesStateSystem = RosModelUtils.getStateSystemFromAnalysis(trace, RosQueuesAnalysis.class, RosQueuesAnalysis.getFullAnalysisId());
+        if (queuesStateSystem == null) {
+            return false;
+        }
+        @Nullable
+        IRosMessagesTransportModel messagesTransportModel = RosModelUtils.getModelFromAnalysis(trace, RosMessagesTransportModelAnalysis.class, RosMessagesTransportModelAnalysis.ID);
+        if (messagesTransportModel == null) {
+            return false;
+        }
+        RosMessageFlowIndex index;
+        try {
+            index = RosMessageFlowIndex.getIndex(trace, queuesStateSystem, messagesTransportModel);
+        } catch (StateSystemDisposedException e) {
+            Activator.getInstance().logError("Error building the message flow index", e); //$NON-NLS-1$
+            return false;
+        }
+
+        // The publisher queues are independent, follow their messages in parallel
+        List<RosMessageLatencySegment> segments = index.getQueues().parallelStream()
+                .filter(queue -> queue.getType() == RosQueueType.PUB && !queue.getTopic().contains("rosout")) //$NON-NLS-1$
+                .flatMap(queue -> computeLatencies(index, queue, monitor).stream())
+                .collect(Collectors.toList());
+        if (monitor.isCanceled()) {
+            return false;
+        }
+        segmentStore.addAll(segments);
+        return true;
+    }
+
+    /**
+     * Compute the latencies of the messages of a publisher queue. A message is
+     * sent to each subscriber connection of the topic, so there is one
+     * latency for each subscriber that received it.
+     *
+     * @param index
+     *            the message flow index
+     * @param pubQueue
+     *            the publisher queue
+     * @param monitor
+     *            the progress monitor
+     * @return the latency segments of the messages
+     */
+    public static List<RosMessageLatencySegment> computeLatencies(RosMessageFlowIndex index, MessageQueue pubQueue, IProgressMonitor monitor) {
+        List<RosMessageLatencySegment> segments = new ArrayList<>();
+        for (int msg = 0; msg < pubQueue.size(); msg++) {
+            if (monitor.isCanceled()) {
+                return Collections.emptyList();
+            }
+            long pubDequeue = pubQueue.getDequeueTime(msg);
+            if (pubDequeue == Long.MAX_VALUE || pubQueue.isDropped(msg)) {
+                continue;
+            }
+            // The transports of this message start before the next message leaves the queue
+            long nextDequeue = Long.MAX_VALUE;
+            for (int next = msg + 1; next < pubQueue.size(); next++) {
+                if (pubQueue.getDequeueTime(next) > pubDequeue) {
+                    nextDequeue = pubQueue.getDequeueTime(next);
+                    break;
+                }
+            }
+            for (IndexedTransport transport : index.getTransports(pubQueue.getNode(), pubQueue.getTopic(), pubDequeue - 1, nextDequeue - 1)) {
+                RosMessageLatencySegment segment = followTransport(index, pubQueue, msg, transport);
+                if (segment != null) {
+                    segments.add(segment);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static @Nullable RosMessageLatencySegment followTransport(RosMessageFlowIndex index, MessageQueue pubQueue, int msg, IndexedTransport transport) {
+        MessageQueue subQueue = index.getQueue(transport.getSubNode(), RosQueueType.SUB, transport.getSubTopic());
+        int subMsg = (subQueue == null) ? -1 : subQueue.getFirstMessageFrom(transport.getDestinationTimestamp() + 1);
+        if (subQueue == null || subMsg < 0) {
+            return null;
+        }
+        long subDequeue = subQueue.getDequeueTime(subMsg);
+        if (subDequeue == Long.MAX_VALUE || subQueue.isDropped(subMsg)) {
+            return null;
+        }
+        long[] callback = index.getCallbackAt(subQueue.getNode(), subDequeue);
+        if (callback == null) {
+            return null;
+        }
+        String name = pubQueue.getNode() + ' ' + pubQueue.getTopic() + " -> " + subQueue.getNode(); //$NON-NLS-1$
+        return new RosMessageLatencySegment(name, pubQueue.getEnqueueTime(msg), pubQueue.getDequeueTime(msg),
+                subQueue.getEnqueueTime(subMsg), subDequeue, callback[1]);
+    }
+
+    @Override
+    protected @NonNull Iterable<@NonNull IAnalysisModule> getDependentAnalyses() {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return Collections.emptySet();
+        }
+        RosQueuesAnalysis queues = TmfTraceUtils.getAnalysisModuleOfClass(trace, RosQueuesAnalysis.class, RosQueuesAnalysis.getFullAnalysisId());
+        RosMessagesTransportModelAnalysis messagesTransportModelAnalysis = TmfTraceUtils.getAnalysisModuleOfClass(trace, RosMessagesTransportModelAnalysis.class, RosMessagesTransportModelAnalysis.ID);
+        if (queues == null || messagesTransportModelAnalysis == null) {
+            return Collections.emptySet();
+        }
+        return ImmutableSet.of(queues, messagesTransportModelAnalysis);
+    }
+
+    @Override
+    protected void canceling() {
+        IProgressMonitor mon = fMonitor;
+        if ((mon != null) && (!mon.isCanceled())) {
+            mon.setCanceled(true);
+        }
+    }
+}
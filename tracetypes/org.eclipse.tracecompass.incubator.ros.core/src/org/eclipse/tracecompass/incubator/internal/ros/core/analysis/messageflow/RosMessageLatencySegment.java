@@ -0,0 +1,102 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow;
+
+import org.eclipse.tracecompass.segmentstore.core.segment.interfaces.INamedSegment;
+
+/**
+ * End-to-end latency of a message, from the moment it is added to a publisher
+ * queue to the end of the subscriber callback that processed it
+ *
+ * @author agent
+ */
+public class RosMessageLatencySegment implements INamedSegment {
+
+    private static final long serialVersionUID = -4727325236716458311L;
+
+    private final long fStart;
+    private final long fEnd;
+    private final String fName;
+    private final long fQueueWait;
+    private final long fTransport;
+
+    /**
+     * Constructor
+     *
+     * @param name
+     *            the name of the publisher to subscriber chain
+     * @param pubEnqueue
+     *            the time the message was added to the publisher queue
+     * @param pubDequeue
+     *            the time the message left the publisher queue
+     * @param subEnqueue
+     *            the time the message was added to the subscriber queue
+     * @param subDequeue
+     *            the time the message left the subscriber queue
+     * @param callbackEnd
+     *            the end of the callback that processed the message
+     */
+    public RosMessageLatencySegment(String name, long pubEnqueue, long pubDequeue, long subEnqueue, long subDequeue, long callbackEnd) {
+        fName = name;
+        fStart = pubEnqueue;
+        fEnd = callbackEnd;
+        fQueueWait = (pubDequeue - pubEnqueue) + (subDequeue - subEnqueue);
+        fTransport = subEnqueue - pubDequeue;
+    }
+
+    @Override
+    public long getStart() {
+        return fStart;
+    }
+
+    @Override
+    public long getEnd() {
+        return fEnd;
+    }
+
+    @Override
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * @return the time spent waiting in the publisher and subscriber queues
+     */
+    public long getQueueWait() {
+        return fQueueWait;
+    }
+
+    /**
+     * @return the time between leaving the publisher queue and being added to
+     *         the subscriber queue
+     */
+    public long getTransport() {
+        return fTransport;
+    }
+
+    /**
+     * @return the time spent in the subscriber callback
+     */
+    public long getCallback() {
+        return getLength() - fQueueWait - fTransport;
+    }
+
+    @Override
+    public String toString() {
+        return "Name = " + fName + //$NON-NLS-1$
+                "; Start Time = " + getStart() + //$NON-NLS-1$
+                "; End Time = " + getEnd() + //$NON-NLS-1$
+                "; Queue Wait = " + fQueueWait + //$NON-NLS-1$
+                "; Transport = " + fTransport + //$NON-NLS-1$
+                "; Callback = " + getCallback(); //$NON-NLS-1$
+    }
+}
@@ -0,0 +1,860 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ros.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.AbstractRosStateProvider;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.messageflow.TargetMessageInfo.RosQueueType;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.IRosMessagesTransportModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.RosMessageTransport;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+/**
+ * Time index of the messages going through the ROS queues, callbacks and
+ * network transports. It is built once from the queues state system and the
+ * messages transport model, after which following a message from one hop to
+ * the next is a binary search in time-sorted arrays instead of a chain of
+ * state system queries.
+ *
+ * @author agent
+ */
+public class RosMessageFlowIndex {
+
+    private static final int VERSION = 1;
+    private static final char KEY_SEPARATOR = '\n';
+    private static final String INDEX_FILE_NAME = "ros-message-flow.idx"; //$NON-NLS-1$
+    /*
+     * Arrays read from a file start at most this large and grow as their
+     * elements are read, so a corrupt count fails at the end of the file
+     * instead of allocating a huge array
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The messages that went through a publisher or subscriber queue. Queues
+     * are FIFO, so the messages are sorted by both their enqueue and dequeue
+     * times.
+     */
+    public static final class MessageQueue {
+        private final String fNode;
+        private final String fTopic;
+        private final RosQueueType fType;
+        private long[] fEnqueue;
+        private long[] fDequeue;
+        private long[] fRefs;
+        private boolean[] fDropped;
+        private int fSize = 0;
+
+        private MessageQueue(String node, String topic, RosQueueType type, int capacity) {
+            fNode = node;
+            fTopic = topic;
+            fType = type;
+            fEnqueue = new long[capacity];
+            fDequeue = new long[capacity];
+            fRefs = new long[capacity];
+            fDropped = new boolean[capacity];
+        }
+
+        private int add(long enqueue, long ref) {
+            if (fSize == fEnqueue.length) {
+                int capacity = Math.max(16, fSize * 2);
+                fEnqueue = Arrays.copyOf(fEnqueue, capacity);
+                fDequeue = Arrays.copyOf(fDequeue, capacity);
+                fRefs = Arrays.copyOf(fRefs, capacity);
+                fDropped = Arrays.copyOf(fDropped, capacity);
+            }
+            int index = fSize++;
+            fEnqueue[index] = enqueue;
+            /* Messages never dequeued stay in the queue until the end */
+            fDequeue[index] = Long.MAX_VALUE;
+            fRefs[index] = ref;
+            return index;
+        }
+
+        /**
+         * @return the node name
+         */
+        public String getNode() {
+            return fNode;
+        }
+
+        /**
+         * @return the topic name
+         */
+        public String getTopic() {
+            return fTopic;
+        }
+
+        /**
+         * @return the type of the queue
+         */
+        public RosQueueType getType() {
+            return fType;
+        }
+
+        /**
+         * @return the number of messages that went through this queue
+         */
+        public int size() {
+            return fSize;
+        }
+
+        /**
+         * @param index
+         *            the index of the message
+         * @return the time the message was added to the queue
+         */
+        public long getEnqueueTime(int index) {
+            return fEnqueue[index];
+        }
+
+        /**
+         * @param index
+         *            the index of the message
+         * @return the time the message left the queue, or
+         *         {@link Long#MAX_VALUE} if it never left
+         */
+        public long getDequeueTime(int index) {
+            return fDequeue[index];
+        }
+
+        /**
+         * @param index
+         *            the index of the message
+         * @return the message reference
+         */
+        public long getReference(int index) {
+            return fRefs[index];
+        }
+
+        /**
+         * @param index
+         *            the index of the message
+         * @return whether the message was dropped instead of leaving the queue
+         *         normally
+         */
+        public boolean isDropped(int index) {
+            return fDropped[index];
+        }
+
+        /**
+         * Get the message at a position in the queue at a given time
+         *
+         * @param timestamp
+         *            the timestamp
+         * @param position
+         *            the position in the queue, starting at 1 for the next
+         *            message to leave the queue
+         * @return the index of the message, or -1 if there is no such message
+         */
+        public int getMessageAt(long timestamp, int position) {
+            /* The first message still in the queue at that time */
+            int index = upperBound(fDequeue, fSize, timestamp) + position - 1;
+            if (position < 1 || index >= fSize || fEnqueue[index] > timestamp) {
+                return -1;
+            }
+            return index;
+        }
+
+        /**
+         * Get the first message added to the queue at or after a given time
+         *
+         * @param timestamp
+         *            the timestamp
+         * @return the index of the message, or -1 if there is none
+         */
+        public int getFirstMessageFrom(long timestamp) {
+            int index = lowerBound(fEnqueue, fSize, timestamp);
+            return (index < fSize) ? index : -1;
+        }
+    }
+
+    /**
+     * Time ranges sorted by start time, like the callback states of a node or
+     * the network transports of a publisher
+     */
+    private static final class TimeRanges {
+        private long[] fStarts;
+        private long[] fEnds;
+        private int fSize = 0;
+
+        private TimeRanges(int capacity) {
+            fStarts = new long[capacity];
+            fEnds = new long[capacity];
+        }
+
+        private int add(long start, long end) {
+            if (fSize == fStarts.length) {
+                int capacity = Math.max(16, fSize * 2);
+                fStarts = Arrays.copyOf(fStarts, capacity);
+                fEnds = Arrays.copyOf(fEnds, capacity);
+            }
+            fStarts[fSize] = start;
+            fEnds[fSize] = end;
+            return fSize++;
+        }
+
+        /* Index of the range containing the timestamp, or -1 */
+        private int indexAt(long timestamp) {
+            int index = upperBound(fStarts, fSize, timestamp) - 1;
+            if (index < 0 || fEnds[index] < timestamp) {
+                return -1;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * The network transports of the messages of a publisher, sorted by source
+     * timestamp
+     */
+    private static final class Transports {
+        private final TimeRanges fTimes;
+        private final String[] fSubNodes;
+        private final String[] fSubTopics;
+
+        private Transports(int size) {
+            fTimes = new TimeRanges(size);
+            fSubNodes = new String[size];
+            fSubTopics = new String[size];
+        }
+    }
+
+    private final long fEndTime;
+    private final Map<String, MessageQueue> fQueues = new LinkedHashMap<>();
+    private final Map<String, TimeRanges> fCallbacks = new HashMap<>();
+    private final Map<String, List<String>> fPublishedTopics = new HashMap<>();
+    private final Map<String, Transports> fTransports = new HashMap<>();
+
+    private RosMessageFlowIndex(long endTime) {
+        fEndTime = endTime;
+    }
+
+    // ------------------------------------------------------------------------
+    // Queries
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return the end time of the queues state system this index was built
+     *         from
+     */
+    public long getEndTime() {
+        return fEndTime;
+    }
+
+    /**
+     * @return all the queues of the index
+     */
+    public Collection<MessageQueue> getQueues() {
+        return Collections.unmodifiableCollection(fQueues.values());
+    }
+
+    /**
+     * Get a queue
+     *
+     * @param node
+     *            the node name
+     * @param type
+     *            the queue type
+     * @param topic
+     *            the topic name
+     * @return the queue, or {@code null} if there is no such queue
+     */
+    public @Nullable MessageQueue getQueue(String node, RosQueueType type, String topic) {
+        return fQueues.get(key(node, type.name(), topic));
+    }
+
+    /**
+     * Get the topics a node publishes on, in the order they were advertised
+     *
+     * @param node
+     *            the node name
+     * @return the topic names
+     */
+    public List<String> getPublishedTopics(String node) {
+        List<String> topics = fPublishedTopics.get(node);
+        return (topics == null) ? Collections.emptyList() : Collections.unmodifiableList(topics);
+    }
+
+    /**
+     * Get the callback state of a node at a given time
+     *
+     * @param node
+     *            the node name
+     * @param timestamp
+     *            the timestamp
+     * @return the start and end times of the state, or {@code null} if
+     *         unknown
+     */
+    public long @Nullable [] getCallbackAt(String node, long timestamp) {
+        TimeRanges callbacks = fCallbacks.get(node);
+        if (callbacks == null) {
+            return null;
+        }
+        int index = callbacks.indexAt(timestamp);
+        if (index < 0) {
+            return null;
+        }
+        return new long[] { callbacks.fStarts[index], callbacks.fEnds[index] };
+    }
+
+    /**
+     * Get the first network transport of a publisher's message that starts at
+     * or after a given time
+     *
+     * @param node
+     *            the publisher node name
+     * @param topic
+     *            the topic name
+     * @param timestamp
+     *            the timestamp
+     * @return the transport, or {@code null} if there is none
+     */
+    public @Nullable IndexedTransport getNextTransport(String node, String topic, long timestamp) {
+        Transports transports = fTransports.get(key(node, topic));
+        if (transports == null) {
+            return null;
+        }
+        TimeRanges times = transports.fTimes;
+        int index = lowerBound(times.fStarts, times.fSize, timestamp);
+        if (index >= times.fSize) {
+            return null;
+        }
+        return new IndexedTransport(times.fStarts[index], times.fEnds[index], transports.fSubNodes[index], transports.fSubTopics[index]);
+    }
+
+    /**
+     * Get the network transports of a publisher's message, to each of its
+     * subscribers. For each subscriber connection, this is the first transport
+     * that starts in a time range.
+     *
+     * @param node
+     *            the publisher node name
+     * @param topic
+     *            the topic name
+     * @param start
+     *            the start of the time range, inclusive
+     * @param end
+     *            the end of the time range, exclusive
+     * @return the transports, one per subscriber connection, in the order of
+     *         their source timestamps
+     */
+    public List<IndexedTransport> getTransports(String node, String topic, long start, long end) {
+        Transports transports = fTransports.get(key(node, topic));
+        if (transports == null) {
+            return Collections.emptyList();
+        }
+        TimeRanges times = transports.fTimes;
+        List<IndexedTransport> found = new ArrayList<>();
+        for (int index = lowerBound(times.fStarts, times.fSize, start); index < times.fSize && times.fStarts[index] < end; index++) {
+            String subNode = transports.fSubNodes[index];
+            String subTopic = transports.fSubTopics[index];
+            if (found.stream().noneMatch(transport -> transport.fSubNode.equals(subNode) && transport.fSubTopic.equals(subTopic))) {
+                found.add(new IndexedTransport(times.fStarts[index], times.fEnds[index], subNode, subTopic));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * A network transport of a message from the index
+     */
+    public static final class IndexedTransport {
+        private final long fSource;
+        private final long fDestination;
+        private final String fSubNode;
+        private final String fSubTopic;
+
+        private IndexedTransport(long source, long destination, String subNode, String subTopic) {
+            fSource = source;
+            fDestination = destination;
+            fSubNode = subNode;
+            fSubTopic = subTopic;
+        }
+
+        /**
+         * @return the timestamp of the network transport source
+         */
+        public long getSourceTimestamp() {
+            return fSource;
+        }
+
+        /**
+         * @return the timestamp of the network transport destination
+         */
+        public long getDestinationTimestamp() {
+            return fDestination;
+        }
+
+        /**
+         * @return the name of the subscriber node
+         */
+        public String getSubNode() {
+            return fSubNode;
+        }
+
+        /**
+         * @return the topic name on the subscriber side
+         */
+        public String getSubTopic() {
+            return fSubTopic;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Build
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the index of a trace. It is read from the trace's supplementary files
+     * if it was already built for the current queues state system, otherwise
+     * it is built and saved for the next sessions.
+     *
+     * @param trace
+     *            the trace
+     * @param queuesSs
+     *            the complete queues state system
+     * @param transportModel
+     *            the messages transport model
+     * @return the index
+     * @throws StateSystemDisposedException
+     *             if the state system was disposed
+     */
+    public static RosMessageFlowIndex getIndex(ITmfTrace trace, ITmfStateSystem queuesSs, IRosMessagesTransportModel transportModel) throws StateSystemDisposedException {
+        return getIndex(new File(TmfTraceManager.getSupplementaryFileDir(trace), INDEX_FILE_NAME), queuesSs, transportModel);
+    }
+
+    /**
+     * Get the index saved in a file. It is read from the file if it was
+     * already built for the current queues state system, otherwise it is built
+     * and saved to the file. A file that cannot be read is replaced.
+     *
+     * @param file
+     *            the index file
+     * @param queuesSs
+     *            the complete queues state system
+     * @param transportModel
+     *            the messages transport model
+     * @return the index
+     * @throws StateSystemDisposedException
+     *             if the state system was disposed
+     */
+    public static synchronized RosMessageFlowIndex getIndex(File file, ITmfStateSystem queuesSs, IRosMessagesTransportModel transportModel) throws StateSystemDisposedException {
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                RosMessageFlowIndex index = read(in);
+                if (index.getEndTime() == queuesSs.getCurrentEndTime()) {
+                    return index;
+                }
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Error reading the message flow index, it will be rebuilt", e); //$NON-NLS-1$
+            }
+        }
+        RosMessageFlowIndex index = build(queuesSs, transportModel);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            index.write(out);
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Error saving the message flow index", e); //$NON-NLS-1$
+            file.delete();
+        }
+        return index;
+    }
+
+    /**
+     * Build the index from the complete queues state system and messages
+     * transport model
+     *
+     * @param queuesSs
+     *            the queues state system
+     * @param transportModel
+     *            the messages transport model
+     * @return the index
+     * @throws StateSystemDisposedException
+     *             if the state system was disposed
+     */
+    public static RosMessageFlowIndex build(ITmfStateSystem queuesSs, IRosMessagesTransportModel transportModel) throws StateSystemDisposedException {
+        RosMessageFlowIndex index = new RosMessageFlowIndex(queuesSs.getCurrentEndTime());
+
+        /* Find all the attributes to index */
+        Map<Integer, MessageQueue> queues = new HashMap<>();
+        Map<Integer, String> callbacks = new HashMap<>();
+        Map<Integer, Integer> dropsToQueue = new HashMap<>();
+        List<@NonNull Integer> quarks = new ArrayList<>();
+        for (Integer nodeQuark : queuesSs.getSubAttributes(ITmfStateSystem.ROOT_ATTRIBUTE, false)) {
+            String node = queuesSs.getAttributeName(nodeQuark);
+            for (RosQueueType type : RosQueueType.values()) {
+                String listName = (type == RosQueueType.PUB) ? AbstractRosStateProvider.PUBLISHERS_LIST : AbstractRosStateProvider.SUBSCRIBERS_LIST;
+                int listQuark = queuesSs.optQuarkRelative(nodeQuark, listName);
+                if (listQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+                    continue;
+                }
+                int callbacksQuark = queuesSs.optQuarkRelative(listQuark, AbstractRosStateProvider.CALLBACKS);
+                if (callbacksQuark != ITmfStateSystem.INVALID_ATTRIBUTE) {
+                    callbacks.put(callbacksQuark, node);
+                    quarks.add(callbacksQuark);
+                }
+                for (Integer topicQuark : queuesSs.getSubAttributes(listQuark, false)) {
+                    int queueQuark = queuesSs.optQuarkRelative(topicQuark, AbstractRosStateProvider.QUEUE);
+                    if (queueQuark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+                        continue;
+                    }
+                    String topic = queuesSs.getAttributeName(topicQuark);
+                    if (type == RosQueueType.PUB) {
+                        index.fPublishedTopics.computeIfAbsent(node, n -> new ArrayList<>()).add(topic);
+                    }
+                    MessageQueue queue = new MessageQueue(node, topic, type, 16);
+                    index.fQueues.put(key(node, type.name(), topic), queue);
+                    queues.put(queueQuark, queue);
+                    quarks.add(queueQuark);
+                    quarks.addAll(queuesSs.getSubAttributes(queueQuark, false));
+                    int dropsQuark = queuesSs.optQuarkRelative(topicQuark, AbstractRosStateProvider.DROPS);
+                    if (dropsQuark != ITmfStateSystem.INVALID_ATTRIBUTE) {
+                        dropsToQueue.put(dropsQuark, queueQuark);
+                        quarks.add(dropsQuark);
+                    }
+                }
+            }
+        }
+
+        /* Read all their intervals in a single pass */
+        Map<Integer, List<ITmfStateInterval>> intervals = new HashMap<>();
+        if (!quarks.isEmpty()) {
+            for (ITmfStateInterval interval : queuesSs.query2D(quarks, queuesSs.getStartTime(), queuesSs.getCurrentEndTime())) {
+                intervals.computeIfAbsent(interval.getAttribute(), q -> new ArrayList<>()).add(interval);
+            }
+        }
+        Comparator<ITmfStateInterval> byStart = Comparator.comparingLong(ITmfStateInterval::getStartTime);
+        intervals.values().forEach(list -> list.sort(byStart));
+
+        for (Entry<Integer, MessageQueue> entry : queues.entrySet()) {
+            replayQueue(queuesSs, entry.getKey(), entry.getValue(), intervals);
+        }
+        for (Entry<Integer, Integer> entry : dropsToQueue.entrySet()) {
+            markDrops(intervals.getOrDefault(entry.getKey(), Collections.emptyList()), Objects.requireNonNull(queues.get(entry.getValue())));
+        }
+        for (Entry<Integer, String> entry : callbacks.entrySet()) {
+            List<ITmfStateInterval> list = intervals.getOrDefault(entry.getKey(), Collections.emptyList());
+            TimeRanges ranges = new TimeRanges(list.size());
+            list.forEach(interval -> ranges.add(interval.getStartTime(), interval.getEndTime()));
+            index.fCallbacks.put(entry.getValue(), ranges);
+        }
+
+        /* Index the transports by publisher */
+        Collection<RosMessageTransport> transports = transportModel.getMessageTransports();
+        if (transports != null) {
+            Map<String, List<RosMessageTransport>> byPub = new HashMap<>();
+            for (RosMessageTransport transport : transports) {
+                RosConnectionEndpoint pub = transport.getConnection().getPub();
+                byPub.computeIfAbsent(key(pub.getNodeName(), pub.getTopicName()), k -> new ArrayList<>()).add(transport);
+            }
+            for (Entry<String, List<RosMessageTransport>> entry : byPub.entrySet()) {
+                List<RosMessageTransport> list = entry.getValue();
+                list.sort(Comparator.comparingLong(RosMessageTransport::getSourceTimestamp));
+                Transports indexed = new Transports(list.size());
+                for (int i = 0; i < list.size(); i++) {
+                    RosMessageTransport transport = list.get(i);
+                    RosConnectionEndpoint sub = transport.getConnection().getSub();
+                    indexed.fTimes.add(transport.getSourceTimestamp(), transport.getDestinationTimestamp());
+                    indexed.fSubNodes[i] = sub.getNodeName();
+                    indexed.fSubTopics[i] = sub.getTopicName();
+                }
+                index.fTransports.put(entry.getKey(), indexed);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Replay the changes of the queue size to find when each message was
+     * offered to and polled from the queue. A message is offered at the last
+     * position of the queue and polled from position 1.
+     */
+    private static void replayQueue(ITmfStateSystem ss, int queueQuark, MessageQueue queue, Map<Integer, List<ITmfStateInterval>> intervals) {
+        Map<Integer, List<ITmfStateInterval>> positions = new HashMap<>();
+        for (Integer posQuark : ss.getSubAttributes(queueQuark, false)) {
+            positions.put(Integer.parseInt(ss.getAttributeName(posQuark)), intervals.getOrDefault(posQuark, Collections.emptyList()));
+        }
+        Deque<Integer> pending = new ArrayDeque<>();
+        int previousSize = 0;
+        for (ITmfStateInterval sizeState : intervals.getOrDefault(queueQuark, Collections.emptyList())) {
+            Object value = sizeState.getValue();
+            int size = (value instanceof Integer) ? (Integer) value : 0;
+            long time = sizeState.getStartTime();
+            for (int pos = previousSize + 1; pos <= size; pos++) {
+                pending.add(queue.add(time, referenceAt(positions.get(pos), time)));
+            }
+            for (int pos = size; pos < previousSize; pos++) {
+                Integer polled = pending.poll();
+                if (polled != null) {
+                    queue.fDequeue[polled] = time;
+                }
+            }
+            previousSize = size;
+        }
+    }
+
+    private static long referenceAt(@Nullable List<ITmfStateInterval> states, long time) {
+        if (states == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = states.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            ITmfStateInterval state = states.get(mid);
+            if (state.getEndTime() < time) {
+                low = mid + 1;
+            } else if (state.getStartTime() > time) {
+                high = mid - 1;
+            } else {
+                Object value = state.getValue();
+                return (value instanceof Long) ? (Long) value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A dropped message's drop state ends when the message leaves the queue
+     */
+    private static void markDrops(List<ITmfStateInterval> drops, MessageQueue queue) {
+        for (ITmfStateInterval drop : drops) {
+            if (drop.getValue() == null) {
+                continue;
+            }
+            int index = lowerBound(queue.fDequeue, queue.fSize, drop.getEndTime() + 1);
+            if (index < queue.fSize && queue.fDequeue[index] == drop.getEndTime() + 1) {
+                queue.fDropped[index] = true;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write this index to an output
+     *
+     * @param out
+     *            the output to write to
+     * @throws IOException
+     *             exceptions writing to the output
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeLong(fEndTime);
+        out.writeInt(fQueues.size());
+        for (MessageQueue queue : fQueues.values()) {
+            out.writeUTF(queue.fNode);
+            out.writeUTF(queue.fTopic);
+            out.writeUTF(queue.fType.name());
+            out.writeInt(queue.fSize);
+            for (int i = 0; i < queue.fSize; i++) {
+                out.writeLong(queue.fEnqueue[i]);
+                out.writeLong(queue.fDequeue[i]);
+                out.writeLong(queue.fRefs[i]);
+                out.writeBoolean(queue.fDropped[i]);
+            }
+        }
+        out.writeInt(fPublishedTopics.size());
+        for (Entry<String, List<String>> entry : fPublishedTopics.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String topic : entry.getValue()) {
+                out.writeUTF(topic);
+            }
+        }
+        out.writeInt(fCallbacks.size());
+        for (Entry<String, TimeRanges> entry : fCallbacks.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeRanges(out, entry.getValue());
+        }
+        out.writeInt(fTransports.size());
+        for (Entry<String, Transports> entry : fTransports.entrySet()) {
+            Transports transports = entry.getValue();
+            out.writeUTF(entry.getKey());
+            writeRanges(out, transports.fTimes);
+            for (int i = 0; i < transports.fTimes.fSize; i++) {
+                out.writeUTF(transports.fSubNodes[i]);
+                out.writeUTF(transports.fSubTopics[i]);
+            }
+        }
+    }
+
+    private static void writeRanges(DataOutput out, TimeRanges ranges) throws IOException {
+        out.writeInt(ranges.fSize);
+        for (int i = 0; i < ranges.fSize; i++) {
+            out.writeLong(ranges.fStarts[i]);
+            out.writeLong(ranges.fEnds[i]);
+        }
+    }
+
+    /**
+     * Read an index previously written with {@link #write(DataOutput)}
+     *
+     * @param in
+     *            the input to read from
+     * @return the index
+     * @throws IOException
+     *             exceptions reading the input, or if it is not a valid index
+     *             of this version
+     */
+    public static RosMessageFlowIndex read(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported message flow index version: " + version); //$NON-NLS-1$
+        }
+        RosMessageFlowIndex index = new RosMessageFlowIndex(in.readLong());
+        int nbQueues = readCount(in, "queues"); //$NON-NLS-1$
+        for (int q = 0; q < nbQueues; q++) {
+            String node = in.readUTF();
+            String topic = in.readUTF();
+            RosQueueType type;
+            try {
+                type = RosQueueType.valueOf(in.readUTF());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid queue type", e); //$NON-NLS-1$
+            }
+            int size = readCount(in, "messages"); //$NON-NLS-1$
+            MessageQueue queue = new MessageQueue(node, topic, type, Math.min(size, MAX_INITIAL_CAPACITY));
+            long previousEnqueue = Long.MIN_VALUE;
+            long previousDequeue = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                long enqueue = in.readLong();
+                long dequeue = in.readLong();
+                /* The queries binary search the FIFO order of the queue */
+                if (enqueue < previousEnqueue || dequeue < previousDequeue || dequeue < enqueue) {
+                    throw new IOException("Invalid message times in queue " + topic + " of node " + node); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                int msg = queue.add(enqueue, in.readLong());
+                queue.fDequeue[msg] = dequeue;
+                queue.fDropped[msg] = in.readBoolean();
+                previousEnqueue = enqueue;
+                previousDequeue = dequeue;
+            }
+            index.fQueues.put(key(node, type.name(), topic), queue);
+        }
+        int nbNodes = readCount(in, "nodes"); //$NON-NLS-1$
+        for (int n = 0; n < nbNodes; n++) {
+            String node = in.readUTF();
+            int nbTopics = readCount(in, "topics"); //$NON-NLS-1$
+            List<String> topics = new ArrayList<>(Math.min(nbTopics, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < nbTopics; i++) {
+                topics.add(in.readUTF());
+            }
+            index.fPublishedTopics.put(node, topics);
+        }
+        int nbCallbacks = readCount(in, "callbacks"); //$NON-NLS-1$
+        for (int c = 0; c < nbCallbacks; c++) {
+            String node = in.readUTF();
+            index.fCallbacks.put(node, readRanges(in));
+        }
+        int nbTransports = readCount(in, "transports"); //$NON-NLS-1$
+        for (int t = 0; t < nbTransports; t++) {
+            String key = in.readUTF();
+            TimeRanges ranges = readRanges(in);
+            Transports transports = new Transports(ranges.fSize);
+            for (int i = 0; i < ranges.fSize; i++) {
+                transports.fTimes.add(ranges.fStarts[i], ranges.fEnds[i]);
+                transports.fSubNodes[i] = in.readUTF();
+                transports.fSubTopics[i] = in.readUTF();
+            }
+            index.fTransports.put(key, transports);
+        }
+        return index;
+    }
+
+    private static int readCount(DataInput in, String name) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid number of " + name + ": " + count); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return count;
+    }
+
+    private static TimeRanges readRanges(DataInput in) throws IOException {
+        int size = readCount(in, "time ranges"); //$NON-NLS-1$
+        TimeRanges ranges = new TimeRanges(Math.min(size, MAX_INITIAL_CAPACITY));
+        long previousStart = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            long start = in.readLong();
+            long end = in.readLong();
+            /* The ranges are binary searched by start time */
+            if (start < previousStart || end < start) {
+                throw new IOException("Invalid time range: [" + start + ", " + end + ']'); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            ranges.add(start, end);
+            previousStart = start;
+        }
+        return ranges;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static String key(String... parts) {
+        return String.join(String.valueOf(KEY_SEPARATOR), parts);
+    }
+
+    /* Index of the first value >= key in the sorted array, or size */
+    private static int lowerBound(long[] values, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /* Index of the first value > key in the sorted array, or size */
+    private static int upperBound(long[] values, int size, long key) {
+        return (key == Long.MAX_VALUE) ? size : lowerBound(values, size, key + 1);
+    }
+}
@@ -24,8 +24,6 @@ public class RosMessageTransport {
     private final RosConnection fConnection;
     private final long fSourceTimestamp;
     private final long fDestinationTimestamp;
-    // TODO remove, debug
-    private final RosMessagesTransportEventKey fKey;
 
     /**
      * Constructor
@@ -40,11 +38,10 @@ public class RosMessageTransport {
      *            the timestamp of the network transport destination event (e.g.
      *            netif_receive_skb)
      */
-    public RosMessageTransport(RosConnection connection, long sourceTimestamp, long destinationTimestamp, RosMessagesTransportEventKey key) {
+    public RosMessageTransport(RosConnection connection, long sourceTimestamp, long destinationTimestamp) {
         fConnection = connection;
         fSourceTimestamp = sourceTimestamp;
         fDestinationTimestamp = destinationTimestamp;
-        fKey = key;
     }
 
     /**
@@ -80,7 +77,6 @@ public class RosMessageTransport {
         b.append("\n"); //$NON-NLS-1$
         b.append("\tDestination: " + String.valueOf(fDestinationTimestamp)); //$NON-NLS-1$
         b.append("\n"); //$NON-NLS-1$
-        b.append("\tkey: " + fKey.toString()); //$NON-NLS-1$
         return b.toString();
     }
 }
@@ -11,34 +11,53 @@
 
 package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelAnalysisEventLayout;
 import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelTrace;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.ConnectionEndpoint;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.IRosConnectionsModel;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnection;
+import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport.TcpPacketMatcher.PacketList;
 import org.eclipse.tracecompass.internal.lttng2.kernel.core.TcpEventStrings;
-import org.eclipse.tracecompass.internal.lttng2.kernel.core.event.matching.TcpLttngEventMatching;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
-import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
-import org.eclipse.tracecompass.tmf.core.event.matching.IEventMatchingKey;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
-import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
-import org.eclipse.tracecompass.tmf.core.trace.TmfEventTypeCollectionHelper;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEventField;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
- * Class to match TCP events with useful ROS connection context
+ * Matches the TCP packets of the ROS connections, to find when messages are
+ * transported between nodes.
  *
- * FIXME code duplication with TcpLttngEventMatching
+ * The network events of each kernel trace are read in parallel and only the
+ * packets of known ROS connections are kept, then the packets of all traces
+ * are matched with a {@link TcpPacketMatcher}.
  *
  * @author Christophe Bedard
  */
-public class RosMessagesTransportEventMatching extends TcpLttngEventMatching {
+public class RosMessagesTransportEventMatching {
+
+    /**
+     * Default time after which an unmatched packet is discarded. It has to be
+     * larger than the network latency and the clock offset between the
+     * traced machines.
+     */
+    public static final long DEFAULT_WINDOW = TimeUnit.SECONDS.toNanos(10);
 
     // FIXME get base path from layout instead
     private static final @NonNull String[] FIELD_PATH_TO_SADDR = { "network_header", CtfTmfEventField.FIELD_VARIANT_SELECTED, TcpEventStrings.SADDR }; //$NON-NLS-1$
@@ -46,66 +65,167 @@ public class RosMessagesTransportEventMatching extends TcpLttngEventMatching {
     private static final @NonNull String[] FIELD_PATH_TO_SOURCE_PORT = { "network_header", CtfTmfEventField.FIELD_VARIANT_SELECTED, "transport_header", "tcp", "source_port" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
     private static final @NonNull String[] FIELD_PATH_TO_DEST_PORT = { "network_header", CtfTmfEventField.FIELD_VARIANT_SELECTED, "transport_header", "tcp", "dest_port" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 
-    private static final Map<IKernelAnalysisEventLayout, Set<String>> REQUIRED_EVENTS = new HashMap<>();
-
-    /** Use a weak hash map so that traces can be garbage collected */
-    private static final Map<ITmfTrace, IKernelAnalysisEventLayout> TRACE_LAYOUTS = new WeakHashMap<>();
-
-    @Override
-    public boolean canMatchTrace(ITmfTrace trace) {
-        // Get the events that this trace needs to have
-        if (!(trace instanceof IKernelTrace)) {
-            // Not a kernel trace, we cannot know what events to use, return
-            // false
-            return false;
-        }
-        IKernelAnalysisEventLayout layout = ((IKernelTrace) trace).getKernelEventLayout();
-        TRACE_LAYOUTS.put(trace, layout);
-
-        Set<String> events = REQUIRED_EVENTS.get(layout);
-        if (events == null) {
-            events = new HashSet<>();
-            events.addAll(layout.eventsNetworkSend());
-            events.addAll(layout.eventsNetworkReceive());
-            REQUIRED_EVENTS.put(layout, events);
+    /** SYN (2) and FIN (1) packets do not transport messages */
+    private static final long SYN_FIN_FLAGS = 3;
+
+    private final Map<NetworkConnection, Integer> fConnectionIds = new HashMap<>();
+    private final List<RosConnection> fConnections = new ArrayList<>();
+    private final long fWindow;
+
+    /**
+     * Request reading the network events of one kernel trace
+     */
+    private final class PacketRequest extends TmfEventRequest {
+
+        private final IKernelAnalysisEventLayout fLayout;
+        private final Collection<String> fSendEvents;
+        private final Collection<String> fReceiveEvents;
+        private final IProgressMonitor fMonitor;
+        private final PacketList fPackets = new PacketList();
+
+        public PacketRequest(IKernelAnalysisEventLayout layout, IProgressMonitor monitor) {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND);
+            fLayout = layout;
+            fSendEvents = ImmutableSet.copyOf(layout.eventsNetworkSend());
+            fReceiveEvents = ImmutableSet.copyOf(layout.eventsNetworkReceive());
+            fMonitor = monitor;
         }
 
-        if (!(trace instanceof ITmfTraceWithPreDefinedEvents)) {
-            // No predefined events, suppose events are present
-            return true;
+        @Override
+        public void handleData(ITmfEvent event) {
+            super.handleData(event);
+            if (fMonitor.isCanceled()) {
+                cancel();
+                return;
+            }
+            String name = event.getName();
+            boolean send = fSendEvents.contains(name);
+            if (!send && !fReceiveEvents.contains(name)) {
+                return;
+            }
+
+            ITmfEventField content = event.getContent();
+            Long flags = content.getFieldValue(Long.class, fLayout.fieldPathTcpFlags());
+            if (flags == null || (flags & SYN_FIN_FLAGS) != 0) {
+                return;
+            }
+            long[] saddr = content.getFieldValue(long[].class, FIELD_PATH_TO_SADDR);
+            Long sport = content.getFieldValue(Long.class, FIELD_PATH_TO_SOURCE_PORT);
+            long[] daddr = content.getFieldValue(long[].class, FIELD_PATH_TO_DADDR);
+            Long dport = content.getFieldValue(Long.class, FIELD_PATH_TO_DEST_PORT);
+            if (saddr == null || sport == null || daddr == null || dport == null) {
+                return;
+            }
+            // Ignore the network traffic that is not on a ROS connection
+            Integer connection = fConnectionIds.get(new NetworkConnection(new ConnectionEndpoint(saddr, sport), new ConnectionEndpoint(daddr, dport)));
+            if (connection == null) {
+                return;
+            }
+            Long sequence = content.getFieldValue(Long.class, fLayout.fieldPathTcpSeq());
+            Long ack = content.getFieldValue(Long.class, fLayout.fieldPathTcpAckSeq());
+            if (sequence == null || ack == null) {
+                return;
+            }
+            fPackets.add(event.getTimestamp().toNanos(), connection, sequence, ack, flags, send);
         }
-        ITmfTraceWithPreDefinedEvents ktrace = (ITmfTraceWithPreDefinedEvents) trace;
-
-        Set<String> traceEvents = TmfEventTypeCollectionHelper.getEventNames(ktrace.getContainedEventTypes());
-        traceEvents.retainAll(events);
-        return !traceEvents.isEmpty();
     }
 
-    @Override
-    public IEventMatchingKey getEventKey(ITmfEvent event) {
-        IKernelAnalysisEventLayout layout = TRACE_LAYOUTS.get(event.getTrace());
-        if (layout == null) {
-            return null;
+    /**
+     * Constructor
+     *
+     * @param connectionsModel
+     *            the connections model, to know which packets to match
+     * @param window
+     *            the time after which an unmatched packet is discarded, in
+     *            nanoseconds
+     */
+    public RosMessagesTransportEventMatching(IRosConnectionsModel connectionsModel, long window) {
+        Collection<RosConnection> connections = connectionsModel.getConnections();
+        if (connections != null) {
+            for (RosConnection connection : connections) {
+                NetworkConnection networkConnection = new NetworkConnection(connection.getPub().getEndpoint(), connection.getSub().getEndpoint());
+                if (!fConnectionIds.containsKey(networkConnection)) {
+                    fConnectionIds.put(networkConnection, fConnections.size());
+                    fConnections.add(connection);
+                }
+            }
         }
+        fWindow = window;
+    }
 
-        TmfEventField content = (TmfEventField) event.getContent();
-
-        Long sequence = content.getFieldValue(Long.class, layout.fieldPathTcpSeq());
-        Long ack = content.getFieldValue(Long.class, layout.fieldPathTcpAckSeq());
-        Long flags = content.getFieldValue(Long.class, layout.fieldPathTcpFlags());
+    /**
+     * Get the ID of the ROS connection of a network connection, as used in
+     * the {@link PacketList}s. Connections of the model that share the same
+     * network connection have the same ID.
+     *
+     * @param connection
+     *            the network connection, from the publisher to the subscriber
+     * @return the ID, or {@code null} if it is not a ROS connection
+     */
+    public @Nullable Integer getConnectionId(NetworkConnection connection) {
+        return fConnectionIds.get(connection);
+    }
 
-        long[] saddr = content.getFieldValue(long[].class, FIELD_PATH_TO_SADDR);
-        Long sport = content.getFieldValue(Long.class, FIELD_PATH_TO_SOURCE_PORT);
-        long[] daddr = content.getFieldValue(long[].class, FIELD_PATH_TO_DADDR);
-        Long dport = content.getFieldValue(Long.class, FIELD_PATH_TO_DEST_PORT);
+    /**
+     * Match the packets of the ROS connections in the kernel traces of a trace
+     * or experiment
+     *
+     * @param trace
+     *            the trace or experiment
+     * @param monitor
+     *            the progress monitor
+     * @return the message transports, or an empty collection if the matching
+     *         was canceled
+     */
+    public Collection<RosMessageTransport> matchEvents(ITmfTrace trace, IProgressMonitor monitor) {
+        if (fConnections.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        if (sequence == null || ack == null || flags == null || saddr == null || sport == null || daddr == null || dport == null) {
-            return null;
+        // The traces are read in parallel, each by its own request
+        List<PacketRequest> requests = new ArrayList<>();
+        for (ITmfTrace child : TmfTraceManager.getTraceSet(trace)) {
+            if (child instanceof IKernelTrace) {
+                PacketRequest request = new PacketRequest(((IKernelTrace) child).getKernelEventLayout(), monitor);
+                child.sendRequest(request);
+                requests.add(request);
+            }
         }
+        List<PacketList> packets = new ArrayList<>();
+        for (PacketRequest request : requests) {
+            try {
+                request.waitForCompletion();
+            } catch (InterruptedException e) {
+                requests.forEach(PacketRequest::cancel);
+                Thread.currentThread().interrupt();
+                return Collections.emptyList();
+            }
+            if (request.isCancelled() || request.isFailed()) {
+                requests.forEach(PacketRequest::cancel);
+                return Collections.emptyList();
+            }
+            packets.add(request.fPackets);
+        }
+
+        return matchPackets(packets, monitor);
+    }
 
-        ConnectionEndpoint sourceEndpoint = new ConnectionEndpoint(saddr, sport);
-        ConnectionEndpoint destinationEndpoint = new ConnectionEndpoint(daddr, dport);
-        NetworkConnection connection = new NetworkConnection(sourceEndpoint, destinationEndpoint);
-        return new RosMessagesTransportEventKey(sequence, ack, flags, connection);
+    /**
+     * Match packets of the ROS connections
+     *
+     * @param packets
+     *            the packet lists, typically one per trace, with the
+     *            connection IDs of {@link #getConnectionId(NetworkConnection)}
+     * @param monitor
+     *            the progress monitor
+     * @return the message transports, or an empty collection if the matching
+     *         was canceled
+     */
+    public Collection<RosMessageTransport> matchPackets(List<PacketList> packets, IProgressMonitor monitor) {
+        List<RosMessageTransport> transports = new ArrayList<>();
+        new TcpPacketMatcher(fWindow).match(packets,
+                (connection, sendTime, receiveTime) -> transports.add(new RosMessageTransport(fConnections.get(connection), sendTime, receiveTime)),
+                monitor);
+        return monitor.isCanceled() ? Collections.emptyList() : transports;
     }
 }
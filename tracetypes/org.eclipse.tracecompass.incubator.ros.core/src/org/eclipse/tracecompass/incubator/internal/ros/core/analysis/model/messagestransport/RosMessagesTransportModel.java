@@ -13,8 +13,9 @@ package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.mess
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Objects;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.ros.core.Activator;
@@ -22,7 +23,6 @@ import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.conne
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnection;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.connections.RosConnectionsModel;
 import org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messageflow.IRosMessageFlowModel;
-import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventMatching;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
@@ -33,11 +33,8 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  */
 public class RosMessagesTransportModel implements IRosMessagesTransportModel {
 
-    private static RosMessagesTransportEventMatching sfMatching = null;
-
+    private final ITmfTrace fTrace;
     private final @NonNull IRosConnectionsModel fConnectionsModel;
-    private final RosMessagesTransportEventMatchingProcessing fProcessingUnit;
-    private final TmfEventMatching fMatching;
     private Collection<RosMessageTransport> fMessageTransports = null;
 
     /**
@@ -49,21 +46,25 @@ public class RosMessagesTransportModel implements IRosMessagesTransportModel {
      *            the connections model
      */
     public RosMessagesTransportModel(ITmfTrace trace, @NonNull IRosConnectionsModel connectionsModel) {
+        fTrace = trace;
         fConnectionsModel = connectionsModel;
-        fProcessingUnit = new RosMessagesTransportEventMatchingProcessing(fConnectionsModel);
-        fMatching = new TmfEventMatching(Collections.singleton(Objects.requireNonNull(trace)), fProcessingUnit);
     }
 
     @Override
     public void generateModel() {
-        // TODO move to somewhere more appropriate?
-        if (sfMatching == null) {
-            sfMatching = new RosMessagesTransportEventMatching();
-            TmfEventMatching.registerMatchObject(sfMatching);
-        }
+        generateModel(new NullProgressMonitor());
+    }
 
-        fMatching.matchEvents();
-        fMessageTransports = fProcessingUnit.getMatches();
+    /**
+     * Generate the model by matching the network packets of the ROS
+     * connections
+     *
+     * @param monitor
+     *            the progress monitor
+     */
+    public void generateModel(IProgressMonitor monitor) {
+        RosMessagesTransportEventMatching matching = new RosMessagesTransportEventMatching(fConnectionsModel, RosMessagesTransportEventMatching.DEFAULT_WINDOW);
+        fMessageTransports = matching.matchEvents(fTrace, monitor);
     }
 
     @Override
@@ -68,8 +68,9 @@ public class RosMessagesTransportModelAnalysis extends TmfAbstractAnalysisModule
             return false;
         }
 
+        fMonitor = monitor;
         RosMessagesTransportModel model = new RosMessagesTransportModel(trace, connectionsModel);
-        model.generateModel();
+        model.generateModel(monitor);
         fModel = model;
         return !monitor.isCanceled();
     }
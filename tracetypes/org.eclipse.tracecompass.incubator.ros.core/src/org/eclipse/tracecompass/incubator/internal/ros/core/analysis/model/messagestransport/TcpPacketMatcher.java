@@ -0,0 +1,313 @@
+/**********************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ros.core.analysis.model.messagestransport;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Matches TCP packets sent and received on connections identified by an
+ * integer. The packets of each trace are first collected in a
+ * {@link PacketList}, which can be filled in parallel, then all the lists are
+ * merged chronologically to match the packets.
+ *
+ * A packet is identified by its connection, sequence number, acknowledgment
+ * number and flags, packed in 2 longs. Unmatched packets older than the time
+ * window are evicted, since their match will never come.
+ *
+ * @author agent
+ */
+public class TcpPacketMatcher {
+
+    private static final int CANCEL_CHECK_MASK = 0xFFFF;
+
+    /**
+     * Listener for the matched packets
+     */
+    @FunctionalInterface
+    public interface IPacketMatchListener {
+
+        /**
+         * A packet was matched
+         *
+         * @param connection
+         *            the ID of the packet's connection
+         * @param sendTime
+         *            the timestamp of the send event
+         * @param receiveTime
+         *            the timestamp of the receive event
+         */
+        void packetMatched(int connection, long sendTime, long receiveTime);
+    }
+
+    /**
+     * The packets of one trace, in chronological order
+     */
+    public static final class PacketList {
+
+        private static final int INITIAL_SIZE = 1024;
+
+        private long[] fTimes = new long[INITIAL_SIZE];
+        private long[] fKeys1 = new long[INITIAL_SIZE];
+        private long[] fKeys2 = new long[INITIAL_SIZE];
+        private boolean[] fSend = new boolean[INITIAL_SIZE];
+        private int fSize = 0;
+
+        /**
+         * Add a packet event. Packets must be added in chronological order.
+         *
+         * @param time
+         *            the timestamp of the event
+         * @param connection
+         *            the ID of the connection, must be positive
+         * @param sequence
+         *            the TCP sequence number
+         * @param ack
+         *            the TCP acknowledgment number
+         * @param flags
+         *            the TCP flags
+         * @param send
+         *            whether it is a send event, otherwise it is a receive
+         *            event
+         */
+        public void add(long time, int connection, long sequence, long ack, long flags, boolean send) {
+            if (fSize == fTimes.length) {
+                int newSize = fSize * 2;
+                fTimes = Arrays.copyOf(fTimes, newSize);
+                fKeys1 = Arrays.copyOf(fKeys1, newSize);
+                fKeys2 = Arrays.copyOf(fKeys2, newSize);
+                fSend = Arrays.copyOf(fSend, newSize);
+            }
+            fTimes[fSize] = time;
+            fKeys1[fSize] = ((long) connection << 32) | (sequence & 0xFFFFFFFFL);
+            fKeys2[fSize] = ((ack & 0xFFFFFFFFL) << 16) | (flags & 0xFFFFL);
+            fSend[fSize] = send;
+            fSize++;
+        }
+
+        /**
+         * @return the number of packet events in this list
+         */
+        public int size() {
+            return fSize;
+        }
+    }
+
+    /**
+     * Open addressing hash table of unmatched packets, with their timestamp
+     */
+    private static final class PacketTable {
+
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final byte FREE = 0;
+        private static final byte USED = 1;
+        private static final byte DELETED = 2;
+
+        private long[] fKeys1;
+        private long[] fKeys2;
+        private long[] fTimes;
+        private byte[] fStates;
+        private int fUsed = 0;
+        private int fDeleted = 0;
+
+        public PacketTable() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private void allocate(int capacity) {
+            fKeys1 = new long[capacity];
+            fKeys2 = new long[capacity];
+            fTimes = new long[capacity];
+            fStates = new byte[capacity];
+            fUsed = 0;
+            fDeleted = 0;
+        }
+
+        private int slot(long key1, long key2) {
+            long hash = key1 * 0x9E3779B97F4A7C15L + key2;
+            hash ^= hash >>> 29;
+            hash *= 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 32;
+            return (int) hash & (fStates.length - 1);
+        }
+
+        /**
+         * Remove a packet from the table
+         *
+         * @return the timestamp of the packet, or {@link Long#MIN_VALUE} if it
+         *         was not in the table
+         */
+        public long remove(long key1, long key2) {
+            int mask = fStates.length - 1;
+            for (int i = slot(key1, key2); fStates[i] != FREE; i = (i + 1) & mask) {
+                if (fStates[i] == USED && fKeys1[i] == key1 && fKeys2[i] == key2) {
+                    fStates[i] = DELETED;
+                    fUsed--;
+                    fDeleted++;
+                    return fTimes[i];
+                }
+            }
+            return Long.MIN_VALUE;
+        }
+
+        /**
+         * Add a packet to the table. If the packet is already there, the first
+         * one is kept, so that it is matched with the first corresponding
+         * event
+         */
+        public void putIfAbsent(long key1, long key2, long time) {
+            int mask = fStates.length - 1;
+            int insertAt = -1;
+            int i = slot(key1, key2);
+            for (; fStates[i] != FREE; i = (i + 1) & mask) {
+                if (fStates[i] == USED) {
+                    if (fKeys1[i] == key1 && fKeys2[i] == key2) {
+                        return;
+                    }
+                } else if (insertAt < 0) {
+                    insertAt = i;
+                }
+            }
+            if (insertAt < 0) {
+                insertAt = i;
+            } else {
+                fDeleted--;
+            }
+            fKeys1[insertAt] = key1;
+            fKeys2[insertAt] = key2;
+            fTimes[insertAt] = time;
+            fStates[insertAt] = USED;
+            fUsed++;
+            int capacity = fStates.length;
+            if ((fUsed + fDeleted) * 2 > capacity) {
+                rehash(Long.MIN_VALUE, (fUsed * 4 > capacity) ? capacity * 2 : capacity);
+            }
+        }
+
+        /**
+         * Remove the packets older than a timestamp
+         */
+        public void evictBefore(long cutoff) {
+            if (fUsed == 0 && fDeleted == 0) {
+                return;
+            }
+            rehash(cutoff, fStates.length);
+        }
+
+        private void rehash(long cutoff, int capacity) {
+            long[] keys1 = fKeys1;
+            long[] keys2 = fKeys2;
+            long[] times = fTimes;
+            byte[] states = fStates;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < states.length; j++) {
+                if (states[j] != USED || times[j] < cutoff) {
+                    continue;
+                }
+                int i = slot(keys1[j], keys2[j]);
+                while (fStates[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                fKeys1[i] = keys1[j];
+                fKeys2[i] = keys2[j];
+                fTimes[i] = times[j];
+                fStates[i] = USED;
+                fUsed++;
+            }
+        }
+    }
+
+    private final long fWindow;
+
+    /**
+     * Constructor
+     *
+     * @param window
+     *            the time window after which an unmatched packet event is
+     *            discarded, in nanoseconds
+     */
+    public TcpPacketMatcher(long window) {
+        fWindow = window;
+    }
+
+    /**
+     * Match the packets of the lists, in chronological order. A send event is
+     * matched with a receive event of the same packet, whichever happens
+     * first, since the clocks of the traces may not be perfectly
+     * synchronized.
+     *
+     * @param packets
+     *            the packet lists, typically one per trace
+     * @param listener
+     *            the listener to call for every match
+     * @param monitor
+     *            the progress monitor, to stop the matching if it is canceled
+     * @return the number of matches
+     */
+    public int match(List<PacketList> packets, IPacketMatchListener listener, IProgressMonitor monitor) {
+        PacketTable unmatchedSends = new PacketTable();
+        PacketTable unmatchedReceives = new PacketTable();
+        PacketList[] lists = packets.toArray(new PacketList[packets.size()]);
+        int[] heads = new int[lists.length];
+        long lastEviction = Long.MIN_VALUE;
+        int count = 0;
+        int nbMatches = 0;
+        while (true) {
+            // Take the next packet event of all the lists
+            int next = -1;
+            long time = Long.MAX_VALUE;
+            for (int l = 0; l < lists.length; l++) {
+                int head = heads[l];
+                if (head < lists[l].fSize && lists[l].fTimes[head] < time) {
+                    next = l;
+                    time = lists[l].fTimes[head];
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            if ((count++ & CANCEL_CHECK_MASK) == 0 && monitor.isCanceled()) {
+                break;
+            }
+            PacketList list = lists[next];
+            int pos = heads[next]++;
+
+            if (lastEviction == Long.MIN_VALUE) {
+                lastEviction = time;
+            } else if (time - lastEviction >= fWindow) {
+                unmatchedSends.evictBefore(time - fWindow);
+                unmatchedReceives.evictBefore(time - fWindow);
+                lastEviction = time;
+            }
+
+            long key1 = list.fKeys1[pos];
+            long key2 = list.fKeys2[pos];
+            boolean send = list.fSend[pos];
+            long otherTime = (send ? unmatchedReceives : unmatchedSends).remove(key1, key2);
+            if (otherTime == Long.MIN_VALUE) {
+                (send ? unmatchedSends : unmatchedReceives).putIfAbsent(key1, key2, time);
+                continue;
+            }
+            int connection = (int) (key1 >>> 32);
+            if (send) {
+                listener.packetMatched(connection, time, otherTime);
+            } else {
+                listener.packetMatched(connection, otherTime, time);
+            }
+            nbMatches++;
+        }
+        return nbMatches;
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.virtual.machine.analysis.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelAnalysisModule;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.SharedExperimentReader;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.overhead.VmOverheadAnalysis;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.virtual.resources.VirtualResourcesAnalysis;
+import org.eclipse.tracecompass.incubator.virtual.machine.analysis.core.tests.shared.vm.VmTestExperiment;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceOpenedSignal;
+import org.eclipse.tracecompass.tmf.core.statesystem.TmfStateSystemAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
+import org.junit.Test;
+
+/**
+ * Test the {@link SharedExperimentReader} class
+ *
+ * @author agent
+ */
+public class SharedExperimentReaderTest {
+
+    private static final String HT_EXTENSION = ".ht";
+
+    /**
+     * Test that the state systems built in a single pass through the
+     * experiment are the same as the ones built by each analysis module
+     *
+     * @throws StateSystemDisposedException
+     *             Exception thrown by the state systems
+     * @throws TmfAnalysisException
+     *             Exception thrown by the analyses
+     */
+    @Test
+    public void testOnePassStateSystems() throws StateSystemDisposedException, TmfAnalysisException {
+        VmTestExperiment testExperiment = VmTestExperiment.ONE_QEMUKVM;
+        assumeTrue(testExperiment.exists());
+        TmfExperiment experiment = openExperiment(testExperiment);
+        VirtualResourcesAnalysis resourcesModule = new VirtualResourcesAnalysis();
+        VmOverheadAnalysis overheadModule = new VmOverheadAnalysis();
+        try {
+            /* The virtual resources analysis builds both state systems in a single pass */
+            File suppDir = new File(TmfTraceManager.getSupplementaryFileDir(experiment));
+            assertFalse(new File(suppDir, VmOverheadAnalysis.ID + HT_EXTENSION).exists());
+            Set<String> resources = getIntervals(runModule(TmfTraceUtils.getAnalysisModuleOfClass(experiment, VirtualResourcesAnalysis.class, VirtualResourcesAnalysis.ID)));
+            assertTrue(new File(suppDir, VmOverheadAnalysis.ID + HT_EXTENSION).exists());
+            Set<String> overhead = getIntervals(runModule(TmfTraceUtils.getAnalysisModuleOfClass(experiment, VmOverheadAnalysis.class, VmOverheadAnalysis.ID)));
+
+            /*
+             * Modules with other IDs are not built by the single pass, each
+             * builds its own state system
+             */
+            resourcesModule.setId(VirtualResourcesAnalysis.ID + ".test");
+            assertTrue(resourcesModule.setTrace(experiment));
+            Set<String> expectedResources = getIntervals(runModule(resourcesModule));
+            overheadModule.setId(VmOverheadAnalysis.ID + ".test");
+            assertTrue(overheadModule.setTrace(experiment));
+            Set<String> expectedOverhead = getIntervals(runModule(overheadModule));
+
+            assertFalse(expectedResources.isEmpty());
+            assertEquals(expectedResources, resources);
+            assertFalse(expectedOverhead.isEmpty());
+            assertEquals(expectedOverhead, overhead);
+        } finally {
+            resourcesModule.dispose();
+            overheadModule.dispose();
+            experiment.dispose();
+        }
+    }
+
+    private TmfExperiment openExperiment(VmTestExperiment testExperiment) {
+        TmfExperiment experiment = testExperiment.getExperiment(true);
+
+        /* Open the traces */
+        for (ITmfTrace trace : experiment.getTraces()) {
+            ((TmfTrace) trace).traceOpened(new TmfTraceOpenedSignal(this, trace, null));
+        }
+
+        /*
+         * TODO For now, make sure the LttngKernelAnalysis have been run for each trace
+         * before running the analysis. When event request precedence is implemented, we
+         * can remove this
+         */
+        for (ITmfTrace trace : experiment.getTraces()) {
+            for (KernelAnalysisModule module : TmfTraceUtils.getAnalysisModulesOfClass(trace, KernelAnalysisModule.class)) {
+                module.schedule();
+                module.waitForCompletion();
+            }
+        }
+        /* End of TODO block */
+
+        experiment.traceOpened(new TmfTraceOpenedSignal(this, experiment, null));
+        return experiment;
+    }
+
+    private static ITmfStateSystem runModule(@Nullable TmfStateSystemAnalysisModule module) {
+        assertNotNull(module);
+        module.schedule();
+        assertTrue(module.waitForCompletion());
+        ITmfStateSystem ss = module.getStateSystem();
+        assertNotNull(ss);
+        return ss;
+    }
+
+    /**
+     * Get all the intervals of a state system, by attribute path, so the
+     * state systems can be compared even if their quarks are different
+     */
+    private static Set<String> getIntervals(ITmfStateSystem ss) throws StateSystemDisposedException {
+        List<Integer> quarks = new ArrayList<>();
+        for (int quark = 0; quark < ss.getNbAttributes(); quark++) {
+            quarks.add(quark);
+        }
+        Set<String> intervals = new HashSet<>();
+        for (ITmfStateInterval interval : ss.query2D(quarks, ss.getStartTime(), ss.getCurrentEndTime())) {
+            intervals.add(ss.getFullAttributePath(interval.getAttribute()) + '[' + interval.getStartTime() + ',' + interval.getEndTime() + "]=" + interval.getValue());
+        }
+        return intervals;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.virtual.machine.analysis.core.tests.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+import org.eclipse.tracecompass.analysis.os.linux.core.model.HostThread;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.VirtualCPU;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.VirtualMachine;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.qemukvm.QemuKvmVmModel;
+import org.eclipse.tracecompass.incubator.virtual.machine.analysis.core.tests.shared.vm.VmTestExperiment;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceClosedSignal;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
+import org.junit.Test;
+
+/**
+ * Test the lifecycle of the {@link QemuKvmVmModel}
+ *
+ * @author agent
+ */
+public class QemuKvmVmModelTest {
+
+    /**
+     * Test that the model of an experiment is shared while the experiment is
+     * opened and released when it is closed
+     */
+    @Test
+    public void testModelReleasedOnClose() {
+        VmTestExperiment testExperiment = VmTestExperiment.ONE_QEMUKVM;
+        assumeTrue(testExperiment.exists());
+        TmfExperiment experiment = testExperiment.getExperiment(true);
+        try {
+            QemuKvmVmModel model = QemuKvmVmModel.get(experiment);
+            assertSame(model, QemuKvmVmModel.get(experiment));
+
+            model.traceClosed(new TmfTraceClosedSignal(this, experiment));
+            QemuKvmVmModel newModel = QemuKvmVmModel.get(experiment);
+            assertNotSame(model, newModel);
+            newModel.traceClosed(new TmfTraceClosedSignal(this, experiment));
+        } finally {
+            experiment.dispose();
+        }
+    }
+
+    /**
+     * Test that closing another trace does not release the model
+     */
+    @Test
+    public void testModelKeptOnOtherClose() {
+        VmTestExperiment testExperiment = VmTestExperiment.ONE_QEMUKVM;
+        assumeTrue(testExperiment.exists());
+        TmfExperiment experiment = testExperiment.getExperiment(true);
+        TmfExperiment other = testExperiment.getExperiment(false);
+        try {
+            QemuKvmVmModel model = QemuKvmVmModel.get(experiment);
+            model.traceClosed(new TmfTraceClosedSignal(this, other));
+            assertSame(model, QemuKvmVmModel.get(experiment));
+            model.traceClosed(new TmfTraceClosedSignal(this, experiment));
+        } finally {
+            experiment.dispose();
+            other.dispose();
+        }
+    }
+
+    /**
+     * Stress test the association of virtual CPUs to host threads, with
+     * millions of threads running the virtual CPUs one after the other: the
+     * model only keeps the thread currently running each virtual CPU.
+     */
+    @Test
+    public void testVirtualCpuMigrations() {
+        TmfExperiment experiment = new TmfExperiment(ITmfEvent.class, "test-exp", new ITmfTrace[0], TmfExperiment.DEFAULT_INDEX_PAGE_SIZE, null);
+        try {
+            QemuKvmVmModel model = QemuKvmVmModel.get(experiment);
+            VirtualMachine vm = VirtualMachine.newGuestMachine(1, "guest", "guest");
+            int nbCpus = 4;
+            int nbMigrations = 2000000;
+            for (int i = 0; i < nbMigrations; i++) {
+                HostThread ht = new HostThread("host", i);
+                model.setVirtualCpuTid(VirtualCPU.getVirtualCPU(vm, (long) (i % nbCpus)), ht);
+            }
+            assertEquals(nbCpus, VirtualCPU.getVirtualCPUs(vm).size());
+            // Only the threads currently running the virtual CPUs are kept
+            assertEquals(nbCpus, model.getNbVirtualCpuThreads());
+            for (int cpu = 0; cpu < nbCpus; cpu++) {
+                VirtualCPU vcpu = VirtualCPU.getVirtualCPU(vm, (long) cpu);
+                HostThread ht = new HostThread("host", nbMigrations - nbCpus + cpu);
+                assertEquals(ht, model.getVirtualCpuTid(vcpu));
+                assertSame(vcpu, model.getVirtualCpu(ht));
+            }
+            // The threads that ran the virtual CPUs before are not associated anymore
+            for (int i = 0; i < nbMigrations - nbCpus; i++) {
+                assertNull(model.getVirtualCpu(new HostThread("host", i)));
+            }
+
+            // A thread running another virtual CPU leaves its previous one
+            VirtualCPU vcpu0 = VirtualCPU.getVirtualCPU(vm, 0L);
+            VirtualCPU vcpu1 = VirtualCPU.getVirtualCPU(vm, 1L);
+            HostThread ht = new HostThread("host", nbMigrations - nbCpus);
+            model.setVirtualCpuTid(vcpu1, ht);
+            assertNull(model.getVirtualCpuTid(vcpu0));
+            assertEquals(ht, model.getVirtualCpuTid(vcpu1));
+            assertSame(vcpu1, model.getVirtualCpu(ht));
+            assertNull(model.getVirtualCpu(new HostThread("host", nbMigrations - nbCpus + 1)));
+            assertEquals(nbCpus - 1, model.getNbVirtualCpuThreads());
+
+            model.traceClosed(new TmfTraceClosedSignal(this, experiment));
+            assertEquals(0, model.getNbVirtualCpuThreads());
+        } finally {
+            experiment.dispose();
+        }
+    }
+}
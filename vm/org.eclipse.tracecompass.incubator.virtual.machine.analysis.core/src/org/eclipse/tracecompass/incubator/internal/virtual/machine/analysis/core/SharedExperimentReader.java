@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.analysis.VirtualEnvironment;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.analysis.VirtualMachineModelAnalysis;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.overhead.VmOverheadAnalysis;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.overhead.VmOverheadStateProvider;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.virtual.resources.VirtualResourcesAnalysis;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.virtual.resources.VirtualResourcesStateProvider;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.request.ITmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.request.TmfEventRequest;
+import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
+
+/**
+ * Reads the events of a trace once and fans them out to many state providers,
+ * to build the state systems of several analyses in a single pass. Each state
+ * provider handles its events on its own thread, through its own bounded
+ * event queue.
+ *
+ * The state systems are written to the supplementary file that the analysis
+ * module with the same ID would use, so the modules simply open them when
+ * they are executed.
+ *
+ * @author agent
+ */
+public class SharedExperimentReader {
+
+    /**
+     * Size of the blocking queue to use when building a state history
+     */
+    private static final int QUEUE_SIZE = 10000;
+    private static final String HT_EXTENSION = ".ht"; //$NON-NLS-1$
+    private static final String TMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+    private static final class ProviderEntry {
+        private final ITmfStateProvider fProvider;
+        private final File fFile;
+        private final File fTmpFile;
+        private final ITmfStateSystemBuilder fStateSystem;
+
+        public ProviderEntry(ITmfStateProvider provider, File file, File tmpFile, ITmfStateSystemBuilder stateSystem) {
+            fProvider = provider;
+            fFile = file;
+            fTmpFile = tmpFile;
+            fStateSystem = stateSystem;
+        }
+    }
+
+    /**
+     * Event request that passes each event to all the state providers
+     */
+    private static final class FanOutEventRequest extends TmfEventRequest {
+
+        private final List<ProviderEntry> fEntries;
+        private final IProgressMonitor fMonitor;
+
+        public FanOutEventRequest(List<ProviderEntry> entries, IProgressMonitor monitor) {
+            super(ITmfEvent.class, TmfTimeRange.ETERNITY, 0, ITmfEventRequest.ALL_DATA, ExecutionType.BACKGROUND);
+            fEntries = entries;
+            fMonitor = monitor;
+        }
+
+        @Override
+        public void handleData(@NonNull ITmfEvent event) {
+            super.handleData(event);
+            if (fMonitor.isCanceled()) {
+                cancel();
+                return;
+            }
+            for (ProviderEntry entry : fEntries) {
+                entry.fProvider.processEvent(event);
+            }
+        }
+    }
+
+    private final ITmfTrace fTrace;
+    private final List<ProviderEntry> fEntries = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            The trace or experiment to read
+     */
+    public SharedExperimentReader(ITmfTrace trace) {
+        fTrace = trace;
+    }
+
+    /**
+     * Add a state provider to the reader, if the state system of this ID is
+     * not already built
+     *
+     * @param id
+     *            The ID of the analysis module whose state system is built by
+     *            this provider
+     * @param provider
+     *            The state provider. It should not have been assigned to a
+     *            state system.
+     * @return Whether the provider was added
+     * @throws IOException
+     *             Exceptions creating the state system's file
+     */
+    public boolean addStateProvider(String id, ITmfStateProvider provider) throws IOException {
+        File directory = new File(TmfTraceManager.getSupplementaryFileDir(fTrace));
+        File file = new File(directory, id + HT_EXTENSION);
+        if (file.exists()) {
+            return false;
+        }
+        File tmpFile = new File(directory, id + HT_EXTENSION + TMP_EXTENSION);
+        Files.deleteIfExists(tmpFile.toPath());
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(
+                id, tmpFile, provider.getVersion(), provider.getStartTime(), QUEUE_SIZE);
+        ITmfStateSystemBuilder stateSystem = StateSystemFactory.newStateSystem(backend);
+        fEntries.add(new ProviderEntry(provider, file, tmpFile, stateSystem));
+        return true;
+    }
+
+    /**
+     * Read the trace once and build the state systems of all the providers.
+     * This method blocks until all the state systems are built, or the
+     * monitor is canceled.
+     *
+     * @param monitor
+     *            The progress monitor
+     * @return Whether all the state systems were successfully built
+     */
+    public boolean build(IProgressMonitor monitor) {
+        List<ProviderEntry> entries = fEntries;
+        if (entries.isEmpty()) {
+            return true;
+        }
+        for (ProviderEntry entry : entries) {
+            entry.fProvider.assignTargetStateSystem(entry.fStateSystem);
+        }
+        FanOutEventRequest request = new FanOutEventRequest(entries, monitor);
+        fTrace.sendRequest(request);
+        try {
+            request.waitForCompletion();
+        } catch (InterruptedException e) {
+            request.cancel();
+            Thread.currentThread().interrupt();
+        }
+
+        boolean success = !request.isCancelled() && !request.isFailed();
+        for (ProviderEntry entry : entries) {
+            /*
+             * Disposing the provider waits for its queue to be empty and closes
+             * the history at the end of the trace
+             */
+            entry.fProvider.dispose();
+            ITmfStateSystem ss = entry.fStateSystem;
+            ss.dispose();
+            if (!success) {
+                entry.fTmpFile.delete();
+                continue;
+            }
+            try {
+                Files.move(entry.fTmpFile.toPath(), entry.fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error moving the state system file " + entry.fFile, e); //$NON-NLS-1$
+                success = false;
+            }
+        }
+        entries.clear();
+        return success;
+    }
+
+    /**
+     * Build the state systems of the virtual machine analyses that do not
+     * depend on one another in a single pass through the experiment. The
+     * virtual machine model analysis must be completed before calling this
+     * method.
+     *
+     * @param experiment
+     *            The virtual machine experiment
+     * @param monitor
+     *            The progress monitor
+     * @return Whether the state systems were successfully built
+     */
+    public static boolean buildVmStateSystems(TmfExperiment experiment, IProgressMonitor monitor) {
+        VirtualMachineModelAnalysis model = TmfTraceUtils.getAnalysisModuleOfClass(experiment, VirtualMachineModelAnalysis.class, VirtualMachineModelAnalysis.ID);
+        if (model == null) {
+            return false;
+        }
+        model.schedule();
+        if (!model.waitForCompletion(monitor)) {
+            return false;
+        }
+        ITmfStateSystem modelSs = model.getStateSystem();
+        if (modelSs == null) {
+            return false;
+        }
+        SharedExperimentReader reader = new SharedExperimentReader(experiment);
+        try {
+            /*
+             * The virtual environment caches the machines it reads, give each
+             * provider its own instance since they run on different threads
+             */
+            reader.addStateProvider(VirtualResourcesAnalysis.ID, new VirtualResourcesStateProvider(experiment, new VirtualEnvironment(modelSs)));
+            reader.addStateProvider(VmOverheadAnalysis.ID, new VmOverheadStateProvider(experiment, new VirtualEnvironment(modelSs)));
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error creating the virtual machine state systems", e); //$NON-NLS-1$
+            for (ProviderEntry entry : reader.fEntries) {
+                entry.fStateSystem.dispose();
+            }
+            return false;
+        }
+        return reader.build(monitor);
+    }
+}
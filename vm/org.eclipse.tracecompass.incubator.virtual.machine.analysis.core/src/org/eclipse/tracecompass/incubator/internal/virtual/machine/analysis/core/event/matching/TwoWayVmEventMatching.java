@@ -30,8 +30,6 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
 import org.eclipse.tracecompass.tmf.core.trace.TmfEventTypeCollectionHelper;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
 
 /**
  * Class to match virtual machine synchronization events. These events are
@@ -56,9 +54,9 @@ public class TwoWayVmEventMatching implements ITmfMatchEventDefinition {
      * org.eclipse.tracecompass.tmf.core.event.matching
      */
     private static class QemuPacketKey implements IEventMatchingKey {
-        private static HashFunction hf = Hashing.goodFastHash(32);
-        private long vmUid;
-        private long seq;
+        private final long vmUid;
+        private final long seq;
+        private final int fHashCode;
 
         /**
          * Constructor with parameters
@@ -71,11 +69,18 @@ public class TwoWayVmEventMatching implements ITmfMatchEventDefinition {
         public QemuPacketKey(long uid, long s) {
             vmUid = uid;
             seq = s;
+            /*
+             * The keys are hashed each time they are looked up in the
+             * unmatched tables, so compute a cheap mixed hash only once
+             */
+            long h = (vmUid * 0x9E3779B97F4A7C15L) ^ seq;
+            h ^= (h >>> 32);
+            fHashCode = (int) (h * 0x9E3779B97F4A7C15L >>> 32);
         }
 
         @Override
         public int hashCode() {
-            return hf.newHasher(32).putLong(vmUid).putLong(seq).hash().asInt();
+            return fHashCode;
         }
 
         @Override
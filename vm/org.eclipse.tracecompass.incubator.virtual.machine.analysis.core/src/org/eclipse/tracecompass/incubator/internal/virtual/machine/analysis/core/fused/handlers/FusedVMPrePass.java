@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.fused.handlers;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.Activator;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
+
+/**
+ * First phase of the fused virtual machine analysis. Each trace of the
+ * experiment is read on its own thread, in parallel with the others, and its
+ * events are reduced to compact records of the CPU of the event and the
+ * handler of its event name, so the aspect and event name resolutions are done
+ * outside the state provider's thread.
+ *
+ * The second phase is the state provider, which receives the events of all
+ * the traces merged in timestamp order by the experiment. For each event, it
+ * takes the next record of the event's trace, which is the record of this
+ * event since the experiment reads each trace in order. The records are
+ * checked against the events, if they differ the pre-pass is stopped and the
+ * state provider resolves the events itself.
+ *
+ * The records of each trace are handed to the state provider in chunks,
+ * through a bounded queue, so a trace being read ahead of the others only
+ * keeps a few chunks in memory.
+ *
+ * @author agent
+ */
+final class FusedVMPrePass {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int MAX_PENDING_CHUNKS = 16;
+    private static final int NO_CPU = -1;
+
+    /**
+     * The records of consecutive events of a trace
+     */
+    private static final class Chunk {
+        private final long[] fTimestamps;
+        private final String[] fNames;
+        private final int[] fCpus;
+        private final @Nullable VMKernelEventHandler[] fHandlers;
+        private int fSize = 0;
+
+        public Chunk(int size) {
+            fTimestamps = new long[size];
+            fNames = new String[size];
+            fCpus = new int[size];
+            fHandlers = new VMKernelEventHandler[size];
+        }
+    }
+
+    /* Queued after the last chunk of a trace */
+    private static final Chunk END = new Chunk(0);
+
+    /**
+     * Reads one trace and queues the records of its events
+     */
+    private final class TraceReader implements Runnable {
+        private final ITmfTrace fTrace;
+        private final BlockingQueue<Chunk> fQueue = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS);
+        private final Thread fThread;
+        /* The chunk being consumed and the position of the next record */
+        private Chunk fCurrent = new Chunk(0);
+        private int fPosition = 0;
+
+        public TraceReader(ITmfTrace trace) {
+            fTrace = trace;
+            fThread = new Thread(this, "Fused VM pre-pass: " + trace.getName()); //$NON-NLS-1$
+            fThread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            ITmfContext context = fTrace.seekEvent(0L);
+            try {
+                Chunk chunk = new Chunk(CHUNK_SIZE);
+                ITmfEvent event = fTrace.getNext(context);
+                while (event != null && !fStopped) {
+                    int index = chunk.fSize;
+                    chunk.fTimestamps[index] = event.getTimestamp().getValue();
+                    chunk.fNames[index] = event.getName();
+                    Integer cpu = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(fTrace, TmfCpuAspect.class, event);
+                    chunk.fCpus[index] = cpu == null ? NO_CPU : cpu;
+                    chunk.fHandlers[index] = fHandlerResolver.apply(event);
+                    chunk.fSize++;
+                    if (chunk.fSize == CHUNK_SIZE) {
+                        put(chunk);
+                        chunk = new Chunk(CHUNK_SIZE);
+                    }
+                    event = fTrace.getNext(context);
+                }
+                if (chunk.fSize > 0) {
+                    put(chunk);
+                }
+            } catch (RuntimeException e) {
+                Activator.getInstance().logError("Error in the fused virtual machine pre-pass of trace " + fTrace.getName(), e); //$NON-NLS-1$
+            } finally {
+                context.dispose();
+                /* The state provider falls back to the events after the end */
+                put(END);
+            }
+        }
+
+        /*
+         * Wait for room in the queue until the pre-pass is stopped. The thread
+         * is not interrupted to stop it, as an interrupt would close the file
+         * channels that the trace shares with the experiment's reader.
+         */
+        private void put(Chunk chunk) {
+            try {
+                while (!fStopped) {
+                    if (fQueue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /* Move to the record of the event, return false if it is not there */
+        public boolean next(ITmfEvent event) throws InterruptedException {
+            if (fPosition >= fCurrent.fSize) {
+                if (fCurrent == END) {
+                    return false;
+                }
+                fCurrent = fQueue.take();
+                fPosition = 0;
+                if (fCurrent == END) {
+                    return false;
+                }
+            }
+            int position = fPosition++;
+            return fCurrent.fTimestamps[position] == event.getTimestamp().getValue()
+                    && fCurrent.fNames[position].equals(event.getName());
+        }
+
+        public int getCpu() {
+            return fCurrent.fCpus[fPosition - 1];
+        }
+
+        public @Nullable VMKernelEventHandler getHandler() {
+            return fCurrent.fHandlers[fPosition - 1];
+        }
+    }
+
+    private final Map<ITmfTrace, TraceReader> fReaders = new HashMap<>();
+    private final Function<ITmfEvent, @Nullable VMKernelEventHandler> fHandlerResolver;
+    private volatile boolean fStopped = false;
+    private boolean fStarted = false;
+    private @Nullable TraceReader fCurrentReader = null;
+
+    /**
+     * Constructor
+     *
+     * @param traces
+     *            The traces to read
+     * @param handlerResolver
+     *            Resolves the handler of an event. It is called concurrently
+     *            from the threads of the traces.
+     */
+    public FusedVMPrePass(Collection<ITmfTrace> traces, Function<ITmfEvent, @Nullable VMKernelEventHandler> handlerResolver) {
+        fHandlerResolver = handlerResolver;
+        for (ITmfTrace trace : traces) {
+            fReaders.put(trace, new TraceReader(trace));
+        }
+    }
+
+    /**
+     * Start reading the traces, if not already started
+     */
+    public void start() {
+        if (fStarted) {
+            return;
+        }
+        fStarted = true;
+        for (TraceReader reader : fReaders.values()) {
+            reader.fThread.start();
+        }
+    }
+
+    /**
+     * Move to the record of an event. The events of each trace must be passed
+     * in the order of the trace.
+     *
+     * @param event
+     *            The event being handled
+     * @return Whether the record of this event is available. If not, the
+     *         event has to be resolved by the caller.
+     */
+    public boolean next(ITmfEvent event) {
+        fCurrentReader = null;
+        if (fStopped) {
+            return false;
+        }
+        TraceReader reader = fReaders.get(event.getTrace());
+        if (reader == null) {
+            return false;
+        }
+        try {
+            if (!reader.next(event)) {
+                Activator.getInstance().logWarning("The fused virtual machine pre-pass does not match the events of trace " + reader.fTrace.getName()); //$NON-NLS-1$
+                stop();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            stop();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        fCurrentReader = reader;
+        return true;
+    }
+
+    /**
+     * Get the CPU of the event passed to the last successful call to
+     * {@link #next(ITmfEvent)}
+     *
+     * @return The CPU, or <code>null</code> if the event has none
+     */
+    public @Nullable Integer getCpu() {
+        TraceReader reader = fCurrentReader;
+        if (reader == null) {
+            return null;
+        }
+        int cpu = reader.getCpu();
+        return cpu == NO_CPU ? null : cpu;
+    }
+
+    /**
+     * Get the handler of the event passed to the last successful call to
+     * {@link #next(ITmfEvent)}
+     *
+     * @return The handler, or <code>null</code> if the event has none
+     */
+    public @Nullable VMKernelEventHandler getHandler() {
+        TraceReader reader = fCurrentReader;
+        if (reader == null) {
+            return null;
+        }
+        return reader.getHandler();
+    }
+
+    /**
+     * Stop reading the traces and release the pending records
+     */
+    public void stop() {
+        fStopped = true;
+        fCurrentReader = null;
+        for (TraceReader reader : fReaders.values()) {
+            reader.fQueue.clear();
+        }
+    }
+}
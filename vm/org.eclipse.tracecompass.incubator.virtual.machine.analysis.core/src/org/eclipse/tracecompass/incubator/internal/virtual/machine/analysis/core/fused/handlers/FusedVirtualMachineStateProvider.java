@@ -16,6 +16,8 @@ package org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.cor
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -46,6 +48,11 @@ import com.google.common.collect.ImmutableMap;
  * State provider for the Fused Virtual Machine analysis. It is based on the
  * version 16 of the kernel state provider.
  *
+ * The events are handled in two phases. A {@link FusedVMPrePass} reads the
+ * kernel traces in parallel and resolves the CPU and handler of their events.
+ * This provider then handles the events merged in timestamp order, with the
+ * quarks of each CPU, machine and thread resolved once.
+ *
  * @author Cedric Biancheri
  */
 public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
@@ -65,10 +72,108 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
 
     private final Map<String, VMKernelEventHandler> fEventNames;
     private final Map<ITmfTrace, LayoutHandler> fLayouts = new HashMap<>();
+    private final Map<ITmfTrace, TraceQuarks> fTraceQuarks = new HashMap<>();
+    private final FusedVMPrePass fPrePass;
+    private @Nullable ITmfEvent fCurrentEvent = null;
+    private @Nullable Integer fCurrentCpu = null;
+    private @Nullable CpuQuarks[] fCpuQuarks = new CpuQuarks[0];
     private QemuKvmVmModel fKvmModel;
     private LxcModel fContainerModel;
     private int fCurrentThreadNode; // quark to current thread node
     private boolean fAllRolesFound = false;
+    private int fNbMachinesWithRoles = -1;
+
+    /**
+     * Quarks of a physical CPU, resolved once per CPU instead of for every
+     * event
+     */
+    private static final class CpuQuarks {
+        private final int fCpuNode;
+        private final int fCondition;
+        private int fVirtualCpu = ITmfStateSystem.INVALID_ATTRIBUTE;
+        private final int fCurrentThread;
+        private final int fMachineName;
+
+        public CpuQuarks(ITmfStateSystemBuilder ss, int cpu) {
+            fCpuNode = ss.getQuarkRelativeAndAdd(getNodeCPUs(ss), String.valueOf(cpu));
+            fCondition = ss.getQuarkRelativeAndAdd(fCpuNode, FusedAttributes.CONDITION);
+            fCurrentThread = ss.getQuarkRelativeAndAdd(fCpuNode, FusedAttributes.CURRENT_THREAD);
+            fMachineName = ss.getQuarkRelativeAndAdd(fCpuNode, FusedAttributes.MACHINE_NAME);
+        }
+
+        /* The virtual cpu attribute is only added for cpus running a vm */
+        public int getVirtualCpu(ITmfStateSystemBuilder ss) {
+            if (fVirtualCpu == ITmfStateSystem.INVALID_ATTRIBUTE) {
+                fVirtualCpu = ss.getQuarkRelativeAndAdd(fCpuNode, FusedAttributes.VIRTUAL_CPU);
+            }
+            return fVirtualCpu;
+        }
+    }
+
+    /**
+     * Quarks of the machine of a trace, and the CPUs and threads of that
+     * machine that were already added to the state system
+     */
+    private static final class TraceQuarks {
+        private final String fHostId;
+        private final int fMachineQuark;
+        private final int fThreadsQuark;
+        private final BitSet fKnownCpus = new BitSet();
+        private final BitSet fKnownPCpus = new BitSet();
+        private final Map<Integer, Integer> fThreadQuarks = new HashMap<>();
+
+        public TraceQuarks(ITmfStateSystemBuilder ss, String hostId) {
+            fHostId = hostId;
+            fMachineQuark = ss.getQuarkRelativeAndAdd(FusedVMEventHandlerUtils.getMachinesNode(ss), hostId);
+            fThreadsQuark = getNodeThreads(ss, hostId);
+        }
+
+        /* Remember that this machine has this cpu */
+        public void addCpu(ITmfStateSystemBuilder ss, int cpu) {
+            if (!fKnownCpus.get(cpu)) {
+                ss.getQuarkRelativeAndAdd(fMachineQuark, FusedAttributes.CPUS, String.valueOf(cpu));
+                fKnownCpus.set(cpu);
+            }
+        }
+
+        /* Remember that this machine is using this physical cpu */
+        public void addPCpu(ITmfStateSystemBuilder ss, int cpu) {
+            if (!fKnownPCpus.get(cpu)) {
+                ss.getQuarkRelativeAndAdd(FusedVMEventHandlerUtils.getMachinepCPUsNode(ss, fHostId), String.valueOf(cpu));
+                fKnownPCpus.set(cpu);
+            }
+        }
+
+        public int getThreadQuark(ITmfStateSystemBuilder ss, int thread) {
+            Integer quark = fThreadQuarks.get(thread);
+            if (quark == null) {
+                quark = ss.getQuarkRelativeAndAdd(fThreadsQuark, String.valueOf(thread));
+                fThreadQuarks.put(thread, quark);
+            }
+            return quark;
+        }
+    }
+
+    private CpuQuarks getCpuQuarks(ITmfStateSystemBuilder ss, int cpu) {
+        if (cpu >= fCpuQuarks.length) {
+            fCpuQuarks = Arrays.copyOf(fCpuQuarks, Math.max(cpu + 1, fCpuQuarks.length * 2));
+        }
+        CpuQuarks quarks = fCpuQuarks[cpu];
+        if (quarks == null) {
+            quarks = new CpuQuarks(ss, cpu);
+            fCpuQuarks[cpu] = quarks;
+        }
+        return quarks;
+    }
+
+    private TraceQuarks getTraceQuarks(ITmfStateSystemBuilder ss, ITmfTrace trace) {
+        TraceQuarks quarks = fTraceQuarks.get(trace);
+        if (quarks == null) {
+            quarks = new TraceQuarks(ss, trace.getHostId());
+            fTraceQuarks.put(trace, quarks);
+        }
+        return quarks;
+    }
 
     // ------------------------------------------------------------------------
     // Layout handling class and methods
@@ -130,6 +235,7 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
         fEventNames = ImmutableMap.copyOf(builder);
         fKvmModel = QemuKvmVmModel.get(experiment);
         fContainerModel = new LxcModel();
+        fPrePass = new FusedVMPrePass(fLayouts.keySet(), this::getHandler);
     }
 
     // ------------------------------------------------------------------------
@@ -182,13 +288,27 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
         return new FusedVirtualMachineStateProvider(getTrace());
     }
 
+    @Override
+    public void dispose() {
+        super.dispose();
+        fPrePass.stop();
+    }
+
     @Override
     protected void eventHandle(@Nullable ITmfEvent event) {
         if (event == null) {
             return;
         }
 
-        Integer cpu = TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
+        /*
+         * The pre-pass starts with the first event, as the provider may be
+         * instantiated without being used
+         */
+        fPrePass.start();
+        boolean prePassed = fPrePass.next(event);
+        Integer cpu = prePassed ? fPrePass.getCpu() : TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
+        fCurrentEvent = event;
+        fCurrentCpu = cpu;
         if (cpu == null) {
             /* We couldn't find any CPU information, ignore this event */
             return;
@@ -202,7 +322,6 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
             host = getCurrentMachine(event);
         }
 
-        String traceHost = event.getTrace().getHostId();
         LayoutHandler layoutHandler = fLayouts.get(event.getTrace());
         if (layoutHandler == null) {
             return;
@@ -244,7 +363,6 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
             }
         }
 
-        final String eventName = event.getName();
         final long ts = event.getTimestamp().getValue();
 
         final ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
@@ -253,80 +371,87 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
          * Do this block only all machines have their roles
          */
         if (allRolesFound()) {
-            /* Shortcut for the "current CPU" attribute node */
-            int currentCPUNode = ss.getQuarkRelativeAndAdd(getNodeCPUs(ss), String.valueOf(cpu));
+            /* Shortcut for the "current CPU" attribute nodes */
+            CpuQuarks cpuQuarks = getCpuQuarks(ss, cpu);
+            TraceQuarks traceQuarks = getTraceQuarks(ss, event.getTrace());
 
             /*
              * Add in the state system the state of the cpu (in or out vm).
              */
-            int quarkCondition = ss.getQuarkRelativeAndAdd(currentCPUNode, FusedAttributes.CONDITION);
             Integer valueCondition = StateValues.CONDITION_UNKNOWN;
-            int quarkMachines = FusedVMEventHandlerUtils.getMachinesNode(ss);
-            int machineHostQuark = ss.getQuarkRelativeAndAdd(quarkMachines, traceHost);
             // if (inVM) {
             if (host != null && host.isGuest()) {
                 valueCondition = StateValues.CONDITION_IN_VM;
-                int quarkVCpu = ss.getQuarkRelativeAndAdd(currentCPUNode, FusedAttributes.VIRTUAL_CPU);
-                ss.modifyAttribute(ts, currentVCpu, quarkVCpu);
+                ss.modifyAttribute(ts, currentVCpu, cpuQuarks.getVirtualCpu(ss));
 
                 /*
                  * This part is used to remember how many cpus a machine has
                  */
-                // if (host != null && host.isGuest()) {
-                ss.getQuarkRelativeAndAdd(machineHostQuark, FusedAttributes.CPUS, currentVCpu.toString());
-                // }
+                traceQuarks.addCpu(ss, currentVCpu);
                 /* Remember that this VM is using this pcpu. */
-                int quarkPCPUs = FusedVMEventHandlerUtils.getMachinepCPUsNode(ss, traceHost);
-                ss.getQuarkRelativeAndAdd(quarkPCPUs, cpu.toString());
+                traceQuarks.addPCpu(ss, cpu);
             } else {
                 /*
                  * We still need to check here if we are a guest because the
                  * guest's trace can be longer than the host's and we might be
                  * in a vm even if inVM == false //
                  */
-                // if (host != null && host.isGuest()) {
-                // ss.getQuarkRelativeAndAdd(machineNameQuark, Attributes.CPUS,
-                // currentVCpu.toString());
-                // } else {
-                ss.getQuarkRelativeAndAdd(quarkMachines, traceHost, FusedAttributes.CPUS, cpu.toString());
-                // }
+                traceQuarks.addCpu(ss, cpu);
                 valueCondition = StateValues.CONDITION_OUT_VM;
             }
             /*
-             * Add the role of the machine in the state system
+             * Add the role of the machine in the state system, only needed
+             * when new machines are known
              */
-            setMachinesRoles(ss);
-            setMachinesParents(ss);
+            int nbMachines = getKnownMachines().size();
+            if (nbMachines != fNbMachinesWithRoles) {
+                setMachinesRoles(ss);
+                setMachinesParents(ss);
+                fNbMachinesWithRoles = nbMachines;
+            }
 
             /*
              * Set the condition value in the state system (in or out vm)
              */
             if (host != null && host.isHost() && !host.isGuest()) {
-                ss.modifyAttribute(ts, valueCondition, quarkCondition);
+                ss.modifyAttribute(ts, valueCondition, cpuQuarks.fCondition);
             }
 
             /*
              * Shortcut for the "current thread" attribute node. It requires
              * querying the current CPU's current thread.
              */
-            int quark = ss.getQuarkRelativeAndAdd(currentCPUNode, FusedAttributes.CURRENT_THREAD);
-
-            Object value = ss.queryOngoing(quark);
+            Object value = ss.queryOngoing(cpuQuarks.fCurrentThread);
             int thread = value instanceof Integer ? (int) value : -1;
 
-            fCurrentThreadNode = ss.getQuarkRelativeAndAdd(getNodeThreads(ss, traceHost), String.valueOf(thread));
+            fCurrentThreadNode = traceQuarks.getThreadQuark(ss, thread);
 
             /* Set the name of the machine running on the cpu */
-            quark = ss.getQuarkRelativeAndAdd(currentCPUNode, FusedAttributes.MACHINE_NAME);
-            value = event.getTrace().getHostId();
             if (host != null && host.isHost() && !host.isGuest()) {
-                ss.modifyAttribute(ts, value, quark);
+                ss.modifyAttribute(ts, traceQuarks.fHostId, cpuQuarks.fMachineName);
             }
         }
         /*
          * Feed event to the history system if it's known to cause a state
          * transition.
          */
+        VMKernelEventHandler handler = prePassed ? fPrePass.getHandler() : getHandler(event);
+        if (handler != null) {
+            handler.handleEvent(ss, event);
+        }
+
+    }
+
+    /*
+     * Get the handler of an event. This is called from the threads of the
+     * pre-pass, it only reads immutable fields.
+     */
+    private @Nullable VMKernelEventHandler getHandler(ITmfEvent event) {
+        LayoutHandler layoutHandler = fLayouts.get(event.getTrace());
+        if (layoutHandler == null) {
+            return null;
+        }
+        String eventName = event.getName();
         VMKernelEventHandler handler = fEventNames.get(eventName);
         // TODO: maybe put the other handlers also in fEventNames
         if (handler == null) {
@@ -345,10 +470,23 @@ public class FusedVirtualMachineStateProvider extends AbstractTmfStateProvider {
                 handler = layoutHandler.fKvmNestedVmExitInjectHandler;
             }
         }
-        if (handler != null) {
-            handler.handleEvent(ss, event);
-        }
+        return handler;
+    }
 
+    /**
+     * Get the CPU of an event, as it is in the event's trace. The CPU of the
+     * event being handled was already resolved.
+     *
+     * @param event
+     *            The event
+     * @return The CPU, or <code>null</code> if the event has none
+     */
+    @Nullable
+    Integer getCpu(ITmfEvent event) {
+        if (event == fCurrentEvent) {
+            return fCurrentCpu;
+        }
+        return TmfTraceUtils.resolveIntEventAspectOfClassForEvent(event.getTrace(), TmfCpuAspect.class, event);
     }
 
     // ------------------------------------------------------------------------
@@ -19,8 +19,7 @@ import java.util.Map;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.virtual.resources.StateValues;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.collect.ImmutableMap;
 
 /**
  * This class represents a virtual CPU, which is a CPU running on a guest. It
@@ -32,8 +31,6 @@ import com.google.common.collect.Table;
  */
 public final class VirtualCPU {
 
-    private static final Table<VirtualMachine, Long, @Nullable VirtualCPU> VIRTUAL_CPU_TABLE = HashBasedTable.create();
-
     private final VirtualMachine fVm;
     private final Long fCpuId;
     /* Current state of the cpu. */
@@ -44,7 +41,9 @@ public final class VirtualCPU {
     private @Nullable VirtualCPU fNextLayerVCPU;
 
     /**
-     * Return the virtual CPU for to the virtual machine and requested CPU ID
+     * Return the virtual CPU for to the virtual machine and requested CPU ID.
+     * The virtual CPUs are kept by their virtual machine, so they are released
+     * with it.
      *
      * @param vm
      *            The virtual machine
@@ -52,13 +51,16 @@ public final class VirtualCPU {
      *            the CPU number
      * @return the virtual CPU
      */
-    public static synchronized VirtualCPU getVirtualCPU(VirtualMachine vm, Long cpu) {
-        VirtualCPU ht = VIRTUAL_CPU_TABLE.get(vm, cpu);
-        if (ht == null) {
-            ht = new VirtualCPU(vm, cpu);
-            VIRTUAL_CPU_TABLE.put(vm, cpu, ht);
+    public static VirtualCPU getVirtualCPU(VirtualMachine vm, Long cpu) {
+        Map<Long, VirtualCPU> cpus = vm.getVirtualCpuMap();
+        synchronized (cpus) {
+            VirtualCPU ht = cpus.get(cpu);
+            if (ht == null) {
+                ht = new VirtualCPU(vm, cpu);
+                cpus.put(cpu, ht);
+            }
+            return ht;
         }
-        return ht;
     }
 
     /**
@@ -66,10 +68,13 @@ public final class VirtualCPU {
      *
      * @param machine
      *            The Virtual Machine to get the CPUs for
-     * @return The map of virtual CPUs for this machine
+     * @return A copy of the map of virtual CPUs for this machine
      */
-    public static synchronized @Nullable Map<Long, @Nullable VirtualCPU> getVirtualCPUs(VirtualMachine machine) {
-        return VIRTUAL_CPU_TABLE.row(machine);
+    public static Map<Long, VirtualCPU> getVirtualCPUs(VirtualMachine machine) {
+        Map<Long, VirtualCPU> cpus = machine.getVirtualCpuMap();
+        synchronized (cpus) {
+            return ImmutableMap.copyOf(cpus);
+        }
     }
 
     private VirtualCPU(VirtualMachine vm, Long cpu) {
@@ -14,7 +14,9 @@
 
 package org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.model.HostThread;
@@ -42,6 +44,8 @@ public final class VirtualMachine {
     private HashSet<VirtualMachine> fChildren = new HashSet<>();
     private HashSet<HostThread> fThreadsWaitingForNextLayer = new HashSet<>();
     private HashSet<HostThread> fThreadsReadyForNextLayer = new HashSet<>();
+    /* The virtual CPUs of this machine, they live as long as the machine */
+    private final Map<Long, VirtualCPU> fVirtualCpus = new HashMap<>();
 
     /**
      * Create an unknown machine for a host
@@ -112,6 +116,16 @@ public final class VirtualMachine {
         fParent = null;
     }
 
+    /**
+     * Get the virtual CPUs of this machine, by CPU ID. Accesses to this map
+     * must be synchronized on the map.
+     *
+     * @return The map of virtual CPUs
+     */
+    Map<Long, VirtualCPU> getVirtualCpuMap() {
+        return fVirtualCpus;
+    }
+
     /**
      * Return true if this machine is a guest
      *
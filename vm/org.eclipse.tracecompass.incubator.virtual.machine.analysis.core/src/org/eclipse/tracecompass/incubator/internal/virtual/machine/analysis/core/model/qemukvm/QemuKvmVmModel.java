@@ -37,11 +37,15 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.aspect.TmfCpuAspect;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceClosedSignal;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
 import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperimentUtils;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Table;
@@ -65,6 +69,8 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
 
     /* Associate a host's thread to a virtual CPU */
     private final Map<HostThread, VirtualCPU> fTidToVcpu = new HashMap<>();
+    /* Reverse of fTidToVcpu, the thread currently running a virtual CPU */
+    private final Map<VirtualCPU, HostThread> fVcpuToTid = new HashMap<>();
     /* Associate a host's thread to a virtual machine */
     private final Map<HostThread, VirtualMachine> fTidToVm = new HashMap<>();
     /* Maps a virtual machine name to a virtual machine */
@@ -83,7 +89,8 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
             QemuKvmStrings.VMSYNC_HG_HOST);
 
     /**
-     * Get the VM model for this experiment
+     * Get the VM model for this experiment. The model is kept until the
+     * experiment is closed.
      *
      * @param exp
      *            The experiment
@@ -111,6 +118,29 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
             ITmfTrace trace = exp.getTraces().get(0);
             addKnownMachine(VirtualMachine.newHostMachine(trace.getHostId(), String.valueOf(trace.getName())));
         }
+        TmfSignalManager.register(this);
+    }
+
+    /**
+     * Release the model of an experiment when it is closed
+     *
+     * @param signal
+     *            The trace closed signal
+     */
+    @TmfSignalHandler
+    public void traceClosed(final TmfTraceClosedSignal signal) {
+        if (signal.getTrace() != fExperiment) {
+            return;
+        }
+        synchronized (QemuKvmVmModel.class) {
+            MODELS.remove(fExperiment);
+        }
+        TmfSignalManager.deregister(this);
+        fTidToVcpu.clear();
+        fVcpuToTid.clear();
+        fTidToVm.clear();
+        fKnownMachines.clear();
+        fVirtualToPhysicalCpu.clear();
     }
 
     @Override
@@ -223,11 +253,32 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
         long vcpu_id = (Long) content.getField(QemuKvmStrings.VCPU_ID).getValue();
 
         VirtualCPU virtualCPU = VirtualCPU.getVirtualCPU(vm, vcpu_id);
-        fTidToVcpu.put(ht, virtualCPU);
+        setVirtualCpuTid(virtualCPU, ht);
 
         return virtualCPU;
     }
 
+    /**
+     * Associate a virtual CPU with the host thread that runs it. A virtual CPU
+     * is run by a single thread, so the previous associations of both the
+     * thread and the virtual CPU are removed.
+     *
+     * @param vcpu
+     *            The virtual CPU
+     * @param ht
+     *            The host thread running the virtual CPU
+     */
+    public void setVirtualCpuTid(VirtualCPU vcpu, HostThread ht) {
+        VirtualCPU previousVcpu = fTidToVcpu.put(ht, vcpu);
+        if (previousVcpu != null && !previousVcpu.equals(vcpu)) {
+            fVcpuToTid.remove(previousVcpu, ht);
+        }
+        HostThread previousHt = fVcpuToTid.put(vcpu, ht);
+        if (previousHt != null && !previousHt.equals(ht)) {
+            fTidToVcpu.remove(previousHt, vcpu);
+        }
+    }
+
     @Override
     public @Nullable VirtualCPU getVCpuEnteringHypervisorMode(ITmfEvent event, HostThread ht, IKernelAnalysisEventLayout layout) {
         final String eventName = event.getName();
@@ -242,6 +293,18 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
         return getVirtualCpu(ht);
     }
 
+    /**
+     * Get the number of host threads associated with a virtual CPU. A virtual
+     * CPU is associated with a single thread, so this is bounded by the number
+     * of virtual CPUs.
+     *
+     * @return The number of host threads running a virtual CPU
+     */
+    @VisibleForTesting
+    public int getNbVirtualCpuThreads() {
+        return fTidToVcpu.size();
+    }
+
     @Override
     public @Nullable VirtualCPU getVirtualCpu(HostThread ht) {
         return fTidToVcpu.get(ht);
@@ -249,12 +312,7 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
 
     @Override
     public @Nullable HostThread getVirtualCpuTid(VirtualCPU vcpu) {
-        for (Entry<HostThread, VirtualCPU> entry : fTidToVcpu.entrySet()) {
-            if (entry.getValue().equals(vcpu)) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        return fVcpuToTid.get(vcpu);
     }
 
     @Override
@@ -396,6 +454,11 @@ public class QemuKvmVmModel implements IVirtualMachineModel {
      * @return the host thread
      */
     public @Nullable HostThread getHostThreadFromVCpu(VirtualCPU virtualCPU) {
+        HostThread ht = fVcpuToTid.get(virtualCPU);
+        if (ht != null) {
+            return ht;
+        }
+        /* The virtual CPU may belong to another instance of the same machine */
         for (Entry<HostThread, VirtualCPU> entry : fTidToVcpu.entrySet()) {
             VirtualCPU vcpu = Objects.requireNonNull(entry.getValue());
             if (vcpu.getVm().getHostId().equals(virtualCPU.getVm().getHostId()) && vcpu.getCpuId() == virtualCPU.getCpuId()) {
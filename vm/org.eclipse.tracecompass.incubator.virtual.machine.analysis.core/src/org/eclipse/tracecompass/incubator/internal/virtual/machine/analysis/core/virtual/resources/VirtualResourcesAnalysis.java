@@ -23,6 +23,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelAnalysisModule;
 import org.eclipse.tracecompass.analysis.os.linux.core.kernel.KernelThreadInformationProvider;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.SharedExperimentReader;
 import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.data.VcpuStateValues;
 import org.eclipse.tracecompass.incubator.internal.virtual.machine.analysis.core.model.analysis.VirtualMachineModelAnalysis;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
@@ -35,6 +37,7 @@ import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue.Type;
 import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
 import org.eclipse.tracecompass.tmf.core.statesystem.ITmfStateProvider;
 import org.eclipse.tracecompass.tmf.core.statesystem.TmfStateSystemAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -91,6 +94,24 @@ public class VirtualResourcesAnalysis extends TmfStateSystemAnalysisModule {
         return new VirtualResourcesStateProvider((TmfExperiment) trace, model.getVirtualEnvironmentModel());
     }
 
+    @Override
+    protected boolean executeAnalysis(IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = getTrace();
+        if (trace instanceof TmfExperiment) {
+            /*
+             * Build the state systems of the other virtual machine analyses in
+             * the same pass as this one, they will open the resulting files
+             */
+            if (!SharedExperimentReader.buildVmStateSystems((TmfExperiment) trace, monitor)) {
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+                Activator.getInstance().logWarning("The virtual machine state systems could not be built in a single pass, each analysis will build its own"); //$NON-NLS-1$
+            }
+        }
+        return super.executeAnalysis(monitor);
+    }
+
     @Override
     protected @NonNull StateSystemBackendType getBackendType() {
         return StateSystemBackendType.FULL;